@@ -1,6 +1,7 @@
 package org.neo4j.graphalgo;
 
 import org.neo4j.graphalgo.api.Graph;
+import org.neo4j.graphalgo.core.GraphCatalog;
 import org.neo4j.graphalgo.core.GraphLoader;
 import org.neo4j.graphalgo.core.heavyweight.HeavyGraphFactory;
 import org.neo4j.graphalgo.core.utils.ProgressTimer;
@@ -30,16 +31,13 @@ public class BetweennessCentralityProc {
     public Log log;
 
     @Procedure(value = "algo.betweennessStream")
-    @Description("CALL algo.betweennessStream(label:String, relationship:String) YIELD nodeId, centrality - yields centrality for each node")
+    @Description("CALL algo.betweennessStream(label:String, relationship:String, {graph:'name', maxHeapFraction:0.5}) YIELD nodeId, centrality - yields centrality for each node")
     public Stream<BetweennessCentrality.Result> betweennessStream(
             @Name(value = "label", defaultValue = "") String label,
-            @Name(value = "relationship", defaultValue = "") String relationship) {
+            @Name(value = "relationship", defaultValue = "") String relationship,
+            @Name(value = "config", defaultValue = "{}") Map<String, Object> config) {
 
-        final Graph graph = new GraphLoader(api)
-                .withOptionalLabel(label)
-                .withOptionalRelationshipType(relationship)
-                .withoutNodeProperties()
-                .load(HeavyGraphFactory.class);
+        final Graph graph = load(label, relationship, config);
 
         return new BetweennessCentrality(graph)
                 .compute()
@@ -47,7 +45,7 @@ public class BetweennessCentralityProc {
     }
 
     @Procedure(value = "algo.betweenness", mode = Mode.WRITE)
-    @Description("CALL algo.betweenness(label:String, relationship:String, {write:true, writeProperty:'centrality', stats:true}) YIELD " +
+    @Description("CALL algo.betweenness(label:String, relationship:String, {write:true, writeProperty:'centrality', stats:true, graph:'name', maxHeapFraction:0.5}) YIELD " +
             "loadDuration, evalDuration, writeDuration, nodeCount, [minCentrality, maxCentrality, meanCentrality] - yields status of evaluation")
     public Stream<BetweennessCentralityProcResult> betweenness(
             @Name(value = "label", defaultValue = "") String label,
@@ -59,11 +57,7 @@ public class BetweennessCentralityProc {
                 BetweennessCentralityProcResult.builder();
 
         ProgressTimer timer = ProgressTimer.start(builder::withLoadDuration);
-        final Graph graph = new GraphLoader(api)
-                .withOptionalLabel(label)
-                .withOptionalRelationshipType(relationship)
-                .withoutNodeProperties()
-                .load(HeavyGraphFactory.class);
+        final Graph graph = load(label, relationship, config);
         timer.stop();
 
         builder.withNodeCount(graph.nodeCount());
@@ -107,4 +101,17 @@ public class BetweennessCentralityProc {
                 .withCentralityMin(min)
                 .withCentralitySum(sum);
     }
+
+    private Graph load(String label, String relationship, Map<String, Object> config) {
+        final GraphCatalog.Entry loaded = GraphCatalogProc.loaded(api, config);
+        if (loaded != null) {
+            return loaded.graph();
+        }
+        return new GraphLoader(api)
+                .withOptionalLabel(label)
+                .withOptionalRelationshipType(relationship)
+                .withoutNodeProperties()
+                .withOptionalMaxHeapFraction((Number) config.get(GraphCatalogProc.CONFIG_MAX_HEAP_FRACTION))
+                .load(HeavyGraphFactory.class);
+    }
 }
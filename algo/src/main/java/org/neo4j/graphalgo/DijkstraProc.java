@@ -2,6 +2,7 @@ package org.neo4j.graphalgo;
 
 import algo.Pools;
 import org.neo4j.graphalgo.api.Graph;
+import org.neo4j.graphalgo.core.GraphCatalog;
 import org.neo4j.graphalgo.core.GraphLoader;
 import org.neo4j.graphalgo.core.heavyweight.HeavyGraphFactory;
 import org.neo4j.graphalgo.core.utils.ProgressTimer;
@@ -35,7 +36,7 @@ public class DijkstraProc {
 
     @Procedure("algo.dijkstraStream")
     @Description("CALL algo.dijkstraStream(startNodeId:long, endNodeId:long, propertyName:String" +
-            "{label:'labelName', relationship:'relationshipName', defaultValue:1.0}) " +
+            "{label:'labelName', relationship:'relationshipName', defaultValue:1.0, graph:'name', maxHeapFraction:0.5}) " +
             "YIELD nodeId, cost - yields a stream of {nodeId, cost} from start to end (inclusive)")
     public Stream<ShortestPathDijkstra.Result> dijkstraStream(
             @Name("startNode") Node startNode,
@@ -44,14 +45,7 @@ public class DijkstraProc {
             @Name(value = "config", defaultValue = "{}")
                     Map<String, Object> config) {
 
-        final Graph graph = new GraphLoader(api)
-                .withOptionalLabel((String) config.get(CONFIG_LABEL))
-                .withOptionalRelationshipType((String) config.get(CONFIG_RELATIONSHIP))
-                .withOptionalRelationshipWeightsFromProperty(
-                        propertyName,
-                        (double) config.getOrDefault(CONFIG_DEFAULT_VALUE, 1.0))
-                .withExecutorService(Pools.DEFAULT)
-                .load(HeavyGraphFactory.class);
+        final Graph graph = load(propertyName, config);
 
         return new ShortestPathDijkstra(graph)
                 .compute(startNode.getId(), endNode.getId())
@@ -61,7 +55,7 @@ public class DijkstraProc {
 
     @Procedure("algo.dijkstra")
     @Description("CALL algo.dijkstra(startNodeId:long, endNodeId:long, propertyName:String" +
-            "{label:'labelName', relationship:'relationshipName', defaultValue:1.0}) " +
+            "{label:'labelName', relationship:'relationshipName', defaultValue:1.0, graph:'name', maxHeapFraction:0.5}) " +
             "YIELD nodeId, cost, loadDuration, evalDuration - yields nodeCount, totalCost, loadDuration, evalDuration")
     public Stream<DijkstraResult> dijkstra(
             @Name("startNode") Node startNode,
@@ -73,14 +67,7 @@ public class DijkstraProc {
         DijkstraResult.Builder builder = DijkstraResult.builder();
 
         ProgressTimer load = builder.load();
-        final Graph graph = new GraphLoader(api)
-                .withOptionalLabel((String) config.get(CONFIG_LABEL))
-                .withOptionalRelationshipType((String) config.get(CONFIG_RELATIONSHIP))
-                .withOptionalRelationshipWeightsFromProperty(
-                        propertyName,
-                        (double) config.getOrDefault(CONFIG_DEFAULT_VALUE, 1.0))
-                .withExecutorService(Pools.DEFAULT)
-                .load(HeavyGraphFactory.class);
+        final Graph graph = load(propertyName, config);
         load.stop();
 
         ProgressTimer eval = builder.eval();
@@ -94,4 +81,21 @@ public class DijkstraProc {
         return Stream.of(builder.build());
     }
 
+    private Graph load(String propertyName, Map<String, Object> config) {
+        final GraphCatalog.Entry loaded = GraphCatalogProc.loaded(api, config);
+        if (loaded != null) {
+            GraphCatalogProc.requireRelationshipWeights(loaded, propertyName);
+            return loaded.graph();
+        }
+        return new GraphLoader(api)
+                .withOptionalLabel((String) config.get(CONFIG_LABEL))
+                .withOptionalRelationshipType((String) config.get(CONFIG_RELATIONSHIP))
+                .withOptionalRelationshipWeightsFromProperty(
+                        propertyName,
+                        (double) config.getOrDefault(CONFIG_DEFAULT_VALUE, 1.0))
+                .withOptionalMaxHeapFraction((Number) config.get(GraphCatalogProc.CONFIG_MAX_HEAP_FRACTION))
+                .withExecutorService(Pools.DEFAULT)
+                .load(HeavyGraphFactory.class);
+    }
+
 }
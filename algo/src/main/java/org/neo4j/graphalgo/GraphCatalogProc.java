@@ -0,0 +1,285 @@
+package org.neo4j.graphalgo;
+
+import algo.Pools;
+import org.neo4j.graphalgo.api.GraphFactory;
+import org.neo4j.graphalgo.core.GraphCatalog;
+import org.neo4j.graphalgo.core.GraphLoader;
+import org.neo4j.graphalgo.core.heavyweight.HeavyGraphFactory;
+import org.neo4j.graphalgo.core.leightweight.LightGraphFactory;
+import org.neo4j.graphalgo.results.LoadGraphResult;
+import org.neo4j.graphalgo.results.RemoveGraphResult;
+import org.neo4j.graphalgo.results.SaveGraphResult;
+import org.neo4j.kernel.configuration.Config;
+import org.neo4j.kernel.internal.GraphDatabaseAPI;
+import org.neo4j.logging.Log;
+import org.neo4j.procedure.Context;
+import org.neo4j.procedure.Description;
+import org.neo4j.procedure.Name;
+import org.neo4j.procedure.Procedure;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+/**
+ * Procedures to keep loaded graphs in the {@link GraphCatalog}.
+ * Algorithm procedures use a stored graph if their config contains
+ * {@code graph:'name'}. Snapshot files are resolved against the directory
+ * configured by {@value #SETTING_SNAPSHOT_DIRECTORY}, {@code graph-snapshots}
+ * in the store directory by default.
+ */
+public class GraphCatalogProc {
+
+    public static final String CONFIG_GRAPH = "graph";
+    public static final String CONFIG_PROPERTY = "property";
+    public static final String CONFIG_DEFAULT_VALUE = "defaultValue";
+    public static final String CONFIG_NODE_WEIGHT = "nodeWeight";
+    public static final String CONFIG_NODE_PROPERTY = "nodeProperty";
+    public static final String CONFIG_IMPLEMENTATION = "implementation";
+    public static final String CONFIG_MAX_MEMORY = "maxMemory";
+    public static final String CONFIG_INCREMENTAL = "incremental";
+    public static final String CONFIG_VERIFY = "verify";
+    public static final String CONFIG_MAX_HEAP_FRACTION = "maxHeapFraction";
+
+    public static final String SETTING_SNAPSHOT_DIRECTORY = "algo.graph.snapshot_directory";
+
+    public static final String IMPLEMENTATION_HEAVY = "heavy";
+    public static final String IMPLEMENTATION_LIGHT = "light";
+
+    @Context
+    public GraphDatabaseAPI api;
+
+    @Context
+    public Log log;
+
+    @Procedure("algo.graph.load")
+    @Description("CALL algo.graph.load(name:String, label:String, relationship:String, " +
+            "{property:'weight', defaultValue:1.0, nodeWeight:'weight', nodeProperty:'value', " +
+            "implementation:'heavy', maxMemory:1073741824, incremental:false, maxHeapFraction:0.5}) " +
+            "YIELD name, nodes, relationships, bytes, loadDuration, evicted - " +
+            "loads a graph and stores it under the given name, " +
+            "an incremental graph is kept up to date with committed transactions")
+    public Stream<LoadGraphResult> load(
+            @Name("name") String name,
+            @Name(value = "label", defaultValue = "") String label,
+            @Name(value = "relationship", defaultValue = "") String relationship,
+            @Name(value = "config", defaultValue = "{}") Map<String, Object> config) {
+
+        final GraphCatalog catalog = GraphCatalog.of(api);
+        final Object maxMemory = config.get(CONFIG_MAX_MEMORY);
+        if (maxMemory != null) {
+            catalog.setMaxBytes(((Number) maxMemory).longValue());
+        }
+
+        final GraphCatalog.Entry entry = catalog.load(
+                name,
+                newLoader(api, label, relationship, config),
+                factoryType(config),
+                Boolean.TRUE.equals(config.get(CONFIG_INCREMENTAL)));
+        if (!entry.evicted().isEmpty()) {
+            log.info("Evicted graphs " + entry.evicted() + " to load graph '" + name + "'");
+        }
+
+        return Stream.of(new LoadGraphResult(
+                name,
+                (long) entry.graph().nodeCount(),
+                entry.relationships,
+                entry.bytes,
+                TimeUnit.NANOSECONDS.toMillis(entry.loadNanos),
+                entry.evicted()));
+    }
+
+    @Procedure("algo.graph.save")
+    @Description("CALL algo.graph.save(name:String, file:String) " +
+            "YIELD name, file, bytes, writeDuration - " +
+            "writes the graph stored under the given name to a file of the snapshot directory")
+    public Stream<SaveGraphResult> save(
+            @Name("name") String name,
+            @Name("file") String file) {
+        final long start = System.nanoTime();
+        final Path path = snapshotFile(api, file);
+        try {
+            Files.createDirectories(path.getParent());
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        final long bytes = GraphCatalog.of(api).save(name, path);
+        return Stream.of(new SaveGraphResult(
+                name,
+                file,
+                bytes,
+                TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start)));
+    }
+
+    @Procedure("algo.graph.attach")
+    @Description("CALL algo.graph.attach(name:String, file:String, {verify:true}) " +
+            "YIELD name, nodes, relationships, bytes, loadDuration, evicted - " +
+            "maps a file of the snapshot directory and stores its graph under the given name")
+    public Stream<LoadGraphResult> attach(
+            @Name("name") String name,
+            @Name("file") String file,
+            @Name(value = "config", defaultValue = "{}") Map<String, Object> config) {
+        final GraphCatalog.Entry entry = GraphCatalog.of(api).attach(
+                name,
+                snapshotFile(api, file),
+                !Boolean.FALSE.equals(config.get(CONFIG_VERIFY)));
+        if (!entry.evicted().isEmpty()) {
+            log.info("Evicted graphs " + entry.evicted() + " to attach graph '" + name + "'");
+        }
+        return Stream.of(new LoadGraphResult(
+                name,
+                (long) entry.graph().nodeCount(),
+                entry.relationships,
+                entry.bytes,
+                TimeUnit.NANOSECONDS.toMillis(entry.loadNanos),
+                entry.evicted()));
+    }
+
+    @Procedure("algo.graph.remove")
+    @Description("CALL algo.graph.remove(name:String) YIELD name, removed - " +
+            "removes the graph stored under the given name")
+    public Stream<RemoveGraphResult> remove(@Name("name") String name) {
+        return Stream.of(new RemoveGraphResult(
+                name,
+                GraphCatalog.of(api).remove(name)));
+    }
+
+    /**
+     * Return the catalog entry referenced by {@code graph:'name'} in the config.
+     *
+     * @return the entry or null if the config does not reference a graph
+     * @throws IllegalArgumentException if the referenced graph is not loaded
+     */
+    static GraphCatalog.Entry loaded(GraphDatabaseAPI api, Map<String, Object> config) {
+        final Object name = config.get(CONFIG_GRAPH);
+        if (name == null) {
+            return null;
+        }
+        return GraphCatalog.of(api).getOrThrow(String.valueOf(name));
+    }
+
+    /**
+     * Resolve the file against the snapshot directory.
+     *
+     * @throws IllegalArgumentException if the file is outside of the snapshot directory
+     */
+    static Path snapshotFile(GraphDatabaseAPI api, String file) {
+        final String configured = api.getDependencyResolver()
+                .resolveDependency(Config.class)
+                .getParams()
+                .get(SETTING_SNAPSHOT_DIRECTORY);
+        final Path directory = realPath(configured != null
+                ? Paths.get(configured)
+                : Paths.get(api.getStoreDir()).resolve("graph-snapshots"));
+        final Path path = realPath(directory.resolve(file));
+        if (!path.startsWith(directory) || path.equals(directory)) {
+            throw new IllegalArgumentException(String.format(
+                    "Snapshot file '%s' is outside of the snapshot directory",
+                    file));
+        }
+        return path;
+    }
+
+    /**
+     * the absolute path with links of existing files resolved,
+     * so that a link can not point out of the snapshot directory
+     */
+    private static Path realPath(Path path) {
+        final Path absolute = path.toAbsolutePath().normalize();
+        try {
+            return Files.exists(absolute) ? absolute.toRealPath() : absolute;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Check that the graph has been loaded with the given relationship weight property.
+     *
+     * @throws IllegalArgumentException if the graph has been loaded with another weight property
+     */
+    static void requireRelationshipWeights(GraphCatalog.Entry entry, String property) {
+        require(entry, "relationship weights", entry.setup.relationWeightPropertyName, property);
+    }
+
+    /**
+     * Check that the graph has been loaded with the given node weight property.
+     *
+     * @throws IllegalArgumentException if the graph has been loaded with another weight property
+     */
+    static void requireNodeWeights(GraphCatalog.Entry entry, String property) {
+        require(entry, "node weights", entry.setup.nodeWeightPropertyName, property);
+    }
+
+    /**
+     * Check that the graph has been loaded with the given node property.
+     *
+     * @throws IllegalArgumentException if the graph has been loaded with another node property
+     */
+    static void requireNodeProperty(GraphCatalog.Entry entry, String property) {
+        require(entry, "node properties", entry.setup.nodePropertyName, property);
+    }
+
+    private static void require(GraphCatalog.Entry entry, String kind, String loaded, String property) {
+        if (property != null && !Objects.equals(loaded, property)) {
+            throw new IllegalArgumentException(String.format(
+                    "Graph '%s' has been loaded with %s from '%s' instead of '%s'",
+                    entry.name,
+                    kind,
+                    loaded,
+                    property));
+        }
+    }
+
+    /**
+     * Create a loader for the label, relationship, weights and heap limit of the config.
+     */
+    static GraphLoader newLoader(
+            GraphDatabaseAPI api,
+            String label,
+            String relationship,
+            Map<String, Object> config) {
+        final double defaultValue = ((Number) config.getOrDefault(CONFIG_DEFAULT_VALUE, 1.0)).doubleValue();
+        return new GraphLoader(api)
+                .withOptionalLabel(emptyToNull(label))
+                .withOptionalRelationshipType(emptyToNull(relationship))
+                .withOptionalRelationshipWeightsFromProperty(
+                        (String) config.get(CONFIG_PROPERTY),
+                        defaultValue)
+                .withOptionalNodeWeightsFromProperty(
+                        (String) config.get(CONFIG_NODE_WEIGHT),
+                        defaultValue)
+                .withOptionalNodeProperty(
+                        (String) config.get(CONFIG_NODE_PROPERTY),
+                        defaultValue)
+                .withOptionalMaxHeapFraction((Number) config.get(CONFIG_MAX_HEAP_FRACTION))
+                .withExecutorService(Pools.DEFAULT);
+    }
+
+    /**
+     * Return the factory of the implementation in the config, heavy by default.
+     */
+    static Class<? extends GraphFactory> factoryType(Map<String, Object> config) {
+        final String implementation = String.valueOf(config.getOrDefault(
+                CONFIG_IMPLEMENTATION,
+                IMPLEMENTATION_HEAVY));
+        switch (implementation.toLowerCase()) {
+            case IMPLEMENTATION_HEAVY:
+                return HeavyGraphFactory.class;
+            case IMPLEMENTATION_LIGHT:
+                return LightGraphFactory.class;
+            default:
+                throw new IllegalArgumentException("Unknown graph implementation: " + implementation);
+        }
+    }
+
+    private static String emptyToNull(String s) {
+        return "".equals(s) ? null : s;
+    }
+}
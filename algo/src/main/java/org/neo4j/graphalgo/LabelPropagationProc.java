@@ -2,6 +2,8 @@ package org.neo4j.graphalgo;
 
 import algo.Pools;
 import com.carrotsearch.hppc.IntDoubleMap;
+import org.neo4j.graphalgo.api.Graph;
+import org.neo4j.graphalgo.core.GraphCatalog;
 import org.neo4j.graphalgo.core.GraphLoader;
 import org.neo4j.graphalgo.core.heavyweight.HeavyGraph;
 import org.neo4j.graphalgo.core.heavyweight.HeavyGraphFactory;
@@ -40,9 +42,10 @@ public final class LabelPropagationProc {
     @Procedure(name = "algo.labelPropagation", mode = Mode.WRITE)
     @Description("CALL algo.labelPropagation(" +
             "label:String, relationship:String, direction:String, " +
-            "{iterations:1, weightProperty:'weight', partitionProperty:'partition', write:true}) " +
+            "{iterations:1, weightProperty:'weight', partitionProperty:'partition', write:true, graph:'name', maxHeapFraction:0.5}) " +
             "YIELD nodes, iterations, loadMillis, computeMillis, writeMillis, write, weightProperty, partitionProperty - " +
-            "simple label propagation kernel")
+            "simple label propagation kernel, a stored graph must have been loaded " +
+            "with the weight and partition properties given in the config")
     public Stream<LabelPropagationStats> labelPropagation(
             @Name(value = "label", defaultValue = "") String label,
             @Name(value = "relationship", defaultValue = "") String relationshipType,
@@ -74,6 +77,7 @@ public final class LabelPropagationProc {
         HeavyGraph graph = load(
                 label,
                 relationshipType,
+                config,
                 partitionProperty,
                 weightProperty,
                 stats);
@@ -90,16 +94,37 @@ public final class LabelPropagationProc {
     private HeavyGraph load(
             String label,
             String relationshipType,
+            Map<String, Object> config,
             String partitionKey,
             String weightKey,
             LabelPropagationStats.Builder stats) {
         long start = System.nanoTime();
+        GraphCatalog.Entry loaded = GraphCatalogProc.loaded(dbAPI, config);
+        if (loaded != null) {
+            final Graph graph = loaded.graph();
+            if (!(graph instanceof HeavyGraph)) {
+                throw new IllegalArgumentException("Label propagation requires a heavy graph, but graph '"
+                        + loaded.name + "' is a " + graph.getClass().getSimpleName());
+            }
+            // the defaults do not apply to a stored graph, only the given keys are checked
+            if (config.containsKey(CONFIG_WEIGHT_KEY)) {
+                GraphCatalogProc.requireRelationshipWeights(loaded, weightKey);
+                GraphCatalogProc.requireNodeWeights(loaded, weightKey);
+            }
+            if (config.containsKey(CONFIG_PARTITION_KEY)) {
+                GraphCatalogProc.requireNodeProperty(loaded, partitionKey);
+            }
+            stats.loadMillis(0L);
+            return (HeavyGraph) graph;
+        }
         HeavyGraph graph = (HeavyGraph) new GraphLoader(dbAPI)
                 .withOptionalLabel(label)
                 .withOptionalRelationshipType(relationshipType)
+                .withoutRelationshipIds()
                 .withOptionalRelationshipWeightsFromProperty(weightKey, 1.0d)
                 .withOptionalNodeWeightsFromProperty(weightKey, 1.0d)
                 .withOptionalNodeProperty(partitionKey, 0.0d)
+                .withOptionalMaxHeapFraction((Number) config.get(GraphCatalogProc.CONFIG_MAX_HEAP_FRACTION))
                 .withExecutorService(Pools.DEFAULT)
                 .load(HeavyGraphFactory.class);
         stats.loadMillis(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
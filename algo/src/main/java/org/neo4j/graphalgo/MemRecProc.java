@@ -0,0 +1,47 @@
+package org.neo4j.graphalgo;
+
+import org.neo4j.graphalgo.core.utils.MemoryEstimation;
+import org.neo4j.graphalgo.results.MemRecResult;
+import org.neo4j.kernel.internal.GraphDatabaseAPI;
+import org.neo4j.procedure.Context;
+import org.neo4j.procedure.Description;
+import org.neo4j.procedure.Name;
+import org.neo4j.procedure.Procedure;
+
+import java.util.Map;
+import java.util.stream.Stream;
+
+/**
+ * Estimates the memory of a graph without loading it.
+ */
+public class MemRecProc {
+
+    public static final String TOTAL_HEAP = "totalHeap";
+    public static final String TOTAL_OFF_HEAP = "totalOffHeap";
+
+    @Context
+    public GraphDatabaseAPI api;
+
+    @Procedure("algo.memrec")
+    @Description("CALL algo.memrec(label:String, relationship:String, " +
+            "{property:'weight', nodeWeight:'weight', nodeProperty:'value', implementation:'heavy'}) " +
+            "YIELD component, bytes, offHeap - estimates the memory of each part of the graph " +
+            "followed by the heap and off-heap totals")
+    public Stream<MemRecResult> memrec(
+            @Name(value = "label", defaultValue = "") String label,
+            @Name(value = "relationship", defaultValue = "") String relationship,
+            @Name(value = "config", defaultValue = "{}") Map<String, Object> config) {
+
+        final MemoryEstimation estimation = GraphCatalogProc
+                .newLoader(api, label, relationship, config)
+                .estimate(GraphCatalogProc.factoryType(config));
+
+        return Stream.concat(
+                estimation.components()
+                        .stream()
+                        .map(c -> new MemRecResult(c.name, c.bytes, c.offHeap)),
+                Stream.of(
+                        new MemRecResult(TOTAL_HEAP, estimation.heapBytes(), false),
+                        new MemRecResult(TOTAL_OFF_HEAP, estimation.offHeapBytes(), true)));
+    }
+}
@@ -3,11 +3,13 @@ package org.neo4j.graphalgo;
 import algo.Pools;
 import org.neo4j.graphalgo.api.Graph;
 import org.neo4j.graphalgo.api.IdMapping;
+import org.neo4j.graphalgo.core.GraphCatalog;
 import org.neo4j.graphalgo.core.GraphLoader;
 import org.neo4j.graphalgo.core.heavyweight.HeavyGraphFactory;
 import org.neo4j.graphalgo.impl.PageRankAlgo;
 import org.neo4j.graphalgo.impl.PageRankExporter;
 import org.neo4j.graphalgo.impl.PageRankScore;
+import org.neo4j.graphdb.Direction;
 import org.neo4j.kernel.internal.GraphDatabaseAPI;
 import org.neo4j.logging.Log;
 import org.neo4j.procedure.Context;
@@ -42,7 +44,7 @@ public final class PageRankProc {
 
     @Procedure(value = "algo.pageRank", mode = Mode.WRITE)
     @Description("CALL algo.pageRank(label:String, relationship:String, " +
-            "{iterations:5, dampingFactor:0.85, write: true, scoreProperty:'score'}) " +
+            "{iterations:5, dampingFactor:0.85, write: true, scoreProperty:'score', graph:'name', maxHeapFraction:0.5}) " +
             "YIELD nodes, iterations, loadMillis, computeMillis, writeMillis, dampingFactor, write, property" +
             " - calculates page rank and potentially writes back")
     public Stream<PageRankScore.Stats> pageRank(
@@ -51,7 +53,7 @@ public final class PageRankProc {
             @Name(value = "config", defaultValue = "{}") Map<String, Object> config) {
 
         PageRankScore.Stats.Builder statsBuilder = new PageRankScore.Stats.Builder();
-        final Graph graph = load(label, relationship, statsBuilder);
+        final Graph graph = load(label, relationship, config, statsBuilder);
         double[] scores = evaluate(graph, config, statsBuilder);
         write(graph, scores, config, statsBuilder);
 
@@ -60,7 +62,7 @@ public final class PageRankProc {
 
     @Procedure(value = "algo.pageRankStream", mode = Mode.READ)
     @Description("CALL algo.pageRankStream(label:String, relationship:String, " +
-            "{iterations:20, dampingFactor:0.85}) " +
+            "{iterations:20, dampingFactor:0.85, graph:'name', maxHeapFraction:0.5}) " +
             "YIELD node, score - calculates page rank and streams results")
     public Stream<PageRankScore> pageRankStream(
             @Name(value = "label", defaultValue = "") String label,
@@ -68,7 +70,7 @@ public final class PageRankProc {
             @Name(value = "config", defaultValue = "{}") Map<String, Object> config) {
 
         PageRankScore.Stats.Builder statsBuilder = new PageRankScore.Stats.Builder();
-        final Graph graph = load(label, relationship, statsBuilder);
+        final Graph graph = load(label, relationship, config, statsBuilder);
         double[] scores = evaluate(graph, config, statsBuilder);
 
         return IntStream.range(0, scores.length)
@@ -80,7 +82,7 @@ public final class PageRankProc {
 
     @Procedure(value = "algo.pageRankStats", mode = Mode.READ)
     @Description("CALL algo.pageRankStats(label:String, relationship:String, " +
-            "{iterations:20, dampingFactor:0.85}) " +
+            "{iterations:20, dampingFactor:0.85, graph:'name', maxHeapFraction:0.5}) " +
             "YIELD nodes, iterations, loadMillis, computeMillis, writeMillis, dampingFactor, write, property" +
             " - calculates page rank and returns statistics")
     public Stream<PageRankScore.Stats> pageRankStats(
@@ -98,12 +100,18 @@ public final class PageRankProc {
     private Graph load(
             String label,
             String relationship,
+            Map<String, Object> config,
             PageRankScore.Stats.Builder statsBuilder) {
         long start = System.nanoTime();
-        Graph graph = new GraphLoader(api)
+        GraphCatalog.Entry loaded = GraphCatalogProc.loaded(api, config);
+        Graph graph = loaded != null ? loaded.graph() : new GraphLoader(api)
                 .withOptionalLabel(label)
                 .withOptionalRelationshipType(relationship)
                 .withoutRelationshipWeights()
+                .withoutRelationshipIds()
+                .withDirection(Direction.INCOMING)
+                .withOppositeDegrees()
+                .withOptionalMaxHeapFraction((Number) config.get(GraphCatalogProc.CONFIG_MAX_HEAP_FRACTION))
                 .withExecutorService(Pools.DEFAULT)
                 .load(HeavyGraphFactory.class);
         statsBuilder
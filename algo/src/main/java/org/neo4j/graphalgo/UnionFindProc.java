@@ -2,12 +2,14 @@ package org.neo4j.graphalgo;
 
 import algo.Pools;
 import org.neo4j.graphalgo.api.Graph;
+import org.neo4j.graphalgo.core.GraphCatalog;
 import org.neo4j.graphalgo.core.GraphLoader;
 import org.neo4j.graphalgo.core.heavyweight.HeavyGraphFactory;
 import org.neo4j.graphalgo.core.utils.ProgressTimer;
 import org.neo4j.graphalgo.results.UnionFindResult;
 import org.neo4j.graphalgo.core.utils.dss.DisjointSetStruct;
 import org.neo4j.graphalgo.impl.GraphUnionFind;
+import org.neo4j.graphdb.Direction;
 import org.neo4j.kernel.internal.GraphDatabaseAPI;
 import org.neo4j.logging.Log;
 import org.neo4j.procedure.*;
@@ -34,7 +36,7 @@ public class UnionFindProc {
 
     @Procedure(value = "algo.unionFind", mode = Mode.WRITE)
     @Description("CALL algo.unionFind(label:String, relationship:String, " +
-            "{property:'propertyName', threshold:0.42, defaultValue:1.0, write: true, clusterProperty:'cluster'}) " +
+            "{property:'propertyName', threshold:0.42, defaultValue:1.0, write: true, clusterProperty:'cluster', graph:'name', maxHeapFraction:0.5}) " +
             "YIELD nodeCount, setCount, loadDuration, evalDuration, writeDuration")
     public Stream<UnionFindResult> unionFind(
             @Name(value = "label", defaultValue = "") String label,
@@ -68,7 +70,7 @@ public class UnionFindProc {
 
     @Procedure(value = "algo.unionFindStream")
     @Description("CALL algo.unionFindStream(label:String, relationship:String, " +
-            "{property:'propertyName', threshold:0.42, defaultValue:1.0) " +
+            "{property:'propertyName', threshold:0.42, defaultValue:1.0, graph:'name', maxHeapFraction:0.5}) " +
             "YIELD nodeId, setId - yields a setId to each node id")
     public Stream<DisjointSetStruct.Result> unionFindStream(
             @Name(value = "label", defaultValue = "") String label,
@@ -84,12 +86,20 @@ public class UnionFindProc {
     }
 
     private Graph load(String label, String relationship, Map<String, Object> config) {
+        final GraphCatalog.Entry loaded = GraphCatalogProc.loaded(api, config);
+        if (loaded != null) {
+            GraphCatalogProc.requireRelationshipWeights(loaded, (String) config.get(CONFIG_PROPERTY));
+            return loaded.graph();
+        }
         return new GraphLoader(api)
                 .withOptionalLabel(label)
                 .withOptionalRelationshipType(relationship)
+                .withoutRelationshipIds()
+                .withDirection(Direction.OUTGOING)
                 .withOptionalRelationshipWeightsFromProperty(
                         (String) config.get(CONFIG_PROPERTY),
                         (double)config.getOrDefault(CONFIG_DEFAULT_VALUE, 1.0))
+                .withOptionalMaxHeapFraction((Number) config.get(GraphCatalogProc.CONFIG_MAX_HEAP_FRACTION))
                 .withExecutorService(Pools.DEFAULT)
                 .load(HeavyGraphFactory.class);
     }
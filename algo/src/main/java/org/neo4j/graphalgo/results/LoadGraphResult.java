@@ -0,0 +1,22 @@
+package org.neo4j.graphalgo.results;
+
+import java.util.List;
+
+public class LoadGraphResult {
+
+    public final String name;
+    public final Long nodes;
+    public final Long relationships;
+    public final Long bytes;
+    public final Long loadDuration;
+    public final List<String> evicted;
+
+    public LoadGraphResult(String name, Long nodes, Long relationships, Long bytes, Long loadDuration, List<String> evicted) {
+        this.name = name;
+        this.nodes = nodes;
+        this.relationships = relationships;
+        this.bytes = bytes;
+        this.loadDuration = loadDuration;
+        this.evicted = evicted;
+    }
+}
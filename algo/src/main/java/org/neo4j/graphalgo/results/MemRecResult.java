@@ -0,0 +1,14 @@
+package org.neo4j.graphalgo.results;
+
+public class MemRecResult {
+
+    public final String component;
+    public final Long bytes;
+    public final Boolean offHeap;
+
+    public MemRecResult(String component, Long bytes, Boolean offHeap) {
+        this.component = component;
+        this.bytes = bytes;
+        this.offHeap = offHeap;
+    }
+}
@@ -0,0 +1,12 @@
+package org.neo4j.graphalgo.results;
+
+public class RemoveGraphResult {
+
+    public final String name;
+    public final Boolean removed;
+
+    public RemoveGraphResult(String name, Boolean removed) {
+        this.name = name;
+        this.removed = removed;
+    }
+}
@@ -0,0 +1,16 @@
+package org.neo4j.graphalgo.results;
+
+public class SaveGraphResult {
+
+    public final String name;
+    public final String file;
+    public final Long bytes;
+    public final Long writeDuration;
+
+    public SaveGraphResult(String name, String file, Long bytes, Long writeDuration) {
+        this.name = name;
+        this.file = file;
+        this.bytes = bytes;
+        this.writeDuration = writeDuration;
+    }
+}
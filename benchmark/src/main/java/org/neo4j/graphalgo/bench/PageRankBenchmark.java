@@ -19,6 +19,7 @@ import org.openjdk.jmh.annotations.Param;
 import org.openjdk.jmh.annotations.Scope;
 import org.openjdk.jmh.annotations.Setup;
 import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
 import org.openjdk.jmh.annotations.Threads;
 import org.openjdk.jmh.annotations.Warmup;
 
@@ -37,6 +38,7 @@ import java.util.concurrent.TimeUnit;
 public class PageRankBenchmark {
 
     private Graph lightGraph, heavyGraph, neo4jView;
+    private GraphView boundNeo4jView;
 
     @Param({"5", "20", "100"})
     int iterations;
@@ -84,6 +86,7 @@ public class PageRankBenchmark {
         }
 
         neo4jView = new GraphView(db, null, null, null, 1.0d);
+        boundNeo4jView = new GraphView(db, null, null, null, 1.0d, true);
         lightGraph = loadLight();
         heavyGraph = loadHeavy();
     }
@@ -115,6 +118,17 @@ public class PageRankBenchmark {
         return new PageRankAlgo(neo4jView, neo4jView, neo4jView, neo4jView,0.85).compute(iterations);
     }
 
+    @Benchmark
+    public Object _06_boundNeo4jView() {
+        return new PageRankAlgo(boundNeo4jView, boundNeo4jView, boundNeo4jView, boundNeo4jView, 0.85).compute(iterations);
+    }
+
+    @TearDown
+    public void shutdown() {
+        boundNeo4jView.close();
+        db.shutdown();
+    }
+
     private Graph loadLight() {
         return new GraphLoader(db).load(LightGraphFactory.class);
     }
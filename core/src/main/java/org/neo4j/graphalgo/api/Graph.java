@@ -2,10 +2,26 @@ package org.neo4j.graphalgo.api;
 
 
 /**
+ * A loaded graph may be read by any number of threads at once. Every
+ * iteration keeps its state per call or per thread, so workers of a parallel
+ * algorithm and concurrent procedure calls can share a single graph.
+ * Loaded graphs are not changed after loading, changes are applied to new snapshots.
+ * <p>
+ * Implementations whose shared iteration state costs a lookup per call
+ * return a copy that is confined to one thread from {@link #concurrentCopy()}.
+ *
  * @author mknblch
  *         added 02.03.2017.
  */
 @Deprecated
-public interface Graph extends IdMapping, Degrees, NodeIterator, RelationshipIterator, WeightedRelationshipIterator {
+public interface Graph extends IdMapping, Degrees, NodeIterator, RelationshipIterator, WeightedRelationshipIterator, RelationshipIntersect {
 
+    /**
+     * a graph for the calling worker thread that shares the data of this graph.
+     * The copy must not be used by other threads at the same time.
+     * Graphs that iterate without shared state return themselves.
+     */
+    default Graph concurrentCopy() {
+        return this;
+    }
 }
@@ -1,11 +1,23 @@
 package org.neo4j.graphalgo.api;
 
+import org.neo4j.collection.primitive.PrimitiveLongCollections;
+import org.neo4j.collection.primitive.PrimitiveLongIterator;
+import org.neo4j.cursor.Cursor;
+import org.neo4j.graphalgo.core.IdMap;
+import org.neo4j.graphalgo.core.utils.MemoryEstimation;
 import org.neo4j.graphdb.Transaction;
 import org.neo4j.kernel.api.ReadOperations;
 import org.neo4j.kernel.api.Statement;
+import org.neo4j.kernel.api.StatementConstants;
 import org.neo4j.kernel.impl.core.ThreadToStatementContextBridge;
 import org.neo4j.kernel.internal.GraphDatabaseAPI;
+import org.neo4j.storageengine.api.EntityItem;
+import org.neo4j.storageengine.api.NodeItem;
+import org.neo4j.storageengine.api.PropertyItem;
 
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
 import java.util.function.Consumer;
 
 /**
@@ -15,6 +27,8 @@ import java.util.function.Consumer;
  */
 public abstract class GraphFactory {
 
+    private static final int[] ANY_LABELS = {ReadOperations.ANY_LABEL};
+
     private ThreadToStatementContextBridge contextBridge;
 
     protected final GraphDatabaseAPI api;
@@ -30,6 +44,12 @@ public abstract class GraphFactory {
 
     public abstract Graph build();
 
+    /**
+     * Estimate the memory of the graph before it is built, based
+     * on the node and relationship counts of the store.
+     */
+    public abstract MemoryEstimation memoryEstimation();
+
     /**
      * executes a consumer within its own transaction
      *
@@ -42,4 +62,232 @@ public abstract class GraphFactory {
             tx.success();
         }
     }
+
+    /**
+     * count the relationships between nodes of the given labels,
+     * null relationship types count every relationship
+     */
+    protected static long countRelationships(
+            ReadOperations readOp,
+            int startLabelId,
+            int[] relationshipTypeIds,
+            int endLabelId) {
+        if (relationshipTypeIds == null) {
+            return readOp.countsForRelationship(startLabelId, ReadOperations.ANY_RELATIONSHIP_TYPE, endLabelId);
+        }
+        long count = 0L;
+        for (int typeId : relationshipTypeIds) {
+            count += readOp.countsForRelationship(startLabelId, typeId, endLabelId);
+        }
+        return count;
+    }
+
+    /**
+     * resolve the ids of the relationship types of the setup, in the order of
+     * {@link GraphSetup#relationshipTypes()}. Types that are not found
+     * have the id {@link StatementConstants#NO_SUCH_RELATIONSHIP_TYPE}.
+     *
+     * @return the type ids or null if any relationship type is loaded
+     */
+    protected final int[] relationshipTypeIds(ReadOperations readOp) {
+        final String[] types = setup.relationshipTypes();
+        if (types == null) {
+            return null;
+        }
+        final int[] typeIds = new int[types.length];
+        for (int i = 0; i < types.length; i++) {
+            typeIds[i] = readOp.relationshipTypeGetForName(types[i]);
+        }
+        return typeIds;
+    }
+
+    /**
+     * the ids of the relationship types that are found in the store
+     *
+     * @return the type ids or null if none of the types is found, which loads every relationship
+     */
+    protected static int[] existingTypeIds(int[] relationshipTypeIds) {
+        if (relationshipTypeIds == null) {
+            return null;
+        }
+        final int[] existing = Arrays.stream(relationshipTypeIds)
+                .filter(typeId -> typeId != StatementConstants.NO_SUCH_RELATIONSHIP_TYPE)
+                .toArray();
+        return existing.length > 0 ? existing : null;
+    }
+
+    /**
+     * resolve the ids of the labels of the setup, in the order of
+     * {@link GraphSetup#startLabels()}. Labels that are not found
+     * have the id {@link StatementConstants#NO_SUCH_LABEL}.
+     *
+     * @return the label ids or null if any label is loaded
+     */
+    protected final int[] labelIds(ReadOperations readOp) {
+        final String[] labels = setup.startLabels();
+        if (labels == null) {
+            return null;
+        }
+        final int[] labelIds = new int[labels.length];
+        for (int i = 0; i < labels.length; i++) {
+            labelIds[i] = readOp.labelGetForName(labels[i]);
+        }
+        return labelIds;
+    }
+
+    /**
+     * the ids of the labels that are found in the store
+     *
+     * @return the label ids or null if none of the labels is found, which loads every node
+     */
+    protected static int[] existingLabelIds(int[] labelIds) {
+        if (labelIds == null) {
+            return null;
+        }
+        final int[] existing = Arrays.stream(labelIds)
+                .filter(labelId -> labelId != StatementConstants.NO_SUCH_LABEL)
+                .toArray();
+        return existing.length > 0 ? existing : null;
+    }
+
+    /**
+     * count the nodes of the given labels, null labels count every node.
+     * Nodes with several of the labels are counted once per label,
+     * so the count is an upper bound of the loaded nodes.
+     */
+    protected static long countNodes(ReadOperations readOp, int[] labelIds) {
+        if (labelIds == null) {
+            return readOp.countsForNode(ReadOperations.ANY_LABEL);
+        }
+        long count = 0L;
+        for (int labelId : labelIds) {
+            count += readOp.countsForNode(labelId);
+        }
+        return count;
+    }
+
+    /**
+     * count the relationships between nodes of the given labels, null labels
+     * and relationship types count every node or relationship respectively.
+     * Like {@link #countNodes(ReadOperations, int[])} this is an upper bound.
+     */
+    protected static long countRelationships(
+            ReadOperations readOp,
+            int[] startLabelIds,
+            int[] relationshipTypeIds,
+            int[] endLabelIds) {
+        final int[] starts = startLabelIds != null ? startLabelIds : ANY_LABELS;
+        final int[] ends = endLabelIds != null ? endLabelIds : ANY_LABELS;
+        long count = 0L;
+        for (int startLabelId : starts) {
+            for (int endLabelId : ends) {
+                count += countRelationships(readOp, startLabelId, relationshipTypeIds, endLabelId);
+            }
+        }
+        return count;
+    }
+
+    /**
+     * resolve the node predicates of the setup
+     *
+     * @return the filter or null if every node is loaded
+     */
+    protected final PropertyFilter nodeFilter(ReadOperations readOp) {
+        return setup.filterNodes() ? new PropertyFilter(readOp, setup.nodePredicates) : null;
+    }
+
+    /**
+     * resolve the relationship predicates of the setup
+     *
+     * @return the filter or null if every relationship is loaded
+     */
+    protected final PropertyFilter relationshipFilter(ReadOperations readOp) {
+        return setup.filterRelationships() ? new PropertyFilter(readOp, setup.relationshipPredicates) : null;
+    }
+
+    /**
+     * like {@link #nodeIds(ReadOperations, int[], IdMap)} but skips the nodes
+     * that do not match the filter, a null filter returns every node
+     */
+    protected static PrimitiveLongIterator nodeIds(
+            ReadOperations readOp,
+            int[] labelIds,
+            IdMap idMap,
+            PropertyFilter filter) {
+        final PrimitiveLongIterator nodeIds = nodeIds(readOp, labelIds, idMap);
+        if (filter == null) {
+            return nodeIds;
+        }
+        return PrimitiveLongCollections.filter(nodeIds, nodeId -> filter.test(readOp, nodeId));
+    }
+
+    /**
+     * iterate the ids of the nodes having at least one of the labels, null labels
+     * iterate every node. Nodes with several of the labels are returned once, the
+     * ones already in the idMap are skipped. So every returned id has to be added
+     * to the idMap before asking for the next one.
+     */
+    protected static PrimitiveLongIterator nodeIds(ReadOperations readOp, int[] labelIds, IdMap idMap) {
+        if (labelIds == null) {
+            return readOp.nodesGetAll();
+        }
+        if (labelIds.length == 1) {
+            return readOp.nodesGetForLabel(labelIds[0]);
+        }
+        final List<PrimitiveLongIterator> iterators = new ArrayList<>(labelIds.length);
+        for (int labelId : labelIds) {
+            iterators.add(readOp.nodesGetForLabel(labelId));
+        }
+        return PrimitiveLongCollections.filter(
+                PrimitiveLongCollections.concat(iterators),
+                nodeId -> idMap.get(nodeId) == -1);
+    }
+
+    /**
+     * predicates with the ids of their property keys. A key that does not
+     * exist in the store is never set, so only its value null is tested.
+     */
+    protected static final class PropertyFilter {
+
+        private final PropertyPredicate[] predicates;
+        private final int[] keyIds;
+
+        private PropertyFilter(ReadOperations readOp, PropertyPredicate[] predicates) {
+            this.predicates = predicates;
+            this.keyIds = new int[predicates.length];
+            for (int i = 0; i < predicates.length; i++) {
+                keyIds[i] = readOp.propertyKeyGetForName(predicates[i].propertyKey);
+            }
+        }
+
+        /**
+         * whether the properties of the node or relationship match every predicate
+         */
+        public boolean test(EntityItem entity) {
+            for (int i = 0; i < predicates.length; i++) {
+                if (!predicates[i].test(value(entity, keyIds[i]))) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        /**
+         * whether the properties of the node match every predicate
+         */
+        public boolean test(ReadOperations readOp, long nodeId) {
+            try (Cursor<NodeItem> nodes = readOp.nodeCursor(nodeId)) {
+                return nodes.next() && test(nodes.get());
+            }
+        }
+
+        private static Object value(EntityItem entity, int keyId) {
+            if (keyId == StatementConstants.NO_SUCH_PROPERTY_KEY) {
+                return null;
+            }
+            try (Cursor<PropertyItem> properties = entity.property(keyId)) {
+                return properties.next() ? properties.get().value() : null;
+            }
+        }
+    }
 }
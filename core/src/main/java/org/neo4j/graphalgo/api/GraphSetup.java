@@ -1,5 +1,10 @@
 package org.neo4j.graphalgo.api;
 
+import org.neo4j.graphalgo.core.utils.NodeOrder;
+import org.neo4j.graphalgo.core.utils.OffHeapPages;
+import org.neo4j.graphdb.Direction;
+
+import java.util.Arrays;
 import java.util.concurrent.ExecutorService;
 
 /**
@@ -10,11 +15,17 @@ import java.util.concurrent.ExecutorService;
  */
 public class GraphSetup {
 
-    // start label type. null means any label.
+    // separates several relationship types in the relationshipType string
+    public static final String TYPE_SEPARATOR = "|";
+    // separates several labels in the startLabel string
+    public static final String LABEL_SEPARATOR = "|";
+    private static final String SEPARATOR_REGEX = "\\|";
+
+    // start label type, several labels are separated by '|'. null means any label.
     public final String startLabel;
     // end label type (not yet implemented).
     public final String endLabel;
-    // relationtype name. null means any relation.
+    // relationtype name, several types are separated by '|'. null means any relation.
     public final String relationshipType;
     // property of relationship weights. null means NO property (the default value will be used instead).
     public final String relationWeightPropertyName;
@@ -36,12 +47,38 @@ public class GraphSetup {
     public final String nodeStatement;
     /** statement to load unique relationships, has to return ids of start "source" and end-node "target" and optionally "weight" */
     public final String relationshipStatement;
+    // store adjacency lists sorted and delta encoded (LightGraph only).
+    public final boolean compressAdjacency;
+    // allocator for adjacency and offsets outside of the heap. null means heap allocated (LightGraph only).
+    public final OffHeapPages offHeapPages;
+    // load the ids of the relationships. false means every relationship id is reported as -1 (LightGraph, HeavyGraph without weights).
+    public final boolean loadRelationshipIds;
+    // store relationship weights with single precision (LightGraph only).
+    public final boolean floatRelationshipWeights;
+    // merge both directions into a single deduplicated adjacency per node (LightGraph, HeavyGraph).
+    public final boolean undirected;
+    // the direction of the relationships to load. BOTH means outgoing and incoming (LightGraph, HeavyGraph).
+    public final Direction direction;
+    // count the degrees of the direction that is not loaded (LightGraph, HeavyGraph).
+    public final boolean loadOppositeDegrees;
+    // relabel the nodes for locality after loading. null keeps the store order (LightGraph only).
+    public final NodeOrder nodeOrder;
+    // sort every adjacency list by target node (LightGraph, HeavyGraph).
+    public final boolean sortAdjacency;
+    // conditions every loaded node has to satisfy. null or empty loads every node of the labels (LightGraph, HeavyGraph).
+    public final PropertyPredicate[] nodePredicates;
+    // conditions every loaded relationship has to satisfy. null or empty loads every relationship of the types (LightGraph, HeavyGraph).
+    public final PropertyPredicate[] relationshipPredicates;
+    // keep one statement per reading thread open until the view is closed (GraphView only).
+    public final boolean bindStatements;
 
     /**
-     * main ctor
-     * @param startLabel the start label. null means any label.
+     * main ctor, the options that are not part of it have their defaults.
+     * Use the {@link Builder} to set them.
+     *
+     * @param startLabel the start label, several labels are separated by '|'. null means any label.
      * @param endLabel not implemented yet
-     * @param relationshipType the relation type identifier. null for any relationship
+     * @param relationshipType the relation type identifier, several types are separated by '|'. null for any relationship
      * @param relationWeightPropertyName property name which holds the weights / costs of a relation.
      *                                   null means the default value is used for each weight.
      * @param relationDefaultWeight the default relationship weight if property is not given.
@@ -68,37 +105,50 @@ public class GraphSetup {
             ExecutorService executor,
             String nodeStatement,
             String relationshipStatement) {
+        this(new Builder()
+                .startLabel(startLabel)
+                .endLabel(endLabel)
+                .relationshipType(relationshipType)
+                .relationWeight(relationWeightPropertyName, relationDefaultWeight)
+                .nodeWeight(nodeWeightPropertyName, nodeDefaultWeight)
+                .nodeProperty(nodePropertyName, nodeDefaultPropertyValue)
+                .executor(executor)
+                .nodeStatement(nodeStatement)
+                .relationshipStatement(relationshipStatement));
+    }
 
-        this.startLabel = startLabel;
-        this.endLabel = endLabel;
-        this.relationshipType = relationshipType;
-        this.relationWeightPropertyName = relationWeightPropertyName;
-        this.relationDefaultWeight = relationDefaultWeight;
-        this.nodeWeightPropertyName = nodeWeightPropertyName;
-        this.nodeDefaultWeight = nodeDefaultWeight;
-        this.nodePropertyName = nodePropertyName;
-        this.nodeDefaultPropertyValue = nodeDefaultPropertyValue;
-        this.executor = executor;
-        this.nodeStatement = nodeStatement;
-        this.relationshipStatement = relationshipStatement;
+    private GraphSetup(Builder builder) {
+        this.startLabel = builder.startLabel;
+        this.endLabel = builder.endLabel;
+        this.relationshipType = builder.relationshipType;
+        this.relationWeightPropertyName = builder.relationWeightPropertyName;
+        this.relationDefaultWeight = builder.relationDefaultWeight;
+        this.nodeWeightPropertyName = builder.nodeWeightPropertyName;
+        this.nodeDefaultWeight = builder.nodeDefaultWeight;
+        this.nodePropertyName = builder.nodePropertyName;
+        this.nodeDefaultPropertyValue = builder.nodeDefaultPropertyValue;
+        this.executor = builder.executor;
+        this.nodeStatement = builder.nodeStatement;
+        this.relationshipStatement = builder.relationshipStatement;
+        this.compressAdjacency = builder.compressAdjacency;
+        this.offHeapPages = builder.offHeapPages;
+        this.loadRelationshipIds = builder.loadRelationshipIds;
+        this.floatRelationshipWeights = builder.floatRelationshipWeights;
+        this.undirected = builder.undirected;
+        this.direction = builder.direction;
+        this.loadOppositeDegrees = builder.loadOppositeDegrees;
+        this.nodeOrder = builder.nodeOrder;
+        this.sortAdjacency = builder.sortAdjacency;
+        this.nodePredicates = builder.nodePredicates;
+        this.relationshipPredicates = builder.relationshipPredicates;
+        this.bindStatements = builder.bindStatements;
     }
 
     /**
      * Setup Graph to load any label, any relationship, no property in single threaded mode
      */
     public GraphSetup() {
-        this.startLabel = null;
-        this.endLabel = null;
-        this.relationshipType = null;
-        this.relationWeightPropertyName = null;
-        this.relationDefaultWeight = 1.0;
-        this.nodeWeightPropertyName = null;
-        this.nodeDefaultWeight = 1.0;
-        this.nodePropertyName = null;
-        this.nodeDefaultPropertyValue = 1.0;
-        this.executor = null;
-        this.nodeStatement = null;
-        this.relationshipStatement = null;
+        this(new Builder().defaultWeights(1.0));
     }
 
     /**
@@ -108,18 +158,7 @@ public class GraphSetup {
      * @param executor executor service
      */
     public GraphSetup(ExecutorService executor) {
-        this.startLabel = null;
-        this.endLabel = null;
-        this.relationshipType = null;
-        this.relationWeightPropertyName = null;
-        this.relationDefaultWeight = 1.0;
-        this.nodeWeightPropertyName = null;
-        this.nodeDefaultWeight = 1.0;
-        this.nodePropertyName = null;
-        this.nodeDefaultPropertyValue = 1.0;
-        this.executor = executor;
-        this.nodeStatement = null;
-        this.relationshipStatement = null;
+        this(new Builder().defaultWeights(1.0).executor(executor));
     }
 
     public boolean loadConcurrent() {
@@ -138,6 +177,20 @@ public class GraphSetup {
         return nodePropertyName == null;
     }
 
+    /**
+     * whether nodes are filtered by their properties
+     */
+    public boolean filterNodes() {
+        return nodePredicates != null && nodePredicates.length > 0;
+    }
+
+    /**
+     * whether relationships are filtered by their properties
+     */
+    public boolean filterRelationships() {
+        return relationshipPredicates != null && relationshipPredicates.length > 0;
+    }
+
     public boolean loadAnyLabel() {
         return startLabel == null;
     }
@@ -145,4 +198,197 @@ public class GraphSetup {
     public boolean loadAnyRelationshipType() {
         return relationshipType == null;
     }
+
+    /**
+     * the distinct label names in the order of the startLabel
+     * string, null means any label
+     */
+    public String[] startLabels() {
+        return split(startLabel);
+    }
+
+    /**
+     * the distinct relationship type names in the order of the relationshipType
+     * string, null means any relationship type
+     */
+    public String[] relationshipTypes() {
+        return split(relationshipType);
+    }
+
+    private static String[] split(String names) {
+        if (names == null) {
+            return null;
+        }
+        return Arrays.stream(names.split(SEPARATOR_REGEX))
+                .map(String::trim)
+                .filter(name -> !name.isEmpty())
+                .distinct()
+                .toArray(String[]::new);
+    }
+
+    /**
+     * whether the outgoing relationships are loaded, undirected graphs always load both directions
+     */
+    public boolean loadOutgoing() {
+        return undirected || direction != Direction.INCOMING;
+    }
+
+    /**
+     * whether the incoming relationships are loaded, undirected graphs always load both directions
+     */
+    public boolean loadIncoming() {
+        return undirected || direction != Direction.OUTGOING;
+    }
+
+    /**
+     * Collects the options of a {@link GraphSetup}, every option that
+     * is not set has the default of the {@link org.neo4j.graphalgo.core.GraphLoader}.
+     */
+    public static final class Builder {
+
+        private String startLabel;
+        private String endLabel;
+        private String relationshipType;
+        private String relationWeightPropertyName;
+        private double relationDefaultWeight;
+        private String nodeWeightPropertyName;
+        private double nodeDefaultWeight;
+        private String nodePropertyName;
+        private double nodeDefaultPropertyValue;
+        private ExecutorService executor;
+        private String nodeStatement;
+        private String relationshipStatement;
+        private boolean compressAdjacency = false;
+        private OffHeapPages offHeapPages = null;
+        private boolean loadRelationshipIds = true;
+        private boolean floatRelationshipWeights = false;
+        private boolean undirected = false;
+        private Direction direction = Direction.BOTH;
+        private boolean loadOppositeDegrees = false;
+        private NodeOrder nodeOrder = null;
+        private boolean sortAdjacency = false;
+        private PropertyPredicate[] nodePredicates = null;
+        private PropertyPredicate[] relationshipPredicates = null;
+        private boolean bindStatements = false;
+
+        public Builder startLabel(String startLabel) {
+            this.startLabel = startLabel;
+            return this;
+        }
+
+        public Builder endLabel(String endLabel) {
+            this.endLabel = endLabel;
+            return this;
+        }
+
+        public Builder relationshipType(String relationshipType) {
+            this.relationshipType = relationshipType;
+            return this;
+        }
+
+        public Builder relationWeight(String propertyName, double defaultWeight) {
+            this.relationWeightPropertyName = propertyName;
+            this.relationDefaultWeight = defaultWeight;
+            return this;
+        }
+
+        public Builder nodeWeight(String propertyName, double defaultWeight) {
+            this.nodeWeightPropertyName = propertyName;
+            this.nodeDefaultWeight = defaultWeight;
+            return this;
+        }
+
+        public Builder nodeProperty(String propertyName, double defaultValue) {
+            this.nodePropertyName = propertyName;
+            this.nodeDefaultPropertyValue = defaultValue;
+            return this;
+        }
+
+        // the default of relationship weights, node weights and node properties
+        private Builder defaultWeights(double defaultValue) {
+            this.relationDefaultWeight = defaultValue;
+            this.nodeDefaultWeight = defaultValue;
+            this.nodeDefaultPropertyValue = defaultValue;
+            return this;
+        }
+
+        public Builder executor(ExecutorService executor) {
+            this.executor = executor;
+            return this;
+        }
+
+        public Builder nodeStatement(String nodeStatement) {
+            this.nodeStatement = nodeStatement;
+            return this;
+        }
+
+        public Builder relationshipStatement(String relationshipStatement) {
+            this.relationshipStatement = relationshipStatement;
+            return this;
+        }
+
+        public Builder compressAdjacency(boolean compressAdjacency) {
+            this.compressAdjacency = compressAdjacency;
+            return this;
+        }
+
+        public Builder offHeapPages(OffHeapPages offHeapPages) {
+            this.offHeapPages = offHeapPages;
+            return this;
+        }
+
+        public Builder loadRelationshipIds(boolean loadRelationshipIds) {
+            this.loadRelationshipIds = loadRelationshipIds;
+            return this;
+        }
+
+        public Builder floatRelationshipWeights(boolean floatRelationshipWeights) {
+            this.floatRelationshipWeights = floatRelationshipWeights;
+            return this;
+        }
+
+        public Builder undirected(boolean undirected) {
+            this.undirected = undirected;
+            return this;
+        }
+
+        public Builder direction(Direction direction) {
+            this.direction = direction;
+            return this;
+        }
+
+        public Builder loadOppositeDegrees(boolean loadOppositeDegrees) {
+            this.loadOppositeDegrees = loadOppositeDegrees;
+            return this;
+        }
+
+        public Builder nodeOrder(NodeOrder nodeOrder) {
+            this.nodeOrder = nodeOrder;
+            return this;
+        }
+
+        public Builder sortAdjacency(boolean sortAdjacency) {
+            this.sortAdjacency = sortAdjacency;
+            return this;
+        }
+
+        public Builder nodePredicates(PropertyPredicate... nodePredicates) {
+            this.nodePredicates = nodePredicates;
+            return this;
+        }
+
+        public Builder relationshipPredicates(PropertyPredicate... relationshipPredicates) {
+            this.relationshipPredicates = relationshipPredicates;
+            return this;
+        }
+
+        public Builder bindStatements(boolean bindStatements) {
+            this.bindStatements = bindStatements;
+            return this;
+        }
+
+        public GraphSetup build() {
+            return new GraphSetup(this);
+        }
+    }
 }
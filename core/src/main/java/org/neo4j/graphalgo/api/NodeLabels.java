@@ -0,0 +1,42 @@
+package org.neo4j.graphalgo.api;
+
+import org.neo4j.graphdb.Direction;
+
+import java.util.function.IntConsumer;
+
+/**
+ * Restricts the nodes of a graph to a subset of the labels the graph has
+ * been loaded with. The subset is a bit mask, bit {@code i} selects the
+ * i-th loaded label. A node is selected if it has any of the selected labels.
+ */
+public interface NodeLabels {
+
+    /**
+     * the loaded labels, the index of a label is its bit in a label mask
+     */
+    String[] nodeLabels();
+
+    /**
+     * the mask selecting the given labels
+     *
+     * @throws IllegalArgumentException if one of the labels has not been loaded
+     */
+    int labelMask(String... labels);
+
+    /**
+     * whether the node has any of the selected labels
+     */
+    boolean hasLabel(int nodeId, int labelMask);
+
+    /**
+     * iterate over the graph-nodeIds having any of the selected labels
+     */
+    void forEachNode(int labelMask, IntConsumer consumer);
+
+    /**
+     * iterate over the relationships of the node whose other node has any of the selected labels
+     */
+    void forEachLabeledRelationship(int nodeId, Direction direction, int labelMask, RelationshipConsumer consumer);
+
+    void forEachLabeledRelationship(int nodeId, Direction direction, int labelMask, WeightedRelationshipConsumer consumer);
+}
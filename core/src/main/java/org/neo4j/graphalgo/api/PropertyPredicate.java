@@ -0,0 +1,135 @@
+package org.neo4j.graphalgo.api;
+
+import java.util.Objects;
+
+/**
+ * A condition on a single property of a node or relationship that is
+ * evaluated while loading the graph. Entities that do not match are not loaded.
+ * <p>
+ * Numbers are compared by value regardless of their type, so an integer
+ * property equals a double of the same value.
+ */
+public final class PropertyPredicate {
+
+    private enum Kind {
+        EXISTS, EQUAL, RANGE
+    }
+
+    public final String propertyKey;
+    private final Kind kind;
+    private final Object value;
+    // the bounds of a range, NaN for an open end
+    private final double min;
+    private final double max;
+
+    private PropertyPredicate(String propertyKey, Kind kind, Object value, double min, double max) {
+        this.propertyKey = Objects.requireNonNull(propertyKey, "propertyKey");
+        this.kind = kind;
+        this.value = value;
+        this.min = min;
+        this.max = max;
+    }
+
+    /**
+     * the property has any value
+     */
+    public static PropertyPredicate exists(String propertyKey) {
+        return new PropertyPredicate(propertyKey, Kind.EXISTS, null, Double.NaN, Double.NaN);
+    }
+
+    /**
+     * the property equals the value
+     */
+    public static PropertyPredicate equalTo(String propertyKey, Object value) {
+        return new PropertyPredicate(propertyKey, Kind.EQUAL, Objects.requireNonNull(value, "value"), Double.NaN, Double.NaN);
+    }
+
+    /**
+     * the property is a number in {@code [min, max)}
+     */
+    public static PropertyPredicate range(String propertyKey, double min, double max) {
+        if (Double.isNaN(min) || Double.isNaN(max) || min > max) {
+            throw new IllegalArgumentException("Invalid range [" + min + ", " + max + ")");
+        }
+        return new PropertyPredicate(propertyKey, Kind.RANGE, null, min, max);
+    }
+
+    /**
+     * the property is a number of at least {@code min}, including positive infinity
+     */
+    public static PropertyPredicate atLeast(String propertyKey, double min) {
+        if (Double.isNaN(min)) {
+            throw new IllegalArgumentException("Invalid lower bound " + min);
+        }
+        return new PropertyPredicate(propertyKey, Kind.RANGE, null, min, Double.NaN);
+    }
+
+    /**
+     * the property is a number less than {@code max}
+     */
+    public static PropertyPredicate lessThan(String propertyKey, double max) {
+        if (Double.isNaN(max)) {
+            throw new IllegalArgumentException("Invalid upper bound " + max);
+        }
+        return new PropertyPredicate(propertyKey, Kind.RANGE, null, Double.NaN, max);
+    }
+
+    /**
+     * test the value of the property, null if the entity does not have the property
+     */
+    public boolean test(Object propertyValue) {
+        if (propertyValue == null) {
+            return false;
+        }
+        switch (kind) {
+            case EXISTS:
+                return true;
+            case EQUAL:
+                return equal(value, propertyValue);
+            default:
+                if (!(propertyValue instanceof Number)) {
+                    return false;
+                }
+                final double number = ((Number) propertyValue).doubleValue();
+                return (Double.isNaN(min) || number >= min) && (Double.isNaN(max) || number < max);
+        }
+    }
+
+    private static boolean equal(Object expected, Object actual) {
+        if (expected instanceof Number && actual instanceof Number) {
+            if (integral(expected) && integral(actual)) {
+                return ((Number) expected).longValue() == ((Number) actual).longValue();
+            }
+            return ((Number) expected).doubleValue() == ((Number) actual).doubleValue();
+        }
+        if (expected instanceof Character || actual instanceof Character) {
+            return String.valueOf(expected).equals(String.valueOf(actual));
+        }
+        return Objects.deepEquals(expected, actual);
+    }
+
+    private static boolean integral(Object number) {
+        return number instanceof Long
+                || number instanceof Integer
+                || number instanceof Short
+                || number instanceof Byte;
+    }
+
+    @Override
+    public String toString() {
+        switch (kind) {
+            case EXISTS:
+                return "exists(" + propertyKey + ")";
+            case EQUAL:
+                return propertyKey + " = " + value;
+            default:
+                if (Double.isNaN(max)) {
+                    return propertyKey + " >= " + min;
+                }
+                if (Double.isNaN(min)) {
+                    return propertyKey + " < " + max;
+                }
+                return propertyKey + " in [" + min + ", " + max + ")";
+        }
+    }
+}
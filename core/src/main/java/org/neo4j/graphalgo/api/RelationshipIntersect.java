@@ -0,0 +1,45 @@
+package org.neo4j.graphalgo.api;
+
+import org.neo4j.graphalgo.core.utils.Intersections;
+import org.neo4j.graphdb.Direction;
+
+import java.util.function.IntConsumer;
+
+/**
+ * membership and intersection of adjacency lists without materializing
+ * them as sets. The defaults iterate the relationships, graphs whose lists
+ * are sorted by target override them with binary search and merging.
+ */
+public interface RelationshipIntersect extends RelationshipIterator {
+
+    /**
+     * whether a relationship from source to target exists in the direction
+     */
+    default boolean exists(int sourceNodeId, int targetNodeId, Direction direction) {
+        final boolean[] found = {false};
+        forEachRelationship(sourceNodeId, direction, (source, target, relationId) -> {
+            // not every graph stops iterating when the consumer returns false
+            if (target == targetNodeId) {
+                found[0] = true;
+            }
+            return !found[0];
+        });
+        return found[0];
+    }
+
+    /**
+     * report each common outgoing neighbour of both nodes once, in ascending order
+     */
+    default void intersect(int nodeA, int nodeB, IntConsumer consumer) {
+        intersect(nodeA, nodeB, Direction.OUTGOING, consumer);
+    }
+
+    /**
+     * report each common neighbour of both nodes in the direction once, in ascending order
+     */
+    default void intersect(int nodeA, int nodeB, Direction direction, IntConsumer consumer) {
+        final int[] a = Intersections.sortedTargets(this, nodeA, direction);
+        final int[] b = Intersections.sortedTargets(this, nodeB, direction);
+        Intersections.intersect(a, 0, a.length, b, 0, b.length, consumer);
+    }
+}
@@ -0,0 +1,32 @@
+package org.neo4j.graphalgo.api;
+
+import org.neo4j.graphdb.Direction;
+
+/**
+ * Iterates the relationships of a node restricted to a subset of the
+ * relationship types the graph has been loaded with. The subset is a bit
+ * mask, bit {@code i} selects the i-th loaded type.
+ */
+public interface TypedRelationshipIterator {
+
+    /**
+     * the loaded relationship types, the index of a type is its bit in a type mask
+     */
+    String[] relationshipTypes();
+
+    /**
+     * the mask selecting the given relationship types
+     *
+     * @throws IllegalArgumentException if one of the types has not been loaded
+     */
+    int typeMask(String... relationshipTypes);
+
+    void forEachRelationship(int nodeId, Direction direction, int typeMask, RelationshipConsumer consumer);
+
+    void forEachRelationship(int nodeId, Direction direction, int typeMask, WeightedRelationshipConsumer consumer);
+
+    /**
+     * the number of relationships of the selected types
+     */
+    int degree(int nodeId, Direction direction, int typeMask);
+}
@@ -0,0 +1,359 @@
+package org.neo4j.graphalgo.core;
+
+import org.neo4j.graphalgo.api.Graph;
+import org.neo4j.graphalgo.api.GraphFactory;
+import org.neo4j.graphalgo.api.GraphSetup;
+import org.neo4j.graphalgo.core.heavyweight.HeavyGraphFactory;
+import org.neo4j.graphalgo.core.heavyweight.HeavyGraphUpdater;
+import org.neo4j.graphalgo.core.leightweight.GraphSnapshot;
+import org.neo4j.graphalgo.core.leightweight.LightGraphFactory;
+import org.neo4j.graphdb.Direction;
+import org.neo4j.kernel.internal.GraphDatabaseAPI;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.WeakHashMap;
+
+/**
+ * Holds loaded graphs by name so that procedures can run on them without
+ * loading the graph again for every call.
+ * <p>
+ * Each database has its own catalog. The catalog is bound by a heap budget,
+ * when a new graph does not fit, the least recently used graphs are evicted
+ * until it does. The memory of a graph is the heap estimate of its
+ * {@link GraphFactory}, so a graph is refused or makes room before it is loaded.
+ */
+public final class GraphCatalog {
+
+    private static final Map<GraphDatabaseAPI, GraphCatalog> CATALOGS = new WeakHashMap<>();
+
+    // access ordered, the first entry is the least recently used graph
+    private final LinkedHashMap<String, Entry> graphs = new LinkedHashMap<>(16, 0.75f, true);
+    private long maxBytes = Runtime.getRuntime().maxMemory() / 2;
+    private long usedBytes;
+
+    /**
+     * Return the catalog of the given database.
+     */
+    public static GraphCatalog of(GraphDatabaseAPI api) {
+        Objects.requireNonNull(api);
+        synchronized (CATALOGS) {
+            return CATALOGS.computeIfAbsent(api, k -> new GraphCatalog());
+        }
+    }
+
+    /**
+     * Set the heap budget of this catalog. Graphs are evicted if they
+     * no longer fit into the new budget.
+     *
+     * @param maxBytes the maximum estimated bytes of all loaded graphs
+     */
+    public synchronized void setMaxBytes(long maxBytes) {
+        if (maxBytes < 0) {
+            throw new IllegalArgumentException("Budget must not be negative: " + maxBytes);
+        }
+        this.maxBytes = maxBytes;
+        evict(0L, null);
+    }
+
+    public synchronized long maxBytes() {
+        return maxBytes;
+    }
+
+    public synchronized long usedBytes() {
+        return usedBytes;
+    }
+
+    /**
+     * Load a graph with the given loader and factory and store it under the given
+     * name, replacing a graph that is already stored under this name once the
+     * new graph has been loaded. The least recently used graphs are evicted to
+     * stay within the budget.
+     *
+     * @return the stored entry
+     * @throws IllegalArgumentException if the graph alone exceeds the budget
+     */
+    public Entry load(String name, GraphLoader loader, Class<? extends GraphFactory> factoryType) {
+        return load(name, loader, factoryType, false);
+    }
+
+    /**
+     * Load a graph and store it under the given name like
+     * {@link #load(String, GraphLoader, Class)}. An incremental graph is kept
+     * up to date with the committed transactions by a {@link HeavyGraphUpdater}
+     * until it is removed from the catalog.
+     *
+     * @param incremental whether to apply committed transactions to the graph
+     * @throws IllegalArgumentException if an incremental graph is not loaded by the {@link HeavyGraphFactory}
+     *                                  or can not be updated by a {@link HeavyGraphUpdater}
+     */
+    public Entry load(
+            String name,
+            GraphLoader loader,
+            Class<? extends GraphFactory> factoryType,
+            boolean incremental) {
+        Objects.requireNonNull(name);
+        if (incremental && factoryType != HeavyGraphFactory.class) {
+            throw new IllegalArgumentException("Only graphs of the HeavyGraphFactory can be incremental");
+        }
+        final GraphSetup setup = loader.buildSetup();
+        final long bytes = loader.estimate(factoryType).heapBytes();
+        // reserve the memory while loading
+        final List<String> evicted = reserve(name, bytes);
+        final Graph graph;
+        final long start = System.nanoTime();
+        HeavyGraphUpdater updater = null;
+        try {
+            // register before loading to miss no transaction
+            updater = incremental ? new HeavyGraphUpdater(loader.api(), setup) : null;
+            graph = loader.load(factoryType);
+            if (updater != null) {
+                updater.start(graph);
+            }
+        } catch (RuntimeException e) {
+            if (updater != null) {
+                updater.close();
+            }
+            synchronized (this) {
+                usedBytes -= bytes;
+            }
+            throw e;
+        }
+        final long loadNanos = System.nanoTime() - start;
+        final Entry entry = new Entry(name, setup, factoryType, graph, updater, relationshipCount(graph), bytes, loadNanos);
+        entry.evicted = evicted;
+        store(entry);
+        return entry;
+    }
+
+    /**
+     * Write the graph stored under the given name to a {@link GraphSnapshot} file.
+     * Node weights and properties are not written.
+     *
+     * @return the size of the file
+     * @throws IllegalArgumentException if no graph is stored under this name
+     */
+    public long save(String name, Path file) {
+        final Entry entry = getOrThrow(name);
+        try {
+            return GraphSnapshot.write(entry.graph(), entry.setup, file);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Map the {@link GraphSnapshot} in the file and store its graph under the given
+     * name, replacing a graph that is already stored under this name. The mapped
+     * arrays live outside of the heap, only the id mapping counts towards the budget.
+     *
+     * @param verify whether to verify the checksums of the whole file
+     * @return the stored entry
+     * @throws IllegalArgumentException if the graph alone exceeds the budget
+     * @throws UncheckedIOException if the file can not be read or is no valid snapshot
+     */
+    public Entry attach(String name, Path file, boolean verify) {
+        Objects.requireNonNull(name);
+        final long start = System.nanoTime();
+        final GraphSnapshot snapshot;
+        try {
+            snapshot = GraphSnapshot.open(file, verify);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        final Graph graph = snapshot.graph();
+        final long bytes = IdMap.estimateBytes(graph.nodeCount());
+        final List<String> evicted = reserve(name, bytes);
+        final long loadNanos = System.nanoTime() - start;
+        final Entry entry = new Entry(
+                name,
+                snapshot.setup(),
+                LightGraphFactory.class,
+                graph,
+                null,
+                relationshipCount(graph),
+                bytes,
+                loadNanos);
+        entry.evicted = evicted;
+        store(entry);
+        return entry;
+    }
+
+    /**
+     * reserve the bytes of the graph of the name, a graph already stored under
+     * the name is kept until its replacement is stored, but its bytes count as
+     * freed when checking the budget
+     *
+     * @return the names of the evicted graphs
+     * @throws IllegalArgumentException if the graph alone exceeds the budget
+     */
+    private synchronized List<String> reserve(String name, long bytes) {
+        if (bytes > maxBytes) {
+            throw new IllegalArgumentException(String.format(
+                    "Graph '%s' needs an estimated %d bytes and exceeds the budget of %d bytes",
+                    name,
+                    bytes,
+                    maxBytes));
+        }
+        final Entry replaced = graphs.get(name);
+        final List<String> evicted = evict(replaced != null ? bytes - replaced.bytes : bytes, name);
+        usedBytes += bytes;
+        return evicted;
+    }
+
+    private synchronized void store(Entry entry) {
+        final Entry previous = graphs.put(entry.name, entry);
+        if (previous != null) {
+            // loaded concurrently under the same name
+            usedBytes -= previous.bytes;
+            previous.close();
+        }
+    }
+
+    /**
+     * Return the graph stored under the given name and mark it as recently used.
+     *
+     * @return the entry or null if no graph is stored under this name
+     */
+    public synchronized Entry get(String name) {
+        return graphs.get(name);
+    }
+
+    /**
+     * Return the graph stored under the given name.
+     *
+     * @throws IllegalArgumentException if no graph is stored under this name
+     */
+    public Entry getOrThrow(String name) {
+        final Entry entry = get(name);
+        if (entry == null) {
+            throw new IllegalArgumentException("No graph loaded under the name '" + name + "'");
+        }
+        return entry;
+    }
+
+    /**
+     * Remove the graph stored under the given name.
+     *
+     * @return true if a graph was removed
+     */
+    public synchronized boolean remove(String name) {
+        final Entry entry = graphs.remove(name);
+        if (entry == null) {
+            return false;
+        }
+        usedBytes -= entry.bytes;
+        entry.close();
+        return true;
+    }
+
+    /**
+     * Return the names of the stored graphs, least recently used first.
+     */
+    public synchronized List<String> names() {
+        return new ArrayList<>(graphs.keySet());
+    }
+
+    /**
+     * evict the least recently used graphs except the one of the kept name
+     */
+    private List<String> evict(long requiredBytes, String keep) {
+        List<String> evicted = Collections.emptyList();
+        final Iterator<Entry> it = graphs.values().iterator();
+        while (usedBytes + requiredBytes > maxBytes && it.hasNext()) {
+            final Entry entry = it.next();
+            if (entry.name.equals(keep)) {
+                continue;
+            }
+            it.remove();
+            usedBytes -= entry.bytes;
+            entry.close();
+            if (evicted.isEmpty()) {
+                evicted = new ArrayList<>();
+            }
+            evicted.add(entry.name);
+        }
+        return evicted;
+    }
+
+    private static long relationshipCount(Graph graph) {
+        final long[] count = {0L};
+        graph.forEachNode(node -> count[0] += graph.degree(node, Direction.OUTGOING));
+        return count[0];
+    }
+
+    /**
+     * A graph of the catalog together with the setup it was loaded with.
+     */
+    public static final class Entry {
+        public final String name;
+        public final GraphSetup setup;
+        public final Class<? extends GraphFactory> factoryType;
+        private final Graph graph;
+        private final HeavyGraphUpdater updater;
+        // the number of relationships when the graph was loaded
+        public final long relationships;
+        public final long bytes;
+        public final long loadNanos;
+        private List<String> evicted = Collections.emptyList();
+
+        private Entry(
+                String name,
+                GraphSetup setup,
+                Class<? extends GraphFactory> factoryType,
+                Graph graph,
+                HeavyGraphUpdater updater,
+                long relationships,
+                long bytes,
+                long loadNanos) {
+            this.name = name;
+            this.setup = setup;
+            this.factoryType = factoryType;
+            this.graph = graph;
+            this.updater = updater;
+            this.relationships = relationships;
+            this.bytes = bytes;
+            this.loadNanos = loadNanos;
+        }
+
+        /**
+         * Return the graph, the latest snapshot with all committed changes if the graph is incremental.
+         */
+        public Graph graph() {
+            return updater != null ? updater.graph() : graph;
+        }
+
+        /**
+         * the number of change sets applied to the graph since it has been loaded,
+         * always 0 if the graph is not incremental
+         */
+        public long version() {
+            return updater != null ? updater.version() : 0L;
+        }
+
+        public boolean isIncremental() {
+            return updater != null;
+        }
+
+        private void close() {
+            if (updater != null) {
+                updater.close();
+            }
+        }
+
+        /**
+         * Return the names of the graphs evicted to make room for this one.
+         */
+        public List<String> evicted() {
+            return evicted;
+        }
+    }
+}
@@ -3,6 +3,11 @@ package org.neo4j.graphalgo.core;
 import org.neo4j.graphalgo.api.Graph;
 import org.neo4j.graphalgo.api.GraphFactory;
 import org.neo4j.graphalgo.api.GraphSetup;
+import org.neo4j.graphalgo.api.PropertyPredicate;
+import org.neo4j.graphalgo.core.utils.MemoryEstimation;
+import org.neo4j.graphalgo.core.utils.NodeOrder;
+import org.neo4j.graphalgo.core.utils.OffHeapPages;
+import org.neo4j.graphdb.Direction;
 import org.neo4j.graphdb.Label;
 import org.neo4j.graphdb.RelationshipType;
 import org.neo4j.helpers.Exceptions;
@@ -11,6 +16,9 @@ import org.neo4j.kernel.internal.GraphDatabaseAPI;
 import java.lang.invoke.MethodHandle;
 import java.lang.invoke.MethodHandles;
 import java.lang.invoke.MethodType;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Objects;
 import java.util.concurrent.ExecutorService;
 
@@ -47,6 +55,20 @@ public class GraphLoader {
     private String nodeStatement;
     /** statement to load unique relationships, has to return ids of start "source" and end-node "target" and optionally "weight" */
     private String relationshipStatement;
+    private boolean compressAdjacency = false;
+    private OffHeapPages offHeapPages = null;
+    private boolean loadRelationshipIds = true;
+    private boolean floatRelationshipWeights = false;
+    private boolean undirected = false;
+    private Direction direction = Direction.BOTH;
+    private boolean loadOppositeDegrees = false;
+    private NodeOrder nodeOrder = null;
+    private boolean sortAdjacency = false;
+    private boolean bindStatements = false;
+    private final List<PropertyPredicate> nodePredicates = new ArrayList<>();
+    private final List<PropertyPredicate> relationshipPredicates = new ArrayList<>();
+    // 0 disables the memory check
+    private double maxHeapFraction = 0.0;
 
     /**
      * Creates a new serial GraphLoader.
@@ -87,6 +109,7 @@ public class GraphLoader {
 
     /**
      * Instructs the loader to load only nodes with the given label name.
+     * Several labels can be given separated by {@code '|'}, like {@code "City|Port"}.
      * If the label is not found, every node will be loaded.
      *
      * @param label May not be null; to remove a label filter, use {@link #withAnyLabel()} instead.
@@ -121,6 +144,25 @@ public class GraphLoader {
         return this;
     }
 
+    /**
+     * Instructs the loader to load the nodes having at least one of the given label names.
+     * The HeavyGraph keeps a bitmap of the nodes of each label, in the order of the given
+     * names, so that a single graph can be traversed for different subsets of these
+     * labels, see {@link org.neo4j.graphalgo.api.NodeLabels}. The LightGraph loads the
+     * union of the labels, other factories only support a single label. Labels that are
+     * not found are skipped, if none of the labels is found every node will be loaded.
+     *
+     * @param labels May not be null or empty
+     * @return itself to enable fluent interface
+     */
+    public GraphLoader withLabels(String... labels) {
+        if (labels.length == 0) {
+            throw new IllegalArgumentException("At least one label is required");
+        }
+        this.label = String.join(GraphSetup.LABEL_SEPARATOR, labels);
+        return this;
+    }
+
     /**
      * Instructs the loader to load any node with no restriction to any label.
      *
@@ -133,6 +175,7 @@ public class GraphLoader {
 
     /**
      * Instructs the loader to load only relationships with the given type name.
+     * Several types can be given separated by {@code '|'}, like {@code "ROAD|FERRY"}.
      * If the type is not found, every relationship will be loaded. TODO review that
      *
      * @param relation May not be null; to remove a type filter, use {@link #withAnyRelationshipType()} instead.
@@ -167,6 +210,26 @@ public class GraphLoader {
         return this;
     }
 
+    /**
+     * Instructs the loader to load only relationships with one of the given type names.
+     * The HeavyGraph groups the relationships of each node by type, in the order
+     * of the given names, so that a single graph can be traversed for different
+     * subsets of these types, see {@link org.neo4j.graphalgo.api.TypedRelationshipIterator}.
+     * The LightGraph loads the union of the types, other factories only support a
+     * single type. Types that are not found are skipped,
+     * if none of the types is found every relationship will be loaded.
+     *
+     * @param relations May not be null or empty
+     * @return itself to enable fluent interface
+     */
+    public GraphLoader withRelationshipTypes(String... relations) {
+        if (relations.length == 0) {
+            throw new IllegalArgumentException("At least one relationship type is required");
+        }
+        this.relation = String.join(GraphSetup.TYPE_SEPARATOR, relations);
+        return this;
+    }
+
     /**
      * Instructs the loader to load any relationship with no restriction to any type.
      *
@@ -334,6 +397,334 @@ public class GraphLoader {
         return this;
     }
 
+    /**
+     * Instructs the loader to store each adjacency list sorted and delta encoded
+     * with variable length ints. This trades some decoding work for a much smaller
+     * memory footprint on graphs with clustered neighbour ids.
+     * Only supported by the {@link org.neo4j.graphalgo.core.leightweight.LightGraphFactory},
+     * other factories ignore this setting.
+     *
+     * @return itself to enable fluent interface
+     */
+    public GraphLoader withCompressedAdjacency() {
+        this.compressAdjacency = true;
+        return this;
+    }
+
+    /**
+     * Instructs the loader to store adjacency lists as plain int values.
+     *
+     * @return itself to enable fluent interface
+     */
+    public GraphLoader withoutCompressedAdjacency() {
+        this.compressAdjacency = false;
+        return this;
+    }
+
+    /**
+     * Instructs the loader to allocate the adjacency and its offsets as direct
+     * memory outside of the java heap. This keeps large graphs out of the
+     * old generation, so the GC neither scans nor copies them.
+     * The amount of direct memory is bound by {@code -XX:MaxDirectMemorySize}.
+     * Only supported by the {@link org.neo4j.graphalgo.core.leightweight.LightGraphFactory}
+     * for uncompressed adjacencies, other factories ignore this setting.
+     *
+     * @return itself to enable fluent interface
+     */
+    public GraphLoader withOffHeapStorage() {
+        this.offHeapPages = OffHeapPages.direct();
+        return this;
+    }
+
+    /**
+     * Instructs the loader to store the adjacency and its offsets in the given
+     * memory mapped file. This allows loading graphs larger than the heap or
+     * the available direct memory, the OS pages them in and out as required.
+     * The file is truncated before the graph is loaded and has to be
+     * deleted by the caller.
+     * Only supported by the {@link org.neo4j.graphalgo.core.leightweight.LightGraphFactory}
+     * for uncompressed adjacencies, other factories ignore this setting.
+     *
+     * @param file May not be null; to allocate on the heap, use {@link #withHeapStorage()} instead.
+     * @return itself to enable fluent interface
+     */
+    public GraphLoader withMemoryMappedStorage(Path file) {
+        this.offHeapPages = OffHeapPages.mapped(Objects.requireNonNull(file));
+        return this;
+    }
+
+    /**
+     * Instructs the loader to allocate the graph on the java heap.
+     *
+     * @return itself to enable fluent interface
+     */
+    public GraphLoader withHeapStorage() {
+        this.offHeapPages = null;
+        return this;
+    }
+
+    /**
+     * Instructs the loader to not load the ids of the relationships.
+     * Every relationship id is reported as {@code -1} instead, which saves
+     * 8 bytes per relationship for algorithms that never look at them.
+     * Supported by the {@link org.neo4j.graphalgo.core.leightweight.LightGraphFactory}
+     * and the {@link org.neo4j.graphalgo.core.heavyweight.HeavyGraphFactory}, other
+     * factories ignore this setting. The HeavyGraph looks up relationship weights
+     * by id, so it still loads the ids if relationship weights are loaded.
+     *
+     * @return itself to enable fluent interface
+     */
+    public GraphLoader withoutRelationshipIds() {
+        this.loadRelationshipIds = false;
+        return this;
+    }
+
+    /**
+     * Instructs the loader to load the ids of the relationships.
+     *
+     * @return itself to enable fluent interface
+     */
+    public GraphLoader withRelationshipIds() {
+        this.loadRelationshipIds = true;
+        return this;
+    }
+
+    /**
+     * Instructs the loader to store relationship weights as floats instead of doubles.
+     * This halves the memory of the weights at the cost of precision.
+     * Only supported by the {@link org.neo4j.graphalgo.core.leightweight.LightGraphFactory},
+     * other factories ignore this setting.
+     *
+     * @return itself to enable fluent interface
+     */
+    public GraphLoader withFloatRelationshipWeights() {
+        this.floatRelationshipWeights = true;
+        return this;
+    }
+
+    /**
+     * Instructs the loader to store relationship weights as doubles.
+     *
+     * @return itself to enable fluent interface
+     */
+    public GraphLoader withDoubleRelationshipWeights() {
+        this.floatRelationshipWeights = false;
+        return this;
+    }
+
+    /**
+     * Instructs the loader to merge the outgoing and incoming relationships of
+     * each node into a single list without duplicates. Two relationships in
+     * opposite directions between the same nodes become one neighbour and
+     * a self-loop is only stored once. Every direction, including
+     * {@link org.neo4j.graphdb.Direction#BOTH}, iterates this list once, so
+     * symmetric algorithms visit each neighbour only once and
+     * {@code degree(node, BOTH)} is the number of distinct neighbours.
+     * The first relationship to a neighbour in the order of the store
+     * provides the relationship id and weight.
+     * Supported by the {@link org.neo4j.graphalgo.core.leightweight.LightGraphFactory}
+     * and the {@link org.neo4j.graphalgo.core.heavyweight.HeavyGraphFactory},
+     * other factories ignore this setting.
+     *
+     * @return itself to enable fluent interface
+     */
+    public GraphLoader undirected() {
+        this.undirected = true;
+        return this;
+    }
+
+    /**
+     * Instructs the loader to keep outgoing and incoming relationships apart.
+     *
+     * @return itself to enable fluent interface
+     */
+    public GraphLoader directed() {
+        this.undirected = false;
+        return this;
+    }
+
+    /**
+     * Instructs the loader to only load the relationships of the given direction,
+     * which roughly halves memory and loading time for algorithms that only
+     * traverse one direction. The relationships of the other direction are not
+     * iterated and their degree is {@code 0} unless {@link #withOppositeDegrees()}
+     * is set. Undirected graphs always load both directions.
+     * Supported by the {@link org.neo4j.graphalgo.core.leightweight.LightGraphFactory}
+     * and the {@link org.neo4j.graphalgo.core.heavyweight.HeavyGraphFactory},
+     * other factories ignore this setting.
+     *
+     * @param direction OUTGOING, INCOMING or BOTH (the default)
+     * @return itself to enable fluent interface
+     */
+    public GraphLoader withDirection(Direction direction) {
+        this.direction = Objects.requireNonNull(direction);
+        return this;
+    }
+
+    /**
+     * Instructs the loader to count the degrees of the direction that is not
+     * loaded, for algorithms that traverse one direction but need the degrees
+     * of the other, like PageRank. This costs 4 bytes (LightGraph) or nothing
+     * (HeavyGraph) per node instead of the relationships of that direction.
+     *
+     * @return itself to enable fluent interface
+     */
+    public GraphLoader withOppositeDegrees() {
+        this.loadOppositeDegrees = true;
+        return this;
+    }
+
+    /**
+     * Instructs the loader to not count the degrees of the direction that is not loaded.
+     *
+     * @return itself to enable fluent interface
+     */
+    public GraphLoader withoutOppositeDegrees() {
+        this.loadOppositeDegrees = false;
+        return this;
+    }
+
+    /**
+     * Instructs the loader to relabel the nodes after loading, so that nodes
+     * which are close in the graph get close graph ids. Iterative algorithms
+     * then access their per node arrays and the adjacency with better locality.
+     * Only the {@link org.neo4j.graphalgo.core.leightweight.LightGraphFactory}
+     * relabels the nodes, the other factories keep the store order.
+     *
+     * @param nodeOrder the order of the graph ids, null keeps the store order
+     * @return itself to enable fluent interface
+     */
+    public GraphLoader withNodeOrder(NodeOrder nodeOrder) {
+        this.nodeOrder = nodeOrder;
+        return this;
+    }
+
+    /**
+     * Instructs the loader to sort every adjacency list by target node, so that
+     * {@link org.neo4j.graphalgo.api.Graph#exists(int, int, Direction)} searches
+     * binary and {@link org.neo4j.graphalgo.api.Graph#intersect(int, int, java.util.function.IntConsumer)}
+     * merges the lists instead of iterating them. Relationship ids and weights keep
+     * their relationship. Undirected, compressed and relabelled graphs are always sorted.
+     * Supported by the {@link org.neo4j.graphalgo.core.leightweight.LightGraphFactory}
+     * and the {@link org.neo4j.graphalgo.core.heavyweight.HeavyGraphFactory},
+     * other factories ignore this setting.
+     *
+     * @return itself to enable fluent interface
+     */
+    public GraphLoader withSortedAdjacency() {
+        this.sortAdjacency = true;
+        return this;
+    }
+
+    /**
+     * Instructs the loader to keep the adjacency lists in store order.
+     *
+     * @return itself to enable fluent interface
+     */
+    public GraphLoader withoutSortedAdjacency() {
+        this.sortAdjacency = false;
+        return this;
+    }
+
+    /**
+     * Instructs the loader to create a view that binds one statement to each
+     * thread that reads from it and keeps it open until the view is closed,
+     * instead of opening a transaction for every call. The view has to be
+     * closed after use. Only the
+     * {@link org.neo4j.graphalgo.core.neo4jview.GraphViewFactory} binds
+     * statements, the other factories ignore this setting.
+     *
+     * @return itself to enable fluent interface
+     */
+    public GraphLoader withBoundStatements() {
+        this.bindStatements = true;
+        return this;
+    }
+
+    /**
+     * Instructs the loader to create a view that opens a transaction
+     * for every call, which is the default.
+     *
+     * @return itself to enable fluent interface
+     */
+    public GraphLoader withoutBoundStatements() {
+        this.bindStatements = false;
+        return this;
+    }
+
+    /**
+     * Instructs the loader to only load nodes whose property matches the predicate.
+     * Several predicates must all match. The predicates are evaluated while reading
+     * the nodes from the store, so filtered nodes and their relationships are never
+     * added to the graph. The node count of the store is still used to size the
+     * graph and for the memory estimation.
+     * Supported by the {@link org.neo4j.graphalgo.core.leightweight.LightGraphFactory}
+     * and the {@link org.neo4j.graphalgo.core.heavyweight.HeavyGraphFactory},
+     * other factories refuse to load the graph.
+     *
+     * @return itself to enable fluent interface
+     */
+    public GraphLoader withNodePredicate(PropertyPredicate predicate) {
+        this.nodePredicates.add(Objects.requireNonNull(predicate));
+        return this;
+    }
+
+    /**
+     * Instructs the loader to only load relationships whose property matches the predicate.
+     * Several predicates must all match. Degrees only count the matching relationships.
+     * Supported by the {@link org.neo4j.graphalgo.core.leightweight.LightGraphFactory}
+     * and the {@link org.neo4j.graphalgo.core.heavyweight.HeavyGraphFactory},
+     * other factories refuse to load the graph.
+     *
+     * @return itself to enable fluent interface
+     */
+    public GraphLoader withRelationshipPredicate(PropertyPredicate predicate) {
+        this.relationshipPredicates.add(Objects.requireNonNull(predicate));
+        return this;
+    }
+
+    /**
+     * Instructs the loader to refuse loading a graph whose estimated heap memory
+     * exceeds the given fraction of the currently free heap. The check is disabled
+     * by default, the free heap does not account for garbage that could be collected
+     * and the estimate is an upper bound for some factories.
+     *
+     * @param maxHeapFraction the fraction of the free heap, must be positive
+     * @return itself to enable fluent interface
+     */
+    public GraphLoader withMaxHeapFraction(double maxHeapFraction) {
+        if (maxHeapFraction <= 0.0) {
+            throw new IllegalArgumentException("maxHeapFraction must be positive: " + maxHeapFraction);
+        }
+        this.maxHeapFraction = maxHeapFraction;
+        return this;
+    }
+
+    /**
+     * Instructs the loader to refuse loading a graph whose estimated heap memory
+     * exceeds the given fraction of the free heap, if the fraction is not null.
+     *
+     * @param maxHeapFraction the fraction of the free heap or null to load the graph
+     *                        regardless of its estimated memory
+     * @return itself to enable fluent interface
+     */
+    public GraphLoader withOptionalMaxHeapFraction(Number maxHeapFraction) {
+        return maxHeapFraction == null
+                ? withoutMemoryCheck()
+                : withMaxHeapFraction(maxHeapFraction.doubleValue());
+    }
+
+    /**
+     * Instructs the loader to load the graph regardless of its estimated memory,
+     * which is the default.
+     *
+     * @return itself to enable fluent interface
+     */
+    public GraphLoader withoutMemoryCheck() {
+        this.maxHeapFraction = 0.0;
+        return this;
+    }
+
     /**
      * Loads the graph using the provided GraphFactory, passing the built
      * configuration as parameters.
@@ -342,10 +733,40 @@ public class GraphLoader {
      * during load and usage of the Graph.
      *
      * @return the freshly loaded graph
+     * @throws IllegalStateException if the estimated memory exceeds the fraction of the free heap
+     *                               set by {@link #withMaxHeapFraction(double)}
      */
     public Graph load(Class<? extends GraphFactory> factoryType) {
         final MethodHandle constructor = findConstructor(factoryType);
-        return invokeConstructor(constructor).build();
+        final GraphFactory factory = invokeConstructor(constructor);
+        if (maxHeapFraction > 0.0) {
+            checkMemory(factory.memoryEstimation());
+        }
+        return factory.build();
+    }
+
+    /**
+     * Estimates the memory of the graph the provided GraphFactory would load,
+     * without loading it.
+     *
+     * @return the estimated memory of each part of the graph
+     */
+    public MemoryEstimation estimate(Class<? extends GraphFactory> factoryType) {
+        final MethodHandle constructor = findConstructor(factoryType);
+        return invokeConstructor(constructor).memoryEstimation();
+    }
+
+    private void checkMemory(MemoryEstimation estimation) {
+        final Runtime runtime = Runtime.getRuntime();
+        final long freeHeap = runtime.maxMemory() - (runtime.totalMemory() - runtime.freeMemory());
+        final long allowed = (long) (freeHeap * maxHeapFraction);
+        if (estimation.heapBytes() > allowed) {
+            throw new IllegalStateException(String.format(
+                    "The graph needs an estimated %d bytes of heap, but only %d bytes are allowed: %s",
+                    estimation.heapBytes(),
+                    allowed,
+                    estimation));
+        }
     }
 
     private MethodHandle findConstructor(Class<?> factoryType) {
@@ -357,21 +778,7 @@ public class GraphLoader {
     }
 
     private GraphFactory invokeConstructor(MethodHandle constructor) {
-
-        final GraphSetup setup = new GraphSetup(
-                label,
-                null,
-                relation,
-                relWeightProp,
-                relWeightDefault,
-                nodeWeightProp,
-                nodeWeightDefault,
-                nodeProp,
-                nodePropDefault,
-                executorService,
-                nodeStatement,
-                relationshipStatement);
-
+        final GraphSetup setup = buildSetup();
         try {
             return (GraphFactory) constructor.invoke(api, setup);
         } catch (Throwable throwable) {
@@ -381,6 +788,41 @@ public class GraphLoader {
         }
     }
 
+    /**
+     * the database the graph is loaded from
+     */
+    GraphDatabaseAPI api() {
+        return api;
+    }
+
+    /**
+     * Build the {@link GraphSetup} of the current configuration.
+     */
+    GraphSetup buildSetup() {
+        return new GraphSetup.Builder()
+                .startLabel(label)
+                .relationshipType(relation)
+                .relationWeight(relWeightProp, relWeightDefault)
+                .nodeWeight(nodeWeightProp, nodeWeightDefault)
+                .nodeProperty(nodeProp, nodePropDefault)
+                .executor(executorService)
+                .nodeStatement(nodeStatement)
+                .relationshipStatement(relationshipStatement)
+                .compressAdjacency(compressAdjacency)
+                .offHeapPages(offHeapPages)
+                .loadRelationshipIds(loadRelationshipIds)
+                .floatRelationshipWeights(floatRelationshipWeights)
+                .undirected(undirected)
+                .direction(direction)
+                .loadOppositeDegrees(loadOppositeDegrees)
+                .nodeOrder(nodeOrder)
+                .sortAdjacency(sortAdjacency)
+                .nodePredicates(nodePredicates.toArray(new PropertyPredicate[0]))
+                .relationshipPredicates(relationshipPredicates.toArray(new PropertyPredicate[0]))
+                .bindStatements(bindStatements)
+                .build();
+    }
+
     /**
      * provide statement to load nodes, has to return "id" and optionally "weight" or "value"
      * @param nodeStatement
@@ -392,7 +834,9 @@ public class GraphLoader {
     }
 
     /**
-     * provide statement to load unique relationships, has to return ids of start "source" and end-node "target" and optionally "weight"
+     * provide statement to load unique relationships, has to return ids of start "source" and end-node "target" and optionally "weight".
+     * If it uses the parameters {@code $skip} and {@code $limit} and an executor service is given,
+     * the HeavyCypherGraphFactory runs it in concurrent batches.
      * @param relationshipStatement
      * @return
      */
@@ -6,26 +6,50 @@ import com.carrotsearch.hppc.cursors.LongIntCursor;
 import org.neo4j.collection.primitive.PrimitiveIntIterator;
 import org.neo4j.graphalgo.api.IdMapping;
 import org.neo4j.graphalgo.api.NodeIterator;
+import org.neo4j.graphalgo.core.utils.MemoryEstimation;
 
+import java.util.Arrays;
 import java.util.function.IntConsumer;
 
 /**
  * This is basically a long to int mapper. It sorts the id's in ascending order so its
  * guaranteed that there is no ID greater then nextGraphId / capacity
+ * <p>
+ * Neo4j node ids are mostly dense, so the mapping starts as a paged int array
+ * indexed by the original id where pages without any mapped id stay unallocated.
+ * Once the pages would take more memory than a hash map, e.g. because only
+ * a few nodes of a label are loaded, the mapping switches to a hash map.
  */
 public final class IdMap implements IdMapping, NodeIterator{
 
-    private final IdIterator iter;
+    private static final int PAGE_SHIFT = 12;
+    private static final int PAGE_SIZE = 1 << PAGE_SHIFT;
+    private static final int PAGE_MASK = PAGE_SIZE - 1;
+    private static final int[] NO_PAGE = null;
+    private static final int[][] NO_PAGES = new int[0][];
+
+    /**
+     * the paged ids may take this much memory more than a hash map
+     * before switching to the hash map
+     */
+    private static final long PAGED_SLACK_BYTES = 1L << 20;
+
+    // the expected number of nodes, presizes the hash map
+    private final int capacity;
     private int nextGraphId;
     private long[] graphIds;
     private LongIntMap nodeToGraphIds;
+    // original id -> graph id, -1 for unmapped ids. null once switched to the hash map
+    private int[][] pages;
+    private int allocatedPages;
 
     /**
-     * initialize the map with maximum node capacity
+     * initialize the map with the expected node capacity, the hash map
+     * is presized with it when the mapping switches to the hash map
      */
     public IdMap(final int capacity) {
-        nodeToGraphIds = new LongIntHashMap((int) Math.ceil(capacity / 0.99), 0.99);
-        iter = new IdIterator();
+        this.capacity = capacity;
+        pages = NO_PAGES;
     }
 
     /**
@@ -34,39 +58,185 @@ public final class IdMap implements IdMapping, NodeIterator{
     public IdMap(
             long[] graphIds,
             LongIntMap nodeToGraphIds) {
+        this.capacity = graphIds.length;
         this.nextGraphId = graphIds.length;
         this.graphIds = graphIds;
         this.nodeToGraphIds = nodeToGraphIds;
-        iter = new IdIterator();
     }
 
+    private IdMap(IdMap other) {
+        this.capacity = other.capacity;
+        this.nextGraphId = other.nextGraphId;
+        this.graphIds = other.graphIds;
+        this.allocatedPages = other.allocatedPages;
+        if (other.pages != null) {
+            this.pages = new int[other.pages.length][];
+            for (int i = 0; i < other.pages.length; i++) {
+                this.pages[i] = other.pages[i] == NO_PAGE ? NO_PAGE : other.pages[i].clone();
+            }
+        } else {
+            this.nodeToGraphIds = new LongIntHashMap(other.nodeToGraphIds);
+        }
+    }
+
+    /**
+     * Return a copy of this map which can be extended by {@link #add(long)}
+     * without changing this map. The mapped ids of the copy have to be built again.
+     */
+    public IdMap copy() {
+        return new IdMap(this);
+    }
+
+    /**
+     * Return a map of the same ids whose graph ids are relabelled,
+     * the original id of graph id {@code i} gets graph id {@code newNodeIds[i]}.
+     */
+    public IdMap relabel(int[] newNodeIds) {
+        final long[] originalIds = new long[nextGraphId];
+        for (int nodeId = 0; nodeId < nextGraphId; nodeId++) {
+            originalIds[newNodeIds[nodeId]] = graphIds[nodeId];
+        }
+        final IdMap relabelled = new IdMap(nextGraphId);
+        for (long originalId : originalIds) {
+            relabelled.add(originalId);
+        }
+        relabelled.buildMappedIds();
+        return relabelled;
+    }
+
+    /**
+     * Estimate the bytes of an {@link IdMap} holding the given number of nodes.
+     * The paged ids never take more than the hash map plus the slack,
+     * so this is an upper bound for both representations.
+     */
+    public static long estimateBytes(long nodeCount) {
+        return MemoryEstimation.sizeOfArray(nodeCount, Long.BYTES)
+                + (nodeCount + 1L) * (Long.BYTES + Integer.BYTES) * 2
+                + PAGED_SLACK_BYTES;
+    }
+
+    /**
+     * a new iterator over the graph ids, so several threads can iterate at once
+     */
     public PrimitiveIntIterator iterator() {
-        return iter.reset(nextGraphId);
+        return new IdIterator().reset(nextGraphId);
     }
 
     public int mapOrGet(long longValue) {
-        int intValue = nodeToGraphIds.getOrDefault(longValue, -1);
+        int intValue = get(longValue);
         if (intValue == -1) {
             intValue = nextGraphId++;
-            nodeToGraphIds.put(longValue, intValue);
+            put(longValue, intValue);
         }
         return intValue;
     }
 
     public void add(long longValue) {
         int intValue = nextGraphId++;
-        nodeToGraphIds.put(longValue, intValue);
+        put(longValue, intValue);
     }
 
     public int get(long longValue) {
+        final int[][] pages = this.pages;
+        if (pages != null) {
+            final long pageIndex = longValue >>> PAGE_SHIFT;
+            if (pageIndex >= pages.length) {
+                return -1;
+            }
+            final int[] page = pages[(int) pageIndex];
+            return page == NO_PAGE ? -1 : page[(int) (longValue & PAGE_MASK)];
+        }
         return nodeToGraphIds.getOrDefault(longValue, -1);
     }
 
+    /**
+     * whether the ids are mapped by the paged array instead of the hash map
+     */
+    public boolean isDense() {
+        return pages != null;
+    }
+
+    private void put(long longValue, int intValue) {
+        if (pages != null) {
+            final long pageIndex = longValue >>> PAGE_SHIFT;
+            if (pageIndex < pages.length && pages[(int) pageIndex] != NO_PAGE) {
+                pages[(int) pageIndex][(int) (longValue & PAGE_MASK)] = intValue;
+                return;
+            }
+            if (allocatePage(pageIndex)) {
+                pages[(int) pageIndex][(int) (longValue & PAGE_MASK)] = intValue;
+                return;
+            }
+        }
+        nodeToGraphIds.put(longValue, intValue);
+    }
+
+    /**
+     * allocates the page or switches to the hash map
+     * if the pages would become too sparse
+     *
+     * @return true if the page was allocated
+     */
+    private boolean allocatePage(long pageIndex) {
+        final long tableLength = Math.max(pages.length, pageIndex + 1);
+        final long pagedBytes = (allocatedPages + 1L) * PAGE_SIZE * Integer.BYTES
+                + tableLength * Long.BYTES;
+        // keys, values and free slots of a hash map at 0.99 load factor
+        final long hashBytes = (nextGraphId + 1L) * (Long.BYTES + Integer.BYTES) * 2;
+        if (tableLength > Integer.MAX_VALUE || pagedBytes > hashBytes + PAGED_SLACK_BYTES) {
+            switchToHashMap();
+            return false;
+        }
+        if (pageIndex >= pages.length) {
+            pages = Arrays.copyOf(pages, (int) tableLength);
+        }
+        final int[] page = new int[PAGE_SIZE];
+        Arrays.fill(page, -1);
+        pages[(int) pageIndex] = page;
+        allocatedPages++;
+        return true;
+    }
+
+    private void switchToHashMap() {
+        final int expected = Math.max(capacity, nextGraphId);
+        nodeToGraphIds = new LongIntHashMap((int) Math.ceil(expected / 0.99), 0.99);
+        final int[][] pages = this.pages;
+        for (int pageIndex = 0; pageIndex < pages.length; pageIndex++) {
+            final int[] page = pages[pageIndex];
+            if (page == NO_PAGE) {
+                continue;
+            }
+            final long base = (long) pageIndex << PAGE_SHIFT;
+            for (int i = 0; i < PAGE_SIZE; i++) {
+                if (page[i] != -1) {
+                    nodeToGraphIds.put(base + i, page[i]);
+                }
+            }
+        }
+        this.pages = null;
+    }
+
     public long unmap(int intValue) {
         return graphIds[intValue];
     }
 
     public void buildMappedIds() {
+        if (pages != null) {
+            graphIds = new long[nextGraphId];
+            for (int pageIndex = 0; pageIndex < pages.length; pageIndex++) {
+                final int[] page = pages[pageIndex];
+                if (page == NO_PAGE) {
+                    continue;
+                }
+                final long base = (long) pageIndex << PAGE_SHIFT;
+                for (int i = 0; i < PAGE_SIZE; i++) {
+                    if (page[i] != -1) {
+                        graphIds[page[i]] = base + i;
+                    }
+                }
+            }
+            return;
+        }
         graphIds = new long[nodeToGraphIds.size()];
         for (final LongIntCursor cursor : nodeToGraphIds) {
             graphIds[cursor.value] = cursor.key;
@@ -3,6 +3,8 @@ package org.neo4j.graphalgo.core;
 import com.carrotsearch.hppc.LongDoubleHashMap;
 import com.carrotsearch.hppc.LongDoubleMap;
 import org.neo4j.graphalgo.api.WeightMapping;
+import org.neo4j.graphalgo.core.utils.MemoryEstimation;
+import org.neo4j.graphalgo.core.utils.RawValues;
 
 /**
  * single weight cache
@@ -25,6 +27,13 @@ public final class WeightMap implements WeightMapping {
         this.defaultValue = defaultValue;
     }
 
+    /**
+     * Estimate the bytes of a {@link WeightMap} holding the given number of weights.
+     */
+    public static long estimateBytes(long elements) {
+        return MemoryEstimation.sizeOfHashMap(elements, Long.BYTES, Double.BYTES);
+    }
+
     /**
      * return the weight for id or defaultValue if unknown
      */
@@ -40,14 +49,18 @@ public final class WeightMap implements WeightMapping {
 
     @Override
     public void set(long id, Object value) {
-        final double doubleVal = extractValue(value);
+        final double doubleVal = extractValue(value, defaultValue);
         if (doubleVal == defaultValue) {
             return;
         }
         put(id, doubleVal);
     }
 
-    private double extractValue(Object value) {
+    /**
+     * convert a property value into a weight, returns defaultValue
+     * if the value cannot be converted
+     */
+    public static double extractValue(Object value, double defaultValue) {
         if (value instanceof Number) {
             Number number = (Number) value;
             return number.doubleValue();
@@ -68,10 +81,61 @@ public final class WeightMap implements WeightMapping {
         return defaultValue;
     }
 
+    /**
+     * add all weights of the other map to this map, used to merge
+     * the weights of tasks that loaded disjoint parts of the graph
+     */
+    public void putAll(WeightMap other) {
+        weights.putAll(other.weights);
+    }
+
+    /**
+     * a copy that can be changed without changing this map
+     */
+    public WeightMap copy() {
+        return new WeightMap(capacity, new LongDoubleHashMap(weights), defaultValue);
+    }
+
+    /**
+     * a map of the node weights of the given nodes, the weight of
+     * node {@code nodeIds[i]} becomes the weight of node {@code i}
+     */
+    public WeightMap subset(int[] nodeIds) {
+        final WeightMap subset = new WeightMap(nodeIds.length, defaultValue);
+        for (int i = 0; i < nodeIds.length; i++) {
+            final long id = RawValues.combineIntInt(nodeIds[i], -1);
+            if (weights.containsKey(id)) {
+                subset.weights.put(RawValues.combineIntInt(i, -1), weights.get(id));
+            }
+        }
+        return subset;
+    }
+
+    /**
+     * remove the weight of the id, it returns the default weight afterwards
+     */
+    public void remove(long id) {
+        weights.remove(id);
+    }
+
     private void put(long key, double value) {
         weights.addTo(key, value);
     }
 
+    /**
+     * return the number of weights that differ from the default weight
+     */
+    public int size() {
+        return weights.size();
+    }
+
+    /**
+     * return the weight of unknown ids
+     */
+    public double defaultValue() {
+        return defaultValue;
+    }
+
     /**
      * return the capacity
      */
@@ -1,11 +1,15 @@
 package org.neo4j.graphalgo.core.heavyweight;
 
 import org.neo4j.graphalgo.api.*;
+import org.neo4j.graphalgo.core.utils.Intersections;
+import org.neo4j.graphalgo.core.utils.MemoryEstimation;
 import org.apache.lucene.util.ArrayUtil;
 import org.neo4j.graphdb.Direction;
 
 import java.util.Arrays;
+import java.util.Collections;
 import java.util.Iterator;
+import java.util.function.IntConsumer;
 
 /**
  * Relation Container built of multiple arrays. The node capacity must be constant and the node IDs have to be
@@ -28,33 +32,93 @@ class AdjacencyMatrix {
      */
     final int[] inOffsets;
     /**
-     * matrix nodeId x [outgoing edge-relationIds..]
+     * matrix nodeId x [outgoing edge-relationIds..], null if only the degrees are loaded
      */
     final int[][] outgoing;
     /**
-     * matrix nodeId x [incoming edge-relationIds..]
+     * matrix nodeId x [incoming edge-relationIds..], null if only the degrees are loaded
      */
     final int[][] incoming;
     /**
-     * matrix nodeId x [outgoing relation-relationIds..]
+     * matrix nodeId x [outgoing relation-relationIds..], null if relationship ids or outgoing relations are not loaded
      */
     final long[][] outgoingIds;
     /**
-     * matrix nodeId x [incoming relation-relationIds..]
+     * matrix nodeId x [incoming relation-relationIds..], null if relationship ids or incoming relations are not loaded
      */
     final long[][] incomingIds;
+    /**
+     * whether both directions share a single merged list per node
+     */
+    final boolean undirected;
+    /**
+     * number of relationship types, the relations of a node are grouped by type in the order of the types
+     */
+    final int typeCount;
+    /**
+     * matrix nodeId x [start of each type in outgoing..], null if there is only one type
+     */
+    final int[][] outTypeOffsets;
+    /**
+     * matrix nodeId x [start of each type in incoming..], null if there is only one type
+     */
+    final int[][] inTypeOffsets;
+    /**
+     * whether the relations of each type are sorted by target, by {@link #sort(int)} or {@link #toUndirected(int)}
+     */
+    final boolean sorted;
 
     AdjacencyMatrix(int nodeCount) {
+        this(nodeCount, true);
+    }
+
+    AdjacencyMatrix(int nodeCount, boolean withRelationshipIds) {
+        this(nodeCount, true, true, withRelationshipIds, false, false, 1);
+    }
+
+    /**
+     * @param withOutgoing        whether to store the outgoing relations, if not
+     *                            only the outgoing degrees can be set
+     * @param withIncoming        whether to store the incoming relations, if not
+     *                            only the incoming degrees can be set
+     * @param withRelationshipIds whether to store the relationship ids, if not
+     *                            every relationship id is reported as {@code -1}
+     * @param undirected          whether the lists of each node are merged by {@link #toUndirected(int)}
+     * @param sorted              whether the lists of each node are sorted by {@link #sort(int)}
+     * @param typeCount           the number of relationship types to group the relations by
+     */
+    AdjacencyMatrix(
+            int nodeCount,
+            boolean withOutgoing,
+            boolean withIncoming,
+            boolean withRelationshipIds,
+            boolean undirected,
+            boolean sorted,
+            int typeCount) {
         this.outOffsets = new int[nodeCount];
         this.inOffsets = new int[nodeCount];
-        this.outgoing = new int[nodeCount][];
-        this.incoming = new int[nodeCount][];
-        this.outgoingIds = new long[nodeCount][];
-        this.incomingIds = new long[nodeCount][];
-        Arrays.fill(outgoing, EMPTY_INTS);
-        Arrays.fill(incoming, EMPTY_INTS);
-        Arrays.fill(outgoingIds, EMPTY_LONGS);
-        Arrays.fill(incomingIds, EMPTY_LONGS);
+        this.outgoing = withOutgoing ? filled(new int[nodeCount][], EMPTY_INTS) : null;
+        this.incoming = withIncoming ? filled(new int[nodeCount][], EMPTY_INTS) : null;
+        this.outgoingIds = withOutgoing && withRelationshipIds
+                ? filled(new long[nodeCount][], EMPTY_LONGS)
+                : null;
+        this.incomingIds = withIncoming && withRelationshipIds
+                ? filled(new long[nodeCount][], EMPTY_LONGS)
+                : null;
+        this.undirected = undirected;
+        this.sorted = sorted || undirected;
+        this.typeCount = typeCount;
+        this.outTypeOffsets = withOutgoing && typeCount > 1
+                ? filled(new int[nodeCount][], EMPTY_INTS)
+                : null;
+        this.inTypeOffsets = withIncoming && typeCount > 1
+                ? filled(new int[nodeCount][], EMPTY_INTS)
+                : null;
+    }
+
+    private static <T> T[] filled(T[] array, T value) {
+        Arrays.fill(array, value);
+        return array;
     }
 
     AdjacencyMatrix(
@@ -70,22 +134,264 @@ class AdjacencyMatrix {
         this.incoming = incoming;
         this.outgoingIds = outgoingIds;
         this.incomingIds = incomingIds;
+        this.undirected = false;
+        this.sorted = false;
+        this.typeCount = 1;
+        this.outTypeOffsets = null;
+        this.inTypeOffsets = null;
+    }
+
+    /**
+     * Return a copy with room for the given number of nodes. The lists of the nodes
+     * are shared with this matrix, relations may be appended to the copy by
+     * {@link #addOutgoing(int, int, long)} and {@link #addIncoming(int, int, long)}
+     * once the node has been detached and removed by {@link #removeOutgoing(int, int, long)} and
+     * {@link #removeIncoming(int, int, long)}, which leave this matrix unchanged.
+     * Only directed matrices of both directions without relationship types can be copied.
+     */
+    AdjacencyMatrix copy(int nodeCount) {
+        if (undirected || typeCount > 1 || outgoing == null || incoming == null) {
+            throw new IllegalStateException("Only directed graphs of both directions without relationship types can be copied");
+        }
+        return new AdjacencyMatrix(
+                Arrays.copyOf(outOffsets, nodeCount),
+                Arrays.copyOf(inOffsets, nodeCount),
+                copy(outgoing, nodeCount, EMPTY_INTS),
+                copy(incoming, nodeCount, EMPTY_INTS),
+                copy(outgoingIds, nodeCount, EMPTY_LONGS),
+                copy(incomingIds, nodeCount, EMPTY_LONGS));
+    }
+
+    /**
+     * Return an empty matrix of the same layout with room for the given number
+     * of nodes, to be filled by {@link #filter(int, AdjacencyMatrix, int, int[], IntBinaryPredicate)}.
+     */
+    AdjacencyMatrix emptyCopy(int nodeCount) {
+        return new AdjacencyMatrix(
+                nodeCount,
+                outgoing != null,
+                incoming != null,
+                outgoingIds != null || incomingIds != null,
+                undirected,
+                sorted,
+                typeCount);
+    }
+
+    /**
+     * copy the relations of the node to the node {@code targetNodeId} of the target matrix,
+     * the targets are translated by {@code newNodeIds}. Relations to nodes whose new id is -1
+     * and relations the predicate rejects are dropped, the predicate is called with the start
+     * and end node of the relation in the ids of this matrix. Undirected relations are tested
+     * with the smaller node first so both nodes keep the same relations. Only the lists of
+     * the target node are written, so several nodes can be copied concurrently.
+     */
+    void filter(int nodeId, AdjacencyMatrix target, int targetNodeId, int[] newNodeIds, IntBinaryPredicate relationships) {
+        if (outgoing != null) {
+            filter(nodeId,
+                    undirected ? Direction.BOTH : Direction.OUTGOING,
+                    outgoing,
+                    outgoingIds,
+                    outOffsets,
+                    outTypeOffsets,
+                    targetNodeId,
+                    target.outgoing,
+                    target.outgoingIds,
+                    target.outOffsets,
+                    target.outTypeOffsets,
+                    newNodeIds,
+                    relationships);
+        }
+        if (undirected) {
+            // both directions share the merged list
+            target.incoming[targetNodeId] = target.outgoing[targetNodeId];
+            if (target.incomingIds != null) {
+                target.incomingIds[targetNodeId] = target.outgoingIds[targetNodeId];
+            }
+            if (target.inTypeOffsets != null) {
+                target.inTypeOffsets[targetNodeId] = target.outTypeOffsets[targetNodeId];
+            }
+            target.inOffsets[targetNodeId] = target.outOffsets[targetNodeId];
+        } else if (incoming != null) {
+            filter(nodeId,
+                    Direction.INCOMING,
+                    incoming,
+                    incomingIds,
+                    inOffsets,
+                    inTypeOffsets,
+                    targetNodeId,
+                    target.incoming,
+                    target.incomingIds,
+                    target.inOffsets,
+                    target.inTypeOffsets,
+                    newNodeIds,
+                    relationships);
+        }
+    }
+
+    private void filter(
+            int nodeId,
+            Direction direction,
+            int[][] adjacency,
+            long[][] relationIds,
+            int[] degrees,
+            int[][] typeOffsets,
+            int targetNodeId,
+            int[][] targetAdjacency,
+            long[][] targetRelationIds,
+            int[] targetDegrees,
+            int[][] targetTypeOffsets,
+            int[] newNodeIds,
+            IntBinaryPredicate relationships) {
+        final int degree = degrees[nodeId];
+        final int[] targets = adjacency[nodeId];
+        final long[] ids = ids(relationIds, nodeId);
+        final int[] starts = typeStarts(typeOffsets, nodeId);
+        final int[] newTargets = new int[degree];
+        final long[] newIds = targetRelationIds != null ? new long[degree] : null;
+        final int[] newStarts = targetTypeOffsets != null ? new int[typeCount] : null;
+        int newDegree = 0;
+        for (int type = 0; type < typeCount; type++) {
+            if (newStarts != null) {
+                newStarts[type] = newDegree;
+            }
+            for (int i = start(starts, type); i < end(starts, type, degree); i++) {
+                final int other = targets[i];
+                if (newNodeIds[other] == -1 || !test(relationships, direction, nodeId, other)) {
+                    continue;
+                }
+                newTargets[newDegree] = newNodeIds[other];
+                if (newIds != null) {
+                    newIds[newDegree] = relationId(ids, i);
+                }
+                newDegree++;
+            }
+        }
+        targetAdjacency[targetNodeId] = newDegree == degree ? newTargets : Arrays.copyOf(newTargets, newDegree);
+        if (newIds != null) {
+            targetRelationIds[targetNodeId] = newDegree == degree ? newIds : Arrays.copyOf(newIds, newDegree);
+        }
+        if (newStarts != null) {
+            targetTypeOffsets[targetNodeId] = newStarts;
+        }
+        targetDegrees[targetNodeId] = newDegree;
+    }
+
+    private static boolean test(IntBinaryPredicate relationships, Direction direction, int nodeId, int otherNodeId) {
+        switch (direction) {
+            case OUTGOING:
+                return relationships.test(nodeId, otherNodeId);
+            case INCOMING:
+                return relationships.test(otherNodeId, nodeId);
+            default:
+                return relationships.test(Math.min(nodeId, otherNodeId), Math.max(nodeId, otherNodeId));
+        }
+    }
+
+    /**
+     * replace the outgoing lists of the node by private copies, a copied matrix
+     * must detach a node before appending to it so the spare capacity of a list
+     * shared with the originating matrix is never written to
+     */
+    void detachOutgoing(int sourceNodeId) {
+        if (outgoing == null) {
+            return;
+        }
+        outgoing[sourceNodeId] = Arrays.copyOf(outgoing[sourceNodeId], outOffsets[sourceNodeId]);
+        if (outgoingIds != null) {
+            outgoingIds[sourceNodeId] = Arrays.copyOf(outgoingIds[sourceNodeId], outOffsets[sourceNodeId]);
+        }
+    }
+
+    /**
+     * replace the incoming lists of the node by private copies
+     *
+     * @see #detachOutgoing(int)
+     */
+    void detachIncoming(int targetNodeId) {
+        if (incoming == null) {
+            return;
+        }
+        incoming[targetNodeId] = Arrays.copyOf(incoming[targetNodeId], inOffsets[targetNodeId]);
+        if (incomingIds != null) {
+            incomingIds[targetNodeId] = Arrays.copyOf(incomingIds[targetNodeId], inOffsets[targetNodeId]);
+        }
+    }
+
+    private static <T> T[] copy(T[] lists, int nodeCount, T empty) {
+        if (lists == null) {
+            return null;
+        }
+        final int length = lists.length;
+        final T[] copy = Arrays.copyOf(lists, nodeCount);
+        if (nodeCount > length) {
+            Arrays.fill(copy, length, nodeCount, empty);
+        }
+        return copy;
+    }
+
+    /**
+     * Estimate the bytes of the degrees and target arrays for the given counts.
+     *
+     * @param directions the number of directions whose relations are stored
+     */
+    static long estimateAdjacencyBytes(long nodeCount, int directions, long outgoingCount, long incomingCount) {
+        return 2 * MemoryEstimation.sizeOfArray(nodeCount, Integer.BYTES)
+                + estimateNestedBytes(nodeCount, directions, outgoingCount + incomingCount, Integer.BYTES);
+    }
+
+    /**
+     * Estimate the bytes of the relationship id arrays for the given counts.
+     *
+     * @param directions the number of directions whose relations are stored
+     */
+    static long estimateRelationshipIdBytes(long nodeCount, int directions, long outgoingCount, long incomingCount) {
+        return estimateNestedBytes(nodeCount, directions, outgoingCount + incomingCount, Long.BYTES);
+    }
+
+    /**
+     * Estimate the bytes of the type offsets for the given number of types.
+     *
+     * @param directions the number of directions whose relations are stored
+     */
+    static long estimateTypeOffsetBytes(long nodeCount, int directions, int typeCount) {
+        if (typeCount < 2) {
+            return 0L;
+        }
+        return directions * (MemoryEstimation.sizeOfObjectArray(nodeCount)
+                + nodeCount * MemoryEstimation.sizeOfArray(typeCount, Integer.BYTES));
+    }
+
+    // one array per node and direction
+    private static long estimateNestedBytes(long nodeCount, int directions, long elements, int elementBytes) {
+        return directions * MemoryEstimation.sizeOfObjectArray(nodeCount)
+                + directions * nodeCount * MemoryEstimation.sizeOfArray(0, elementBytes)
+                + elements * elementBytes;
     }
 
     /**
      * initialize array for outgoing connections
      */
     public void armOut(int sourceNodeId, int degree) {
+        if (outTypeOffsets != null) {
+            outTypeOffsets[sourceNodeId] = new int[typeCount];
+        }
         outgoing[sourceNodeId] = Arrays.copyOf(outgoing[sourceNodeId], degree);
-        outgoingIds[sourceNodeId] = Arrays.copyOf(outgoingIds[sourceNodeId], degree);
+        if (outgoingIds != null) {
+            outgoingIds[sourceNodeId] = Arrays.copyOf(outgoingIds[sourceNodeId], degree);
+        }
     }
 
     /**
      * initialize array for incoming connections
      */
     public void armIn(int targetNodeId, int degree) {
+        if (inTypeOffsets != null) {
+            inTypeOffsets[targetNodeId] = new int[typeCount];
+        }
         incoming[targetNodeId] = Arrays.copyOf(incoming[targetNodeId], degree);
-        incomingIds[targetNodeId] = Arrays.copyOf(incomingIds[targetNodeId], degree);
+        if (incomingIds != null) {
+            incomingIds[targetNodeId] = Arrays.copyOf(incomingIds[targetNodeId], degree);
+        }
     }
 
     /**
@@ -93,7 +399,9 @@ class AdjacencyMatrix {
      */
     public void growOut(int sourceNodeId, int length) {
         outgoing[sourceNodeId] = ArrayUtil.grow(outgoing[sourceNodeId], length);
-        outgoingIds[sourceNodeId] = ArrayUtil.grow(outgoingIds[sourceNodeId], length);
+        if (outgoingIds != null) {
+            outgoingIds[sourceNodeId] = ArrayUtil.grow(outgoingIds[sourceNodeId], length);
+        }
     }
 
     /**
@@ -101,7 +409,29 @@ class AdjacencyMatrix {
      */
     public void growIn(int targetNodeId, int length) {
         incoming[targetNodeId] = ArrayUtil.grow(incoming[targetNodeId], length);
-        incomingIds[targetNodeId] = ArrayUtil.grow(incomingIds[targetNodeId], length);
+        if (incomingIds != null) {
+            incomingIds[targetNodeId] = ArrayUtil.grow(incomingIds[targetNodeId], length);
+        }
+    }
+
+    /**
+     * start the outgoing relations of the given type, all relations added until
+     * the next type is started belong to this type. Types must be started in order.
+     */
+    public void startOutType(int sourceNodeId, int type) {
+        if (outTypeOffsets != null) {
+            outTypeOffsets[sourceNodeId][type] = outOffsets[sourceNodeId];
+        }
+    }
+
+    /**
+     * start the incoming relations of the given type, all relations added until
+     * the next type is started belong to this type. Types must be started in order.
+     */
+    public void startInType(int targetNodeId, int type) {
+        if (inTypeOffsets != null) {
+            inTypeOffsets[targetNodeId][type] = inOffsets[targetNodeId];
+        }
     }
 
     /**
@@ -112,7 +442,9 @@ class AdjacencyMatrix {
         final int nextDegree = degree + 1;
         growOut(sourceNodeId, degree + 1);
         outgoing[sourceNodeId][degree] = targetNodeId;
-        outgoingIds[sourceNodeId][degree] = relationId;
+        if (outgoingIds != null) {
+            outgoingIds[sourceNodeId][degree] = relationId;
+        }
         outOffsets[sourceNodeId] = nextDegree;
     }
 
@@ -124,10 +456,304 @@ class AdjacencyMatrix {
         final int nextDegree = degree + 1;
         growIn(targetNodeId, degree + 1);
         incoming[targetNodeId][degree] = sourceNodeId;
-        incomingIds[targetNodeId][degree] = relationId;
+        if (incomingIds != null) {
+            incomingIds[targetNodeId][degree] = relationId;
+        }
         inOffsets[targetNodeId] = nextDegree;
     }
 
+    /**
+     * remove an outgoing relation, identified by its id if the ids are stored
+     * or by its target otherwise. The list is replaced, not changed in place.
+     *
+     * @return true if the relation was found
+     */
+    public boolean removeOutgoing(int sourceNodeId, int targetNodeId, long relationId) {
+        if (outgoing == null) {
+            return false;
+        }
+        final int index = indexOf(outgoing[sourceNodeId], outgoingIds, sourceNodeId, outOffsets[sourceNodeId], targetNodeId, relationId);
+        if (index == -1) {
+            return false;
+        }
+        outgoing[sourceNodeId] = removed(outgoing[sourceNodeId], outOffsets[sourceNodeId], index);
+        if (outgoingIds != null) {
+            outgoingIds[sourceNodeId] = removed(outgoingIds[sourceNodeId], outOffsets[sourceNodeId], index);
+        }
+        outOffsets[sourceNodeId]--;
+        return true;
+    }
+
+    /**
+     * remove an incoming relation, identified by its id if the ids are stored
+     * or by its source otherwise. The list is replaced, not changed in place.
+     *
+     * @return true if the relation was found
+     */
+    public boolean removeIncoming(int sourceNodeId, int targetNodeId, long relationId) {
+        if (incoming == null) {
+            return false;
+        }
+        final int index = indexOf(incoming[targetNodeId], incomingIds, targetNodeId, inOffsets[targetNodeId], sourceNodeId, relationId);
+        if (index == -1) {
+            return false;
+        }
+        incoming[targetNodeId] = removed(incoming[targetNodeId], inOffsets[targetNodeId], index);
+        if (incomingIds != null) {
+            incomingIds[targetNodeId] = removed(incomingIds[targetNodeId], inOffsets[targetNodeId], index);
+        }
+        inOffsets[targetNodeId]--;
+        return true;
+    }
+
+    /**
+     * whether the outgoing relations of the node contain the relationship id,
+     * always false if the ids are not stored
+     */
+    public boolean containsOutgoing(int sourceNodeId, long relationId) {
+        if (outgoingIds == null) {
+            return false;
+        }
+        final long[] ids = outgoingIds[sourceNodeId];
+        final int degree = outOffsets[sourceNodeId];
+        for (int i = 0; i < degree; i++) {
+            if (ids[i] == relationId) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static int indexOf(int[] nodes, long[][] ids, int nodeId, int degree, int otherNodeId, long relationId) {
+        if (ids != null) {
+            final long[] relationIds = ids[nodeId];
+            for (int i = 0; i < degree; i++) {
+                if (relationIds[i] == relationId) {
+                    return i;
+                }
+            }
+            return -1;
+        }
+        for (int i = 0; i < degree; i++) {
+            if (nodes[i] == otherNodeId) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private static int[] removed(int[] list, int degree, int index) {
+        final int[] copy = new int[degree - 1];
+        System.arraycopy(list, 0, copy, 0, index);
+        System.arraycopy(list, index + 1, copy, index, degree - index - 1);
+        return copy;
+    }
+
+    private static long[] removed(long[] list, int degree, int index) {
+        final long[] copy = new long[degree - 1];
+        System.arraycopy(list, 0, copy, 0, index);
+        System.arraycopy(list, index + 1, copy, index, degree - index - 1);
+        return copy;
+    }
+
+    /**
+     * merge outgoing and incoming relations of the node into a single list
+     * sorted by target within each type. Only the first relation to each target
+     * of a type is kept, outgoing before incoming. Both directions share the merged list.
+     */
+    public void toUndirected(int nodeId) {
+        final int outDegree = outOffsets[nodeId];
+        final int inDegree = inOffsets[nodeId];
+        final int[] outStarts = typeStarts(outTypeOffsets, nodeId);
+        final int[] inStarts = typeStarts(inTypeOffsets, nodeId);
+        final int[] targets = new int[outDegree + inDegree];
+        final long[] ids = outgoingIds != null ? new long[targets.length] : null;
+        final int[] starts = outTypeOffsets != null ? new int[typeCount] : null;
+        int degree = 0;
+        for (int type = 0; type < typeCount; type++) {
+            if (starts != null) {
+                starts[type] = degree;
+            }
+            degree = merge(
+                    nodeId,
+                    start(outStarts, type),
+                    end(outStarts, type, outDegree),
+                    start(inStarts, type),
+                    end(inStarts, type, inDegree),
+                    targets,
+                    ids,
+                    degree);
+        }
+        outgoing[nodeId] = incoming[nodeId] = Arrays.copyOf(targets, degree);
+        if (ids != null) {
+            outgoingIds[nodeId] = incomingIds[nodeId] = Arrays.copyOf(ids, degree);
+        }
+        if (starts != null) {
+            outTypeOffsets[nodeId] = inTypeOffsets[nodeId] = starts;
+        }
+        outOffsets[nodeId] = inOffsets[nodeId] = degree;
+    }
+
+    /**
+     * merge the outgoing relations in [outStart, outEnd) with the incoming relations
+     * in [inStart, inEnd) into targets and ids at the given degree
+     *
+     * @return the degree after the merged relations
+     */
+    private int merge(
+            int nodeId,
+            int outStart,
+            int outEnd,
+            int inStart,
+            int inEnd,
+            int[] targets,
+            long[] ids,
+            int degree) {
+        final int outLength = outEnd - outStart;
+        final int length = outLength + inEnd - inStart;
+        // sort targets along with their index into out + in
+        final long[] order = new long[length];
+        for (int i = 0; i < length; i++) {
+            final int target = i < outLength
+                    ? outgoing[nodeId][outStart + i]
+                    : incoming[nodeId][inStart + i - outLength];
+            order[i] = ((long) target << 32) | i;
+        }
+        Arrays.sort(order);
+        final int first = degree;
+        for (int i = 0; i < length; i++) {
+            final int target = (int) (order[i] >>> 32);
+            if (degree > first && targets[degree - 1] == target) {
+                continue;
+            }
+            final int index = (int) order[i];
+            targets[degree] = target;
+            if (ids != null) {
+                ids[degree] = index < outLength
+                        ? outgoingIds[nodeId][outStart + index]
+                        : incomingIds[nodeId][inStart + index - outLength];
+            }
+            degree++;
+        }
+        return degree;
+    }
+
+    /**
+     * sort the relations of the node by target within each type,
+     * the relationship ids are moved along
+     */
+    public void sort(int nodeId) {
+        if (!sorted || undirected) {
+            return;
+        }
+        if (outgoing != null) {
+            sort(outgoing[nodeId], ids(outgoingIds, nodeId), typeStarts(outTypeOffsets, nodeId), outOffsets[nodeId]);
+        }
+        if (incoming != null) {
+            sort(incoming[nodeId], ids(incomingIds, nodeId), typeStarts(inTypeOffsets, nodeId), inOffsets[nodeId]);
+        }
+    }
+
+    private void sort(int[] targets, long[] ids, int[] starts, int degree) {
+        for (int type = 0; type < typeCount; type++) {
+            final int start = start(starts, type);
+            final int end = end(starts, type, degree);
+            if (end - start < 2) {
+                continue;
+            }
+            if (ids == null) {
+                Arrays.sort(targets, start, end);
+                continue;
+            }
+            // sort targets along with their index into the type
+            final long[] order = new long[end - start];
+            for (int i = 0; i < order.length; i++) {
+                order[i] = ((long) targets[start + i] << 32) | i;
+            }
+            Arrays.sort(order);
+            final long[] typeIds = Arrays.copyOfRange(ids, start, end);
+            for (int i = 0; i < order.length; i++) {
+                targets[start + i] = (int) (order[i] >>> 32);
+                ids[start + i] = typeIds[(int) order[i]];
+            }
+        }
+    }
+
+    /**
+     * whether the node has a relation to the target in the direction,
+     * searched binary within each type if the lists are sorted
+     */
+    public boolean exists(int nodeId, int targetNodeId, Direction direction) {
+        switch (direction) {
+            case OUTGOING:
+                return exists(nodeId, targetNodeId, outgoing, outOffsets, outTypeOffsets);
+            case INCOMING:
+                return exists(nodeId, targetNodeId, incoming, inOffsets, inTypeOffsets);
+            default:
+                return exists(nodeId, targetNodeId, outgoing, outOffsets, outTypeOffsets)
+                        || (!undirected && exists(nodeId, targetNodeId, incoming, inOffsets, inTypeOffsets));
+        }
+    }
+
+    private boolean exists(int nodeId, int targetNodeId, int[][] adjacency, int[] degrees, int[][] typeOffsets) {
+        if (adjacency == null) {
+            return false;
+        }
+        final int[] targets = adjacency[nodeId];
+        final int[] starts = typeStarts(typeOffsets, nodeId);
+        final int degree = degrees[nodeId];
+        for (int type = 0; type < typeCount; type++) {
+            final int start = start(starts, type);
+            final int end = end(starts, type, degree);
+            if (sorted) {
+                if (Intersections.contains(targets, start, end, targetNodeId)) {
+                    return true;
+                }
+                continue;
+            }
+            for (int i = start; i < end; i++) {
+                if (targets[i] == targetNodeId) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    /**
+     * whether {@link #intersect(int, int, Direction, IntConsumer)} can merge the lists of the
+     * direction, which requires a single sorted list per node
+     */
+    public boolean canIntersect(Direction direction) {
+        if (!sorted || typeCount > 1) {
+            return false;
+        }
+        switch (direction) {
+            case OUTGOING:
+                return outgoing != null;
+            case INCOMING:
+                return incoming != null;
+            default:
+                return undirected;
+        }
+    }
+
+    /**
+     * report each common target of both nodes once, requires {@link #canIntersect(Direction)}
+     */
+    public void intersect(int nodeA, int nodeB, Direction direction, IntConsumer consumer) {
+        final int[][] adjacency = direction == Direction.INCOMING ? incoming : outgoing;
+        final int[] degrees = direction == Direction.INCOMING ? inOffsets : outOffsets;
+        Intersections.intersect(
+                adjacency[nodeA],
+                0,
+                degrees[nodeA],
+                adjacency[nodeB],
+                0,
+                degrees[nodeB],
+                consumer);
+    }
+
     /**
      * get the degree for node / direction
      */
@@ -140,6 +766,9 @@ class AdjacencyMatrix {
                 return inOffsets[nodeId];
             }
             default: {
+                if (undirected) {
+                    return outOffsets[nodeId];
+                }
                 return inOffsets[nodeId] + outOffsets[nodeId];
             }
         }
@@ -149,11 +778,20 @@ class AdjacencyMatrix {
      * return an iterator for unweighted edges
      */
     public Iterator<RelationshipCursor> relationIterator(int nodeId, Direction direction) {
+        if (undirected) {
+            direction = Direction.OUTGOING;
+        }
         switch (direction) {
             case OUTGOING:
-                return new RelationIterator(nodeId, outgoing[nodeId], outgoingIds[nodeId], outOffsets[nodeId]);
+                if (outgoing == null) {
+                    return Collections.emptyIterator();
+                }
+                return new RelationIterator(nodeId, outgoing[nodeId], ids(outgoingIds, nodeId), outOffsets[nodeId]);
             case INCOMING:
-                return new RelationIterator(nodeId, incoming[nodeId], incomingIds[nodeId], inOffsets[nodeId]);
+                if (incoming == null) {
+                    return Collections.emptyIterator();
+                }
+                return new RelationIterator(nodeId, incoming[nodeId], ids(incomingIds, nodeId), inOffsets[nodeId]);
             default:
                 throw new IllegalArgumentException("Direction " + direction + " not implemented");
         }
@@ -164,11 +802,20 @@ class AdjacencyMatrix {
      * return an iterator for weighted edges
      */
     public Iterator<WeightedRelationshipCursor> weightedRelationIterator(int nodeId, WeightMapping weights, Direction direction) {
+        if (undirected) {
+            direction = Direction.OUTGOING;
+        }
         switch (direction) {
             case OUTGOING:
-                return new WeightedRelationIterator(nodeId, outgoing[nodeId], outgoingIds[nodeId], outOffsets[nodeId], weights);
+                if (outgoing == null) {
+                    return Collections.emptyIterator();
+                }
+                return new WeightedRelationIterator(nodeId, outgoing[nodeId], ids(outgoingIds, nodeId), outOffsets[nodeId], weights);
             case INCOMING:
-                return new WeightedRelationIterator(nodeId, incoming[nodeId], incomingIds[nodeId], inOffsets[nodeId], weights);
+                if (incoming == null) {
+                    return Collections.emptyIterator();
+                }
+                return new WeightedRelationIterator(nodeId, incoming[nodeId], ids(incomingIds, nodeId), inOffsets[nodeId], weights);
             default:
                 throw new IllegalArgumentException("Direction " + direction + " not implemented");
         }
@@ -187,7 +834,9 @@ class AdjacencyMatrix {
                 forEachIncoming(nodeId, consumer);
                 break;
             default:
-                forEachIncoming(nodeId, consumer);
+                if (!undirected) {
+                    forEachIncoming(nodeId, consumer);
+                }
                 forEachOutgoing(nodeId, consumer);
                 break;
         }
@@ -205,7 +854,9 @@ class AdjacencyMatrix {
                 forEachIncoming(nodeId, weights, consumer);
                 break;
             default:
-                forEachIncoming(nodeId, weights, consumer);
+                if (!undirected) {
+                    forEachIncoming(nodeId, weights, consumer);
+                }
                 forEachOutgoing(nodeId, weights, consumer);
                 break;
         }
@@ -214,50 +865,194 @@ class AdjacencyMatrix {
     public void addMatrix(AdjacencyMatrix other, int offset, int length) {
         System.arraycopy(other.outOffsets, 0, outOffsets, offset, length);
         System.arraycopy(other.inOffsets, 0, inOffsets, offset, length);
-        System.arraycopy(other.outgoing, 0, outgoing, offset, length);
-        System.arraycopy(other.incoming, 0, incoming, offset, length);
-        System.arraycopy(other.outgoingIds, 0, outgoingIds, offset, length);
-        System.arraycopy(other.incomingIds, 0, incomingIds, offset, length);
+        copy(other.outTypeOffsets, outTypeOffsets, offset, length);
+        copy(other.inTypeOffsets, inTypeOffsets, offset, length);
+        copy(other.outgoing, outgoing, offset, length);
+        copy(other.incoming, incoming, offset, length);
+        copy(other.outgoingIds, outgoingIds, offset, length);
+        copy(other.incomingIds, incomingIds, offset, length);
+    }
+
+    private static void copy(Object[] source, Object[] target, int offset, int length) {
+        if (target != null) {
+            System.arraycopy(source, 0, target, offset, length);
+        }
+    }
+
+    /**
+     * set the outgoing degree if outgoing relations are not stored
+     */
+    public void setOutDegree(int nodeId, int degree) {
+        outOffsets[nodeId] = degree;
+    }
+
+    /**
+     * set the incoming degree if incoming relations are not stored
+     */
+    public void setInDegree(int nodeId, int degree) {
+        inOffsets[nodeId] = degree;
     }
 
     private void forEachOutgoing(int nodeId, RelationshipConsumer consumer) {
+        if (outgoing == null) {
+            return;
+        }
         final int degree = outOffsets[nodeId];
         final int[] outs = outgoing[nodeId];
-        final long[] outIds = outgoingIds[nodeId];
+        final long[] outIds = ids(outgoingIds, nodeId);
         for (int i = 0; i < degree; i++) {
-            consumer.accept(nodeId, outs[i], outIds[i]);
+            consumer.accept(nodeId, outs[i], relationId(outIds, i));
         }
     }
 
     private void forEachIncoming(int nodeId, RelationshipConsumer consumer) {
+        if (incoming == null) {
+            return;
+        }
         final int degree = inOffsets[nodeId];
         final int[] ins = incoming[nodeId];
-        final long[] inIds = incomingIds[nodeId];
+        final long[] inIds = ids(incomingIds, nodeId);
         for (int i = 0; i < degree; i++) {
-            consumer.accept(nodeId, ins[i], inIds[i]);
+            consumer.accept(nodeId, ins[i], relationId(inIds, i));
         }
     }
 
     private void forEachOutgoing(int nodeId, WeightMapping weights, WeightedRelationshipConsumer consumer) {
+        if (outgoing == null) {
+            return;
+        }
         final int degree = outOffsets[nodeId];
         final int[] outs = outgoing[nodeId];
-        final long[] outIds = outgoingIds[nodeId];
+        final long[] outIds = ids(outgoingIds, nodeId);
         for (int i = 0; i < degree; i++) {
-            final long relationId = outIds[i];
+            final long relationId = relationId(outIds, i);
             consumer.accept(nodeId, outs[i], relationId, weights.get(relationId));
         }
     }
 
     private void forEachIncoming(int nodeId, WeightMapping weights, WeightedRelationshipConsumer consumer) {
+        if (incoming == null) {
+            return;
+        }
         final int degree = inOffsets[nodeId];
         final int[] ins = incoming[nodeId];
-        final long[] inIds = incomingIds[nodeId];
+        final long[] inIds = ids(incomingIds, nodeId);
         for (int i = 0; i < degree; i++) {
-            final long relationId = inIds[i];
+            final long relationId = relationId(inIds, i);
             consumer.accept(nodeId, ins[i], relationId, weights.get(relationId));
         }
     }
 
+    /**
+     * the number of relations of the types in the mask
+     */
+    public int degree(int nodeId, Direction direction, int typeMask) {
+        switch (direction) {
+            case OUTGOING:
+                return degree(nodeId, outgoing, outOffsets, outTypeOffsets, typeMask);
+            case INCOMING:
+                return degree(nodeId, incoming, inOffsets, inTypeOffsets, typeMask);
+            default:
+                if (undirected) {
+                    return degree(nodeId, outgoing, outOffsets, outTypeOffsets, typeMask);
+                }
+                return degree(nodeId, outgoing, outOffsets, outTypeOffsets, typeMask)
+                        + degree(nodeId, incoming, inOffsets, inTypeOffsets, typeMask);
+        }
+    }
+
+    // the degrees of a direction that is not loaded are not grouped by type
+    private int degree(int nodeId, int[][] adjacency, int[] degrees, int[][] typeOffsets, int typeMask) {
+        if (adjacency == null) {
+            return 0;
+        }
+        final int[] starts = typeStarts(typeOffsets, nodeId);
+        final int degree = degrees[nodeId];
+        int sum = 0;
+        for (int type = 0; type < typeCount; type++) {
+            if ((typeMask & (1 << type)) != 0) {
+                sum += end(starts, type, degree) - start(starts, type);
+            }
+        }
+        return sum;
+    }
+
+    /**
+     * iterate over each edge of the types in the mask using an unweighted consumer
+     */
+    public void forEach(int nodeId, Direction direction, int typeMask, RelationshipConsumer consumer) {
+        switch (direction) {
+            case OUTGOING:
+                forEach(nodeId, outgoing, outgoingIds, outOffsets, outTypeOffsets, typeMask, consumer);
+                break;
+            case INCOMING:
+                forEach(nodeId, incoming, incomingIds, inOffsets, inTypeOffsets, typeMask, consumer);
+                break;
+            default:
+                if (!undirected) {
+                    forEach(nodeId, incoming, incomingIds, inOffsets, inTypeOffsets, typeMask, consumer);
+                }
+                forEach(nodeId, outgoing, outgoingIds, outOffsets, outTypeOffsets, typeMask, consumer);
+                break;
+        }
+    }
+
+    /**
+     * iterate over each edge of the types in the mask using a weighted consumer
+     */
+    public void forEach(int nodeId, Direction direction, int typeMask, WeightMapping weights, WeightedRelationshipConsumer consumer) {
+        final RelationshipConsumer weighted = (source, target, relationId) ->
+                consumer.accept(source, target, relationId, weights.get(relationId));
+        forEach(nodeId, direction, typeMask, weighted);
+    }
+
+    private void forEach(
+            int nodeId,
+            int[][] adjacency,
+            long[][] relationIds,
+            int[] degrees,
+            int[][] typeOffsets,
+            int typeMask,
+            RelationshipConsumer consumer) {
+        if (adjacency == null) {
+            return;
+        }
+        final int[] targets = adjacency[nodeId];
+        final long[] ids = ids(relationIds, nodeId);
+        final int[] starts = typeStarts(typeOffsets, nodeId);
+        final int degree = degrees[nodeId];
+        for (int type = 0; type < typeCount; type++) {
+            if ((typeMask & (1 << type)) == 0) {
+                continue;
+            }
+            final int end = end(starts, type, degree);
+            for (int i = start(starts, type); i < end; i++) {
+                consumer.accept(nodeId, targets[i], relationId(ids, i));
+            }
+        }
+    }
+
+    private static int[] typeStarts(int[][] typeOffsets, int nodeId) {
+        return typeOffsets != null ? typeOffsets[nodeId] : null;
+    }
+
+    // nodes that have not been armed have no type offsets and no relations
+    private static int start(int[] starts, int type) {
+        return starts == null || starts.length == 0 ? 0 : starts[type];
+    }
+
+    private int end(int[] starts, int type, int degree) {
+        return type + 1 < typeCount ? start(starts, type + 1) : degree;
+    }
+
+    private static long[] ids(long[][] relationIds, int nodeId) {
+        return relationIds != null ? relationIds[nodeId] : null;
+    }
+
+    private static long relationId(long[] relationIds, int index) {
+        return relationIds != null ? relationIds[index] : -1L;
+    }
+
     private static class RelationIterator implements Iterator<RelationshipCursor> {
 
         private final RelationshipCursor cursor;
@@ -282,7 +1077,7 @@ class AdjacencyMatrix {
         @Override
         public RelationshipCursor next() {
             cursor.targetNodeId = targetNodes[offset];
-            cursor.relationshipId = relationIds[offset++];
+            cursor.relationshipId = relationId(relationIds, offset++);
             return cursor;
         }
     }
@@ -313,7 +1108,7 @@ class AdjacencyMatrix {
         @Override
         public WeightedRelationshipCursor next() {
             cursor.targetNodeId = targetNodes[offset];
-            final long relationId = relationIds[offset++];
+            final long relationId = relationId(relationIds, offset++);
             cursor.relationshipId = relationId;
             cursor.weight = weights.get(relationId);
             return cursor;
@@ -0,0 +1,84 @@
+package org.neo4j.graphalgo.core.heavyweight;
+
+import com.carrotsearch.hppc.DoubleArrayList;
+import com.carrotsearch.hppc.LongArrayList;
+
+import java.util.BitSet;
+
+/**
+ * Node and relationship additions and deletions of committed
+ * transactions in commit order, to be applied to a {@link HeavyGraph} by
+ * {@link HeavyGraph#withChanges(GraphChanges)}. Nodes and relationships
+ * are identified by their original ids. Ids may be reused after a deletion,
+ * so node and relationship changes are each kept as a single sequence.
+ */
+final class GraphChanges {
+
+    final LongArrayList nodes = new LongArrayList();
+    final DoubleArrayList nodeWeights = new DoubleArrayList();
+    final DoubleArrayList nodeProperties = new DoubleArrayList();
+    // indices of the node changes that are deletions
+    final BitSet deletedNodes = new BitSet();
+
+    final LongArrayList relationships = new LongArrayList();
+    final LongArrayList sources = new LongArrayList();
+    final LongArrayList targets = new LongArrayList();
+    final DoubleArrayList weights = new DoubleArrayList();
+    // indices of the relationship changes that are deletions
+    final BitSet deleted = new BitSet();
+
+    void addNode(long nodeId, double weight, double property) {
+        nodes.add(nodeId);
+        nodeWeights.add(weight);
+        nodeProperties.add(property);
+    }
+
+    void deleteNode(long nodeId) {
+        deletedNodes.set(nodes.size());
+        addNode(nodeId, Double.NaN, Double.NaN);
+    }
+
+    void addRelationship(long relationshipId, long sourceNodeId, long targetNodeId, double weight) {
+        relationships.add(relationshipId);
+        sources.add(sourceNodeId);
+        targets.add(targetNodeId);
+        weights.add(weight);
+    }
+
+    void deleteRelationship(long relationshipId, long sourceNodeId, long targetNodeId) {
+        deleted.set(relationships.size());
+        addRelationship(relationshipId, sourceNodeId, targetNodeId, Double.NaN);
+    }
+
+    /**
+     * append the changes of a later transaction
+     */
+    void addAll(GraphChanges other) {
+        final int nodeOffset = nodes.size();
+        final int offset = relationships.size();
+        nodes.addAll(other.nodes);
+        nodeWeights.addAll(other.nodeWeights);
+        nodeProperties.addAll(other.nodeProperties);
+        relationships.addAll(other.relationships);
+        sources.addAll(other.sources);
+        targets.addAll(other.targets);
+        weights.addAll(other.weights);
+        for (int i = other.deletedNodes.nextSetBit(0); i >= 0; i = other.deletedNodes.nextSetBit(i + 1)) {
+            deletedNodes.set(nodeOffset + i);
+        }
+        for (int i = other.deleted.nextSetBit(0); i >= 0; i = other.deleted.nextSetBit(i + 1)) {
+            deleted.set(offset + i);
+        }
+    }
+
+    /**
+     * the number of changes
+     */
+    int size() {
+        return nodes.size() + relationships.size();
+    }
+
+    boolean isEmpty() {
+        return size() == 0;
+    }
+}
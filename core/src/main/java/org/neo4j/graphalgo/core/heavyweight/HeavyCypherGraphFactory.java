@@ -4,23 +4,71 @@ import org.neo4j.graphalgo.api.*;
 import org.neo4j.graphalgo.core.IdMap;
 import org.neo4j.graphalgo.core.NullWeightMap;
 import org.neo4j.graphalgo.core.WeightMap;
+import org.neo4j.graphalgo.core.utils.MemoryEstimation;
+import org.neo4j.graphalgo.core.utils.ParallelUtil;
 import org.neo4j.graphalgo.core.utils.RawValues;
 import org.neo4j.graphdb.Result;
+import org.neo4j.kernel.api.ReadOperations;
 import org.neo4j.kernel.internal.GraphDatabaseAPI;
 
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.function.LongConsumer;
+import java.util.regex.Pattern;
+
 /**
+ * Loads the graph from a node and a relationship statement.
+ * <p>
+ * If the relationship statement uses the parameters {@code $skip} and
+ * {@code $limit}, it is run in batches of {@code limit} rows, concurrently if an
+ * executor is given and one after another otherwise. Every batch reads into its own buffer and the buffers are merged
+ * into the matrix in the order of the batches.
+ * <p>
+ * The rows are buffered as primitive relationship ids first, so that every
+ * adjacency list of the loaded directions is allocated once with its exact degree. The statement has to return its
+ * rows in a stable order, e.g. by {@code ORDER BY}, for the batches to cover
+ * every row exactly once.
+ *
  * @author mknblch
  */
 public class HeavyCypherGraphFactory extends GraphFactory {
 
+    public static final String SKIP = "skip";
+    public static final String LIMIT = "limit";
+
     private static final int BATCH_SIZE = 100_000;
     private static final int INITIAL_NODE_COUNT = 1_000_000;
     private static final int DEGREE = 10;
+    private static final int CONCURRENCY = Runtime.getRuntime().availableProcessors();
+
+    private final ExecutorService threadPool;
 
     public HeavyCypherGraphFactory(
             GraphDatabaseAPI api,
             GraphSetup setup) {
         super(api,setup);
+        if (setup.filterNodes() || setup.filterRelationships()) {
+            throw new IllegalArgumentException(
+                    "Property predicates are not supported by the HeavyCypherGraphFactory, filter in the statements instead");
+        }
+        this.threadPool = setup.executor;
+    }
+
+    /**
+     * whether the statement uses both the skip and the limit parameter,
+     * either as {@code $skip} or {@code {skip}}
+     */
+    static boolean isBatched(String statement) {
+        return usesParameter(statement, SKIP) && usesParameter(statement, LIMIT);
+    }
+
+    private static boolean usesParameter(String statement, String name) {
+        return Pattern.compile("\\$" + name + "\\b|\\{\\s*" + name + "\\s*}").matcher(statement).find();
     }
 
     @Override
@@ -28,6 +76,40 @@ public class HeavyCypherGraphFactory extends GraphFactory {
         return build(BATCH_SIZE);
     }
 
+    /**
+     * {@inheritDoc}
+     * <p>
+     * The statements are not analyzed, the whole store is taken
+     * as an upper bound of the nodes and relationships they return.
+     */
+    @Override
+    public MemoryEstimation memoryEstimation() {
+        final long[] counts = new long[2];
+        withReadOps(readOp -> {
+            counts[0] = readOp.countsForNode(ReadOperations.ANY_LABEL);
+            counts[1] = countRelationships(readOp, ReadOperations.ANY_LABEL, null, ReadOperations.ANY_LABEL);
+        });
+        final long nodeCount = counts[0];
+        final long relationshipCount = counts[1];
+        final long outgoing = setup.loadOutgoing() ? relationshipCount : 0L;
+        final long incoming = setup.loadIncoming() ? relationshipCount : 0L;
+        final int directions = (setup.loadOutgoing() ? 1 : 0) + (setup.loadIncoming() ? 1 : 0);
+        final MemoryEstimation.Builder builder = MemoryEstimation.builder()
+                .add("idMap", IdMap.estimateBytes(nodeCount))
+                .add("adjacency", AdjacencyMatrix.estimateAdjacencyBytes(nodeCount, directions, outgoing, incoming))
+                .add("relationshipIds", AdjacencyMatrix.estimateRelationshipIdBytes(nodeCount, directions, outgoing, incoming));
+        if (!setup.loadDefaultRelationshipWeight()) {
+            builder.add("relationshipWeights", WeightMap.estimateBytes(relationshipCount));
+        }
+        if (!setup.loadDefaultNodeWeight()) {
+            builder.add("nodeWeights", WeightMap.estimateBytes(nodeCount));
+        }
+        if (!setup.loadDefaultNodeProperty()) {
+            builder.add("nodeProperties", WeightMap.estimateBytes(nodeCount));
+        }
+        return builder.build();
+    }
+
     @SuppressWarnings("WeakerAccess")
     Graph build(int batchSize) {
         final IdMap idMap = new IdMap(INITIAL_NODE_COUNT);
@@ -46,50 +128,222 @@ public class HeavyCypherGraphFactory extends GraphFactory {
         // todo compiled
         api.execute(setup.nodeStatement).accept(row -> {
             long id = row.getNumber("id").longValue();
+            final int graphId = idMap.size();
             idMap.add(id);
-            if (hasNodeWeights) nodeWeights.set(id, row.get("weight"));
-            if (hasNodeProperty) nodeProps.set(id, row.get("value"));
+            if (hasNodeWeights) nodeWeights.set(graphId, row.get("weight"));
+            if (hasNodeProperty) nodeProps.set(graphId, row.get("value"));
             return true;
         });
+        idMap.buildMappedIds();
 
         int nodeCount = idMap.size();
 
-        final AdjacencyMatrix matrix = new AdjacencyMatrix(nodeCount);
-
         final WeightMapping relWeigths = hasRelationshipWeights ?
                 new WeightMap(nodeCount * DEGREE, setup.relationDefaultWeight) :
                 new NullWeightMap(setup.relationDefaultWeight);
 
-        api.execute(setup.relationshipStatement).accept(new Result.ResultVisitor<RuntimeException>() {
-            long lastSourceId = -1, lastTargetId = -1;
-            int source = -1, target = -1;
+        final List<RelationshipBuffer> buffers;
+        if (isBatched(setup.relationshipStatement)) {
+            buffers = readRelationshipBatches(idMap, batchSize, hasRelationshipWeights);
+            for (RelationshipBuffer batch : buffers) {
+                ((RelationshipBatch) batch).mergeWeights(relWeigths);
+            }
+        } else {
+            final RelationshipBuffer buffer = new RelationshipBuffer(idMap, hasRelationshipWeights) {
+                @Override
+                void setWeight(long relId, Object weight) {
+                    relWeigths.set(relId, weight);
+                }
+            };
+            api.execute(setup.relationshipStatement).accept(buffer);
+            buffers = Collections.singletonList(buffer);
+        }
+
+        return new HeavyGraph(idMap, newMatrix(nodeCount, buffers), relWeigths, nodeWeights, nodeProps);
+    }
 
-            @Override
-            public boolean visit(Result.ResultRow row) throws RuntimeException {
-                long sourceId = row.getNumber("source").longValue();
-                if (sourceId != lastSourceId) {
-                    source = idMap.get(sourceId);
-                    lastSourceId = sourceId;
+    /**
+     * build the matrix in two passes over the buffered relationships, the first one
+     * counts the degrees to allocate every list with its exact size
+     */
+    private AdjacencyMatrix newMatrix(int nodeCount, List<RelationshipBuffer> buffers) {
+        final boolean outgoing = setup.loadOutgoing();
+        final boolean incoming = setup.loadIncoming();
+        final AdjacencyMatrix matrix = new AdjacencyMatrix(nodeCount, outgoing, incoming, true, setup.undirected, setup.sortAdjacency, 1);
+        final int[] outDegrees = new int[nodeCount];
+        final int[] inDegrees = new int[nodeCount];
+        for (RelationshipBuffer buffer : buffers) {
+            buffer.forEach(relId -> {
+                outDegrees[RawValues.getHead(relId)]++;
+                inDegrees[RawValues.getTail(relId)]++;
+            });
+        }
+        for (int node = 0; node < nodeCount; node++) {
+            if (outgoing) {
+                matrix.armOut(node, outDegrees[node]);
+            } else if (setup.loadOppositeDegrees) {
+                matrix.setOutDegree(node, outDegrees[node]);
+            }
+            if (incoming) {
+                matrix.armIn(node, inDegrees[node]);
+            } else if (setup.loadOppositeDegrees) {
+                matrix.setInDegree(node, inDegrees[node]);
+            }
+        }
+        for (RelationshipBuffer buffer : buffers) {
+            buffer.forEach(relId -> {
+                final int source = RawValues.getHead(relId);
+                final int target = RawValues.getTail(relId);
+                if (outgoing) {
+                    matrix.addOutgoing(source, target, relId);
                 }
-                if (source == -1) {
-                    return true;
+                if (incoming) {
+                    matrix.addIncoming(source, target, relId);
                 }
-                long targetId = row.getNumber("target").longValue();
-                if (targetId != lastTargetId) {
-                    target = idMap.get(targetId);
-                    lastTargetId = targetId;
+            });
+        }
+        if (setup.undirected) {
+            for (int node = 0; node < nodeCount; node++) {
+                matrix.toUndirected(node);
+            }
+        } else if (setup.sortAdjacency) {
+            for (int node = 0; node < nodeCount; node++) {
+                matrix.sort(node);
+            }
+        }
+        return matrix;
+    }
+
+    /**
+     * run the relationship statement in rounds of concurrent batches
+     * until a batch returns less than {@code batchSize} rows, the batches
+     * run one after another without a thread pool
+     *
+     * @return the non-empty batches in the order of their skip parameter
+     */
+    private List<RelationshipBuffer> readRelationshipBatches(IdMap idMap, int batchSize, boolean hasRelationshipWeights) {
+        final List<RelationshipBuffer> batches = new ArrayList<>();
+        final int concurrency = threadPool != null ? CONCURRENCY : 1;
+        long skip = 0L;
+        boolean exhausted = false;
+        while (!exhausted) {
+            final List<RelationshipBatch> round = new ArrayList<>(concurrency);
+            for (int i = 0; i < concurrency; i++) {
+                round.add(new RelationshipBatch(idMap, hasRelationshipWeights, skip, batchSize));
+                skip += batchSize;
+            }
+            if (threadPool != null) {
+                ParallelUtil.run(round, threadPool);
+            } else {
+                round.forEach(RelationshipBatch::run);
+            }
+            for (RelationshipBatch batch : round) {
+                if (batch.rows < batchSize) {
+                    exhausted = true;
                 }
-                if (target == -1) {
-                    return true;
+                if (batch.rows > 0) {
+                    batches.add(batch);
                 }
-                long relId = RawValues.combineIntInt(source, target);
-                if (hasRelationshipWeights) relWeigths.set(relId, row.get("weight"));
-                // todo do we need relId for the matrix
-                matrix.addOutgoing(source, target, relId);
+            }
+        }
+        return batches;
+    }
+
+    /**
+     * maps the source and target ids of each row, skips rows of nodes that are not loaded
+     * and buffers the others as relationship ids, which combine the source and target
+     * graph ids, in chunks of primitive longs that are never copied
+     */
+    private static abstract class RelationshipBuffer implements Result.ResultVisitor<RuntimeException> {
+        private static final int CHUNK_SHIFT = 14;
+        private static final int CHUNK_SIZE = 1 << CHUNK_SHIFT;
+        private static final int CHUNK_MASK = CHUNK_SIZE - 1;
+
+        private final IdMap idMap;
+        private final boolean hasRelationshipWeights;
+        private long lastSourceId = -1, lastTargetId = -1;
+        private int source = -1, target = -1;
+        private long[][] chunks = new long[0][];
+        private long size;
+        long rows;
+
+        RelationshipBuffer(IdMap idMap, boolean hasRelationshipWeights) {
+            this.idMap = idMap;
+            this.hasRelationshipWeights = hasRelationshipWeights;
+        }
+
+        @Override
+        public boolean visit(Result.ResultRow row) throws RuntimeException {
+            rows++;
+            long sourceId = row.getNumber("source").longValue();
+            if (sourceId != lastSourceId) {
+                source = idMap.get(sourceId);
+                lastSourceId = sourceId;
+            }
+            if (source == -1) {
                 return true;
             }
-        });
+            long targetId = row.getNumber("target").longValue();
+            if (targetId != lastTargetId) {
+                target = idMap.get(targetId);
+                lastTargetId = targetId;
+            }
+            if (target == -1) {
+                return true;
+            }
+            final long relId = RawValues.combineIntInt(source, target);
+            if (hasRelationshipWeights) setWeight(relId, row.get("weight"));
+            add(relId);
+            return true;
+        }
 
-        return new HeavyGraph(idMap, matrix, relWeigths, nodeWeights, nodeProps);
+        abstract void setWeight(long relId, Object weight);
+
+        private void add(long relId) {
+            final int chunk = (int) (size >>> CHUNK_SHIFT);
+            if (chunk == chunks.length) {
+                chunks = Arrays.copyOf(chunks, chunk + 1);
+                chunks[chunk] = new long[CHUNK_SIZE];
+            }
+            chunks[chunk][(int) (size & CHUNK_MASK)] = relId;
+            size++;
+        }
+
+        void forEach(LongConsumer consumer) {
+            for (long i = 0; i < size; i++) {
+                consumer.accept(chunks[(int) (i >>> CHUNK_SHIFT)][(int) (i & CHUNK_MASK)]);
+            }
+        }
+    }
+
+    /**
+     * reads the rows of one batch with its own weights
+     */
+    private final class RelationshipBatch extends RelationshipBuffer implements Runnable {
+        private final Map<String, Object> parameters = new HashMap<>();
+        private final WeightMap weights;
+
+        RelationshipBatch(IdMap idMap, boolean hasRelationshipWeights, long skip, int limit) {
+            super(idMap, hasRelationshipWeights);
+            parameters.put(SKIP, skip);
+            parameters.put(LIMIT, limit);
+            weights = hasRelationshipWeights ? new WeightMap(limit, setup.relationDefaultWeight) : null;
+        }
+
+        @Override
+        public void run() {
+            api.execute(setup.relationshipStatement, parameters).accept(this);
+        }
+
+        @Override
+        void setWeight(long relId, Object weight) {
+            weights.set(relId, weight);
+        }
+
+        void mergeWeights(WeightMapping relWeights) {
+            if (weights != null) {
+                ((WeightMap) relWeights).putAll(weights);
+            }
+        }
     }
 }
@@ -1,12 +1,21 @@
 package org.neo4j.graphalgo.core.heavyweight;
 
+import com.carrotsearch.hppc.IntHashSet;
+import org.apache.lucene.util.SparseFixedBitSet;
 import org.neo4j.graphalgo.core.IdMap;
+import org.neo4j.graphalgo.core.WeightMap;
+import org.neo4j.graphalgo.core.utils.NodePartitions;
+import org.neo4j.graphalgo.core.utils.RawValues;
 import org.neo4j.collection.primitive.PrimitiveIntIterator;
 import org.neo4j.graphalgo.api.*;
 import org.neo4j.graphdb.Direction;
 
+import java.util.Arrays;
+import java.util.BitSet;
 import java.util.Iterator;
+import java.util.concurrent.ExecutorService;
 import java.util.function.IntConsumer;
+import java.util.function.IntPredicate;
 
 /**
  * Heavy weighted graph built of an adjacency matrix.
@@ -20,13 +29,17 @@ import java.util.function.IntConsumer;
  *
  * @author mknblch
  */
-public class HeavyGraph implements Graph, RelationshipWeights, NodeWeights, NodeProperties {
+public class HeavyGraph implements Graph, RelationshipWeights, NodeWeights, NodeProperties, TypedRelationshipIterator, NodeLabels {
 
     private final IdMap nodeIdMap;
     private final AdjacencyMatrix container;
     private final WeightMapping relationshipWeights;
     private final WeightMapping nodeWeights;
     private final WeightMapping nodeProperties;
+    private final String[] relationshipTypes;
+    private final String[] nodeLabels;
+    private final SparseFixedBitSet[] labelBitmaps;
+    private final long version;
 
     HeavyGraph(
             IdMap nodeIdMap,
@@ -34,11 +47,256 @@ public class HeavyGraph implements Graph, RelationshipWeights, NodeWeights, Node
             final WeightMapping relationshipWeights,
             final WeightMapping nodeWeights,
             final WeightMapping nodeProperties) {
+        this(nodeIdMap, container, relationshipWeights, nodeWeights, nodeProperties, null, null, null);
+    }
+
+    /**
+     * @param relationshipTypes the types the relations of the container are grouped by,
+     *                          null if the graph has been loaded without types
+     * @param nodeLabels the labels the nodes have been loaded with, null if loaded without labels
+     * @param labelBitmaps the nodes of each label, null if every node has every label
+     */
+    HeavyGraph(
+            IdMap nodeIdMap,
+            AdjacencyMatrix container,
+            final WeightMapping relationshipWeights,
+            final WeightMapping nodeWeights,
+            final WeightMapping nodeProperties,
+            final String[] relationshipTypes,
+            final String[] nodeLabels,
+            final SparseFixedBitSet[] labelBitmaps) {
+        this(nodeIdMap, container, relationshipWeights, nodeWeights, nodeProperties, relationshipTypes, nodeLabels, labelBitmaps, 0L);
+    }
+
+    private HeavyGraph(
+            IdMap nodeIdMap,
+            AdjacencyMatrix container,
+            final WeightMapping relationshipWeights,
+            final WeightMapping nodeWeights,
+            final WeightMapping nodeProperties,
+            final String[] relationshipTypes,
+            final String[] nodeLabels,
+            final SparseFixedBitSet[] labelBitmaps,
+            final long version) {
         this.nodeIdMap = nodeIdMap;
         this.container = container;
         this.relationshipWeights = relationshipWeights;
         this.nodeWeights = nodeWeights;
         this.nodeProperties = nodeProperties;
+        this.relationshipTypes = relationshipTypes;
+        this.nodeLabels = nodeLabels;
+        this.labelBitmaps = labelBitmaps;
+        this.version = version;
+    }
+
+    /**
+     * the number of change sets applied since the graph has been loaded
+     */
+    public long version() {
+        return version;
+    }
+
+    /**
+     * Return a new snapshot of this graph with the changes applied in order and
+     * the version incremented. This graph stays unchanged and shares the unchanged
+     * relationship lists and the loaded relationship weights with the new snapshot,
+     * which only copies the changed weights. New nodes are appended to the id
+     * mapping. If nodes have been deleted the snapshot is compacted like
+     * {@link #filter(IntPredicate, IntBinaryPredicate)} does, so the remaining nodes
+     * get consecutive ids and {@link #nodeCount()} only counts existing nodes.
+     * Relations whose nodes are not part of the graph are skipped.
+     *
+     * @throws IllegalStateException if the graph is undirected, has been loaded with
+     *                               several relationship types or labels, without
+     *                               relationship ids or lacks a direction
+     */
+    HeavyGraph withChanges(GraphChanges changes) {
+        if (labelBitmaps != null) {
+            throw new IllegalStateException("Graphs loaded with several labels can not be changed");
+        }
+        if (container.outgoingIds == null) {
+            // committed relationships are only skipped by their id
+            throw new IllegalStateException("Graphs loaded without relationship ids can not be changed");
+        }
+        final IdMap idMap = nodeIdMap.copy();
+        final WeightMapping nodeWeights = copy(this.nodeWeights);
+        final WeightMapping nodeProperties = copy(this.nodeProperties);
+        // the graph ids of the deleted nodes
+        final BitSet deletedNodes = new BitSet();
+        for (int i = 0; i < changes.nodes.size(); i++) {
+            final long nodeId = changes.nodes.get(i);
+            int graphId = idMap.get(nodeId);
+            if (changes.deletedNodes.get(i)) {
+                if (graphId != -1) {
+                    deletedNodes.set(graphId);
+                }
+                continue;
+            }
+            if (graphId == -1) {
+                graphId = idMap.mapOrGet(nodeId);
+            } else if (deletedNodes.get(graphId)) {
+                // the id of a deleted node has been reused
+                deletedNodes.clear(graphId);
+            } else {
+                continue;
+            }
+            set(nodeWeights, RawValues.combineIntInt(graphId, -1), changes.nodeWeights.get(i));
+            set(nodeProperties, RawValues.combineIntInt(graphId, -1), changes.nodeProperties.get(i));
+        }
+        idMap.buildMappedIds();
+
+        final AdjacencyMatrix matrix = container.copy(idMap.size());
+        final WeightMapping relationshipWeights = WeightMapOverlay.copyOf(this.relationshipWeights);
+        final IntHashSet detachedOut = new IntHashSet();
+        final IntHashSet detachedIn = new IntHashSet();
+        for (int i = 0; i < changes.relationships.size(); i++) {
+            final long relationId = changes.relationships.get(i);
+            final int source = idMap.get(changes.sources.get(i));
+            final int target = idMap.get(changes.targets.get(i));
+            if (source == -1 || target == -1) {
+                continue;
+            }
+            if (changes.deleted.get(i)) {
+                matrix.removeOutgoing(source, target, relationId);
+                matrix.removeIncoming(source, target, relationId);
+                if (relationshipWeights instanceof WeightMapOverlay) {
+                    ((WeightMapOverlay) relationshipWeights).remove(relationId);
+                }
+                continue;
+            }
+            if (matrix.containsOutgoing(source, relationId)) {
+                continue;
+            }
+            if (detachedOut.add(source)) {
+                matrix.detachOutgoing(source);
+            }
+            if (detachedIn.add(target)) {
+                matrix.detachIncoming(target);
+            }
+            matrix.addOutgoing(source, target, relationId);
+            matrix.addIncoming(source, target, relationId);
+            set(relationshipWeights, relationId, changes.weights.get(i));
+        }
+        final HeavyGraph changed = new HeavyGraph(
+                idMap,
+                matrix,
+                relationshipWeights,
+                nodeWeights,
+                nodeProperties,
+                relationshipTypes,
+                nodeLabels,
+                null,
+                version + 1);
+        if (deletedNodes.isEmpty()) {
+            return changed;
+        }
+        // drop the ids of deleted nodes, so that every graph id is an existing node
+        return changed.filter(nodeId -> !deletedNodes.get(nodeId), (source, target) -> true);
+    }
+
+    /**
+     * a new graph of the nodes that match {@code nodes} and the relationships between
+     * them that match {@code relationships}, built from the loaded data without reading
+     * the store. The kept nodes get consecutive ids in the order of this graph. Both
+     * predicates are called with the node ids of this graph, the relationship predicate
+     * with the start and end node of each relationship.
+     */
+    public HeavyGraph filter(IntPredicate nodes, IntBinaryPredicate relationships) {
+        return filter(nodes, relationships, null, 1);
+    }
+
+    /**
+     * like {@link #filter(IntPredicate, IntBinaryPredicate)} but runs on {@code concurrency}
+     * workers of the pool, so the predicates must be safe to call from several threads.
+     * A null pool filters on the calling thread.
+     * <p>
+     * The nodes are tested and the relationship lists of the kept nodes are copied
+     * in parallel, each kept node is written by a single worker. Relationship ids and
+     * weights, node weights, node properties, labels and relationship types are kept.
+     * Undirected graphs test every relationship with the smaller node first. Degrees
+     * of a direction whose relationships have not been loaded are not kept. The
+     * subgraph has the {@link #version()} of this graph.
+     */
+    public HeavyGraph filter(IntPredicate nodes, IntBinaryPredicate relationships, ExecutorService pool, int concurrency) {
+        final int nodeCount = nodeCount();
+        final int partitions = Math.max(1, concurrency) * NodePartitions.PARTITIONS_PER_WORKER;
+        // -1 for removed nodes, 0 for kept nodes until they are numbered
+        final int[] newNodeIds = new int[nodeCount];
+        NodePartitions.byCost(nodeCount, nodeId -> 1L, partitions).run(pool, concurrency, () -> (start, end) -> {
+            for (int nodeId = start; nodeId < end; nodeId++) {
+                newNodeIds[nodeId] = nodes.test(nodeId) ? 0 : -1;
+            }
+        });
+        int newNodeCount = 0;
+        for (int nodeId = 0; nodeId < nodeCount; nodeId++) {
+            if (newNodeIds[nodeId] != -1) {
+                newNodeIds[nodeId] = newNodeCount++;
+            }
+        }
+        final int[] oldNodeIds = new int[newNodeCount];
+        final IdMap idMap = new IdMap(newNodeCount);
+        for (int nodeId = 0; nodeId < nodeCount; nodeId++) {
+            if (newNodeIds[nodeId] != -1) {
+                oldNodeIds[newNodeIds[nodeId]] = nodeId;
+                idMap.add(nodeIdMap.unmap(nodeId));
+            }
+        }
+        idMap.buildMappedIds();
+
+        final AdjacencyMatrix matrix = container.emptyCopy(newNodeCount);
+        NodePartitions.byCost(newNodeCount, nodeId -> container.degree(oldNodeIds[nodeId], Direction.BOTH) + 1L, partitions)
+                .run(pool, concurrency, () -> (start, end) -> {
+                    for (int nodeId = start; nodeId < end; nodeId++) {
+                        container.filter(oldNodeIds[nodeId], matrix, nodeId, newNodeIds, relationships);
+                    }
+                });
+        return new HeavyGraph(
+                idMap,
+                matrix,
+                relationshipWeights,
+                subset(nodeWeights, oldNodeIds),
+                subset(nodeProperties, oldNodeIds),
+                relationshipTypes,
+                nodeLabels,
+                subset(labelBitmaps, oldNodeIds),
+                version);
+    }
+
+    /**
+     * the node weights of the kept nodes, relationship weights are
+     * looked up by relationship id and can be shared
+     */
+    private static WeightMapping subset(WeightMapping weights, int[] oldNodeIds) {
+        return weights instanceof WeightMap ? ((WeightMap) weights).subset(oldNodeIds) : weights;
+    }
+
+    private static SparseFixedBitSet[] subset(SparseFixedBitSet[] bitmaps, int[] oldNodeIds) {
+        if (bitmaps == null) {
+            return null;
+        }
+        final SparseFixedBitSet[] subsets = new SparseFixedBitSet[bitmaps.length];
+        for (int label = 0; label < bitmaps.length; label++) {
+            subsets[label] = new SparseFixedBitSet(Math.max(1, oldNodeIds.length));
+            for (int nodeId = 0; nodeId < oldNodeIds.length; nodeId++) {
+                if (bitmaps[label].get(oldNodeIds[nodeId])) {
+                    subsets[label].set(nodeId);
+                }
+            }
+        }
+        return subsets;
+    }
+
+    private static WeightMapping copy(WeightMapping weights) {
+        return weights instanceof WeightMap ? ((WeightMap) weights).copy() : weights;
+    }
+
+    /**
+     * set the weight unless the weights have not been loaded
+     */
+    private static void set(WeightMapping weights, long id, double weight) {
+        if (weights instanceof WeightMap || weights instanceof WeightMapOverlay) {
+            weights.set(id, weight);
+        }
     }
 
     @Override
@@ -74,6 +332,143 @@ public class HeavyGraph implements Graph, RelationshipWeights, NodeWeights, Node
         container.forEach(nodeId, direction, relationshipWeights, consumer);
     }
 
+    @Override
+    public boolean exists(int sourceNodeId, int targetNodeId, Direction direction) {
+        return container.exists(sourceNodeId, targetNodeId, direction);
+    }
+
+    /**
+     * {@inheritDoc}
+     * <p>
+     * Sorted lists of a single relationship type are merged,
+     * the lists of several types are collected and sorted first.
+     */
+    @Override
+    public void intersect(int nodeA, int nodeB, Direction direction, IntConsumer consumer) {
+        if (container.canIntersect(direction)) {
+            container.intersect(nodeA, nodeB, direction, consumer);
+        } else {
+            Graph.super.intersect(nodeA, nodeB, direction, consumer);
+        }
+    }
+
+    @Override
+    public String[] relationshipTypes() {
+        return relationshipTypes != null ? relationshipTypes.clone() : new String[0];
+    }
+
+    @Override
+    public int typeMask(String... types) {
+        return mask(relationshipTypes, types, "Relationship type");
+    }
+
+    /**
+     * {@inheritDoc}
+     * <p>
+     * A graph loaded without relationship types has a single type that
+     * includes every relationship and is selected by the first bit.
+     */
+    @Override
+    public void forEachRelationship(int nodeId, Direction direction, int typeMask, RelationshipConsumer consumer) {
+        container.forEach(nodeId, direction, typeMask, consumer);
+    }
+
+    @Override
+    public void forEachRelationship(int nodeId, Direction direction, int typeMask, WeightedRelationshipConsumer consumer) {
+        container.forEach(nodeId, direction, typeMask, relationshipWeights, consumer);
+    }
+
+    @Override
+    public int degree(int nodeId, Direction direction, int typeMask) {
+        return container.degree(nodeId, direction, typeMask);
+    }
+
+    @Override
+    public String[] nodeLabels() {
+        return nodeLabels != null ? nodeLabels.clone() : new String[0];
+    }
+
+    @Override
+    public int labelMask(String... labels) {
+        return mask(nodeLabels, labels, "Label");
+    }
+
+    @Override
+    public boolean hasLabel(int nodeId, int labelMask) {
+        if (labelBitmaps == null) {
+            return labelMask != 0;
+        }
+        for (int label = 0; label < labelBitmaps.length; label++) {
+            if ((labelMask & (1 << label)) != 0 && labelBitmaps[label].get(nodeId)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * {@inheritDoc}
+     * <p>
+     * A single label is iterated by its bitmap, several
+     * labels test the bitmaps of each node.
+     */
+    @Override
+    public void forEachNode(int labelMask, IntConsumer consumer) {
+        if (labelBitmaps == null || Integer.bitCount(labelMask) != 1) {
+            nodeIdMap.forEach(nodeId -> {
+                if (hasLabel(nodeId, labelMask)) {
+                    consumer.accept(nodeId);
+                }
+            });
+            return;
+        }
+        final SparseFixedBitSet bitmap = labelBitmaps[Integer.numberOfTrailingZeros(labelMask)];
+        final int nodeCount = nodeCount();
+        int nodeId = nextSetBit(bitmap, 0, nodeCount);
+        while (nodeId < nodeCount) {
+            consumer.accept(nodeId);
+            nodeId = nextSetBit(bitmap, nodeId + 1, nodeCount);
+        }
+    }
+
+    @Override
+    public void forEachLabeledRelationship(int nodeId, Direction direction, int labelMask, RelationshipConsumer consumer) {
+        container.forEach(nodeId, direction, (sourceNodeId, targetNodeId, relationId) ->
+                !hasLabel(targetNodeId, labelMask) || consumer.accept(sourceNodeId, targetNodeId, relationId));
+    }
+
+    @Override
+    public void forEachLabeledRelationship(int nodeId, Direction direction, int labelMask, WeightedRelationshipConsumer consumer) {
+        container.forEach(nodeId, direction, relationshipWeights, (sourceNodeId, targetNodeId, relationId, weight) ->
+                !hasLabel(targetNodeId, labelMask) || consumer.accept(sourceNodeId, targetNodeId, relationId, weight));
+    }
+
+    /**
+     * the next node of the bitmap, nodeCount if there is none
+     */
+    private static int nextSetBit(SparseFixedBitSet bitmap, int index, int nodeCount) {
+        return index < nodeCount ? bitmap.nextSetBit(index) : nodeCount;
+    }
+
+    /**
+     * the mask with the bits of the indices of the selected names
+     *
+     * @throws IllegalArgumentException if one of the selected names has not been loaded
+     */
+    private static int mask(String[] loaded, String[] selected, String kind) {
+        int mask = 0;
+        for (String name : selected) {
+            final int index = loaded != null
+                    ? Arrays.asList(loaded).indexOf(name)
+                    : -1;
+            if (index == -1) {
+                throw new IllegalArgumentException(kind + " '" + name + "' has not been loaded");
+            }
+            mask |= 1 << index;
+        }
+        return mask;
+    }
+
     @Override
     public Iterator<RelationshipCursor> relationshipIterator(int nodeId, Direction direction) {
         return container.relationIterator(nodeId, direction);
@@ -1,5 +1,6 @@
 package org.neo4j.graphalgo.core.heavyweight;
 
+import org.apache.lucene.util.SparseFixedBitSet;
 import org.neo4j.collection.primitive.PrimitiveLongIterator;
 import org.neo4j.cursor.Cursor;
 import org.neo4j.graphalgo.api.Graph;
@@ -9,7 +10,8 @@ import org.neo4j.graphalgo.api.WeightMapping;
 import org.neo4j.graphalgo.core.IdMap;
 import org.neo4j.graphalgo.core.NullWeightMap;
 import org.neo4j.graphalgo.core.WeightMap;
-import org.neo4j.helpers.Exceptions;
+import org.neo4j.graphalgo.core.utils.MemoryEstimation;
+import org.neo4j.graphalgo.core.utils.ParallelUtil;
 import org.neo4j.kernel.api.ReadOperations;
 import org.neo4j.kernel.api.StatementConstants;
 import org.neo4j.kernel.internal.GraphDatabaseAPI;
@@ -19,12 +21,8 @@ import org.neo4j.storageengine.api.PropertyItem;
 import org.neo4j.storageengine.api.RelationshipItem;
 
 import java.util.ArrayList;
-import java.util.Collection;
 import java.util.List;
-import java.util.concurrent.CancellationException;
-import java.util.concurrent.ExecutionException;
 import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Future;
 import java.util.function.Consumer;
 
 /**
@@ -38,8 +36,17 @@ public class HeavyGraphFactory extends GraphFactory {
     private int relWeightId;
     private int nodeWeightId;
     private int nodePropId;
-    private int labelId;
+    // the existing labels to load, null means any label
+    private int[] labelIds;
+    // the ids of the labels to keep bitmaps of, null if less than two labels are loaded
+    private int[] bitmapLabelIds;
+    // the existing types to load, null means any type
     private int[] relationId;
+    // the ids of the types to group by, null if no type has been given or none exists
+    private int[] typeIds;
+    // the property predicates, null means every node or relationship is loaded
+    private PropertyFilter nodeFilter;
+    private PropertyFilter relationshipFilter;
     private int nodeCount;
 
     public HeavyGraphFactory(
@@ -48,16 +55,26 @@ public class HeavyGraphFactory extends GraphFactory {
         super(api, setup);
         this.threadPool = setup.executor;
         withReadOps(readOp -> {
-            labelId = setup.loadAnyLabel()
-                    ? ReadOperations.ANY_LABEL
-                    : readOp.labelGetForName(setup.startLabel);
-            if (!setup.loadAnyRelationshipType()) {
-                int relId = readOp.relationshipTypeGetForName(setup.relationshipType);
-                if (relId != StatementConstants.NO_SUCH_RELATIONSHIP_TYPE) {
-                    relationId = new int[]{relId};
+            final int[] requestedLabelIds = labelIds(readOp);
+            labelIds = existingLabelIds(requestedLabelIds);
+            if (labelIds != null && requestedLabelIds.length > 1) {
+                if (requestedLabelIds.length > Integer.SIZE) {
+                    throw new IllegalArgumentException(
+                            "At most " + Integer.SIZE + " labels are supported, got " + requestedLabelIds.length);
                 }
+                bitmapLabelIds = requestedLabelIds;
             }
-            nodeCount = Math.toIntExact(readOp.countsForNode(labelId));
+            typeIds = relationshipTypeIds(readOp);
+            relationId = existingTypeIds(typeIds);
+            if (relationId == null) {
+                typeIds = null;
+            } else if (typeIds.length > Integer.SIZE) {
+                throw new IllegalArgumentException(
+                        "At most " + Integer.SIZE + " relationship types are supported, got " + typeIds.length);
+            }
+            nodeFilter = nodeFilter(readOp);
+            relationshipFilter = relationshipFilter(readOp);
+            nodeCount = Math.toIntExact(countNodes(readOp, labelIds));
             relWeightId = setup.loadDefaultRelationshipWeight()
                     ? StatementConstants.NO_SUCH_PROPERTY_KEY
                     : readOp.propertyKeyGetForName(setup.relationWeightPropertyName);
@@ -75,69 +92,174 @@ public class HeavyGraphFactory extends GraphFactory {
         return build(BATCH_SIZE);
     }
 
+    @Override
+    public MemoryEstimation memoryEstimation() {
+        final long[] counts = relationshipCounts();
+        final long outgoing = counts[0];
+        final long incoming = counts[1];
+        final int directions = (setup.loadOutgoing() ? 1 : 0) + (setup.loadIncoming() ? 1 : 0);
+        final MemoryEstimation.Builder builder = MemoryEstimation.builder()
+                .add("idMap", IdMap.estimateBytes(nodeCount))
+                .add("adjacency", AdjacencyMatrix.estimateAdjacencyBytes(nodeCount, directions, outgoing, incoming));
+        if (typeCount() > 1) {
+            builder.add("relationshipTypes", AdjacencyMatrix.estimateTypeOffsetBytes(nodeCount, directions, typeCount()));
+        }
+        if (bitmapLabelIds != null) {
+            final long[] labelBytes = new long[1];
+            withReadOps(readOp -> {
+                for (int labelId : bitmapLabelIds) {
+                    if (labelId != StatementConstants.NO_SUCH_LABEL) {
+                        labelBytes[0] += estimateBitmapBytes(nodeCount, readOp.countsForNode(labelId));
+                    }
+                }
+            });
+            builder.add("labels", labelBytes[0]);
+        }
+        if (loadRelationshipIds()) {
+            builder.add("relationshipIds", AdjacencyMatrix.estimateRelationshipIdBytes(nodeCount, directions, outgoing, incoming));
+        }
+        // concurrent tasks load into their own maps, which live until they are merged
+        final boolean taskLocalMaps = threadPool != null && ParallelUtil.threadSize(BATCH_SIZE, nodeCount) > 1;
+        if (relWeightId != StatementConstants.NO_SUCH_PROPERTY_KEY) {
+            // both directions share the weights by relationship id
+            final long weights = WeightMap.estimateBytes(Math.max(outgoing, incoming));
+            builder.add("relationshipWeights", weights);
+            if (taskLocalMaps) {
+                builder.add("taskRelationshipWeights", weights);
+            }
+        }
+        if (nodeWeightId != StatementConstants.NO_SUCH_PROPERTY_KEY) {
+            builder.add("nodeWeights", WeightMap.estimateBytes(nodeCount));
+            if (taskLocalMaps) {
+                builder.add("taskNodeWeights", WeightMap.estimateBytes(nodeCount));
+            }
+        }
+        if (nodePropId != StatementConstants.NO_SUCH_PROPERTY_KEY) {
+            builder.add("nodeProperties", WeightMap.estimateBytes(nodeCount));
+            if (taskLocalMaps) {
+                builder.add("taskNodeProperties", WeightMap.estimateBytes(nodeCount));
+            }
+        }
+        return builder.build();
+    }
+
+    /**
+     * the number of outgoing and incoming relationships of the loaded directions
+     */
+    private long[] relationshipCounts() {
+        final long[] counts = new long[2];
+        withReadOps(readOp -> {
+            if (setup.loadOutgoing()) {
+                counts[0] = countRelationships(readOp, labelIds, relationId, null);
+            }
+            if (setup.loadIncoming()) {
+                counts[1] = countRelationships(readOp, null, relationId, labelIds);
+            }
+        });
+        return counts;
+    }
+
+    /**
+     * the expected number of relationship weights, both directions
+     * share the weights by relationship id
+     */
+    private int relationshipWeightCapacity() {
+        if (relWeightId == StatementConstants.NO_SUCH_PROPERTY_KEY) {
+            return 0;
+        }
+        final long[] counts = relationshipCounts();
+        return (int) Math.min(Math.max(counts[0], counts[1]), Integer.MAX_VALUE);
+    }
+
+    /**
+     * relationship weights are looked up by the relationship id,
+     * so the ids are always loaded together with the weights
+     */
+    private boolean loadRelationshipIds() {
+        return setup.loadRelationshipIds || relWeightId != StatementConstants.NO_SUCH_PROPERTY_KEY;
+    }
+
+    /**
+     * an upper bound of the bytes of a {@link SparseFixedBitSet} of the given length,
+     * it keeps an index and a pointer per block of 4096 bits and only the non-empty
+     * longs of each block
+     */
+    private static long estimateBitmapBytes(long length, long cardinality) {
+        final long blocks = (length + 4095L) >>> 12;
+        final long words = Math.min(cardinality, (length + 63L) >>> 6);
+        return MemoryEstimation.sizeOfArray(blocks, Long.BYTES)
+                + MemoryEstimation.sizeOfObjectArray(blocks)
+                + Math.min(blocks, cardinality) * MemoryEstimation.sizeOfArray(0, Long.BYTES)
+                + words * Long.BYTES;
+    }
+
     /* test-private */ Graph build(int batchSize) {
         final IdMap idMap = new IdMap(nodeCount);
-        final AdjacencyMatrix matrix = new AdjacencyMatrix(nodeCount);
 
-        final WeightMapping relWeigths = relWeightId == StatementConstants.NO_SUCH_PROPERTY_KEY
-                ? new NullWeightMap(setup.relationDefaultWeight)
-                : new WeightMap(nodeCount, setup.relationDefaultWeight);
+        final WeightMapping relWeigths = newWeightMapping(
+                relWeightId,
+                setup.relationDefaultWeight,
+                relationshipWeightCapacity());
 
-        final WeightMapping nodeWeights = nodeWeightId == StatementConstants.NO_SUCH_PROPERTY_KEY
-                ? new NullWeightMap(setup.nodeDefaultWeight)
-                : new WeightMap(nodeCount, setup.nodeDefaultWeight);
+        final WeightMapping nodeWeights = newWeightMapping(
+                nodeWeightId,
+                setup.nodeDefaultWeight,
+                nodeCount);
 
-        final WeightMapping nodeProps = nodePropId == StatementConstants.NO_SUCH_PROPERTY_KEY
-                ? new NullWeightMap(setup.nodeDefaultPropertyValue)
-                : new WeightMap(nodeCount, setup.nodeDefaultPropertyValue);
+        final WeightMapping nodeProps = newWeightMapping(
+                nodePropId,
+                setup.nodeDefaultPropertyValue,
+                nodeCount);
 
-        int threads = (int) Math.ceil(nodeCount / (double) batchSize);
+        int threads = ParallelUtil.threadSize(batchSize, nodeCount);
 
+        final AdjacencyMatrix matrix;
         if (threadPool == null || threads == 1) {
             withReadOps(readOp -> {
-                final PrimitiveLongIterator nodeIds = labelId == ReadOperations.ANY_LABEL
-                        ? readOp.nodesGetAll()
-                        : readOp.nodesGetForLabel(labelId);
+                final PrimitiveLongIterator nodeIds = nodeIds(readOp, labelIds, idMap, nodeFilter);
                 while (nodeIds.hasNext()) {
                     final long nextId = nodeIds.next();
                     idMap.add(nextId);
                 }
                 idMap.buildMappedIds();
-
-                try (Cursor<NodeItem> cursor = labelId == ReadOperations.ANY_LABEL
+            });
+            // several labels count nodes with more than one of them repeatedly
+            matrix = newMatrix(idMap.size());
+            withReadOps(readOp -> {
+                if (labelIds != null && labelIds.length > 1) {
+                    for (long nodeId : idMap.mappedIds()) {
+                        try (Cursor<NodeItem> cursor = readOp.nodeCursor(nodeId)) {
+                            if (cursor.next()) {
+                                readNode(cursor.get(), idMap, 0, matrix, relWeigths, nodeWeights, nodeProps);
+                            }
+                        }
+                    }
+                    return;
+                }
+                try (Cursor<NodeItem> cursor = labelIds == null
                         ? readOp.nodeCursorGetAll()
-                        : readOp.nodeCursorGetForLabel(labelId)) {
+                        : readOp.nodeCursorGetForLabel(labelIds[0])) {
                     while (cursor.next()) {
                         final NodeItem node = cursor.get();
                         readNode(node,
                                 idMap,
                                 0,
                                 matrix,
-                                relWeightId,
                                 relWeigths,
-                                nodeWeightId,
                                 nodeWeights,
-                                nodePropId,
-                                nodeProps,
-                                relationId);
+                                nodeProps);
                     }
                 }
             });
         } else {
             final List<ImportTask> tasks = new ArrayList<>(threads);
             withReadOps(readOp -> {
-                final PrimitiveLongIterator nodeIds = labelId == ReadOperations.ANY_LABEL
-                        ? readOp.nodesGetAll()
-                        : readOp.nodesGetForLabel(labelId);
+                final PrimitiveLongIterator nodeIds = nodeIds(readOp, labelIds, idMap, nodeFilter);
                 for (int i = 0; i <= threads; i++) {
                     final ImportTask importTask = new ImportTask(
                             batchSize,
                             idMap,
-                            nodeIds,
-                            relWeigths,
-                            nodeWeights,
-                            nodeProps,
-                            relationId
+                            nodeIds
                     );
                     if (importTask.nodeCount > 0) {
                         tasks.add(importTask);
@@ -145,9 +267,16 @@ public class HeavyGraphFactory extends GraphFactory {
                 }
             });
             idMap.buildMappedIds();
-            run(tasks, threadPool);
-            for (ImportTask task : tasks) {
+            matrix = newMatrix(idMap.size());
+            ParallelUtil.run(tasks, threadPool);
+            for (int i = 0; i < tasks.size(); i++) {
+                final ImportTask task = tasks.get(i);
                 matrix.addMatrix(task.matrix, task.nodeOffset, task.nodeCount);
+                merge(relWeigths, task.relWeights);
+                merge(nodeWeights, task.nodeWeights);
+                merge(nodeProps, task.nodeProps);
+                // release the maps of the task once they are merged
+                tasks.set(i, null);
             }
         }
         return new HeavyGraph(
@@ -155,117 +284,227 @@ public class HeavyGraphFactory extends GraphFactory {
                 matrix,
                 relWeigths,
                 nodeWeights,
-                nodeProps);
+                nodeProps,
+                typeIds != null ? setup.relationshipTypes() : null,
+                labelIds != null ? setup.startLabels() : null,
+                readLabels(idMap));
+    }
+
+    /**
+     * the bitmaps of the graph ids of the nodes of each label
+     *
+     * @return the bitmaps or null if less than two labels are loaded
+     */
+    private SparseFixedBitSet[] readLabels(IdMap idMap) {
+        if (bitmapLabelIds == null) {
+            return null;
+        }
+        final SparseFixedBitSet[] bitmaps = new SparseFixedBitSet[bitmapLabelIds.length];
+        withReadOps(readOp -> {
+            for (int label = 0; label < bitmapLabelIds.length; label++) {
+                final SparseFixedBitSet bitmap = new SparseFixedBitSet(idMap.size());
+                if (bitmapLabelIds[label] != StatementConstants.NO_SUCH_LABEL) {
+                    final PrimitiveLongIterator nodeIds = readOp.nodesGetForLabel(bitmapLabelIds[label]);
+                    while (nodeIds.hasNext()) {
+                        final int graphId = idMap.get(nodeIds.next());
+                        if (graphId != -1) {
+                            bitmap.set(graphId);
+                        }
+                    }
+                }
+                bitmaps[label] = bitmap;
+            }
+        });
+        return bitmaps;
+    }
+
+    private AdjacencyMatrix newMatrix(int nodeCount) {
+        return new AdjacencyMatrix(
+                nodeCount,
+                setup.loadOutgoing(),
+                setup.loadIncoming(),
+                loadRelationshipIds(),
+                setup.undirected,
+                setup.sortAdjacency,
+                typeCount());
+    }
+
+    /**
+     * the number of groups of each adjacency list
+     */
+    private int typeCount() {
+        return typeIds != null ? typeIds.length : 1;
     }
 
-    private static void readNode(
+    private static WeightMapping newWeightMapping(int propertyId, double defaultValue, int capacity) {
+        return propertyId == StatementConstants.NO_SUCH_PROPERTY_KEY
+                ? new NullWeightMap(defaultValue)
+                : new WeightMap(capacity, defaultValue);
+    }
+
+    /**
+     * WeightMaps are not thread-safe, every task loads its weights
+     * into its own maps which are merged after all tasks have finished.
+     * The target is presized, so merging does not rehash it.
+     */
+    private static void merge(WeightMapping target, WeightMapping taskLocal) {
+        if (target instanceof WeightMap) {
+            ((WeightMap) target).putAll((WeightMap) taskLocal);
+        }
+    }
+
+    private void readNode(
             NodeItem node,
             IdMap idMap,
             int idOffset,
             AdjacencyMatrix matrix,
-            int relWeightId,
             WeightMapping relWeights,
-            int nodeWeightId,
             WeightMapping nodeWeights,
-            int nodePropId,
-            WeightMapping nodeProps,
-            int... relationType
-    ) {
+            WeightMapping nodeProps) {
         final long originalNodeId = node.id();
-        final int nodeId = idMap.get(originalNodeId) - idOffset;
-        final int outDegree;
-        final int inDegree;
-        final Cursor<RelationshipItem> outCursor;
-        final Cursor<RelationshipItem> inCursor;
-        if (relationType == null) {
-            outDegree = node.degree(Direction.OUTGOING);
-            inDegree = node.degree(Direction.INCOMING);
-            outCursor = node.relationships(Direction.OUTGOING);
-            inCursor = node.relationships(Direction.INCOMING);
-        } else {
-            outDegree = node.degree(Direction.OUTGOING, relationType[0]);
-            inDegree = node.degree(Direction.INCOMING, relationType[0]);
-            outCursor = node.relationships(Direction.OUTGOING, relationType);
-            inCursor = node.relationships(Direction.INCOMING, relationType);
+        final int graphId = idMap.get(originalNodeId);
+        if (graphId == -1) {
+            // filtered by the node predicates
+            return;
         }
+        // the matrix of a task starts at its idOffset, weights use the graph id
+        final int nodeId = graphId - idOffset;
         try (Cursor<PropertyItem> weights = node.property(nodeWeightId)) {
             if (weights.next()) {
-                nodeWeights.set(nodeId, weights.get().value());
+                nodeWeights.set(graphId, weights.get().value());
             }
         }
         try (Cursor<PropertyItem> props = node.property(nodePropId)) {
             if (props.next()) {
-                nodeProps.set(nodeId, props.get().value());
+                nodeProps.set(graphId, props.get().value());
+            }
+        }
+
+        if (setup.loadOutgoing()) {
+            matrix.armOut(nodeId, degree(node, Direction.OUTGOING));
+            readRelationships(node, Direction.OUTGOING, nodeId, idMap, matrix, relWeights);
+        } else if (setup.loadOppositeDegrees) {
+            matrix.setOutDegree(nodeId, countDegree(node, Direction.OUTGOING, idMap));
+        }
+        if (setup.loadIncoming()) {
+            matrix.armIn(nodeId, degree(node, Direction.INCOMING));
+            readRelationships(node, Direction.INCOMING, nodeId, idMap, matrix, relWeights);
+        } else if (setup.loadOppositeDegrees) {
+            matrix.setInDegree(nodeId, countDegree(node, Direction.INCOMING, idMap));
+        }
+        if (matrix.undirected) {
+            matrix.toUndirected(nodeId);
+        } else {
+            matrix.sort(nodeId);
+        }
+    }
+
+    /**
+     * read the relationships of the direction, grouped by type if several types are loaded
+     */
+    private void readRelationships(
+            NodeItem node,
+            Direction direction,
+            int nodeId,
+            IdMap idMap,
+            AdjacencyMatrix matrix,
+            WeightMapping relWeights) {
+        if (typeCount() == 1) {
+            readRelationships(node, direction, nodeId, idMap, matrix, relWeights, relationships(node, direction));
+            return;
+        }
+        for (int type = 0; type < typeIds.length; type++) {
+            if (direction == Direction.OUTGOING) {
+                matrix.startOutType(nodeId, type);
+            } else {
+                matrix.startInType(nodeId, type);
+            }
+            if (typeIds[type] != StatementConstants.NO_SUCH_RELATIONSHIP_TYPE) {
+                readRelationships(node, direction, nodeId, idMap, matrix, relWeights, node.relationships(direction, typeIds[type]));
             }
         }
+    }
 
-        matrix.armOut(nodeId, outDegree);
-        try (Cursor<RelationshipItem> rels = outCursor) {
+    private void readRelationships(
+            NodeItem node,
+            Direction direction,
+            int nodeId,
+            IdMap idMap,
+            AdjacencyMatrix matrix,
+            WeightMapping relWeights,
+            Cursor<RelationshipItem> cursor) {
+        try (Cursor<RelationshipItem> rels = cursor) {
             while (rels.next()) {
                 final RelationshipItem rel = rels.get();
-                final long endNode = rel.endNode();
-                final int targetNodeId = idMap.get(endNode);
-                if (targetNodeId == -1) {
+                final int targetNodeId = idMap.get(rel.otherNode(node.id()));
+                if (targetNodeId == -1 || !matches(rel)) {
                     continue;
                 }
                 final long relationId = rel.id();
-
-                try (Cursor<PropertyItem> weights = rel.property(relWeightId)) {
-                    if (weights.next()) {
-                        relWeights.set(relationId, weights.get().value());
+                if (direction == Direction.OUTGOING) {
+                    readWeight(rel, relWeights);
+                    matrix.addOutgoing(nodeId, targetNodeId, relationId);
+                } else {
+                    if (!setup.loadOutgoing()) {
+                        // otherwise read by the outgoing relationships of the start node
+                        readWeight(rel, relWeights);
                     }
+                    matrix.addIncoming(targetNodeId, nodeId, relationId);
                 }
-
-                matrix.addOutgoing(nodeId, targetNodeId, relationId);
             }
         }
-        matrix.armIn(nodeId, inDegree);
-        try (Cursor<RelationshipItem> rels = inCursor) {
-            while (rels.next()) {
-                final RelationshipItem rel = rels.get();
-                final long startNode = rel.startNode();
-                final int targetNodeId = idMap.get(startNode);
-                if (targetNodeId == -1) {
-                    continue;
-                }
-                final long relationId = rel.id();
-                matrix.addIncoming(targetNodeId, nodeId, relationId);
+    }
+
+    private void readWeight(RelationshipItem rel, WeightMapping relWeights) {
+        try (Cursor<PropertyItem> weights = rel.property(relWeightId)) {
+            if (weights.next()) {
+                relWeights.set(rel.id(), weights.get().value());
             }
         }
     }
 
-    private static void run(
-            final Collection<? extends Runnable> tasks,
-            final ExecutorService threadPool) {
-        final List<Future<?>> futures = new ArrayList<>(tasks.size());
-        for (Runnable task : tasks) {
-            futures.add(threadPool.submit(task));
+    private Cursor<RelationshipItem> relationships(NodeItem node, Direction direction) {
+        return relationId == null
+                ? node.relationships(direction)
+                : node.relationships(direction, relationId);
+    }
+
+    /**
+     * the degree of the store, including relationships to nodes that are not loaded
+     */
+    private int degree(NodeItem node, Direction direction) {
+        if (relationId == null) {
+            return node.degree(direction);
+        }
+        int degree = 0;
+        for (int typeId : relationId) {
+            degree += node.degree(direction, typeId);
         }
+        return degree;
+    }
 
-        boolean done = false;
-        Throwable error = null;
-        try {
-            for (Future<?> future : futures) {
-                try {
-                    future.get();
-                } catch (ExecutionException ee) {
-                    error = Exceptions.chain(error, ee.getCause());
-                } catch (CancellationException ignore) {
-                }
-            }
-            done = true;
-        } catch (InterruptedException e) {
-            error = Exceptions.chain(e, error);
-        } finally {
-            if (!done) {
-                for (final Future<?> future : futures) {
-                    future.cancel(true);
+    // whether the relationship matches the relationship predicates
+    private boolean matches(RelationshipItem rel) {
+        return relationshipFilter == null || relationshipFilter.test(rel);
+    }
+
+    /**
+     * the degree of a direction that is not loaded, only counting loaded nodes
+     */
+    private int countDegree(NodeItem node, Direction direction, IdMap idMap) {
+        if (labelIds == null && nodeFilter == null && relationshipFilter == null) {
+            return degree(node, direction);
+        }
+        int degree = 0;
+        try (Cursor<RelationshipItem> rels = relationships(node, direction)) {
+            while (rels.next()) {
+                final RelationshipItem rel = rels.get();
+                if (idMap.get(rel.otherNode(node.id())) != -1 && matches(rel)) {
+                    degree++;
                 }
             }
         }
-        if (error != null) {
-            throw Exceptions.launderedException(error);
-        }
+        return degree;
     }
 
     private final class ImportTask implements Runnable, Consumer<ReadOperations> {
@@ -276,28 +515,22 @@ public class HeavyGraphFactory extends GraphFactory {
         private final WeightMapping relWeights;
         private final WeightMapping nodeWeights;
         private final WeightMapping nodeProps;
-        private final int[] relationId;
 
         ImportTask(
                 int batchSize,
                 IdMap idMap,
-                PrimitiveLongIterator nodes,
-                WeightMapping relWeights,
-                WeightMapping nodeWeights,
-                WeightMapping nodeProps,
-                int... relationId) {
+                PrimitiveLongIterator nodes) {
             this.idMap = idMap;
             this.nodeOffset = idMap.size();
-            this.relWeights = relWeights;
-            this.nodeWeights = nodeWeights;
-            this.nodeProps = nodeProps;
-            this.relationId = relationId;
+            this.relWeights = newWeightMapping(relWeightId, setup.relationDefaultWeight, batchSize);
+            this.nodeWeights = newWeightMapping(nodeWeightId, setup.nodeDefaultWeight, batchSize);
+            this.nodeProps = newWeightMapping(nodePropId, setup.nodeDefaultPropertyValue, batchSize);
             int i;
             for (i = 0; i < batchSize && nodes.hasNext(); i++) {
                 final long nextId = nodes.next();
                 idMap.add(nextId);
             }
-            this.matrix = new AdjacencyMatrix(batchSize);
+            this.matrix = newMatrix(batchSize);
             this.nodeCount = i;
         }
 
@@ -314,18 +547,14 @@ public class HeavyGraphFactory extends GraphFactory {
             for (int i = nodeOffset; i < nodeEnd; i++) {
                 try (Cursor<NodeItem> cursor = readOp.nodeCursor(nodeIds[i])) {
                     if (cursor.next()) {
-                        HeavyGraphFactory.readNode(
+                        readNode(
                                 cursor.get(),
                                 idMap,
                                 nodeOffset,
                                 matrix,
-                                relWeightId,
                                 relWeights,
-                                nodeWeightId,
                                 nodeWeights,
-                                nodePropId,
-                                nodeProps,
-                                relationId);
+                                nodeProps);
                     }
                 }
             }
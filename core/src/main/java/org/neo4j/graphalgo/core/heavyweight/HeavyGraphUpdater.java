@@ -0,0 +1,229 @@
+package org.neo4j.graphalgo.core.heavyweight;
+
+import org.neo4j.graphalgo.api.Graph;
+import org.neo4j.graphalgo.api.GraphSetup;
+import org.neo4j.graphalgo.core.WeightMap;
+import org.neo4j.graphdb.Label;
+import org.neo4j.graphdb.Node;
+import org.neo4j.graphdb.PropertyContainer;
+import org.neo4j.graphdb.Relationship;
+import org.neo4j.graphdb.RelationshipType;
+import org.neo4j.graphdb.event.TransactionData;
+import org.neo4j.graphdb.event.TransactionEventHandler;
+import org.neo4j.helpers.NamedThreadFactory;
+import org.neo4j.kernel.internal.GraphDatabaseAPI;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Keeps a {@link HeavyGraph} up to date with the transactions committed to
+ * the database. The nodes and relationships created or deleted by each
+ * transaction are collected if they match the setup the graph has been
+ * loaded with and are buffered until the graph is compacted into a new
+ * snapshot with an incremented {@link HeavyGraph#version() version}.
+ * <p>
+ * The graph is compacted when it is requested by {@link #graph()} or in the
+ * background when the number of buffered changes exceeds the compaction
+ * threshold, committing transactions only buffer their changes. A snapshot is
+ * never changed, running algorithms keep the snapshot they started with.
+ * <p>
+ * Deleted nodes are dropped from later snapshots. Changes of
+ * labels, types and properties of existing entities are not applied. Only
+ * directed graphs of both directions loaded with relationship ids, without
+ * property predicates and with at most one label and relationship type can be updated. Relationships are identified
+ * by their ids, so committed relationships are not added twice.
+ */
+public final class HeavyGraphUpdater implements TransactionEventHandler<GraphChanges>, AutoCloseable {
+
+    public static final int DEFAULT_COMPACTION_THRESHOLD = 10_000;
+
+    private final GraphDatabaseAPI api;
+    private final GraphSetup setup;
+    private final int compactionThreshold;
+    private final Label label;
+    private final RelationshipType relationshipType;
+
+    private final ExecutorService compactor;
+    // serializes the compactions
+    private final Object compaction = new Object();
+
+    private volatile HeavyGraph graph;
+    // guarded by this
+    private GraphChanges pending = new GraphChanges();
+    private boolean scheduled;
+    private boolean closed;
+
+    /**
+     * Register the updater with the database. Transactions committed from now
+     * on are buffered, so the updater should be registered before the graph is
+     * loaded and {@link #start(Graph) started} with the loaded graph.
+     *
+     * @param compactionThreshold the number of buffered changes that trigger a compaction
+     */
+    public HeavyGraphUpdater(GraphDatabaseAPI api, GraphSetup setup, int compactionThreshold) {
+        if (setup.undirected || !setup.loadOutgoing() || !setup.loadIncoming()) {
+            throw new IllegalArgumentException("Only directed graphs of both directions can be updated");
+        }
+        if (!setup.loadRelationshipIds) {
+            throw new IllegalArgumentException("Graphs loaded without relationship ids can not be updated");
+        }
+        if (setup.filterNodes() || setup.filterRelationships()) {
+            throw new IllegalArgumentException("Graphs loaded with property predicates can not be updated");
+        }
+        final String[] labels = setup.startLabels();
+        final String[] types = setup.relationshipTypes();
+        if ((labels != null && labels.length > 1) || (types != null && types.length > 1)) {
+            throw new IllegalArgumentException("Graphs of several labels or relationship types can not be updated");
+        }
+        this.api = api;
+        this.setup = setup;
+        this.compactionThreshold = compactionThreshold;
+        this.label = labels != null && labels.length == 1 ? Label.label(labels[0]) : null;
+        this.relationshipType = types != null && types.length == 1
+                ? RelationshipType.withName(types[0])
+                : null;
+        this.compactor = Executors.newSingleThreadExecutor(NamedThreadFactory.daemon("graph-compaction"));
+        api.registerTransactionEventHandler(this);
+    }
+
+    public HeavyGraphUpdater(GraphDatabaseAPI api, GraphSetup setup) {
+        this(api, setup, DEFAULT_COMPACTION_THRESHOLD);
+    }
+
+    /**
+     * Start updating the graph loaded after the updater has been registered.
+     * Changes committed while loading are applied again, which skips the
+     * nodes and relationships the graph already contains.
+     *
+     * @throws IllegalArgumentException if the graph is not a {@link HeavyGraph}
+     */
+    public synchronized void start(Graph graph) {
+        if (!(graph instanceof HeavyGraph)) {
+            throw new IllegalArgumentException("Only a HeavyGraph can be updated but got a "
+                    + graph.getClass().getSimpleName());
+        }
+        this.graph = (HeavyGraph) graph;
+    }
+
+    /**
+     * Return the current snapshot with all changes committed so far.
+     */
+    public HeavyGraph graph() {
+        compact();
+        return graph;
+    }
+
+    /**
+     * Apply the buffered changes to a new snapshot. Transactions committed
+     * while compacting are buffered for the next compaction.
+     */
+    public void compact() {
+        synchronized (compaction) {
+            final HeavyGraph current;
+            final GraphChanges changes;
+            synchronized (this) {
+                if (graph == null || pending.isEmpty()) {
+                    return;
+                }
+                current = graph;
+                changes = pending;
+                pending = new GraphChanges();
+            }
+            graph = current.withChanges(changes);
+        }
+    }
+
+    /**
+     * the version of the latest snapshot, changes that have not yet
+     * been compacted are not included
+     */
+    public long version() {
+        final HeavyGraph graph = this.graph;
+        return graph != null ? graph.version() : 0L;
+    }
+
+    /**
+     * the number of changes that have not yet been compacted
+     */
+    public synchronized int pendingChanges() {
+        return pending.size();
+    }
+
+    @Override
+    public GraphChanges beforeCommit(TransactionData data) {
+        final GraphChanges changes = new GraphChanges();
+        for (Node node : data.createdNodes()) {
+            if (label == null || node.hasLabel(label)) {
+                changes.addNode(
+                        node.getId(),
+                        weight(node, setup.nodeWeightPropertyName, setup.nodeDefaultWeight),
+                        weight(node, setup.nodePropertyName, setup.nodeDefaultPropertyValue));
+            }
+        }
+        for (Node node : data.deletedNodes()) {
+            // the labels of a deleted node can no longer be read, unknown ids are skipped
+            changes.deleteNode(node.getId());
+        }
+        for (Relationship relationship : data.deletedRelationships()) {
+            if (relationshipType == null || relationship.isType(relationshipType)) {
+                changes.deleteRelationship(
+                        relationship.getId(),
+                        relationship.getStartNode().getId(),
+                        relationship.getEndNode().getId());
+            }
+        }
+        for (Relationship relationship : data.createdRelationships()) {
+            if (relationshipType == null || relationship.isType(relationshipType)) {
+                changes.addRelationship(
+                        relationship.getId(),
+                        relationship.getStartNode().getId(),
+                        relationship.getEndNode().getId(),
+                        weight(relationship, setup.relationWeightPropertyName, setup.relationDefaultWeight));
+            }
+        }
+        return changes;
+    }
+
+    @Override
+    public synchronized void afterCommit(TransactionData data, GraphChanges changes) {
+        if (changes == null || changes.isEmpty()) {
+            return;
+        }
+        pending.addAll(changes);
+        if (pending.size() >= compactionThreshold && graph != null && !scheduled && !closed) {
+            scheduled = true;
+            compactor.execute(this::compactInBackground);
+        }
+    }
+
+    @Override
+    public void afterRollback(TransactionData data, GraphChanges changes) {
+    }
+
+    /**
+     * Unregister the updater, the graph is no longer updated.
+     */
+    @Override
+    public void close() {
+        api.unregisterTransactionEventHandler(this);
+        synchronized (this) {
+            closed = true;
+            compactor.shutdown();
+        }
+    }
+
+    private void compactInBackground() {
+        synchronized (this) {
+            scheduled = false;
+        }
+        compact();
+    }
+
+    private static double weight(PropertyContainer entity, String propertyName, double defaultValue) {
+        if (propertyName == null) {
+            return defaultValue;
+        }
+        return WeightMap.extractValue(entity.getProperty(propertyName, null), defaultValue);
+    }
+}
@@ -0,0 +1,90 @@
+package org.neo4j.graphalgo.core.heavyweight;
+
+import com.carrotsearch.hppc.LongDoubleHashMap;
+import com.carrotsearch.hppc.LongHashSet;
+import com.carrotsearch.hppc.procedures.LongDoubleProcedure;
+import com.carrotsearch.hppc.procedures.LongProcedure;
+import org.neo4j.graphalgo.api.WeightMapping;
+import org.neo4j.graphalgo.core.WeightMap;
+
+/**
+ * Copy-on-write view of a {@link WeightMap} used by the snapshots of an
+ * updated {@link HeavyGraph}. The weights changed since the base map has
+ * been loaded are kept in an overlay, a new snapshot copies the overlay and
+ * shares the base map with the previous snapshots.
+ */
+final class WeightMapOverlay implements WeightMapping {
+
+    private final WeightMap base;
+    private final LongDoubleHashMap changed;
+    private final LongHashSet removed;
+
+    private WeightMapOverlay(WeightMap base, LongDoubleHashMap changed, LongHashSet removed) {
+        this.base = base;
+        this.changed = changed;
+        this.removed = removed;
+    }
+
+    /**
+     * a copy of the weights that can be changed without changing the given
+     * weights, the weights themselves if they have not been loaded
+     */
+    static WeightMapping copyOf(WeightMapping weights) {
+        if (weights instanceof WeightMapOverlay) {
+            final WeightMapOverlay overlay = (WeightMapOverlay) weights;
+            if (overlay.changed.size() + overlay.removed.size() > overlay.base.size()) {
+                // fold the overlay into a new base once it outgrows the base,
+                // so copying the base is amortized over the changes
+                return new WeightMapOverlay(overlay.flatten(), new LongDoubleHashMap(), new LongHashSet());
+            }
+            return new WeightMapOverlay(
+                    overlay.base,
+                    new LongDoubleHashMap(overlay.changed),
+                    new LongHashSet(overlay.removed));
+        }
+        if (weights instanceof WeightMap) {
+            return new WeightMapOverlay((WeightMap) weights, new LongDoubleHashMap(), new LongHashSet());
+        }
+        return weights;
+    }
+
+    @Override
+    public double get(long id) {
+        return get(id, base.defaultValue());
+    }
+
+    @Override
+    public double get(long id, double defaultValue) {
+        final int index = changed.indexOf(id);
+        if (changed.indexExists(index)) {
+            return changed.indexGet(index);
+        }
+        if (removed.contains(id)) {
+            return defaultValue;
+        }
+        return base.get(id, defaultValue);
+    }
+
+    @Override
+    public void set(long id, Object value) {
+        changed.put(id, WeightMap.extractValue(value, base.defaultValue()));
+    }
+
+    /**
+     * remove the weight of the id, it returns the default weight afterwards
+     */
+    void remove(long id) {
+        changed.remove(id);
+        removed.add(id);
+    }
+
+    private WeightMap flatten() {
+        final WeightMap weights = base.copy();
+        removed.forEach((LongProcedure) weights::remove);
+        changed.forEach((LongDoubleProcedure) (id, weight) -> {
+            weights.remove(id);
+            weights.set(id, weight);
+        });
+        return weights;
+    }
+}
@@ -0,0 +1,242 @@
+package org.neo4j.graphalgo.core.leightweight;
+
+import org.apache.lucene.util.ArrayUtil;
+import org.neo4j.graphalgo.core.utils.MemoryEstimation;
+
+/**
+ * Abstraction of an array of byte values that can contain more than 2B elements.
+ * It is used to store sorted adjacency lists as delta encoded variable length ints.
+ * Every list starts with its length as header followed by the deltas
+ * between consecutive values, the first one being relative to 0.
+ * Each int is written in 7 bit groups, least significant group first,
+ * the high bit of each byte flags that another byte follows.
+ */
+public final class ByteArray {
+
+    private long size;
+    private byte[][] pages;
+
+    /**
+     * Page size in bytes: 16KB
+     */
+    private static final int PAGE_SIZE = 1 << 14;
+    private static final int PAGE_SHIFT = Integer.numberOfTrailingZeros(PAGE_SIZE);
+    private static final int PAGE_MASK = PAGE_SIZE - 1;
+
+    /**
+     * Allocate a new {@link ByteArray}.
+     * @param size the initial length of the array
+     */
+    public static ByteArray newArray(long size) {
+        return new ByteArray(size);
+    }
+
+    private ByteArray(long size) {
+        this.size = size;
+        pages = new byte[numPages(size)][];
+        for (int i = 0; i < pages.length; ++i) {
+            pages[i] = newBytePage();
+        }
+    }
+
+    /**
+     * Estimate the bytes of a {@link ByteArray} of the given length.
+     */
+    public static long estimateBytes(long size) {
+        return MemoryEstimation.sizeOfPagedArray(size, Byte.BYTES, PAGE_SIZE);
+    }
+
+    /**
+     * Return the length of this array.
+     */
+    public long size() {
+        return size;
+    }
+
+    /**
+     * Get an element given its index.
+     */
+    public byte get(long index) {
+        return pages[pageIndex(index)][indexInPage(index)];
+    }
+
+    /**
+     * Set a value at the given index.
+     */
+    public void set(long index, byte value) {
+        pages[pageIndex(index)][indexInPage(index)] = value;
+    }
+
+    /**
+     * Grows the ByteArray to the new size. The existing content will be preserved.
+     * If the current size is large enough, this is no-op and no downsizing is happening.
+     */
+    public void grow(final long newSize) {
+        if (size < newSize) {
+            final int numPages = numPages(newSize);
+            pages = ArrayUtil.grow(pages, numPages);
+            for (int i = numPages - 1; i >= 0 && pages[i] == null; --i) {
+                pages[i] = newBytePage();
+            }
+            this.size = newSize;
+        }
+    }
+
+    /**
+     * Read the variable length int starting at the given index.
+     */
+    public int readVInt(long index) {
+        byte b = get(index++);
+        int value = b & 0x7F;
+        for (int shift = 7; b < 0; shift += 7) {
+            b = get(index++);
+            value |= (b & 0x7F) << shift;
+        }
+        return value;
+    }
+
+    /**
+     * Write the value as variable length int starting at the given index.
+     * The array must be large enough to hold {@link #vIntLength(int)} bytes.
+     *
+     * @return the index after the last written byte
+     */
+    public long writeVInt(long index, int value) {
+        while ((value & ~0x7F) != 0) {
+            set(index++, (byte) ((value & 0x7F) | 0x80));
+            value >>>= 7;
+        }
+        set(index++, (byte) value);
+        return index;
+    }
+
+    /**
+     * Return the number of bytes required to store the value as variable length int.
+     */
+    public static int vIntLength(int value) {
+        int length = 1;
+        while ((value & ~0x7F) != 0) {
+            length++;
+            value >>>= 7;
+        }
+        return length;
+    }
+
+    /**
+     * Return the number of bytes required to store the sorted values as
+     * delta encoded list, including its length header.
+     */
+    public static long encodedLength(int[] sortedValues, int length) {
+        long bytes = vIntLength(length);
+        int previous = 0;
+        for (int i = 0; i < length; i++) {
+            bytes += vIntLength(sortedValues[i] - previous);
+            previous = sortedValues[i];
+        }
+        return bytes;
+    }
+
+    /**
+     * Write the sorted values as delta encoded list, including its length header.
+     *
+     * @return the index after the last written byte
+     */
+    public long writeDeltas(long index, int[] sortedValues, int length) {
+        index = writeVInt(index, length);
+        int previous = 0;
+        for (int i = 0; i < length; i++) {
+            index = writeVInt(index, sortedValues[i] - previous);
+            previous = sortedValues[i];
+        }
+        return index;
+    }
+
+    public DeltaCursor newCursor() {
+        return new DeltaCursor();
+    }
+
+    /**
+     * Position the cursor at the list that starts at the given offset.
+     */
+    public DeltaCursor cursor(long offset, DeltaCursor reuse) {
+        return reuse.init(offset);
+    }
+
+    private static int numPages(long capacity) {
+        final long numPages = (capacity + PAGE_MASK) >>> PAGE_SHIFT;
+        assert numPages <= Integer.MAX_VALUE : "pageSize=" + (PAGE_MASK + 1) + " is too small for such as capacity: " + capacity;
+        return (int) numPages;
+    }
+
+    private static int pageIndex(long index) {
+        return (int) (index >>> PAGE_SHIFT);
+    }
+
+    private static int indexInPage(long index) {
+        return (int) (index & PAGE_MASK);
+    }
+
+    private static byte[] newBytePage() {
+        return new byte[PAGE_SIZE];
+    }
+
+    /**
+     * Decodes a delta encoded list. The cursor reads directly from
+     * the current page and only looks up the page table when the
+     * list crosses a page boundary.
+     */
+    public final class DeltaCursor {
+
+        private byte[] page;
+        private int pageIndex;
+        private int offset;
+        private int remaining;
+        private int current;
+
+        private DeltaCursor init(long fromIndex) {
+            pageIndex = pageIndex(fromIndex);
+            page = pages[pageIndex];
+            offset = indexInPage(fromIndex);
+            remaining = readVInt();
+            current = 0;
+            return this;
+        }
+
+        /**
+         * the number of values left in this list
+         */
+        public int remaining() {
+            return remaining;
+        }
+
+        public boolean hasNext() {
+            return remaining > 0;
+        }
+
+        /**
+         * decode the next value. Must only be called if {@link #hasNext()} returned true.
+         */
+        public int next() {
+            remaining--;
+            return current += readVInt();
+        }
+
+        private int readVInt() {
+            byte b = readByte();
+            int value = b & 0x7F;
+            for (int shift = 7; b < 0; shift += 7) {
+                b = readByte();
+                value |= (b & 0x7F) << shift;
+            }
+            return value;
+        }
+
+        private byte readByte() {
+            if (offset == PAGE_SIZE) {
+                page = pages[++pageIndex];
+                offset = 0;
+            }
+            return page[offset++];
+        }
+    }
+}
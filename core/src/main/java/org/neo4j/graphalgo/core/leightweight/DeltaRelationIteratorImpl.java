@@ -0,0 +1,41 @@
+package org.neo4j.graphalgo.core.leightweight;
+
+import org.neo4j.graphalgo.api.RelationshipCursor;
+
+import java.util.Iterator;
+
+/**
+ * Iterator over a delta encoded adjacency list of a {@link ByteArray}
+ */
+class DeltaRelationIteratorImpl implements Iterator<RelationshipCursor> {
+
+    private final RelationshipCursor cursor = new RelationshipCursor();
+    private final ByteArray.DeltaCursor adjCursor;
+
+    private final LongArray relationIds;
+    private long relationId;
+
+    DeltaRelationIteratorImpl(
+            int sourceNodeId,
+            long offset,
+            long relationOffset,
+            LongArray relationIds,
+            ByteArray adjacency) {
+        relationId = relationOffset;
+        this.relationIds = relationIds;
+        cursor.sourceNodeId = sourceNodeId;
+        this.adjCursor = adjacency.cursor(offset, adjacency.newCursor());
+    }
+
+    @Override
+    public boolean hasNext() {
+        return adjCursor.hasNext();
+    }
+
+    @Override
+    public RelationshipCursor next() {
+        cursor.relationshipId = LightGraph.relationId(relationIds, relationId++);
+        cursor.targetNodeId = adjCursor.next();
+        return cursor;
+    }
+}
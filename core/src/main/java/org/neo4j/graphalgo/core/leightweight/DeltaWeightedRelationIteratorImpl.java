@@ -0,0 +1,46 @@
+package org.neo4j.graphalgo.core.leightweight;
+
+import org.neo4j.graphalgo.api.WeightMapping;
+import org.neo4j.graphalgo.api.WeightedRelationshipCursor;
+
+import java.util.Iterator;
+
+/**
+ * Weighted iterator over a delta encoded adjacency list of a {@link ByteArray}
+ */
+class DeltaWeightedRelationIteratorImpl implements Iterator<WeightedRelationshipCursor> {
+
+    private final WeightedRelationshipCursor cursor = new WeightedRelationshipCursor();
+    private final ByteArray.DeltaCursor adjCursor;
+    private final WeightMapping weightMapping;
+
+    private final LongArray relationIds;
+    private long relationId;
+
+    DeltaWeightedRelationIteratorImpl(
+            int sourceNodeId,
+            long offset,
+            long relationOffset,
+            WeightMapping weightMapping,
+            LongArray relationIds,
+            ByteArray adjacency) {
+        this.weightMapping = weightMapping;
+        relationId = relationOffset;
+        this.relationIds = relationIds;
+        cursor.sourceNodeId = sourceNodeId;
+        this.adjCursor = adjacency.cursor(offset, adjacency.newCursor());
+    }
+
+    @Override
+    public boolean hasNext() {
+        return adjCursor.hasNext();
+    }
+
+    @Override
+    public WeightedRelationshipCursor next() {
+        cursor.weight = weightMapping.get(relationId);
+        cursor.relationshipId = LightGraph.relationId(relationIds, relationId++);
+        cursor.targetNodeId = adjCursor.next();
+        return cursor;
+    }
+}
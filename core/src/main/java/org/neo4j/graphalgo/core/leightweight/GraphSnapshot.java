@@ -0,0 +1,598 @@
+package org.neo4j.graphalgo.core.leightweight;
+
+import org.neo4j.graphalgo.api.Graph;
+import org.neo4j.graphalgo.api.GraphSetup;
+import org.neo4j.graphalgo.api.RelationshipConsumer;
+import org.neo4j.graphalgo.api.WeightMapping;
+import org.neo4j.graphalgo.api.WeightedRelationshipConsumer;
+import org.neo4j.graphalgo.core.IdMap;
+import org.neo4j.graphalgo.core.NullWeightMap;
+import org.neo4j.graphdb.Direction;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.zip.CRC32;
+
+/**
+ * Binary snapshot of a loaded graph that is reloaded by memory mapping the file.
+ * <p>
+ * The file starts with a header page holding a magic number, the format version,
+ * the setup the graph has been loaded with and the offset, length and CRC32 checksum
+ * of each section. Every section starts at a multiple of the page size of the paged
+ * arrays, so a reloaded {@link LightGraph} uses the mapped pages of the file as
+ * its arrays and only the id mapping is read onto the heap. The sections hold the
+ * original node ids, the offsets of each direction and the adjacency in the layout of
+ * an uncompressed {@link LightGraph}, optionally followed by the positional
+ * relationship ids and weights. All values are little endian.
+ * <p>
+ * Node weights and properties are not part of a snapshot.
+ */
+public final class GraphSnapshot {
+
+    // "GRAPHSNP" in little endian
+    public static final long MAGIC = 0x504E_5348_5041_5247L;
+    public static final int VERSION = 1;
+
+    static final int PAGE_SIZE = IntArray.PAGE_SIZE_IN_BYTES;
+    private static final int MAX_REGION_SIZE = 1 << 30;
+    private static final ByteOrder ORDER = ByteOrder.LITTLE_ENDIAN;
+
+    private static final int UNDIRECTED = 1;
+    private static final int OUTGOING = 1 << 1;
+    private static final int INCOMING = 1 << 2;
+    private static final int OPPOSITE_DEGREES = 1 << 3;
+    private static final int RELATIONSHIP_IDS = 1 << 4;
+    private static final int WEIGHTS = 1 << 5;
+    private static final int SORTED = 1 << 6;
+
+    private static final int NODE_IDS = 0;
+    private static final int OUT_OFFSETS = 1;
+    private static final int IN_OFFSETS = 2;
+    private static final int DEGREES = 3;
+    private static final int ADJACENCY = 4;
+    private static final int RELATIONSHIP_ID_VALUES = 5;
+    private static final int WEIGHT_VALUES = 6;
+    private static final String[] SECTIONS = {
+            "nodeIds", "outOffsets", "inOffsets", "degrees", "adjacency", "relationshipIds", "weights"};
+
+    private final GraphSetup setup;
+    private final LightGraph graph;
+    private final long fileBytes;
+
+    private GraphSnapshot(GraphSetup setup, LightGraph graph, long fileBytes) {
+        this.setup = setup;
+        this.graph = graph;
+        this.fileBytes = fileBytes;
+    }
+
+    /**
+     * the setup the graph has been loaded with, without node weights and properties
+     */
+    public GraphSetup setup() {
+        return setup;
+    }
+
+    /**
+     * the graph, its arrays are backed by the mapped file
+     */
+    public Graph graph() {
+        return graph;
+    }
+
+    /**
+     * the size of the file
+     */
+    public long fileBytes() {
+        return fileBytes;
+    }
+
+    /**
+     * Write the graph to the file, replacing its content. The directions, relationship ids
+     * and weights are written as declared by the setup the graph has been loaded with.
+     *
+     * @return the number of bytes written
+     * @throws IllegalStateException if the relationships do not match the degrees of the graph
+     */
+    public static long write(Graph graph, GraphSetup setup, Path file) throws IOException {
+        return new Writer(graph, setup).write(file);
+    }
+
+    /**
+     * Map the snapshot in the file.
+     *
+     * @param verify whether to verify the checksum of every section, the header is always verified
+     * @throws IOException if the file is no snapshot, has another version or is corrupt
+     */
+    public static GraphSnapshot open(Path file, boolean verify) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            final long fileBytes = channel.size();
+            if (fileBytes < PAGE_SIZE) {
+                throw new IOException(file + " is no graph snapshot");
+            }
+            final ByteBuffer header = channel.map(FileChannel.MapMode.READ_ONLY, 0, PAGE_SIZE).order(ORDER);
+            if (header.getLong() != MAGIC) {
+                throw new IOException(file + " is no graph snapshot");
+            }
+            final int version = header.getInt();
+            if (version != VERSION) {
+                throw new IOException("Unsupported snapshot version " + version + " of " + file);
+            }
+            final int flags = header.getInt();
+            final int nodeCount = header.getInt();
+            final long adjacencySize = header.getLong();
+            final double defaultWeight = header.getDouble();
+            final String label = getString(header);
+            final String relationshipType = getString(header);
+            final String weightProperty = getString(header);
+            final long[] offsets = new long[SECTIONS.length];
+            final long[] lengths = new long[SECTIONS.length];
+            final long[] checksums = new long[SECTIONS.length];
+            for (int i = 0; i < SECTIONS.length; i++) {
+                offsets[i] = header.getLong();
+                lengths[i] = header.getLong();
+                checksums[i] = header.getLong();
+            }
+            final int headerBytes = header.position();
+            final long headerChecksum = header.getLong();
+            header.position(0).limit(headerBytes);
+            if (checksum(header) != headerChecksum) {
+                throw new IOException("The header of " + file + " is corrupt");
+            }
+            for (int i = 0; i < SECTIONS.length; i++) {
+                if (offsets[i] + align(lengths[i]) > fileBytes) {
+                    throw new IOException("Section '" + SECTIONS[i] + "' of " + file + " is truncated");
+                }
+            }
+
+            final ByteBuffer[][] pages = new ByteBuffer[SECTIONS.length][];
+            for (int i = 0; i < SECTIONS.length; i++) {
+                pages[i] = map(channel, offsets[i], lengths[i]);
+                if (verify && checksum(pages[i], lengths[i]) != checksums[i]) {
+                    throw new IOException("Section '" + SECTIONS[i] + "' of " + file + " is corrupt");
+                }
+            }
+
+            final IdMap idMap = new IdMap(nodeCount);
+            final LongArray nodeIds = LongArray.wrap(nodeCount, pages[NODE_IDS]);
+            for (int node = 0; node < nodeCount; node++) {
+                idMap.add(nodeIds.get(node));
+            }
+            idMap.buildMappedIds();
+
+            final boolean undirected = (flags & UNDIRECTED) != 0;
+            final LongArray outOffsets = (flags & OUTGOING) != 0
+                    ? LongArray.wrap(nodeCount, pages[OUT_OFFSETS])
+                    : null;
+            final LongArray inOffsets = undirected
+                    ? outOffsets
+                    : (flags & INCOMING) != 0 ? LongArray.wrap(nodeCount, pages[IN_OFFSETS]) : null;
+            final IntArray degrees = (flags & OPPOSITE_DEGREES) != 0
+                    ? IntArray.wrap(nodeCount, pages[DEGREES])
+                    : null;
+            final LongArray relationshipIds = (flags & RELATIONSHIP_IDS) != 0
+                    ? LongArray.wrap(adjacencySize, pages[RELATIONSHIP_ID_VALUES])
+                    : null;
+            final WeightMapping weights = (flags & WEIGHTS) != 0
+                    ? new MappedWeights(LongArray.wrap(adjacencySize, pages[WEIGHT_VALUES]))
+                    : new NullWeightMap(defaultWeight);
+            final LightGraph graph = new LightGraph(
+                    idMap,
+                    weights,
+                    relationshipIds,
+                    IntArray.wrap(adjacencySize, pages[ADJACENCY]),
+                    inOffsets,
+                    outOffsets,
+                    degrees,
+                    undirected,
+                    (flags & SORTED) != 0);
+
+            final Direction direction = (flags & OUTGOING) == 0
+                    ? Direction.INCOMING
+                    : (flags & INCOMING) == 0 && !undirected ? Direction.OUTGOING : Direction.BOTH;
+            final GraphSetup setup = new GraphSetup.Builder()
+                    .startLabel(label)
+                    .relationshipType(relationshipType)
+                    .relationWeight(weightProperty, defaultWeight)
+                    .nodeWeight(null, 1.0)
+                    .nodeProperty(null, 1.0)
+                    .loadRelationshipIds(relationshipIds != null)
+                    .undirected(undirected)
+                    .direction(direction)
+                    .loadOppositeDegrees(degrees != null)
+                    .sortAdjacency((flags & SORTED) != 0)
+                    .build();
+            return new GraphSnapshot(setup, graph, fileBytes);
+        }
+    }
+
+    /**
+     * map the pages of the section in regions of up to 1GB, the mappings stay valid after the channel is closed
+     */
+    private static ByteBuffer[] map(FileChannel channel, long offset, long length) throws IOException {
+        final int numPages = (int) (align(length) / PAGE_SIZE);
+        final ByteBuffer[] pages = new ByteBuffer[numPages];
+        final int pagesPerRegion = MAX_REGION_SIZE / PAGE_SIZE;
+        for (int from = 0; from < numPages; from += pagesPerRegion) {
+            final int count = Math.min(pagesPerRegion, numPages - from);
+            final ByteBuffer region = channel.map(
+                    FileChannel.MapMode.READ_ONLY,
+                    offset + (long) from * PAGE_SIZE,
+                    (long) count * PAGE_SIZE);
+            for (int i = 0; i < count; i++) {
+                region.limit((i + 1) * PAGE_SIZE);
+                region.position(i * PAGE_SIZE);
+                pages[from + i] = region.slice().order(ORDER);
+            }
+        }
+        return pages;
+    }
+
+    private static long checksum(ByteBuffer[] pages, long length) {
+        final CRC32 crc = new CRC32();
+        long remaining = length;
+        for (ByteBuffer page : pages) {
+            final ByteBuffer bytes = page.duplicate();
+            bytes.limit((int) Math.min(PAGE_SIZE, remaining));
+            crc.update(bytes);
+            remaining -= bytes.limit();
+        }
+        return crc.getValue();
+    }
+
+    private static long checksum(ByteBuffer bytes) {
+        final CRC32 crc = new CRC32();
+        crc.update(bytes);
+        return crc.getValue();
+    }
+
+    /**
+     * the length rounded up to whole pages
+     */
+    private static long align(long length) {
+        return (length + PAGE_SIZE - 1) / PAGE_SIZE * PAGE_SIZE;
+    }
+
+    private static void putString(ByteBuffer header, String value) {
+        if (value == null) {
+            header.putInt(-1);
+            return;
+        }
+        final byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        header.putInt(bytes.length);
+        header.put(bytes);
+    }
+
+    private static String getString(ByteBuffer header) {
+        final int length = header.getInt();
+        if (length == -1) {
+            return null;
+        }
+        final byte[] bytes = new byte[length];
+        header.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Relationship weights stored positional to the adjacency as the bits of doubles.
+     */
+    private static final class MappedWeights implements WeightMapping {
+
+        private final LongArray bits;
+
+        private MappedWeights(LongArray bits) {
+            this.bits = bits;
+        }
+
+        @Override
+        public double get(long id) {
+            return Double.longBitsToDouble(bits.get(id));
+        }
+
+        @Override
+        public double get(long id, double defaultValue) {
+            return get(id);
+        }
+
+        @Override
+        public void set(long id, Object weight) {
+            throw new UnsupportedOperationException("The weights of a snapshot are read only");
+        }
+    }
+
+    /**
+     * Writes the sections of a graph. The offsets and the adjacency are laid out like
+     * the {@link LightGraphFactory} does, the empty list at index 0 is shared by every
+     * node without relationships.
+     */
+    private static final class Writer {
+
+        private final Graph graph;
+        private final GraphSetup setup;
+        private final int nodeCount;
+        private final boolean undirected;
+        private final boolean outgoing;
+        private final boolean incoming;
+        private final boolean oppositeDegrees;
+        private final boolean weights;
+        private final boolean sorted;
+        private final long[] offsets = new long[SECTIONS.length];
+        private final long[] lengths = new long[SECTIONS.length];
+        private final long[] checksums = new long[SECTIONS.length];
+
+        private Writer(Graph graph, GraphSetup setup) {
+            this.graph = graph;
+            this.setup = setup;
+            this.nodeCount = graph.nodeCount();
+            this.undirected = setup.undirected;
+            this.outgoing = setup.loadOutgoing();
+            this.incoming = setup.loadIncoming() && !undirected;
+            this.oppositeDegrees = setup.loadOppositeDegrees && !(setup.loadOutgoing() && setup.loadIncoming());
+            this.weights = !setup.loadDefaultRelationshipWeight();
+            // the lists are written in the order the graph iterates them
+            this.sorted = graph instanceof LightGraph && ((LightGraph) graph).isSorted();
+        }
+
+        long write(Path file) throws IOException {
+            try (FileChannel channel = FileChannel.open(
+                    file,
+                    StandardOpenOption.CREATE,
+                    StandardOpenOption.WRITE,
+                    StandardOpenOption.TRUNCATE_EXISTING)) {
+                final long nodesBytes = (long) nodeCount * Long.BYTES;
+                long position = PAGE_SIZE;
+                position = reserve(NODE_IDS, position, nodesBytes);
+                position = reserve(OUT_OFFSETS, position, outgoing ? nodesBytes : 0L);
+                position = reserve(IN_OFFSETS, position, incoming ? nodesBytes : 0L);
+                position = reserve(DEGREES, position, oppositeDegrees ? (long) nodeCount * Integer.BYTES : 0L);
+
+                final long adjacencySize = writeNodes(channel);
+                position = reserve(ADJACENCY, position, adjacencySize * Integer.BYTES);
+                position = reserve(RELATIONSHIP_ID_VALUES, position, setup.loadRelationshipIds ? adjacencySize * Long.BYTES : 0L);
+                position = reserve(WEIGHT_VALUES, position, weights ? adjacencySize * Long.BYTES : 0L);
+                writeAdjacency(channel, adjacencySize);
+
+                writeHeader(channel, adjacencySize);
+                if (channel.size() < position) {
+                    // pad the last page so it can be mapped as a whole
+                    channel.write(ByteBuffer.allocate(1), position - 1);
+                }
+                channel.force(true);
+                return position;
+            }
+        }
+
+        private long reserve(int section, long position, long length) {
+            offsets[section] = length > 0 ? position : 0L;
+            lengths[section] = length;
+            return position + align(length);
+        }
+
+        /**
+         * write the node ids, offsets and degrees
+         *
+         * @return the size of the adjacency
+         */
+        private long writeNodes(FileChannel channel) throws IOException {
+            final Section nodeIds = section(channel, NODE_IDS);
+            final Section outOffsets = section(channel, OUT_OFFSETS);
+            final Section inOffsets = section(channel, IN_OFFSETS);
+            final Section degrees = section(channel, DEGREES);
+            final Direction opposite = outgoing ? Direction.INCOMING : Direction.OUTGOING;
+            long adjacencyIdx = 1L;
+            for (int node = 0; node < nodeCount; node++) {
+                nodeIds.putLong(graph.toOriginalNodeId(node));
+                if (outgoing) {
+                    adjacencyIdx = putOffset(outOffsets, graph.degree(node, Direction.OUTGOING), adjacencyIdx);
+                }
+                if (incoming) {
+                    adjacencyIdx = putOffset(inOffsets, graph.degree(node, Direction.INCOMING), adjacencyIdx);
+                }
+                if (oppositeDegrees) {
+                    degrees.putInt(graph.degree(node, opposite));
+                }
+            }
+            nodeIds.close();
+            outOffsets.close();
+            inOffsets.close();
+            degrees.close();
+            return adjacencyIdx;
+        }
+
+        private static long putOffset(Section offsets, int degree, long adjacencyIdx) throws IOException {
+            if (degree > 0) {
+                offsets.putLong(adjacencyIdx);
+                return adjacencyIdx + degree + 1L;
+            }
+            offsets.putLong(0L);
+            return adjacencyIdx;
+        }
+
+        private void writeAdjacency(FileChannel channel, long adjacencySize) throws IOException {
+            final Section adjacency = section(channel, ADJACENCY);
+            final Section relationshipIds = section(channel, RELATIONSHIP_ID_VALUES);
+            final Section weights = section(channel, WEIGHT_VALUES);
+            final ListWriter lists = new ListWriter(adjacency, relationshipIds, weights);
+            lists.putEmpty();
+            for (int node = 0; node < nodeCount; node++) {
+                if (outgoing) {
+                    lists.put(node, Direction.OUTGOING);
+                }
+                if (incoming) {
+                    lists.put(node, Direction.INCOMING);
+                }
+            }
+            if (lists.written != adjacencySize) {
+                throw new IllegalStateException("The relationships of the graph do not match its degrees");
+            }
+            adjacency.close();
+            relationshipIds.close();
+            weights.close();
+        }
+
+        private void writeHeader(FileChannel channel, long adjacencySize) throws IOException {
+            final ByteBuffer header = ByteBuffer.allocate(PAGE_SIZE).order(ORDER);
+            header.putLong(MAGIC);
+            header.putInt(VERSION);
+            header.putInt(flags());
+            header.putInt(nodeCount);
+            header.putLong(adjacencySize);
+            header.putDouble(setup.relationDefaultWeight);
+            putString(header, setup.startLabel);
+            putString(header, setup.relationshipType);
+            putString(header, setup.relationWeightPropertyName);
+            for (int i = 0; i < SECTIONS.length; i++) {
+                header.putLong(offsets[i]);
+                header.putLong(lengths[i]);
+                header.putLong(checksums[i]);
+            }
+            final ByteBuffer checksummed = header.duplicate();
+            checksummed.flip();
+            header.putLong(checksum(checksummed));
+            header.clear();
+            while (header.hasRemaining()) {
+                channel.write(header, header.position());
+            }
+        }
+
+        private int flags() {
+            return (undirected ? UNDIRECTED : 0)
+                    | (outgoing ? OUTGOING : 0)
+                    | (incoming ? INCOMING : 0)
+                    | (oppositeDegrees ? OPPOSITE_DEGREES : 0)
+                    | (setup.loadRelationshipIds ? RELATIONSHIP_IDS : 0)
+                    | (weights ? WEIGHTS : 0)
+                    | (sorted ? SORTED : 0);
+        }
+
+        private Section section(FileChannel channel, int section) {
+            return new Section(channel, section, offsets[section], lengths[section] > 0);
+        }
+
+        /**
+         * Buffered writer of a section that computes its checksum.
+         */
+        private final class Section {
+            private final FileChannel channel;
+            private final int section;
+            private final boolean enabled;
+            private final ByteBuffer buffer;
+            private final CRC32 crc = new CRC32();
+            private long position;
+
+            private Section(FileChannel channel, int section, long position, boolean enabled) {
+                this.channel = channel;
+                this.section = section;
+                this.position = position;
+                this.enabled = enabled;
+                this.buffer = enabled ? ByteBuffer.allocate(PAGE_SIZE * 64).order(ORDER) : null;
+            }
+
+            void putInt(int value) throws IOException {
+                if (enabled) {
+                    ensure(Integer.BYTES).putInt(value);
+                }
+            }
+
+            void putLong(long value) throws IOException {
+                if (enabled) {
+                    ensure(Long.BYTES).putLong(value);
+                }
+            }
+
+            private ByteBuffer ensure(int bytes) throws IOException {
+                if (buffer.remaining() < bytes) {
+                    flush();
+                }
+                return buffer;
+            }
+
+            private void flush() throws IOException {
+                buffer.flip();
+                crc.update(buffer.duplicate());
+                while (buffer.hasRemaining()) {
+                    position += channel.write(buffer, position);
+                }
+                buffer.clear();
+            }
+
+            void close() throws IOException {
+                if (enabled) {
+                    flush();
+                    checksums[section] = crc.getValue();
+                }
+            }
+        }
+
+        /**
+         * Writes the lists of the nodes together with their relationship ids and weights.
+         */
+        private final class ListWriter implements RelationshipConsumer, WeightedRelationshipConsumer {
+            private final Section adjacency;
+            private final Section relationshipIds;
+            private final Section weights;
+            private IOException error;
+            private long written;
+
+            private ListWriter(Section adjacency, Section relationshipIds, Section weights) {
+                this.adjacency = adjacency;
+                this.relationshipIds = relationshipIds;
+                this.weights = weights;
+            }
+
+            void putEmpty() throws IOException {
+                adjacency.putInt(0);
+                relationshipIds.putLong(-1L);
+                weights.putLong(Double.doubleToRawLongBits(setup.relationDefaultWeight));
+                written++;
+            }
+
+            void put(int node, Direction direction) throws IOException {
+                final int degree = graph.degree(node, direction);
+                if (degree == 0) {
+                    return;
+                }
+                adjacency.putInt(degree);
+                relationshipIds.putLong(-1L);
+                weights.putLong(Double.doubleToRawLongBits(setup.relationDefaultWeight));
+                written++;
+                final long end = written + degree;
+                if (Writer.this.weights) {
+                    graph.forEachRelationship(node, direction, (WeightedRelationshipConsumer) this);
+                } else {
+                    graph.forEachRelationship(node, direction, (RelationshipConsumer) this);
+                }
+                if (error != null) {
+                    throw error;
+                }
+                if (written != end) {
+                    throw new IllegalStateException("The relationships of node " + node
+                            + " do not match its " + direction + " degree " + degree);
+                }
+            }
+
+            @Override
+            public boolean accept(int sourceNodeId, int targetNodeId, long relationId) {
+                return accept(sourceNodeId, targetNodeId, relationId, setup.relationDefaultWeight);
+            }
+
+            @Override
+            public boolean accept(int sourceNodeId, int targetNodeId, long relationId, double weight) {
+                try {
+                    adjacency.putInt(targetNodeId);
+                    relationshipIds.putLong(relationId);
+                    weights.putLong(Double.doubleToRawLongBits(weight));
+                    written++;
+                    return true;
+                } catch (IOException e) {
+                    error = e;
+                    return false;
+                }
+            }
+        }
+    }
+}
@@ -1,13 +1,19 @@
 package org.neo4j.graphalgo.core.leightweight;
 
 import org.apache.lucene.util.ArrayUtil;
+import org.neo4j.graphalgo.core.utils.MemoryEstimation;
+import org.neo4j.graphalgo.core.utils.OffHeapPages;
 
+import java.nio.ByteBuffer;
+import java.nio.IntBuffer;
 import java.util.Iterator;
 import java.util.NoSuchElementException;
 import java.util.function.IntSupplier;
 
 /**
  * Abstraction of an array of integer values that can contain more than 2B elements.
+ * The pages are either heap allocated int arrays or, when created with
+ * {@link OffHeapPages}, buffers outside of the java heap.
  *
  * @author phorn@avantgarde-labs.de
  */
@@ -15,11 +21,13 @@ public final class IntArray implements Iterable<IntArray.Cursor> {
 
     private long size;
     private int[][] pages;
+    private IntBuffer[] buffers;
+    private final OffHeapPages offHeap;
 
     /**
      * Page size in bytes: 16KB
      */
-    private static final int PAGE_SIZE_IN_BYTES = 1 << 14;
+    static final int PAGE_SIZE_IN_BYTES = 1 << 14;
     private static final int PAGE_SIZE = PAGE_SIZE_IN_BYTES / Integer.BYTES;
     private static final int PAGE_SHIFT = Integer.numberOfTrailingZeros(PAGE_SIZE);
     private static final int PAGE_MASK = PAGE_SIZE - 1;
@@ -32,14 +40,56 @@ public final class IntArray implements Iterable<IntArray.Cursor> {
         return new IntArray(size);
     }
 
+    /**
+     * Allocate a new {@link IntArray} whose pages live off-heap.
+     * @param size the initial length of the array
+     * @param offHeap the allocator for the pages, null allocates on the heap
+     */
+    public static IntArray newArray(long size, OffHeapPages offHeap) {
+        return offHeap == null ? new IntArray(size) : new IntArray(size, offHeap);
+    }
+
     private IntArray(long size) {
         this.size = size;
+        this.offHeap = null;
         pages = new int[numPages(size)][];
         for (int i = 0; i < pages.length; ++i) {
             pages[i] = newIntPage();
         }
     }
 
+    private IntArray(long size, OffHeapPages offHeap) {
+        this.size = size;
+        this.offHeap = offHeap;
+        buffers = newIntBuffers(numPages(size), offHeap);
+    }
+
+    /**
+     * Wrap pages of {@link #PAGE_SIZE_IN_BYTES} bytes, e.g. the regions of a
+     * memory mapped file, without copying them. The array can not grow.
+     * @param size the length of the array
+     */
+    static IntArray wrap(long size, ByteBuffer[] pages) {
+        final IntBuffer[] buffers = new IntBuffer[pages.length];
+        for (int i = 0; i < pages.length; i++) {
+            buffers[i] = pages[i].asIntBuffer();
+        }
+        return new IntArray(buffers, size);
+    }
+
+    private IntArray(IntBuffer[] buffers, long size) {
+        this.size = size;
+        this.offHeap = null;
+        this.buffers = buffers;
+    }
+
+    /**
+     * Estimate the bytes of a {@link IntArray} of the given length.
+     */
+    public static long estimateBytes(long size) {
+        return MemoryEstimation.sizeOfPagedArray(size, Integer.BYTES, PAGE_SIZE);
+    }
+
     /**
      * Return the length of this array.
      */
@@ -53,6 +103,9 @@ public final class IntArray implements Iterable<IntArray.Cursor> {
     public int get(long index) {
         final int pageIndex = pageIndex(index);
         final int indexInPage = indexInPage(index);
+        if (buffers != null) {
+            return buffers[pageIndex].get(indexInPage);
+        }
         return pages[pageIndex][indexInPage];
     }
 
@@ -62,6 +115,12 @@ public final class IntArray implements Iterable<IntArray.Cursor> {
     public int set(long index, int value) {
         final int pageIndex = pageIndex(index);
         final int indexInPage = indexInPage(index);
+        if (buffers != null) {
+            final IntBuffer page = buffers[pageIndex];
+            final int ret = page.get(indexInPage);
+            page.put(indexInPage, value);
+            return ret;
+        }
         final int[] page = pages[pageIndex];
         final int ret = page[indexInPage];
         page[indexInPage] = value;
@@ -76,6 +135,12 @@ public final class IntArray implements Iterable<IntArray.Cursor> {
             final long toIndex,
             final IntSupplier value) {
         assert fromIndex <= toIndex : "can only fill positive slice";
+        if (buffers != null) {
+            for (long i = fromIndex; i < toIndex; i++) {
+                set(i, value.getAsInt());
+            }
+            return;
+        }
         final int fromPage = pageIndex(fromIndex);
         final int toPage = pageIndex(toIndex - 1);
         if (fromPage == toPage) {
@@ -100,6 +165,16 @@ public final class IntArray implements Iterable<IntArray.Cursor> {
     public void grow(final long newSize) {
         if (size < newSize) {
             final int numPages = numPages(newSize);
+            if (buffers != null) {
+                final int oldPages = buffers.length;
+                if (oldPages < numPages) {
+                    final IntBuffer[] newPages = newIntBuffers(numPages - oldPages, offHeap);
+                    buffers = ArrayUtil.grow(buffers, numPages);
+                    System.arraycopy(newPages, 0, buffers, oldPages, newPages.length);
+                }
+                this.size = newSize;
+                return;
+            }
             pages = ArrayUtil.grow(pages, numPages);
             for (int i = numPages - 1; i >= 0 && pages[i] == null; --i) {
                 pages[i] = newIntPage();
@@ -157,6 +232,15 @@ public final class IntArray implements Iterable<IntArray.Cursor> {
         return new int[PAGE_SIZE];
     }
 
+    private static IntBuffer[] newIntBuffers(int numPages, OffHeapPages offHeap) {
+        final ByteBuffer[] bytes = offHeap.allocate(numPages, PAGE_SIZE_IN_BYTES);
+        final IntBuffer[] pages = new IntBuffer[numPages];
+        for (int i = 0; i < numPages; i++) {
+            pages[i] = bytes[i].asIntBuffer();
+        }
+        return pages;
+    }
+
     private static void fill(int[] array, IntSupplier value) {
         fill(array, 0, array.length, value);
     }
@@ -171,6 +255,11 @@ public final class IntArray implements Iterable<IntArray.Cursor> {
         boolean accept(int value) throws E;
     }
 
+    /**
+     * Cursor over consecutive pages. For off-heap arrays the content
+     * of each page is copied into a cursor-local array, the
+     * offsets stay the same as for heap pages.
+     */
     public class Cursor {
         public int[] array;
         public int offset;
@@ -182,6 +271,7 @@ public final class IntArray implements Iterable<IntArray.Cursor> {
         private int fromPage;
         private int toPage;
         private int currentPage;
+        private int[] copy;
 
         private Cursor init(long fromIndex, long length) {
             from = fromIndex;
@@ -196,26 +286,50 @@ public final class IntArray implements Iterable<IntArray.Cursor> {
         public boolean next() {
             currentPage++;
             if (currentPage == fromPage) {
-                array = pages[currentPage];
                 offset = indexInPage(from);
                 length = (int) Math.min(PAGE_SIZE - offset, size);
+                array = page(currentPage, offset, length);
                 return true;
             }
             if (currentPage < toPage) {
-                array = pages[currentPage];
                 offset = 0;
                 length = PAGE_SIZE;
+                array = page(currentPage, offset, length);
                 return true;
             }
             if (currentPage == toPage) {
-                array = pages[currentPage];
                 offset = 0;
                 length = indexInPage(to - 1) + 1;
+                array = page(currentPage, offset, length);
                 return true;
             }
             return false;
         }
 
+        /**
+         * the index in this array of the first value of the current page,
+         * i.e. the index of {@code array[offset]}
+         */
+        public long index() {
+            return ((long) currentPage << PAGE_SHIFT) + offset;
+        }
+
+        private int[] page(int pageIndex, int offset, int length) {
+            if (buffers == null) {
+                return pages[pageIndex];
+            }
+            if (copy == null) {
+                copy = newIntPage();
+            }
+            final IntBuffer page = buffers[pageIndex];
+            final int[] copy = this.copy;
+            final int limit = offset + length;
+            for (int i = offset; i < limit; i++) {
+                copy[i] = page.get(i);
+            }
+            return copy;
+        }
+
         public <E extends Exception> void forEach(IntAction<E> action) throws E {
             final int[] array = this.array;
             final int limit = length + offset;
@@ -1,7 +1,7 @@
 package org.neo4j.graphalgo.core.leightweight;
 
-import com.carrotsearch.hppc.LongLongMap;
 import org.neo4j.graphalgo.core.IdMap;
+import org.neo4j.graphalgo.core.utils.Intersections;
 import org.neo4j.collection.primitive.PrimitiveIntIterator;
 import org.neo4j.graphalgo.api.*;
 import org.neo4j.graphdb.Direction;
@@ -10,6 +10,26 @@ import java.util.Iterator;
 import java.util.function.IntConsumer;
 
 /**
+ * Relationship ids are stored positional to the adjacency, the id of the
+ * relationship whose target is at index {@code i} is at {@code relationIds[i]}.
+ * Graphs loaded without relationship ids report {@code -1} instead.
+ * Compressed graphs index relationship ids and weights by the position of the
+ * relationship instead, the lists of a node start at its relation offset.
+ * <p>
+ * An undirected graph stores a single merged list per node, both offsets
+ * point to it and every direction iterates it once.
+ * <p>
+ * If only one direction is loaded the offsets of the other are null,
+ * its degrees are optionally kept in {@code oppositeDegrees}.
+ * <p>
+ * Sorted graphs keep each list ordered by target, compressed graphs always do.
+ * They search {@link #exists(int, int, Direction)} binary and merge the lists
+ * in {@link #intersect(int, int, Direction, IntConsumer)}.
+ * <p>
+ * The graph may be traversed by several threads at once, each thread uses its own
+ * cursor into the adjacency. {@link #concurrentCopy()} returns a copy that shares
+ * every array and owns a single cursor instead, which saves the thread local lookup
+ * per traversed node for a worker that keeps to one thread.
  *
  * @author phorn@avantgarde-labs.de
  */
@@ -17,26 +37,145 @@ public class LightGraph implements Graph {
 
     private final IdMap idMapping;
     private final WeightMapping weightMapping;
-    private final LongLongMap relationIdMapping;
+    private final LongArray relationIds;
     private final IntArray adjacency;
-    private final long[] inOffsets;
-    private final long[] outOffsets;
+    private final ByteArray compressedAdjacency;
+    private final LongArray inOffsets;
+    private final LongArray outOffsets;
+    private final LongArray inRelationOffsets;
+    private final LongArray outRelationOffsets;
+    private final IntArray oppositeDegrees;
+    private final boolean undirected;
+    private final boolean sorted;
+    // the cursors of a thread confined copy, null if shared between threads
     private final IntArray.Cursor spare;
+    private final ByteArray.DeltaCursor deltaSpare;
+    private final ThreadLocal<IntArray.Cursor> spares;
+    private final ThreadLocal<ByteArray.DeltaCursor> deltaSpares;
 
     LightGraph(
             final IdMap idMapping,
             final WeightMapping weightMapping,
-            final LongLongMap relationIdMapping,
+            final LongArray relationIds,
             final IntArray adjacency,
-            final long[] inOffsets,
-            final long[] outOffsets) {
+            final LongArray inOffsets,
+            final LongArray outOffsets) {
+        this(idMapping, weightMapping, relationIds, adjacency, inOffsets, outOffsets, null, false, false);
+    }
+
+    LightGraph(
+            final IdMap idMapping,
+            final WeightMapping weightMapping,
+            final LongArray relationIds,
+            final IntArray adjacency,
+            final LongArray inOffsets,
+            final LongArray outOffsets,
+            final IntArray oppositeDegrees,
+            final boolean undirected) {
+        this(idMapping, weightMapping, relationIds, adjacency, inOffsets, outOffsets, oppositeDegrees, undirected, false);
+    }
+
+    LightGraph(
+            final IdMap idMapping,
+            final WeightMapping weightMapping,
+            final LongArray relationIds,
+            final IntArray adjacency,
+            final LongArray inOffsets,
+            final LongArray outOffsets,
+            final IntArray oppositeDegrees,
+            final boolean undirected,
+            final boolean sorted) {
         this.idMapping = idMapping;
         this.weightMapping = weightMapping;
-        this.relationIdMapping = relationIdMapping;
+        this.relationIds = relationIds;
         this.adjacency = adjacency;
+        this.compressedAdjacency = null;
+        this.inOffsets = inOffsets;
+        this.outOffsets = outOffsets;
+        this.inRelationOffsets = null;
+        this.outRelationOffsets = null;
+        this.oppositeDegrees = oppositeDegrees;
+        this.undirected = undirected;
+        this.sorted = sorted;
+        this.spare = null;
+        this.deltaSpare = null;
+        this.spares = ThreadLocal.withInitial(adjacency::newCursor);
+        this.deltaSpares = null;
+    }
+
+    /**
+     * CTor for a graph whose adjacency lists are sorted and delta encoded.
+     * Relationship ids and weights are stored at {@code relationOffset + i} for
+     * the i-th relationship of a list, the relation offsets may be null if
+     * neither ids nor weights are loaded.
+     */
+    LightGraph(
+            final IdMap idMapping,
+            final WeightMapping weightMapping,
+            final LongArray relationIds,
+            final ByteArray compressedAdjacency,
+            final LongArray inOffsets,
+            final LongArray outOffsets,
+            final LongArray inRelationOffsets,
+            final LongArray outRelationOffsets) {
+        this(idMapping, weightMapping, relationIds, compressedAdjacency, inOffsets, outOffsets,
+                inRelationOffsets, outRelationOffsets, null, false);
+    }
+
+    LightGraph(
+            final IdMap idMapping,
+            final WeightMapping weightMapping,
+            final LongArray relationIds,
+            final ByteArray compressedAdjacency,
+            final LongArray inOffsets,
+            final LongArray outOffsets,
+            final LongArray inRelationOffsets,
+            final LongArray outRelationOffsets,
+            final IntArray oppositeDegrees,
+            final boolean undirected) {
+        this.idMapping = idMapping;
+        this.weightMapping = weightMapping;
+        this.relationIds = relationIds;
+        this.adjacency = null;
+        this.compressedAdjacency = compressedAdjacency;
         this.inOffsets = inOffsets;
         this.outOffsets = outOffsets;
-        this.spare = adjacency.newCursor();
+        this.inRelationOffsets = inRelationOffsets;
+        this.outRelationOffsets = outRelationOffsets;
+        this.oppositeDegrees = oppositeDegrees;
+        this.undirected = undirected;
+        this.sorted = true;
+        this.spare = null;
+        this.deltaSpare = null;
+        this.spares = null;
+        this.deltaSpares = ThreadLocal.withInitial(compressedAdjacency::newCursor);
+    }
+
+    /**
+     * CTor of a thread confined copy
+     */
+    private LightGraph(final LightGraph other) {
+        this.idMapping = other.idMapping;
+        this.weightMapping = other.weightMapping;
+        this.relationIds = other.relationIds;
+        this.adjacency = other.adjacency;
+        this.compressedAdjacency = other.compressedAdjacency;
+        this.inOffsets = other.inOffsets;
+        this.outOffsets = other.outOffsets;
+        this.inRelationOffsets = other.inRelationOffsets;
+        this.outRelationOffsets = other.outRelationOffsets;
+        this.oppositeDegrees = other.oppositeDegrees;
+        this.undirected = other.undirected;
+        this.sorted = other.sorted;
+        this.spare = adjacency != null ? adjacency.newCursor() : null;
+        this.deltaSpare = compressedAdjacency != null ? compressedAdjacency.newCursor() : null;
+        this.spares = null;
+        this.deltaSpares = null;
+    }
+
+    @Override
+    public Graph concurrentCopy() {
+        return new LightGraph(this);
     }
 
     @Override
@@ -66,7 +205,9 @@ public class LightGraph implements Graph {
                 return;
 
             case BOTH:
-                forEachIncoming(vertexId, consumer);
+                if (!undirected) {
+                    forEachIncoming(vertexId, consumer);
+                }
                 forEachOutgoing(vertexId, consumer);
                 return;
 
@@ -87,7 +228,9 @@ public class LightGraph implements Graph {
                 return;
 
             case BOTH:
-                forEachIncoming(vertexId, consumer);
+                if (!undirected) {
+                    forEachIncoming(vertexId, consumer);
+                }
                 forEachOutgoing(vertexId, consumer);
                 return;
 
@@ -98,18 +241,30 @@ public class LightGraph implements Graph {
 
     @Override
     public Iterator<WeightedRelationshipCursor> weightedRelationshipIterator(int vertexId, Direction direction) {
+        if (undirected) {
+            direction = Direction.OUTGOING;
+        }
+        if (compressedAdjacency != null) {
+            return new DeltaWeightedRelationIteratorImpl(
+                    vertexId,
+                    offset(vertexId, direction),
+                    relationOffset(vertexId, direction),
+                    weightMapping,
+                    relationIds,
+                    compressedAdjacency);
+        }
 
         switch (direction) {
             case INCOMING: {
-                final long offset = inOffsets[vertexId];
+                final long offset = offset(vertexId, inOffsets);
                 final int length = adjacency.get(offset);
-                return new WeightedRelationIteratorImpl(vertexId, offset + 1, length, weightMapping, relationIdMapping, adjacency);
+                return new WeightedRelationIteratorImpl(vertexId, offset + 1, length, weightMapping, relationIds, adjacency);
             }
 
             case OUTGOING: {
-                final long offset = outOffsets[vertexId];
+                final long offset = offset(vertexId, outOffsets);
                 final int length = adjacency.get(offset);
-                return new WeightedRelationIteratorImpl(vertexId, offset + 1, length, weightMapping, relationIdMapping, adjacency);
+                return new WeightedRelationIteratorImpl(vertexId, offset + 1, length, weightMapping, relationIds, adjacency);
             }
             default: {
                 throw new IllegalArgumentException("Direction.BOTH not yet implemented");
@@ -119,18 +274,29 @@ public class LightGraph implements Graph {
 
     @Override
     public Iterator<RelationshipCursor> relationshipIterator(int vertexId, Direction direction) {
+        if (undirected) {
+            direction = Direction.OUTGOING;
+        }
+        if (compressedAdjacency != null) {
+            return new DeltaRelationIteratorImpl(
+                    vertexId,
+                    offset(vertexId, direction),
+                    relationOffset(vertexId, direction),
+                    relationIds,
+                    compressedAdjacency);
+        }
 
         switch (direction) {
             case INCOMING: {
-                final long offset = inOffsets[vertexId];
+                final long offset = offset(vertexId, inOffsets);
                 final int length = adjacency.get(offset);
-                return new RelationIteratorImpl(vertexId, offset + 1, length, relationIdMapping, adjacency);
+                return new RelationIteratorImpl(vertexId, offset + 1, length, relationIds, adjacency);
             }
 
             case OUTGOING: {
-                final long offset = outOffsets[vertexId];
+                final long offset = offset(vertexId, outOffsets);
                 final int length = adjacency.get(offset);
-                return new RelationIteratorImpl(vertexId, offset + 1, length, relationIdMapping, adjacency);
+                return new RelationIteratorImpl(vertexId, offset + 1, length, relationIds, adjacency);
             }
 
             default: {
@@ -146,14 +312,17 @@ public class LightGraph implements Graph {
             final Direction direction) {
         switch (direction) {
             case INCOMING:
-                return adjacency.get(inOffsets[node]);
+                return degree(node, inOffsets);
 
             case OUTGOING:
-                return adjacency.get(outOffsets[node]);
+                return degree(node, outOffsets);
 
             case BOTH:
-                return adjacency.get(inOffsets[node])
-                        + adjacency.get(outOffsets[node]);
+                if (undirected) {
+                    return degree(node, outOffsets);
+                }
+                return degree(node, inOffsets)
+                        + degree(node, outOffsets);
 
             default:
                 throw new IllegalArgumentException(direction + "");
@@ -161,6 +330,130 @@ public class LightGraph implements Graph {
 
     }
 
+    private int degree(int node, LongArray offsets) {
+        if (offsets == null) {
+            return oppositeDegrees != null ? oppositeDegrees.get(node) : 0;
+        }
+        return degree(offsets.get(node));
+    }
+
+    private int degree(long offset) {
+        if (compressedAdjacency != null) {
+            return compressedAdjacency.readVInt(offset);
+        }
+        return adjacency.get(offset);
+    }
+
+    private long offset(int node, Direction direction) {
+        switch (direction) {
+            case INCOMING:
+                return offset(node, inOffsets);
+            case OUTGOING:
+                return offset(node, outOffsets);
+            default:
+                throw new IllegalArgumentException("Direction.BOTH not yet implemented");
+        }
+    }
+
+    private long relationOffset(int node, Direction direction) {
+        switch (direction) {
+            case INCOMING:
+                return offset(node, inRelationOffsets);
+            case OUTGOING:
+                return offset(node, outRelationOffsets);
+            default:
+                throw new IllegalArgumentException("Direction.BOTH not yet implemented");
+        }
+    }
+
+    @Override
+    public boolean exists(int sourceNodeId, int targetNodeId, Direction direction) {
+        if (direction == Direction.BOTH && !undirected) {
+            return exists(sourceNodeId, targetNodeId, Direction.OUTGOING)
+                    || exists(sourceNodeId, targetNodeId, Direction.INCOMING);
+        }
+        final long offset = offset(sourceNodeId, undirected ? Direction.OUTGOING : direction);
+        if (compressedAdjacency != null) {
+            final ByteArray.DeltaCursor cursor = compressedAdjacency.cursor(offset, compressedAdjacency.newCursor());
+            while (cursor.hasNext()) {
+                final int target = cursor.next();
+                if (target >= targetNodeId) {
+                    return target == targetNodeId;
+                }
+            }
+            return false;
+        }
+        if (!sorted) {
+            return Graph.super.exists(sourceNodeId, targetNodeId, direction);
+        }
+        return Intersections.contains(adjacency::get, offset + 1, offset + 1 + adjacency.get(offset), targetNodeId);
+    }
+
+    @Override
+    public void intersect(int nodeA, int nodeB, Direction direction, IntConsumer consumer) {
+        if (!sorted || (direction == Direction.BOTH && !undirected)) {
+            // the lists of both directions are not merged
+            Graph.super.intersect(nodeA, nodeB, direction, consumer);
+            return;
+        }
+        if (undirected) {
+            direction = Direction.OUTGOING;
+        }
+        final long offsetA = offset(nodeA, direction);
+        final long offsetB = offset(nodeB, direction);
+        if (compressedAdjacency != null) {
+            intersectDeltas(offsetA, offsetB, consumer);
+            return;
+        }
+        Intersections.intersect(
+                adjacency::get,
+                offsetA + 1,
+                offsetA + 1 + adjacency.get(offsetA),
+                adjacency::get,
+                offsetB + 1,
+                offsetB + 1 + adjacency.get(offsetB),
+                consumer);
+    }
+
+    /**
+     * merge two delta encoded lists, which can only be decoded in order
+     */
+    private void intersectDeltas(long offsetA, long offsetB, IntConsumer consumer) {
+        final ByteArray.DeltaCursor a = compressedAdjacency.cursor(offsetA, compressedAdjacency.newCursor());
+        final ByteArray.DeltaCursor b = compressedAdjacency.cursor(offsetB, compressedAdjacency.newCursor());
+        if (!a.hasNext() || !b.hasNext()) {
+            return;
+        }
+        int targetA = a.next();
+        int targetB = b.next();
+        while (true) {
+            if (targetA < targetB) {
+                if (!a.hasNext()) {
+                    return;
+                }
+                targetA = a.next();
+            } else if (targetA > targetB) {
+                if (!b.hasNext()) {
+                    return;
+                }
+                targetB = b.next();
+            } else {
+                consumer.accept(targetA);
+                // skip parallel relationships to the same target
+                do {
+                    if (!a.hasNext()) {
+                        return;
+                    }
+                    targetA = a.next();
+                } while (targetA == targetB);
+            }
+        }
+    }
+
+    boolean isSorted() {
+        return sorted;
+    }
+
     @Override
     public int toMappedNodeId(long nodeId) {
         return idMapping.get(nodeId);
@@ -174,31 +467,56 @@ public class LightGraph implements Graph {
     public void forEachIncoming(
             final int node,
             final RelationshipConsumer consumer) {
-        consumeNodes(node, cursor(node, inOffsets), consumer);
+        if (compressedAdjacency != null) {
+            consumeDeltas(node, offset(node, inOffsets), offset(node, inRelationOffsets), consumer);
+        } else {
+            consumeNodes(node, cursor(node, inOffsets), consumer);
+        }
     }
 
     public void forEachOutgoing(
             final int node,
             final RelationshipConsumer consumer) {
-        consumeNodes(node, cursor(node, outOffsets), consumer);
+        if (compressedAdjacency != null) {
+            consumeDeltas(node, offset(node, outOffsets), offset(node, outRelationOffsets), consumer);
+        } else {
+            consumeNodes(node, cursor(node, outOffsets), consumer);
+        }
     }
 
     public void forEachIncoming(
             final int node,
             final WeightedRelationshipConsumer consumer) {
-        consumeNodes(node, cursor(node, inOffsets), consumer);
+        if (compressedAdjacency != null) {
+            consumeDeltas(node, offset(node, inOffsets), offset(node, inRelationOffsets), consumer);
+        } else {
+            consumeNodes(node, cursor(node, inOffsets), consumer);
+        }
     }
 
     public void forEachOutgoing(
             final int node,
             final WeightedRelationshipConsumer consumer) {
-        consumeNodes(node, cursor(node, outOffsets), consumer);
+        if (compressedAdjacency != null) {
+            consumeDeltas(node, offset(node, outOffsets), offset(node, outRelationOffsets), consumer);
+        } else {
+            consumeNodes(node, cursor(node, outOffsets), consumer);
+        }
+    }
+
+    /**
+     * the offset of the nodes list, a direction that is not loaded
+     * points every node to the empty list at index 0.
+     * Relation offsets that are not loaded are never read from.
+     */
+    private static long offset(int node, LongArray offsets) {
+        return offsets != null ? offsets.get(node) : 0L;
     }
 
-    private IntArray.Cursor cursor(int node, long[] offsets) {
-        final long offset = offsets[node];
+    private IntArray.Cursor cursor(int node, LongArray offsets) {
+        final long offset = offset(node, offsets);
         final int length = adjacency.get(offset);
-        return adjacency.cursor(offset + 1, length, spare);
+        return adjacency.cursor(offset + 1, length, spare != null ? spare : spares.get());
     }
 
     private void consumeNodes(
@@ -208,13 +526,15 @@ public class LightGraph implements Graph {
         //noinspection UnnecessaryLocalVariable – prefer access of local var in loop
         final WeightMapping weightMap = this.weightMapping;
         //noinspection UnnecessaryLocalVariable – prefer access of local var in loop
-        final LongLongMap relMap = this.relationIdMapping;
+        final LongArray relationIds = this.relationIds;
         while (cursor.next()) {
             final int[] array = cursor.array;
             int offset = cursor.offset;
             final int limit = cursor.length + offset;
+            // the index into the paged arrays, the cursor offset is relative to its page
+            long idx = cursor.index();
             while (offset < limit) {
-                consumer.accept(node, array[offset], relMap.get(offset), weightMap.get((long) offset++));
+                consumer.accept(node, array[offset++], relationId(relationIds, idx), weightMap.get(idx++));
             }
         }
     }
@@ -224,14 +544,53 @@ public class LightGraph implements Graph {
             IntArray.Cursor cursor,
             RelationshipConsumer consumer) {
         //noinspection UnnecessaryLocalVariable – prefer access of local var in loop
-        final LongLongMap relMap = this.relationIdMapping;
+        final LongArray relationIds = this.relationIds;
         while (cursor.next()) {
             final int[] array = cursor.array;
             int offset = cursor.offset;
             final int limit = cursor.length + offset;
+            long idx = cursor.index();
             while (offset < limit) {
-                consumer.accept(node, array[offset], relMap.get(offset++));
+                consumer.accept(node, array[offset++], relationId(relationIds, idx++));
             }
         }
     }
+
+    private void consumeDeltas(
+            int node,
+            long offset,
+            long relationOffset,
+            WeightedRelationshipConsumer consumer) {
+        //noinspection UnnecessaryLocalVariable – prefer access of local var in loop
+        final WeightMapping weightMap = this.weightMapping;
+        //noinspection UnnecessaryLocalVariable – prefer access of local var in loop
+        final LongArray relationIds = this.relationIds;
+        final ByteArray.DeltaCursor cursor = compressedAdjacency.cursor(offset, deltaCursor());
+        long idx = relationOffset;
+        while (cursor.hasNext()) {
+            consumer.accept(node, cursor.next(), relationId(relationIds, idx), weightMap.get(idx++));
+        }
+    }
+
+    private void consumeDeltas(
+            int node,
+            long offset,
+            long relationOffset,
+            RelationshipConsumer consumer) {
+        //noinspection UnnecessaryLocalVariable – prefer access of local var in loop
+        final LongArray relationIds = this.relationIds;
+        final ByteArray.DeltaCursor cursor = compressedAdjacency.cursor(offset, deltaCursor());
+        long idx = relationOffset;
+        while (cursor.hasNext()) {
+            consumer.accept(node, cursor.next(), relationId(relationIds, idx++));
+        }
+    }
+
+    private ByteArray.DeltaCursor deltaCursor() {
+        return deltaSpare != null ? deltaSpare : deltaSpares.get();
+    }
+
+    static long relationId(LongArray relationIds, long index) {
+        return relationIds != null ? relationIds.get(index) : -1L;
+    }
 }
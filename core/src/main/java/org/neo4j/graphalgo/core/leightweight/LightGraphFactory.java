@@ -1,7 +1,6 @@
 package org.neo4j.graphalgo.core.leightweight;
 
-import com.carrotsearch.hppc.LongLongHashMap;
-import com.carrotsearch.hppc.LongLongMap;
+import org.apache.lucene.util.ArrayUtil;
 import org.neo4j.collection.primitive.PrimitiveLongIterator;
 import org.neo4j.cursor.Cursor;
 import org.neo4j.graphalgo.api.Graph;
@@ -10,7 +9,9 @@ import org.neo4j.graphalgo.api.GraphSetup;
 import org.neo4j.graphalgo.api.WeightMapping;
 import org.neo4j.graphalgo.core.IdMap;
 import org.neo4j.graphalgo.core.NullWeightMap;
-import org.neo4j.graphalgo.core.WeightMap;
+import org.neo4j.graphalgo.core.utils.MemoryEstimation;
+import org.neo4j.graphalgo.core.utils.NodePartitions;
+import org.neo4j.graphalgo.core.utils.ParallelUtil;
 import org.neo4j.kernel.api.ReadOperations;
 import org.neo4j.kernel.api.StatementConstants;
 import org.neo4j.kernel.internal.GraphDatabaseAPI;
@@ -19,136 +20,619 @@ import org.neo4j.storageengine.api.NodeItem;
 import org.neo4j.storageengine.api.PropertyItem;
 import org.neo4j.storageengine.api.RelationshipItem;
 
+import java.util.Arrays;
+import java.util.concurrent.ExecutorService;
+import java.util.function.Consumer;
+
 public final class LightGraphFactory extends GraphFactory {
 
+    private static final int BATCH_SIZE = 100_000;
+    private static final int MAX_VINT_BYTES = 5;
+
+    private final ExecutorService threadPool;
     private IdMap mapping;
-    private long[] inOffsets;
-    private long[] outOffsets;
+    private LongArray inOffsets;
+    private LongArray outOffsets;
+    // the index of the first relationship id and weight of each compressed list
+    private LongArray inRelationOffsets;
+    private LongArray outRelationOffsets;
+    private IntArray oppositeDegrees;
     private IntArray adjacency;
-    private WeightMapping weights;
-    private LongLongMap relationIdMapping;
+    private ByteArray compressedAdjacency;
+    private WeightArray weights;
+    private LongArray relationIds;
     private long adjacencyIdx;
+    private long relationIdx;
     protected int nodeCount;
     private int relationCount;
-    private int labelId;
+    // the existing labels to load, null means any label
+    private int[] labelIds;
     private int[] relationId;
     private int weightId;
+    // the property predicates, null means every node or relationship is loaded
+    private PropertyFilter nodeFilter;
+    private PropertyFilter relationshipFilter;
 
     public LightGraphFactory(
             GraphDatabaseAPI api,
             GraphSetup setup) {
         super(api, setup);
+        if (setup.nodeOrder != null && setup.compressAdjacency) {
+            throw new IllegalArgumentException("The nodes of a compressed adjacency can not be relabelled");
+        }
+        this.threadPool = setup.executor;
         withReadOps(readOp -> {
-            labelId = setup.loadAnyLabel()
-                    ? ReadOperations.ANY_LABEL
-                    : readOp.labelGetForName(setup.startLabel);
-            if (!setup.loadAnyRelationshipType()) {
-                int relId = readOp.relationshipTypeGetForName(setup.relationshipType);
-                if (relId != StatementConstants.NO_SUCH_RELATIONSHIP_TYPE) {
-                    relationId = new int[]{relId};
-                }
-            }
+            // several labels are loaded as their union
+            labelIds = existingLabelIds(labelIds(readOp));
+            // several types are loaded as their union
+            relationId = existingTypeIds(relationshipTypeIds(readOp));
+            nodeFilter = nodeFilter(readOp);
+            relationshipFilter = relationshipFilter(readOp);
             weightId = setup.loadDefaultRelationshipWeight()
                     ? StatementConstants.NO_SUCH_PROPERTY_KEY
                     : readOp.propertyKeyGetForName(setup.relationWeightPropertyName);
-            nodeCount = Math.toIntExact(readOp.countsForNode(labelId));
-            relationCount = Math.toIntExact(relationId == null
-                    ? readOp.countsForRelationship(labelId, ReadOperations.ANY_RELATIONSHIP_TYPE, ReadOperations.ANY_LABEL)
-                    : readOp.countsForRelationship(labelId, relationId[0], ReadOperations.ANY_LABEL));
+            nodeCount = Math.toIntExact(countNodes(readOp, labelIds));
+            relationCount = Math.toIntExact(countRelationships(
+                    readOp,
+                    labelIds,
+                    relationId,
+                    null));
         });
     }
 
     @Override
     public Graph build() {
+        return build(BATCH_SIZE);
+    }
+
+    /**
+     * {@inheritDoc}
+     * <p>
+     * The adjacency of compressed lists is an upper bound, estimated with the
+     * maximum length of a variable length int, the actual lists are usually much smaller.
+     * Their relationship ids and weights are estimated by the relationship count.
+     */
+    @Override
+    public MemoryEstimation memoryEstimation() {
+        final long[] incoming = new long[1];
+        withReadOps(readOp -> incoming[0] = countRelationships(
+                readOp,
+                null,
+                relationId,
+                labelIds));
+        // every list has a header, an undirected graph has one list per node
+        final int lists = setup.undirected ? 1 : (setup.loadOutgoing() ? 1 : 0) + (setup.loadIncoming() ? 1 : 0);
+        final long relationships = (setup.loadOutgoing() ? relationCount : 0L)
+                + (setup.loadIncoming() ? incoming[0] : 0L);
+        final long slots = 1L + relationships + nodeCount * (long) lists;
+        // compressed lists have a second offset for their relationship ids and weights
+        final int offsets = loadRelationOffsets() ? 2 * lists : lists;
+        final boolean offHeap = setup.offHeapPages != null;
+        final MemoryEstimation.Builder builder = MemoryEstimation.builder()
+                .add("idMap", IdMap.estimateBytes(nodeCount))
+                .add("offsets", offsets * LongArray.estimateBytes(nodeCount), offHeap);
+        if (loadOppositeDegrees()) {
+            builder.add("degrees", IntArray.estimateBytes(nodeCount), offHeap);
+        }
+        final long relationSize;
+        if (setup.compressAdjacency) {
+            relationSize = relationships;
+            builder.add("adjacency", ByteArray.estimateBytes(slots * MAX_VINT_BYTES));
+        } else {
+            relationSize = slots;
+            builder.add("adjacency", IntArray.estimateBytes(slots), offHeap);
+        }
+        if (setup.loadRelationshipIds) {
+            builder.add("relationshipIds", LongArray.estimateBytes(relationSize), offHeap);
+        }
+        if (weightId != StatementConstants.NO_SUCH_PROPERTY_KEY) {
+            builder.add(
+                    "relationshipWeights",
+                    WeightArray.estimateBytes(relationSize, setup.floatRelationshipWeights));
+        }
+        return builder.build();
+    }
+
+    /* test-private */ Graph build(int batchSize) {
+        if (threadPool != null && ParallelUtil.threadSize(batchSize, nodeCount) > 1) {
+            return buildParallel(batchSize);
+        }
 
         mapping = new IdMap(nodeCount);
-        inOffsets = new long[nodeCount];
-        outOffsets = new long[nodeCount];
-        relationIdMapping = new LongLongHashMap(
-                (int) Math.ceil(relationCount / 0.99),
-                0.99);
-        adjacency = IntArray.newArray(relationCount + nodeCount * 2L);
-        weights = weightId == StatementConstants.NO_SUCH_PROPERTY_KEY
-                ? new NullWeightMap(setup.relationDefaultWeight)
-                : new WeightMap(nodeCount, setup.relationDefaultWeight);
+        newOffsets(nodeCount);
+        if (setup.compressAdjacency) {
+            compressedAdjacency = ByteArray.newArray(relationCount + nodeCount * 2L);
+        } else {
+            adjacency = IntArray.newArray(relationCount + nodeCount * 2L, setup.offHeapPages);
+        }
+        // compressed lists store relationship ids and weights without a header
+        final long relationSize = setup.compressAdjacency
+                ? relationCount
+                : relationCount + nodeCount * 2L;
+        relationIds = setup.loadRelationshipIds
+                ? LongArray.newArray(relationSize, setup.offHeapPages)
+                : null;
+        weights = newWeights(relationSize);
 
         // index 0 is the default for non-connected nodes (by omission of entries)
         adjacencyIdx = 1L;
+        relationIdx = 0L;
 
         withReadOps(readOp -> {
-            final PrimitiveLongIterator nodeIds = labelId == ReadOperations.ANY_LABEL
-                    ? readOp.nodesGetAll()
-                    : readOp.nodesGetForLabel(labelId);
+            final PrimitiveLongIterator nodeIds = nodeIds(readOp, labelIds, mapping, nodeFilter);
             while (nodeIds.hasNext()) {
                 final long nextId = nodeIds.next();
                 mapping.add(nextId);
             }
             mapping.buildMappedIds();
 
-            try (Cursor<NodeItem> cursor = labelId == ReadOperations.ANY_LABEL
+            final RelationshipBuffer buffer = new RelationshipBuffer();
+            if (labelIds != null && labelIds.length > 1) {
+                for (long nodeId : mapping.mappedIds()) {
+                    try (Cursor<NodeItem> cursor = readOp.nodeCursor(nodeId)) {
+                        if (cursor.next()) {
+                            readNode(cursor.get(), buffer);
+                        }
+                    }
+                }
+                return;
+            }
+            try (Cursor<NodeItem> cursor = labelIds == null
                     ? readOp.nodeCursorGetAll()
-                    : readOp.nodeCursorGetForLabel(labelId)) {
+                    : readOp.nodeCursorGetForLabel(labelIds[0])) {
                 while (cursor.next()) {
-                    readNode(cursor.get());
+                    readNode(cursor.get(), buffer);
                 }
             }
         });
+        return newGraph();
+    }
+
+    /**
+     * Loads the graph in two passes. The first pass counts the degrees of each
+     * node in ranges of {@code batchSize} nodes, they are then turned into absolute
+     * offsets so that the second pass can fill an exactly sized adjacency array
+     * without any further synchronization. The second pass splits the nodes by
+     * the counted degrees, so ranges with high degree nodes are not slower than others.
+     * For compressed adjacencies the first pass counts the encoded bytes instead,
+     * together with the relationships that size the relationship ids and weights.
+     */
+    private Graph buildParallel(int batchSize) {
+        mapping = new IdMap(nodeCount);
+        withReadOps(readOp -> {
+            final PrimitiveLongIterator nodeIds = nodeIds(readOp, labelIds, mapping, nodeFilter);
+            while (nodeIds.hasNext()) {
+                mapping.add(nodeIds.next());
+            }
+        });
         mapping.buildMappedIds();
 
+        final int nodeCount = mapping.size();
+        newOffsets(nodeCount);
+
+        final int concurrency = ParallelUtil.threadSize(batchSize, nodeCount);
+
+        // pass 1: degrees
+        NodePartitions.byNodeCount(nodeCount, batchSize).run(threadPool, concurrency, DegreeTask::new);
+
+        // index 0 is the default for non-connected nodes
+        long adjacencySize = 1L;
+        final long[] nodeSlots = new long[nodeCount];
+        for (int node = 0; node < nodeCount; node++) {
+            if (outOffsets != null) {
+                nodeSlots[node] += slots(outOffsets.get(node));
+            }
+            if (inOffsets != null && !setup.undirected) {
+                nodeSlots[node] += slots(inOffsets.get(node));
+            }
+            adjacencySize += nodeSlots[node];
+        }
+        // every node costs a lookup in addition to its relationships
+        final NodePartitions partitions = NodePartitions.byCost(
+                nodeCount,
+                node -> nodeSlots[node] + 1L,
+                concurrency * NodePartitions.PARTITIONS_PER_WORKER);
+        long adjacencyIdx = 1L;
+        long relationSize = adjacencySize;
+        final long[] outBytes;
+        final long[] inBytes;
+        final int[] outRelations;
+        final int[] inRelations;
+        if (setup.compressAdjacency) {
+            compressedAdjacency = ByteArray.newArray(adjacencySize);
+            // keep the reserved sizes, the store might have changed in between the passes
+            outBytes = new long[nodeCount];
+            inBytes = new long[nodeCount];
+            for (int node = 0; node < nodeCount; node++) {
+                outBytes[node] = outOffsets != null ? outOffsets.get(node) : 0L;
+                inBytes[node] = inOffsets != null ? inOffsets.get(node) : 0L;
+            }
+            for (int node = 0; node < nodeCount; node++) {
+                if (outOffsets != null) {
+                    adjacencyIdx = toCompressedOffset(outOffsets, node, adjacencyIdx);
+                }
+                if (inOffsets != null && !setup.undirected) {
+                    adjacencyIdx = toCompressedOffset(inOffsets, node, adjacencyIdx);
+                }
+            }
+            // relationship ids and weights are indexed by the position of the relationship
+            relationSize = 0L;
+            outRelations = outRelationOffsets != null ? new int[nodeCount] : null;
+            inRelations = inRelationOffsets != null && !setup.undirected ? new int[nodeCount] : null;
+            for (int node = 0; node < nodeCount; node++) {
+                if (outRelations != null) {
+                    relationSize = toRelationOffset(outRelationOffsets, outRelations, node, relationSize);
+                }
+                if (inRelations != null) {
+                    relationSize = toRelationOffset(inRelationOffsets, inRelations, node, relationSize);
+                }
+            }
+        } else {
+            outBytes = null;
+            inBytes = null;
+            outRelations = null;
+            inRelations = null;
+            adjacency = IntArray.newArray(adjacencySize, setup.offHeapPages);
+            for (int node = 0; node < nodeCount; node++) {
+                if (outOffsets != null) {
+                    adjacencyIdx = toOffset(outOffsets, node, adjacencyIdx);
+                }
+                if (inOffsets != null && !setup.undirected) {
+                    adjacencyIdx = toOffset(inOffsets, node, adjacencyIdx);
+                }
+            }
+        }
+
+        // relationship ids and weights of uncompressed lists are stored at the same index as their target
+        relationIds = setup.loadRelationshipIds
+                ? LongArray.newArray(relationSize, setup.offHeapPages)
+                : null;
+        weights = newWeights(relationSize);
+
+        // pass 2: adjacency
+        partitions.run(threadPool, concurrency, () -> new ImportTask(outBytes, inBytes, outRelations, inRelations));
+
+        return newGraph();
+    }
+
+    /**
+     * an undirected graph has a single list per node that is referenced by both offsets,
+     * the offsets of a direction that is not loaded are null
+     */
+    private void newOffsets(int nodeCount) {
+        outOffsets = setup.loadOutgoing()
+                ? LongArray.newArray(nodeCount, setup.offHeapPages)
+                : null;
+        outRelationOffsets = setup.loadOutgoing() && loadRelationOffsets()
+                ? LongArray.newArray(nodeCount, setup.offHeapPages)
+                : null;
+        if (setup.undirected) {
+            inOffsets = outOffsets;
+            inRelationOffsets = outRelationOffsets;
+        } else {
+            inOffsets = setup.loadIncoming()
+                    ? LongArray.newArray(nodeCount, setup.offHeapPages)
+                    : null;
+            inRelationOffsets = setup.loadIncoming() && loadRelationOffsets()
+                    ? LongArray.newArray(nodeCount, setup.offHeapPages)
+                    : null;
+        }
+        oppositeDegrees = loadOppositeDegrees()
+                ? IntArray.newArray(nodeCount, setup.offHeapPages)
+                : null;
+    }
+
+    /**
+     * whether compressed lists need the offsets of their relationship ids or weights
+     */
+    private boolean loadRelationOffsets() {
+        return setup.compressAdjacency
+                && (setup.loadRelationshipIds || weightId != StatementConstants.NO_SUCH_PROPERTY_KEY);
+    }
+
+    /**
+     * whether a single direction is loaded together with the degrees of the other
+     */
+    private boolean loadOppositeDegrees() {
+        return setup.loadOppositeDegrees && !(setup.loadOutgoing() && setup.loadIncoming());
+    }
+
+    /**
+     * the direction that is not loaded
+     */
+    private Direction oppositeDirection() {
+        return setup.loadOutgoing() ? Direction.INCOMING : Direction.OUTGOING;
+    }
+
+    private WeightArray newWeights(long size) {
+        return weightId == StatementConstants.NO_SUCH_PROPERTY_KEY
+                ? null
+                : WeightArray.newArray(size, setup.relationDefaultWeight, setup.floatRelationshipWeights);
+    }
+
+    /**
+     * merged and relabelled lists are already sorted by target
+     */
+    private Graph newGraph() {
+        if (setup.nodeOrder != null) {
+            relabel(setup.nodeOrder.newNodeIds(newLightGraph(setup.undirected)));
+            return newLightGraph(true);
+        }
+        if (setup.sortAdjacency && !setup.undirected && adjacency != null) {
+            sortLists();
+        }
+        return newLightGraph(setup.undirected || setup.sortAdjacency);
+    }
+
+    private LightGraph newLightGraph(boolean sorted) {
+        final WeightMapping weights = this.weights != null
+                ? this.weights
+                : new NullWeightMap(setup.relationDefaultWeight);
+        if (compressedAdjacency != null) {
+            return new LightGraph(
+                    mapping,
+                    weights,
+                    relationIds,
+                    compressedAdjacency,
+                    inOffsets,
+                    outOffsets,
+                    inRelationOffsets,
+                    outRelationOffsets,
+                    oppositeDegrees,
+                    setup.undirected
+            );
+        }
         return new LightGraph(
                 mapping,
                 weights,
-                relationIdMapping,
+                relationIds,
                 adjacency,
                 inOffsets,
-                outOffsets
+                outOffsets,
+                oppositeDegrees,
+                setup.undirected,
+                sorted
         );
     }
 
-    private void readNode(final NodeItem node) {
+    /**
+     * sorts each list of the adjacency by target in place,
+     * relationship ids and weights are moved along
+     */
+    private void sortLists() {
+        final RelationshipBuffer buffer = new RelationshipBuffer();
+        for (int node = 0; node < mapping.size(); node++) {
+            if (outOffsets != null) {
+                sortList(outOffsets, node, buffer);
+            }
+            if (inOffsets != null) {
+                sortList(inOffsets, node, buffer);
+            }
+        }
+    }
+
+    private void sortList(LongArray offsets, int node, RelationshipBuffer buffer) {
+        final long offset = offsets.get(node);
+        final int degree = adjacency.get(offset);
+        if (degree < 2) {
+            return;
+        }
+        buffer.reset();
+        for (long idx = offset + 1L; idx <= offset + degree; idx++) {
+            buffer.add(
+                    adjacency.get(idx),
+                    relationIds != null ? relationIds.get(idx) : -1L,
+                    weights != null ? weights.get(idx) : null);
+        }
+        buffer.sort();
+        writeList(offsets, node, buffer, offset);
+    }
+
+    /**
+     * Rewrites the lists of the loaded graph in the order of the new graph ids,
+     * the targets of each list are sorted by their new ids.
+     * The graph is copied once, so relabelling takes the memory of a second graph.
+     */
+    private void relabel(int[] newNodeIds) {
+        final int nodeCount = newNodeIds.length;
+        final int[] oldNodeIds = new int[nodeCount];
+        for (int node = 0; node < nodeCount; node++) {
+            oldNodeIds[newNodeIds[node]] = node;
+        }
+        final IntArray adjacency = this.adjacency;
+        final LongArray relationIds = this.relationIds;
+        final WeightArray weights = this.weights;
+        final LongArray outOffsets = this.outOffsets;
+        final LongArray inOffsets = setup.undirected ? null : this.inOffsets;
+        final IntArray oppositeDegrees = this.oppositeDegrees;
+
+        long adjacencySize = 1L;
+        for (int node = 0; node < nodeCount; node++) {
+            if (outOffsets != null) {
+                adjacencySize += slots(adjacency.get(outOffsets.get(node)));
+            }
+            if (inOffsets != null) {
+                adjacencySize += slots(adjacency.get(inOffsets.get(node)));
+            }
+        }
+        mapping = mapping.relabel(newNodeIds);
+        newOffsets(nodeCount);
+        this.adjacency = IntArray.newArray(adjacencySize, setup.offHeapPages);
+        this.relationIds = relationIds != null
+                ? LongArray.newArray(adjacencySize, setup.offHeapPages)
+                : null;
+        this.weights = newWeights(adjacencySize);
+
+        final RelationshipBuffer buffer = new RelationshipBuffer();
+        long adjacencyIdx = 1L;
+        for (int node = 0; node < nodeCount; node++) {
+            final int oldNode = oldNodeIds[node];
+            if (outOffsets != null) {
+                adjacencyIdx = relabelList(adjacency, relationIds, weights, outOffsets.get(oldNode),
+                        newNodeIds, this.outOffsets, node, adjacencyIdx, buffer);
+            }
+            if (inOffsets != null) {
+                adjacencyIdx = relabelList(adjacency, relationIds, weights, inOffsets.get(oldNode),
+                        newNodeIds, this.inOffsets, node, adjacencyIdx, buffer);
+            }
+            if (oppositeDegrees != null) {
+                this.oppositeDegrees.set(node, oppositeDegrees.get(oldNode));
+            }
+        }
+    }
+
+    /**
+     * copies the list at {@code oldOffset} with relabelled targets to {@code adjacencyIdx}
+     *
+     * @return the index after the copied list
+     */
+    private long relabelList(
+            IntArray oldAdjacency,
+            LongArray oldRelationIds,
+            WeightArray oldWeights,
+            long oldOffset,
+            int[] newNodeIds,
+            LongArray offsets,
+            int node,
+            long adjacencyIdx,
+            RelationshipBuffer buffer) {
+        final int degree = oldAdjacency.get(oldOffset);
+        if (degree == 0) {
+            return adjacencyIdx;
+        }
+        buffer.reset();
+        for (long idx = oldOffset + 1L; idx <= oldOffset + degree; idx++) {
+            buffer.add(
+                    newNodeIds[oldAdjacency.get(idx)],
+                    oldRelationIds != null ? oldRelationIds.get(idx) : -1L,
+                    oldWeights != null ? oldWeights.get(idx) : null);
+        }
+        buffer.sort();
+        writeList(offsets, node, buffer, adjacencyIdx);
+        return adjacencyIdx + 1L + degree;
+    }
+
+    private long slots(long degree) {
+        if (setup.compressAdjacency) {
+            // the first pass already counted the encoded bytes
+            return degree;
+        }
+        return degree > 0 ? degree + 1L : 0L;
+    }
+
+    /**
+     * replaces the degree of the node with its offset in the adjacency
+     * and writes the degree as header to that offset
+     */
+    private long toOffset(LongArray offsets, int node, long adjacencyIdx) {
+        final long degree = offsets.get(node);
+        if (degree > 0) {
+            offsets.set(node, adjacencyIdx);
+            adjacency.set(adjacencyIdx, (int) degree);
+            return adjacencyIdx + degree + 1L;
+        }
+        return adjacencyIdx;
+    }
+
+    /**
+     * replaces the encoded length of the nodes list with its offset
+     * in the compressed adjacency
+     */
+    private static long toCompressedOffset(LongArray offsets, int node, long adjacencyIdx) {
+        final long bytes = offsets.get(node);
+        if (bytes > 0) {
+            offsets.set(node, adjacencyIdx);
+            return adjacencyIdx + bytes;
+        }
+        return adjacencyIdx;
+    }
+
+    /**
+     * replaces the relationship count of the nodes list with the index
+     * of its first relationship and keeps the count as capacity
+     */
+    private static long toRelationOffset(LongArray relationOffsets, int[] relations, int node, long relationIdx) {
+        final long count = relationOffsets.get(node);
+        relations[node] = (int) count;
+        relationOffsets.set(node, relationIdx);
+        return relationIdx + count;
+    }
+
+    private void readNode(final NodeItem node, final RelationshipBuffer buffer) {
         long sourceNodeId = node.id();
         int sourceGraphId = mapping.get(sourceNodeId);
+        if (sourceGraphId == -1) {
+            // filtered by the node predicates
+            return;
+        }
 
-        readRelationships(
-                sourceGraphId,
-                node,
-                Direction.OUTGOING,
-                outOffsets
-        );
-        readRelationships(
-                sourceGraphId,
-                node,
-                Direction.INCOMING,
-                inOffsets
-        );
+        if (setup.undirected) {
+            if (compressedAdjacency != null) {
+                readCompressedRelationships(sourceGraphId, node, Direction.BOTH, outOffsets, outRelationOffsets, buffer);
+            } else {
+                readMergedRelationships(sourceGraphId, node, buffer);
+            }
+            return;
+        }
+        if (oppositeDegrees != null) {
+            oppositeDegrees.set(sourceGraphId, degree(node, oppositeDirection()));
+        }
+        if (compressedAdjacency != null) {
+            if (outOffsets != null) {
+                readCompressedRelationships(sourceGraphId, node, Direction.OUTGOING, outOffsets, outRelationOffsets, buffer);
+            }
+            if (inOffsets != null) {
+                readCompressedRelationships(sourceGraphId, node, Direction.INCOMING, inOffsets, inRelationOffsets, buffer);
+            }
+            return;
+        }
+        if (outOffsets != null) {
+            readRelationships(
+                    sourceGraphId,
+                    node,
+                    Direction.OUTGOING,
+                    outOffsets
+            );
+        }
+        if (inOffsets != null) {
+            readRelationships(
+                    sourceGraphId,
+                    node,
+                    Direction.INCOMING,
+                    inOffsets
+            );
+        }
     }
 
     private void readRelationships(
             int sourceGraphId,
             NodeItem node,
             Direction direction,
-            long[] offsets) {
+            LongArray offsets) {
         int relDegree = 0;
         long idx = adjacencyIdx + 1L;
 
-        try (Cursor<RelationshipItem> rels = relationId == null
-                ? node.relationships(direction)
-                : node.relationships(direction, relationId)) {
+        try (Cursor<RelationshipItem> rels = relationships(node, direction)) {
             while (rels.next()) {
                 RelationshipItem rel = rels.get();
 
                 long targetNodeId = rel.otherNode(node.id());
                 int targetGraphId = mapping.get(targetNodeId);
-                if (targetGraphId == -1) {
+                if (targetGraphId == -1 || !matches(rel)) {
                     continue;
                 }
 
                 relDegree++;
-                relationIdMapping.put(idx, rel.id());
-
-                try (Cursor<PropertyItem> weights = rel.property(weightId)) {
-                    if (weights.next()) {
-                        this.weights.set(idx, weights.get().value());
+                if (relationIds != null) {
+                    relationIds.grow(idx + 1);
+                    relationIds.set(idx, rel.id());
+                }
+                if (this.weights != null) {
+                    this.weights.grow(idx + 1);
+                    try (Cursor<PropertyItem> weights = rel.property(weightId)) {
+                        if (weights.next()) {
+                            this.weights.set(idx, weights.get().value());
+                        }
                     }
                 }
 
@@ -157,9 +641,406 @@ public final class LightGraphFactory extends GraphFactory {
             }
         }
         if (relDegree > 0) {
-            offsets[sourceGraphId] = adjacencyIdx;
+            offsets.set(sourceGraphId, adjacencyIdx);
             adjacency.set(adjacencyIdx, relDegree);
             adjacencyIdx = idx;
         }
     }
+
+    /**
+     * reads the relationships of both directions as a single list, sorted by
+     * target id and without duplicate targets
+     */
+    private void readMergedRelationships(
+            int sourceGraphId,
+            NodeItem node,
+            RelationshipBuffer buffer) {
+        readSorted(node, Direction.BOTH, buffer);
+        final int length = buffer.length;
+        if (length > 0) {
+            final long end = adjacencyIdx + 1L + length;
+            adjacency.grow(end);
+            if (relationIds != null) {
+                relationIds.grow(end);
+            }
+            if (weights != null) {
+                weights.grow(end);
+            }
+            writeList(outOffsets, sourceGraphId, buffer, adjacencyIdx);
+            adjacencyIdx = end;
+        }
+    }
+
+    /**
+     * writes degree, targets, relationship ids and weights of the buffer
+     * to the list at {@code offset}
+     */
+    private void writeList(LongArray offsets, int sourceGraphId, RelationshipBuffer buffer, long offset) {
+        offsets.set(sourceGraphId, offset);
+        adjacency.set(offset, buffer.length);
+        for (int i = 0; i < buffer.length; i++) {
+            adjacency.set(offset + 1L + i, buffer.targets[i]);
+        }
+        buffer.store(offset + 1L, relationIds, weights);
+    }
+
+    private void readCompressedRelationships(
+            int sourceGraphId,
+            NodeItem node,
+            Direction direction,
+            LongArray offsets,
+            LongArray relationOffsets,
+            RelationshipBuffer buffer) {
+        readSorted(node, direction, buffer);
+        final int length = buffer.length;
+        if (length > 0) {
+            final long bytes = ByteArray.encodedLength(buffer.targets, length);
+            compressedAdjacency.grow(adjacencyIdx + bytes);
+            if (relationIds != null) {
+                relationIds.grow(relationIdx + length);
+            }
+            if (weights != null) {
+                weights.grow(relationIdx + length);
+            }
+            offsets.set(sourceGraphId, adjacencyIdx);
+            if (relationOffsets != null) {
+                relationOffsets.set(sourceGraphId, relationIdx);
+            }
+            compressedAdjacency.writeDeltas(adjacencyIdx, buffer.targets, length);
+            buffer.store(relationIdx, relationIds, weights);
+            adjacencyIdx += bytes;
+            relationIdx += length;
+        }
+    }
+
+    /**
+     * reads the relationships of the node into the buffer, sorted by target id.
+     * Duplicate targets are dropped for undirected graphs.
+     */
+    private void readSorted(NodeItem node, Direction direction, RelationshipBuffer buffer) {
+        buffer.reset();
+        try (Cursor<RelationshipItem> rels = relationships(node, direction)) {
+            while (rels.next()) {
+                RelationshipItem rel = rels.get();
+                int targetGraphId = mapping.get(rel.otherNode(node.id()));
+                if (targetGraphId == -1 || !matches(rel)) {
+                    continue;
+                }
+                Object weight = null;
+                try (Cursor<PropertyItem> weights = rel.property(weightId)) {
+                    if (weights.next()) {
+                        weight = weights.get().value();
+                    }
+                }
+                buffer.add(targetGraphId, rel.id(), weight);
+            }
+        }
+        buffer.sort();
+        if (setup.undirected) {
+            buffer.distinct();
+        }
+    }
+
+    private Cursor<RelationshipItem> relationships(NodeItem node, Direction direction) {
+        return relationId == null
+                ? node.relationships(direction)
+                : node.relationships(direction, relationId);
+    }
+
+    // whether the relationship matches the relationship predicates
+    private boolean matches(RelationshipItem rel) {
+        return relationshipFilter == null || relationshipFilter.test(rel);
+    }
+
+    private int degree(NodeItem node, Direction direction) {
+        if (labelIds == null && nodeFilter == null && relationshipFilter == null) {
+            // every other node is part of the graph, the store knows the degree
+            if (relationId == null) {
+                return node.degree(direction);
+            }
+            int degree = 0;
+            for (int typeId : relationId) {
+                degree += node.degree(direction, typeId);
+            }
+            return degree;
+        }
+        int degree = 0;
+        try (Cursor<RelationshipItem> rels = relationships(node, direction)) {
+            while (rels.next()) {
+                final RelationshipItem rel = rels.get();
+                if (mapping.get(rel.otherNode(node.id())) != -1 && matches(rel)) {
+                    degree++;
+                }
+            }
+        }
+        return degree;
+    }
+
+    /**
+     * Base class for workers that visit ranges of mapped node ids.
+     */
+    private abstract class NodeRangeTask implements NodePartitions.RangeConsumer, Consumer<ReadOperations> {
+        int nodeOffset;
+        int nodeCount;
+        final RelationshipBuffer buffer = new RelationshipBuffer();
+
+        @Override
+        public void accept(int startNode, int endNode) {
+            this.nodeOffset = startNode;
+            this.nodeCount = endNode - startNode;
+            withReadOps(this);
+        }
+
+        @Override
+        public void accept(final ReadOperations readOp) {
+            final long[] nodeIds = mapping.mappedIds();
+            final int nodeEnd = nodeCount + nodeOffset;
+            for (int i = nodeOffset; i < nodeEnd; i++) {
+                try (Cursor<NodeItem> cursor = readOp.nodeCursor(nodeIds[i])) {
+                    if (cursor.next()) {
+                        visit(i, cursor.get());
+                    }
+                }
+            }
+        }
+
+        abstract void visit(int graphId, NodeItem node);
+    }
+
+    /**
+     * first pass: store the degree (or encoded length) of each node at its offset slot
+     */
+    private final class DegreeTask extends NodeRangeTask {
+
+        @Override
+        void visit(int graphId, NodeItem node) {
+            if (setup.undirected) {
+                outOffsets.set(graphId, size(graphId, node, Direction.BOTH, outRelationOffsets));
+                return;
+            }
+            if (outOffsets != null) {
+                outOffsets.set(graphId, size(graphId, node, Direction.OUTGOING, outRelationOffsets));
+            }
+            if (inOffsets != null) {
+                inOffsets.set(graphId, size(graphId, node, Direction.INCOMING, inRelationOffsets));
+            }
+            if (oppositeDegrees != null) {
+                oppositeDegrees.set(graphId, degree(node, oppositeDirection()));
+            }
+        }
+
+        private long size(int graphId, NodeItem node, Direction direction, LongArray relationOffsets) {
+            if (setup.undirected && !setup.compressAdjacency) {
+                // duplicates are only known after reading the relationships
+                readSorted(node, direction, buffer);
+                return buffer.length;
+            }
+            if (setup.compressAdjacency) {
+                readSorted(node, direction, buffer);
+                if (relationOffsets != null) {
+                    relationOffsets.set(graphId, buffer.length);
+                }
+                return buffer.length > 0
+                        ? ByteArray.encodedLength(buffer.targets, buffer.length)
+                        : 0L;
+            }
+            return degree(node, direction);
+        }
+    }
+
+    /**
+     * second pass: write degree and targets into the presized adjacency
+     */
+    private final class ImportTask extends NodeRangeTask {
+        private final long[] outBytes;
+        private final long[] inBytes;
+        private final int[] outRelations;
+        private final int[] inRelations;
+
+        ImportTask(long[] outBytes, long[] inBytes, int[] outRelations, int[] inRelations) {
+            this.outBytes = outBytes;
+            this.inBytes = inBytes;
+            this.outRelations = outRelations;
+            this.inRelations = inRelations;
+        }
+
+        @Override
+        void visit(int graphId, NodeItem node) {
+            if (setup.undirected) {
+                if (compressedAdjacency != null) {
+                    readCompressed(graphId, node, Direction.BOTH, outOffsets, outRelationOffsets, outBytes, outRelations);
+                } else {
+                    readMerged(graphId, node, outOffsets.get(graphId));
+                }
+                return;
+            }
+            if (outOffsets != null) {
+                if (compressedAdjacency != null) {
+                    readCompressed(graphId, node, Direction.OUTGOING, outOffsets, outRelationOffsets, outBytes, outRelations);
+                } else {
+                    readRelationships(node, Direction.OUTGOING, outOffsets.get(graphId));
+                }
+            }
+            if (inOffsets != null) {
+                if (compressedAdjacency != null) {
+                    readCompressed(graphId, node, Direction.INCOMING, inOffsets, inRelationOffsets, inBytes, inRelations);
+                } else {
+                    readRelationships(node, Direction.INCOMING, inOffsets.get(graphId));
+                }
+            }
+        }
+
+        private void readRelationships(NodeItem node, Direction direction, long offset) {
+            if (offset == 0L) {
+                return;
+            }
+            final int capacity = adjacency.get(offset);
+            int relDegree = 0;
+            long idx = offset + 1L;
+            try (Cursor<RelationshipItem> rels = relationships(node, direction)) {
+                // relationships added after the first pass are ignored
+                while (relDegree < capacity && rels.next()) {
+                    RelationshipItem rel = rels.get();
+                    int targetGraphId = mapping.get(rel.otherNode(node.id()));
+                    if (targetGraphId == -1 || !matches(rel)) {
+                        continue;
+                    }
+                    relDegree++;
+                    if (relationIds != null) {
+                        relationIds.set(idx, rel.id());
+                    }
+                    if (weights != null) {
+                        try (Cursor<PropertyItem> weight = rel.property(weightId)) {
+                            if (weight.next()) {
+                                weights.set(idx, weight.get().value());
+                            }
+                        }
+                    }
+                    adjacency.set(idx++, targetGraphId);
+                }
+            }
+            adjacency.set(offset, relDegree);
+        }
+
+        private void readMerged(int graphId, NodeItem node, long offset) {
+            if (offset == 0L) {
+                return;
+            }
+            readSorted(node, Direction.BOTH, buffer);
+            // relationships added after the first pass are ignored
+            buffer.length = Math.min(buffer.length, adjacency.get(offset));
+            writeList(outOffsets, graphId, buffer, offset);
+        }
+
+        private void readCompressed(
+                int graphId,
+                NodeItem node,
+                Direction direction,
+                LongArray offsets,
+                LongArray relationOffsets,
+                long[] bytes,
+                int[] relations) {
+            final long offset = offsets.get(graphId);
+            if (offset == 0L) {
+                return;
+            }
+            readSorted(node, direction, buffer);
+            int length = buffer.length;
+            // relationships added after the first pass must not overflow into the next list
+            if (relations != null) {
+                length = Math.min(length, relations[graphId]);
+            }
+            while (length > 0 && ByteArray.encodedLength(buffer.targets, length) > bytes[graphId]) {
+                length--;
+            }
+            buffer.length = length;
+            compressedAdjacency.writeDeltas(offset, buffer.targets, length);
+            if (relationOffsets != null) {
+                buffer.store(relationOffsets.get(graphId), relationIds, weights);
+            }
+        }
+    }
+
+    /**
+     * Collects the relationships of a single node to sort them by target id
+     * before they are encoded.
+     */
+    private static final class RelationshipBuffer {
+        private int[] targets = new int[0];
+        private long[] relationIds = new long[0];
+        private Object[] weights = new Object[0];
+        private long[] order = new long[0];
+        private long[] relationIdsScratch = new long[0];
+        private Object[] weightsScratch = new Object[0];
+        private int length;
+
+        void reset() {
+            length = 0;
+        }
+
+        void add(int target, long relationId, Object weight) {
+            if (length == targets.length) {
+                targets = ArrayUtil.grow(targets, length + 1);
+                relationIds = ArrayUtil.grow(relationIds, length + 1);
+                weights = Arrays.copyOf(weights, targets.length);
+            }
+            targets[length] = target;
+            relationIds[length] = relationId;
+            weights[length++] = weight;
+        }
+
+        /**
+         * sorts targets ascending and moves relationship ids and weights along
+         */
+        void sort() {
+            final int length = this.length;
+            if (order.length < length) {
+                order = new long[targets.length];
+                relationIdsScratch = new long[targets.length];
+                weightsScratch = new Object[targets.length];
+            }
+            for (int i = 0; i < length; i++) {
+                order[i] = ((long) targets[i] << 32) | i;
+            }
+            Arrays.sort(order, 0, length);
+            System.arraycopy(relationIds, 0, relationIdsScratch, 0, length);
+            System.arraycopy(weights, 0, weightsScratch, 0, length);
+            for (int i = 0; i < length; i++) {
+                final int source = (int) order[i];
+                targets[i] = (int) (order[i] >>> 32);
+                relationIds[i] = relationIdsScratch[source];
+                weights[i] = weightsScratch[source];
+            }
+        }
+
+        /**
+         * drops all but the first entry of each target, requires sorted targets
+         */
+        void distinct() {
+            int length = 0;
+            for (int i = 0; i < this.length; i++) {
+                if (length > 0 && targets[length - 1] == targets[i]) {
+                    continue;
+                }
+                targets[length] = targets[i];
+                relationIds[length] = relationIds[i];
+                weights[length++] = weights[i];
+            }
+            this.length = length;
+        }
+
+        /**
+         * stores relationship ids and weights at consecutive indices starting at {@code idx}
+         */
+        void store(long idx, LongArray relationIdArray, WeightArray weightArray) {
+            for (int i = 0; i < length; i++, idx++) {
+                if (relationIdArray != null) {
+                    relationIdArray.set(idx, relationIds[i]);
+                }
+                if (weightArray != null && weights[i] != null) {
+                    weightArray.set(idx, weights[i]);
+                }
+            }
+        }
+    }
 }
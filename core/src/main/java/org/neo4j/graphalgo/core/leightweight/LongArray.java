@@ -0,0 +1,169 @@
+package org.neo4j.graphalgo.core.leightweight;
+
+import org.apache.lucene.util.ArrayUtil;
+import org.neo4j.graphalgo.core.utils.MemoryEstimation;
+import org.neo4j.graphalgo.core.utils.OffHeapPages;
+
+import java.nio.ByteBuffer;
+import java.nio.LongBuffer;
+
+/**
+ * Abstraction of an array of long values that can contain more than 2B elements.
+ * The pages are either heap allocated long arrays or, when created with
+ * {@link OffHeapPages}, buffers outside of the java heap.
+ */
+public final class LongArray {
+
+    private long size;
+    private long[][] pages;
+    private LongBuffer[] buffers;
+    private final OffHeapPages offHeap;
+
+    /**
+     * Page size in bytes: 16KB
+     */
+    static final int PAGE_SIZE_IN_BYTES = 1 << 14;
+    private static final int PAGE_SIZE = PAGE_SIZE_IN_BYTES / Long.BYTES;
+    private static final int PAGE_SHIFT = Integer.numberOfTrailingZeros(PAGE_SIZE);
+    private static final int PAGE_MASK = PAGE_SIZE - 1;
+
+    /**
+     * Allocate a new {@link LongArray}.
+     * @param size the initial length of the array
+     */
+    public static LongArray newArray(long size) {
+        return new LongArray(size, null);
+    }
+
+    /**
+     * Allocate a new {@link LongArray} whose pages live off-heap.
+     * @param size the initial length of the array
+     * @param offHeap the allocator for the pages, null allocates on the heap
+     */
+    public static LongArray newArray(long size, OffHeapPages offHeap) {
+        return new LongArray(size, offHeap);
+    }
+
+    private LongArray(long size, OffHeapPages offHeap) {
+        this.size = size;
+        this.offHeap = offHeap;
+        final int numPages = numPages(size);
+        if (offHeap != null) {
+            buffers = newLongBuffers(numPages, offHeap);
+        } else {
+            pages = new long[numPages][];
+            for (int i = 0; i < numPages; ++i) {
+                pages[i] = newLongPage();
+            }
+        }
+    }
+
+    /**
+     * Wrap pages of {@link #PAGE_SIZE_IN_BYTES} bytes, e.g. the regions of a
+     * memory mapped file, without copying them. The array can not grow.
+     * @param size the length of the array
+     */
+    static LongArray wrap(long size, ByteBuffer[] pages) {
+        final LongBuffer[] buffers = new LongBuffer[pages.length];
+        for (int i = 0; i < pages.length; i++) {
+            buffers[i] = pages[i].asLongBuffer();
+        }
+        return new LongArray(buffers, size);
+    }
+
+    private LongArray(LongBuffer[] buffers, long size) {
+        this.size = size;
+        this.offHeap = null;
+        this.buffers = buffers;
+    }
+
+    /**
+     * Estimate the bytes of a {@link LongArray} of the given length.
+     */
+    public static long estimateBytes(long size) {
+        return MemoryEstimation.sizeOfPagedArray(size, Long.BYTES, PAGE_SIZE);
+    }
+
+    /**
+     * Return the length of this array.
+     */
+    public long size() {
+        return size;
+    }
+
+    /**
+     * Get an element given its index.
+     */
+    public long get(long index) {
+        final int pageIndex = pageIndex(index);
+        final int indexInPage = indexInPage(index);
+        if (buffers != null) {
+            return buffers[pageIndex].get(indexInPage);
+        }
+        return pages[pageIndex][indexInPage];
+    }
+
+    /**
+     * Set a value at the given index.
+     */
+    public void set(long index, long value) {
+        final int pageIndex = pageIndex(index);
+        final int indexInPage = indexInPage(index);
+        if (buffers != null) {
+            buffers[pageIndex].put(indexInPage, value);
+        } else {
+            pages[pageIndex][indexInPage] = value;
+        }
+    }
+
+    /**
+     * Grows the LongArray to the new size. The existing content will be preserved.
+     * If the current size is large enough, this is no-op and no downsizing is happening.
+     */
+    public void grow(final long newSize) {
+        if (size < newSize) {
+            final int numPages = numPages(newSize);
+            if (buffers != null) {
+                final int oldPages = buffers.length;
+                if (oldPages < numPages) {
+                    final LongBuffer[] newPages = newLongBuffers(numPages - oldPages, offHeap);
+                    buffers = ArrayUtil.grow(buffers, numPages);
+                    System.arraycopy(newPages, 0, buffers, oldPages, newPages.length);
+                }
+            } else {
+                pages = ArrayUtil.grow(pages, numPages);
+                for (int i = numPages - 1; i >= 0 && pages[i] == null; --i) {
+                    pages[i] = newLongPage();
+                }
+            }
+            this.size = newSize;
+        }
+    }
+
+    private static int numPages(long capacity) {
+        final long numPages = (capacity + PAGE_MASK) >>> PAGE_SHIFT;
+        assert numPages <= Integer.MAX_VALUE : "pageSize=" + (PAGE_MASK + 1) + " is too small for such as capacity: " + capacity;
+        return (int) numPages;
+    }
+
+    private static int pageIndex(long index) {
+        return (int) (index >>> PAGE_SHIFT);
+    }
+
+    private static int indexInPage(long index) {
+        return (int) (index & PAGE_MASK);
+    }
+
+    private static long[] newLongPage() {
+        return new long[PAGE_SIZE];
+    }
+
+    private static LongBuffer[] newLongBuffers(int numPages, OffHeapPages offHeap) {
+        final ByteBuffer[] bytes = offHeap.allocate(numPages, PAGE_SIZE_IN_BYTES);
+        final LongBuffer[] pages = new LongBuffer[numPages];
+        for (int i = 0; i < numPages; i++) {
+            pages[i] = bytes[i].asLongBuffer();
+        }
+        return pages;
+    }
+}
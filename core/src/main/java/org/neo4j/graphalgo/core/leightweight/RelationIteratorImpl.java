@@ -2,7 +2,6 @@ package org.neo4j.graphalgo.core.leightweight;
 
 
 
-import com.carrotsearch.hppc.LongLongMap;
 import org.neo4j.graphalgo.api.RelationshipCursor;
 
 import java.util.Iterator;
@@ -15,7 +14,7 @@ class RelationIteratorImpl implements Iterator<RelationshipCursor> {
     private final RelationshipCursor cursor = new RelationshipCursor();
     private final IntArray.Cursor adjCursor;
 
-    private final LongLongMap relationIdMapping;
+    private final LongArray relationIds;
     private long relationId;
 
     private int[] array;
@@ -26,20 +25,20 @@ class RelationIteratorImpl implements Iterator<RelationshipCursor> {
             int sourceNodeId,
             long offset,
             long length,
-            LongLongMap relationIdMapping,
+            LongArray relationIds,
             IntArray adjacency) {
-        this(sourceNodeId, offset, length, relationIdMapping, adjacency, adjacency.newCursor());
+        this(sourceNodeId, offset, length, relationIds, adjacency, adjacency.newCursor());
     }
 
     RelationIteratorImpl(
             int sourceNodeId,
             long offset,
             long length,
-            LongLongMap relationIdMapping,
+            LongArray relationIds,
             IntArray adjacency,
             IntArray.Cursor adjCursor) {
         relationId = offset;
-        this.relationIdMapping = relationIdMapping;
+        this.relationIds = relationIds;
         cursor.sourceNodeId = sourceNodeId;
         this.adjCursor = adjacency.cursor(offset, length, adjCursor);
         nextPage();
@@ -52,7 +51,7 @@ class RelationIteratorImpl implements Iterator<RelationshipCursor> {
 
     @Override
     public RelationshipCursor next() {
-        cursor.relationshipId = relationIdMapping.get(relationId++);
+        cursor.relationshipId = LightGraph.relationId(relationIds, relationId++);
         cursor.targetNodeId = array[pos++];
         return cursor;
     }
@@ -0,0 +1,147 @@
+package org.neo4j.graphalgo.core.leightweight;
+
+import org.apache.lucene.util.ArrayUtil;
+import org.neo4j.graphalgo.api.WeightMapping;
+import org.neo4j.graphalgo.core.WeightMap;
+import org.neo4j.graphalgo.core.utils.MemoryEstimation;
+
+import java.util.Arrays;
+
+/**
+ * Relationship weights stored positional to the adjacency, the weight of the
+ * relationship whose target is at index {@code i} is at index {@code i}.
+ * Weights are kept either as doubles or, to halve the memory, as floats.
+ * Slots without a weight hold the default value.
+ */
+public final class WeightArray implements WeightMapping {
+
+    private long size;
+    private double[][] doublePages;
+    private float[][] floatPages;
+    private final double defaultValue;
+
+    /**
+     * Page size in elements
+     */
+    private static final int PAGE_SIZE = 1 << 11;
+    private static final int PAGE_SHIFT = Integer.numberOfTrailingZeros(PAGE_SIZE);
+    private static final int PAGE_MASK = PAGE_SIZE - 1;
+
+    /**
+     * Allocate a new {@link WeightArray}.
+     * @param size the initial length of the array
+     * @param defaultValue the weight of slots that are never set
+     * @param floats store weights with single precision
+     */
+    public static WeightArray newArray(long size, double defaultValue, boolean floats) {
+        return new WeightArray(size, defaultValue, floats);
+    }
+
+    private WeightArray(long size, double defaultValue, boolean floats) {
+        this.size = size;
+        this.defaultValue = defaultValue;
+        final int numPages = numPages(size);
+        if (floats) {
+            floatPages = new float[numPages][];
+            for (int i = 0; i < numPages; ++i) {
+                floatPages[i] = newFloatPage();
+            }
+        } else {
+            doublePages = new double[numPages][];
+            for (int i = 0; i < numPages; ++i) {
+                doublePages[i] = newDoublePage();
+            }
+        }
+    }
+
+    /**
+     * Estimate the bytes of a {@link WeightArray} of the given length.
+     */
+    public static long estimateBytes(long size, boolean floats) {
+        return MemoryEstimation.sizeOfPagedArray(size, floats ? Float.BYTES : Double.BYTES, PAGE_SIZE);
+    }
+
+    /**
+     * Return the length of this array.
+     */
+    public long size() {
+        return size;
+    }
+
+    @Override
+    public double get(long id) {
+        if (doublePages != null) {
+            return doublePages[pageIndex(id)][indexInPage(id)];
+        }
+        return floatPages[pageIndex(id)][indexInPage(id)];
+    }
+
+    @Override
+    public double get(long id, double defaultValue) {
+        return get(id);
+    }
+
+    @Override
+    public void set(long id, Object weight) {
+        set(id, WeightMap.extractValue(weight, defaultValue));
+    }
+
+    /**
+     * Set a value at the given index.
+     */
+    public void set(long index, double value) {
+        if (doublePages != null) {
+            doublePages[pageIndex(index)][indexInPage(index)] = value;
+        } else {
+            floatPages[pageIndex(index)][indexInPage(index)] = (float) value;
+        }
+    }
+
+    /**
+     * Grows the WeightArray to the new size. The existing content will be preserved.
+     * If the current size is large enough, this is no-op and no downsizing is happening.
+     */
+    public void grow(final long newSize) {
+        if (size < newSize) {
+            final int numPages = numPages(newSize);
+            if (doublePages != null) {
+                doublePages = ArrayUtil.grow(doublePages, numPages);
+                for (int i = numPages - 1; i >= 0 && doublePages[i] == null; --i) {
+                    doublePages[i] = newDoublePage();
+                }
+            } else {
+                floatPages = ArrayUtil.grow(floatPages, numPages);
+                for (int i = numPages - 1; i >= 0 && floatPages[i] == null; --i) {
+                    floatPages[i] = newFloatPage();
+                }
+            }
+            this.size = newSize;
+        }
+    }
+
+    private static int numPages(long capacity) {
+        final long numPages = (capacity + PAGE_MASK) >>> PAGE_SHIFT;
+        assert numPages <= Integer.MAX_VALUE : "pageSize=" + (PAGE_MASK + 1) + " is too small for such as capacity: " + capacity;
+        return (int) numPages;
+    }
+
+    private static int pageIndex(long index) {
+        return (int) (index >>> PAGE_SHIFT);
+    }
+
+    private static int indexInPage(long index) {
+        return (int) (index & PAGE_MASK);
+    }
+
+    private double[] newDoublePage() {
+        final double[] page = new double[PAGE_SIZE];
+        Arrays.fill(page, defaultValue);
+        return page;
+    }
+
+    private float[] newFloatPage() {
+        final float[] page = new float[PAGE_SIZE];
+        Arrays.fill(page, (float) defaultValue);
+        return page;
+    }
+}
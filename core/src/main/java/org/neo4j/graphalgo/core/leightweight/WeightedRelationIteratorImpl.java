@@ -1,7 +1,6 @@
 package org.neo4j.graphalgo.core.leightweight;
 
 
-import com.carrotsearch.hppc.LongLongMap;
 import org.neo4j.graphalgo.api.WeightMapping;
 import org.neo4j.graphalgo.api.WeightedRelationshipCursor;
 
@@ -16,7 +15,7 @@ class WeightedRelationIteratorImpl implements Iterator<WeightedRelationshipCurso
     private final IntArray.Cursor adjCursor;
     private final WeightMapping weightMapping;
 
-    private final LongLongMap relationIdMapping;
+    private final LongArray relationIds;
     private long relationId;
 
     private int[] array;
@@ -28,13 +27,13 @@ class WeightedRelationIteratorImpl implements Iterator<WeightedRelationshipCurso
             long offset,
             long length,
             WeightMapping weightMapping,
-            LongLongMap relationIdMapping,
+            LongArray relationIds,
             IntArray adjacency) {
         this(sourceNodeId,
                 offset,
                 length,
                 weightMapping,
-                relationIdMapping,
+                relationIds,
                 adjacency,
                 adjacency.newCursor());
     }
@@ -44,12 +43,12 @@ class WeightedRelationIteratorImpl implements Iterator<WeightedRelationshipCurso
             long offset,
             long length,
             WeightMapping weightMapping,
-            LongLongMap relationIdMapping,
+            LongArray relationIds,
             IntArray adjacency,
             IntArray.Cursor adjCursor) {
         this.weightMapping = weightMapping;
         relationId = offset;
-        this.relationIdMapping = relationIdMapping;
+        this.relationIds = relationIds;
         cursor.sourceNodeId = sourceNodeId;
         this.adjCursor = adjacency.cursor(offset, length, adjCursor);
         nextPage();
@@ -63,7 +62,7 @@ class WeightedRelationIteratorImpl implements Iterator<WeightedRelationshipCurso
     @Override
     public WeightedRelationshipCursor next() {
         cursor.weight = weightMapping.get(relationId);
-        cursor.relationshipId = relationIdMapping.get(relationId++);
+        cursor.relationshipId = LightGraph.relationId(relationIds, relationId++);
         cursor.targetNodeId = array[pos++];
         return cursor;
     }
@@ -6,40 +6,79 @@ import org.neo4j.cursor.Cursor;
 import org.neo4j.graphalgo.api.*;
 import org.neo4j.graphdb.Direction;
 import org.neo4j.graphdb.Transaction;
+import org.neo4j.kernel.api.KernelAPI;
+import org.neo4j.kernel.api.KernelTransaction;
 import org.neo4j.kernel.api.ReadOperations;
 import org.neo4j.kernel.api.Statement;
 import org.neo4j.kernel.api.StatementConstants;
 import org.neo4j.kernel.api.exceptions.EntityNotFoundException;
-import org.neo4j.kernel.impl.api.store.RelationshipIterator;
+import org.neo4j.kernel.api.exceptions.TransactionFailureException;
+import org.neo4j.kernel.api.security.SecurityContext;
 import org.neo4j.kernel.impl.core.ThreadToStatementContextBridge;
 import org.neo4j.kernel.internal.GraphDatabaseAPI;
 import org.neo4j.storageengine.api.NodeItem;
+import org.neo4j.storageengine.api.PropertyItem;
 import org.neo4j.storageengine.api.RelationshipItem;
 
 import java.util.Iterator;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
 import java.util.function.*;
 
 /**
  * A Graph implemented as View on Neo4j Kernel API
+ * <p>
+ * By default every call opens its own transaction. A view created with
+ * {@code bindStatements} instead binds one statement to each thread that
+ * reads from it and keeps it open until the view is {@link #close() closed}.
+ * The store hands the node, relationship and property cursors closed after
+ * each call back to the next call of the same statement, so traversing the
+ * graph from a fixed set of worker threads allocates no transactions and no
+ * cursors after the first call of each thread.
  *
  * @author mknobloch
  */
-public class GraphView implements Graph {
+public class GraphView implements Graph, AutoCloseable {
 
     private final ThreadToStatementContextBridge contextBridge;
     private final GraphDatabaseAPI db;
 
     private final double propertyDefaultWeight;
+    // the statements bound to the reading threads, null if not bound
+    private final ThreadLocal<BoundStatement> boundStatements;
+    private final Queue<BoundStatement> openStatements = new ConcurrentLinkedQueue<>();
+    private final KernelAPI kernel;
+    private final SecurityContext securityContext;
+    private volatile boolean closed;
     private int relationTypeId;
     private int nodeCount;
     private int propertyKey;
     private int labelId;
 
     public GraphView(GraphDatabaseAPI db, String label, String relation, String propertyName, double propertyDefaultWeight) {
+        this(db, label, relation, propertyName, propertyDefaultWeight, false);
+    }
+
+    /**
+     * @param bindStatements whether to keep one statement per reading thread
+     *                       open until the view is closed
+     */
+    public GraphView(GraphDatabaseAPI db, String label, String relation, String propertyName, double propertyDefaultWeight, boolean bindStatements) {
         this.db = db;
         contextBridge = db.getDependencyResolver()
                 .resolveDependency(ThreadToStatementContextBridge.class);
         this.propertyDefaultWeight = propertyDefaultWeight;
+        if (bindStatements) {
+            kernel = db.getDependencyResolver().resolveDependency(KernelAPI.class);
+            // the bound statements read with the permissions of the caller
+            final KernelTransaction outer = contextBridge.getKernelTransactionBoundToThisThread(false);
+            securityContext = outer != null ? outer.securityContext() : SecurityContext.AUTH_DISABLED;
+            boundStatements = ThreadLocal.withInitial(this::bind);
+        } else {
+            kernel = null;
+            securityContext = null;
+            boundStatements = null;
+        }
 
         withinTransaction(read -> {
             labelId = read.labelGetForName(label);
@@ -68,31 +107,29 @@ public class GraphView implements Graph {
     @Override
     public void forEachRelationship(int nodeId, Direction direction, WeightedRelationshipConsumer consumer) {
         final long originalNodeId = toOriginalNodeId(nodeId);
-        withinTransactionTyped(read -> {
-            try {
-                final RelationshipIterator iterator = read.nodeGetRelationships(originalNodeId, direction, relationTypeId);
-                while (iterator.hasNext()) {
-                    final long relationId = iterator.next();
-                    final Cursor<RelationshipItem> relationshipItemCursor = read.relationshipCursor(relationId);
-                    relationshipItemCursor.next();
-                    final RelationshipItem item = relationshipItemCursor.get();
-                    consumer.accept(
-                            nodeId,
-                            toMappedNodeId(item.otherNode(originalNodeId)),
-                            relationId,
-                            ((Number) read.relationshipGetProperty(relationId, propertyKey)).doubleValue()
-                    );
-                }
-            } catch (EntityNotFoundException e) {
-                throw new RuntimeException(e);
+        withinTransaction(read -> {
+            try (Cursor<NodeItem> nodeItemCursor = read.nodeCursor(originalNodeId)) {
+                nodeItemCursor.forAll(nodeItem -> {
+                    try (Cursor<RelationshipItem> relationships = nodeItem.relationships(mediate(direction), relationTypeId)) {
+                        relationships.forAll(item -> {
+                            consumer.accept(
+                                    nodeId,
+                                    toMappedNodeId(item.otherNode(originalNodeId)),
+                                    item.id(),
+                                    weightOf(item));
+                        });
+                    }
+                });
             }
-            return null;
         });
     }
 
     @Override
     public Iterator<WeightedRelationshipCursor> weightedRelationshipIterator(int nodeId, Direction direction) {
         try {
+            if (boundStatements != null) {
+                return new WeightedRelationIteratorImpl(this, boundRead(), nodeId, direction, relationTypeId, propertyKey, propertyDefaultWeight);
+            }
             return new WeightedRelationIteratorImpl(this, db, nodeId, direction, relationTypeId, propertyKey, propertyDefaultWeight);
         } catch (EntityNotFoundException e) {
             throw new RuntimeException(e);
@@ -147,6 +184,9 @@ public class GraphView implements Graph {
     @Override
     public Iterator<RelationshipCursor> relationshipIterator(int nodeId, Direction direction) {
         try {
+            if (boundStatements != null) {
+                return new RelationIteratorImpl(this, boundRead(), nodeId, direction, relationTypeId);
+            }
             return new RelationIteratorImpl(this, db, nodeId, direction, relationTypeId);
         } catch (EntityNotFoundException e) {
             throw new RuntimeException(e);
@@ -163,7 +203,53 @@ public class GraphView implements Graph {
         return nodeId;
     }
 
+    /**
+     * Close the statements bound to the reading threads. Views that do not
+     * bind statements hold no resources.
+     */
+    @Override
+    public void close() {
+        closed = true;
+        BoundStatement bound;
+        while ((bound = openStatements.poll()) != null) {
+            bound.close();
+        }
+    }
+
+    private double weightOf(RelationshipItem item) {
+        if (propertyKey == StatementConstants.NO_SUCH_PROPERTY_KEY) {
+            return propertyDefaultWeight;
+        }
+        try (Cursor<PropertyItem> properties = item.property(propertyKey)) {
+            if (properties.next()) {
+                return ((Number) properties.get().value()).doubleValue();
+            }
+        }
+        return propertyDefaultWeight;
+    }
+
+    private ReadOperations boundRead() {
+        if (closed) {
+            throw new IllegalStateException("The view has been closed");
+        }
+        return boundStatements.get().read;
+    }
+
+    private BoundStatement bind() {
+        final BoundStatement bound;
+        try {
+            bound = new BoundStatement(kernel.newTransaction(KernelTransaction.Type.implicit, securityContext));
+        } catch (TransactionFailureException e) {
+            throw new RuntimeException(e);
+        }
+        openStatements.add(bound);
+        return bound;
+    }
+
     private int withinTransactionInt(ToIntFunction<ReadOperations> block) {
+        if (boundStatements != null) {
+            return block.applyAsInt(boundRead());
+        }
         try (final Transaction tx = db.beginTx();
              Statement statement = contextBridge.get()) {
             final int result = block.applyAsInt(statement.readOperations());
@@ -173,6 +259,9 @@ public class GraphView implements Graph {
     }
 
     private <T> T withinTransactionTyped(Function<ReadOperations, T> block) {
+        if (boundStatements != null) {
+            return block.apply(boundRead());
+        }
         try (final Transaction tx = db.beginTx();
              Statement statement = contextBridge.get()) {
             final T result = block.apply(statement.readOperations());
@@ -182,6 +271,10 @@ public class GraphView implements Graph {
     }
 
     private void withinTransaction(Consumer<ReadOperations> block) {
+        if (boundStatements != null) {
+            block.accept(boundRead());
+            return;
+        }
         try (final Transaction tx = db.beginTx();
              Statement statement = contextBridge.get()) {
             block.accept(statement.readOperations());
@@ -223,4 +316,30 @@ public class GraphView implements Graph {
             return graph.toMappedNodeId(iterator.next());
         }
     }
+
+    /**
+     * A read transaction with its statement, used by a single thread only.
+     */
+    private static final class BoundStatement {
+
+        private final KernelTransaction transaction;
+        private final Statement statement;
+        private final ReadOperations read;
+
+        private BoundStatement(KernelTransaction transaction) {
+            this.transaction = transaction;
+            this.statement = transaction.acquireStatement();
+            this.read = statement.readOperations();
+        }
+
+        private void close() {
+            statement.close();
+            try {
+                transaction.success();
+                transaction.close();
+            } catch (TransactionFailureException e) {
+                throw new RuntimeException(e);
+            }
+        }
+    }
 }
@@ -3,6 +3,7 @@ package org.neo4j.graphalgo.core.neo4jview;
 import org.neo4j.graphalgo.api.Graph;
 import org.neo4j.graphalgo.api.GraphFactory;
 import org.neo4j.graphalgo.api.GraphSetup;
+import org.neo4j.graphalgo.core.utils.MemoryEstimation;
 import org.neo4j.kernel.internal.GraphDatabaseAPI;
 
 public final class GraphViewFactory extends GraphFactory {
@@ -11,6 +12,9 @@ public final class GraphViewFactory extends GraphFactory {
             final GraphDatabaseAPI api,
             final GraphSetup setup) {
         super(api, setup);
+        if (setup.filterNodes() || setup.filterRelationships()) {
+            throw new IllegalArgumentException("Property predicates are not supported by the GraphViewFactory");
+        }
     }
 
     @Override
@@ -20,6 +24,15 @@ public final class GraphViewFactory extends GraphFactory {
                 setup.startLabel,
                 setup.relationshipType,
                 setup.relationWeightPropertyName,
-                setup.relationDefaultWeight);
+                setup.relationDefaultWeight,
+                setup.bindStatements);
+    }
+
+    /**
+     * The view reads everything from the store and holds no data of its own.
+     */
+    @Override
+    public MemoryEstimation memoryEstimation() {
+        return MemoryEstimation.builder().build();
     }
 }
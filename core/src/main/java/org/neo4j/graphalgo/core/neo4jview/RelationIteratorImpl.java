@@ -27,12 +27,27 @@ class RelationIteratorImpl implements Iterator<RelationshipCursor>, Closeable {
     private final long originalNodeId;
 
     RelationIteratorImpl(Graph graph, GraphDatabaseAPI api, int sourceNodeId, Direction direction, int relationTypeId) throws EntityNotFoundException {
-        this.graph = graph;
-        transaction = api.beginTx();
-        statement = api.getDependencyResolver()
+        this(graph, api.beginTx(), api.getDependencyResolver()
                 .resolveDependency(ThreadToStatementContextBridge.class)
-                .get();
-        read = statement.readOperations();
+                .get(), sourceNodeId, direction, relationTypeId);
+    }
+
+    /**
+     * iterate within a statement that is kept open by the caller
+     */
+    RelationIteratorImpl(Graph graph, ReadOperations read, int sourceNodeId, Direction direction, int relationTypeId) throws EntityNotFoundException {
+        this(graph, null, null, read, sourceNodeId, direction, relationTypeId);
+    }
+
+    private RelationIteratorImpl(Graph graph, Transaction transaction, Statement statement, int sourceNodeId, Direction direction, int relationTypeId) throws EntityNotFoundException {
+        this(graph, transaction, statement, statement.readOperations(), sourceNodeId, direction, relationTypeId);
+    }
+
+    private RelationIteratorImpl(Graph graph, Transaction transaction, Statement statement, ReadOperations read, int sourceNodeId, Direction direction, int relationTypeId) throws EntityNotFoundException {
+        this.graph = graph;
+        this.transaction = transaction;
+        this.statement = statement;
+        this.read = read;
         originalNodeId = graph.toOriginalNodeId(sourceNodeId);
         if (relationTypeId == ReadOperations.ANY_RELATIONSHIP_TYPE) {
             iterator = read.nodeGetRelationships(originalNodeId, direction);
@@ -55,16 +70,20 @@ class RelationIteratorImpl implements Iterator<RelationshipCursor>, Closeable {
     @Override
     public RelationshipCursor next() {
         final long relationId = iterator.next();
-        final Cursor<RelationshipItem> relCursor = read.relationshipCursor(relationId);
-        relCursor.next();
-        final RelationshipItem item = relCursor.get();
-        cursor.relationshipId = relationId;
-        cursor.targetNodeId = graph.toMappedNodeId(item.otherNode(originalNodeId));
+        try (Cursor<RelationshipItem> relCursor = read.relationshipCursor(relationId)) {
+            relCursor.next();
+            final RelationshipItem item = relCursor.get();
+            cursor.relationshipId = relationId;
+            cursor.targetNodeId = graph.toMappedNodeId(item.otherNode(originalNodeId));
+        }
         return cursor;
     }
 
     @Override
     public void close() {
+        if (statement == null) {
+            return;
+        }
         statement.close();
         transaction.success();
         transaction.close();
@@ -30,14 +30,29 @@ class WeightedRelationIteratorImpl implements Iterator<WeightedRelationshipCurso
     private double defaultWeight;
 
     WeightedRelationIteratorImpl(Graph graph, GraphDatabaseAPI api, int sourceNodeId, Direction direction, int relationId, int propertyId, double propertyDefaultWeight) throws EntityNotFoundException {
+        this(graph, api.beginTx(), api.getDependencyResolver()
+                .resolveDependency(ThreadToStatementContextBridge.class)
+                .get(), sourceNodeId, direction, relationId, propertyId, propertyDefaultWeight);
+    }
+
+    /**
+     * iterate within a statement that is kept open by the caller
+     */
+    WeightedRelationIteratorImpl(Graph graph, ReadOperations read, int sourceNodeId, Direction direction, int relationId, int propertyId, double propertyDefaultWeight) throws EntityNotFoundException {
+        this(graph, null, null, read, sourceNodeId, direction, relationId, propertyId, propertyDefaultWeight);
+    }
+
+    private WeightedRelationIteratorImpl(Graph graph, Transaction tx, Statement statement, int sourceNodeId, Direction direction, int relationId, int propertyId, double propertyDefaultWeight) throws EntityNotFoundException {
+        this(graph, tx, statement, statement.readOperations(), sourceNodeId, direction, relationId, propertyId, propertyDefaultWeight);
+    }
+
+    private WeightedRelationIteratorImpl(Graph graph, Transaction tx, Statement statement, ReadOperations read, int sourceNodeId, Direction direction, int relationId, int propertyId, double propertyDefaultWeight) throws EntityNotFoundException {
         this.graph = graph;
         this.propertyKey = propertyId;
         this.defaultWeight = propertyDefaultWeight;
-        this.tx = api.beginTx();
-        this.statement = api.getDependencyResolver()
-                .resolveDependency(ThreadToStatementContextBridge.class)
-                .get();
-        this.read = statement.readOperations();
+        this.tx = tx;
+        this.statement = statement;
+        this.read = read;
         this.originalNodeId = graph.toOriginalNodeId(sourceNodeId);
         if (relationId == ReadOperations.ANY_RELATIONSHIP_TYPE) {
             relationships = read.nodeGetRelationships(originalNodeId, direction);
@@ -61,22 +76,27 @@ class WeightedRelationIteratorImpl implements Iterator<WeightedRelationshipCurso
     public WeightedRelationshipCursor next() {
 
         final long relationId = relationships.next();
-        final Cursor<RelationshipItem> relCursor = read.relationshipCursor(relationId);
-        relCursor.next();
-        final RelationshipItem item = relCursor.get();
-        cursor.relationshipId = relationId;
-        cursor.targetNodeId = graph.toMappedNodeId(item.otherNode(originalNodeId));
-        final Cursor<PropertyItem> propertyCursor = item.property(propertyKey);
-        if (propertyCursor.next()) {
-            cursor.weight = ((Number) propertyCursor.get().value()).doubleValue();
-        } else {
-            cursor.weight = defaultWeight;
+        try (Cursor<RelationshipItem> relCursor = read.relationshipCursor(relationId)) {
+            relCursor.next();
+            final RelationshipItem item = relCursor.get();
+            cursor.relationshipId = relationId;
+            cursor.targetNodeId = graph.toMappedNodeId(item.otherNode(originalNodeId));
+            try (Cursor<PropertyItem> propertyCursor = item.property(propertyKey)) {
+                if (propertyCursor.next()) {
+                    cursor.weight = ((Number) propertyCursor.get().value()).doubleValue();
+                } else {
+                    cursor.weight = defaultWeight;
+                }
+            }
         }
         return cursor;
     }
 
     @Override
     public void close() {
+        if (statement == null) {
+            return;
+        }
         statement.close();
         tx.success();
         tx.close();
@@ -0,0 +1,186 @@
+package org.neo4j.graphalgo.core.utils;
+
+import org.neo4j.graphalgo.api.RelationshipIterator;
+import org.neo4j.graphdb.Direction;
+
+import java.util.Arrays;
+import java.util.function.IntConsumer;
+import java.util.function.LongToIntFunction;
+
+/**
+ * Search and intersection of adjacency lists sorted by target. A list is a
+ * range {@code [from, to)} of indices into an array which is accessed by a
+ * {@link LongToIntFunction}, so the same code works on {@code int[]} lists
+ * and on ranges of paged arrays.
+ * <p>
+ * Lists may contain a target several times, every common target is reported once.
+ */
+public final class Intersections {
+
+    /**
+     * the longer list is searched by galloping instead of merging
+     * if it is at least this many times longer than the shorter one
+     */
+    static final int GALLOP_RATIO = 32;
+
+    private Intersections() {}
+
+    /**
+     * whether the sorted list contains the value, by binary search
+     */
+    public static boolean contains(LongToIntFunction list, long from, long to, int value) {
+        final long index = lowerBound(list, from, to, value);
+        return index < to && list.applyAsInt(index) == value;
+    }
+
+    /**
+     * whether the sorted list contains the value, by binary search
+     */
+    public static boolean contains(int[] list, int from, int to, int value) {
+        final int index = Arrays.binarySearch(list, from, to, value);
+        return index >= 0;
+    }
+
+    /**
+     * report the values both sorted lists contain in ascending order
+     */
+    public static void intersect(
+            LongToIntFunction a,
+            long aFrom,
+            long aTo,
+            LongToIntFunction b,
+            long bFrom,
+            long bTo,
+            IntConsumer consumer) {
+        final long aLength = aTo - aFrom;
+        final long bLength = bTo - bFrom;
+        if (aLength == 0L || bLength == 0L) {
+            return;
+        }
+        if (bLength / aLength >= GALLOP_RATIO) {
+            gallop(a, aFrom, aTo, b, bFrom, bTo, consumer);
+        } else if (aLength / bLength >= GALLOP_RATIO) {
+            gallop(b, bFrom, bTo, a, aFrom, aTo, consumer);
+        } else {
+            merge(a, aFrom, aTo, b, bFrom, bTo, consumer);
+        }
+    }
+
+    /**
+     * report the values both sorted lists contain in ascending order
+     */
+    public static void intersect(int[] a, int aFrom, int aTo, int[] b, int bFrom, int bTo, IntConsumer consumer) {
+        intersect(index -> a[(int) index], aFrom, aTo, index -> b[(int) index], bFrom, bTo, consumer);
+    }
+
+    /**
+     * the distinct targets of the node in ascending order, for graphs
+     * whose lists are not sorted
+     */
+    public static int[] sortedTargets(RelationshipIterator graph, int nodeId, Direction direction) {
+        final int[][] targets = {new int[16]};
+        final int[] length = {0};
+        graph.forEachRelationship(nodeId, direction, (source, target, relationId) -> {
+            if (length[0] == targets[0].length) {
+                targets[0] = Arrays.copyOf(targets[0], length[0] * 2);
+            }
+            targets[0][length[0]++] = target;
+            return true;
+        });
+        final int[] sorted = targets[0];
+        Arrays.sort(sorted, 0, length[0]);
+        int distinct = 0;
+        for (int i = 0; i < length[0]; i++) {
+            if (distinct == 0 || sorted[distinct - 1] != sorted[i]) {
+                sorted[distinct++] = sorted[i];
+            }
+        }
+        return Arrays.copyOf(sorted, distinct);
+    }
+
+    private static void merge(
+            LongToIntFunction a,
+            long aFrom,
+            long aTo,
+            LongToIntFunction b,
+            long bFrom,
+            long bTo,
+            IntConsumer consumer) {
+        long i = aFrom;
+        long j = bFrom;
+        boolean reported = false;
+        int last = 0;
+        while (i < aTo && j < bTo) {
+            final int valueA = a.applyAsInt(i);
+            final int valueB = b.applyAsInt(j);
+            if (valueA < valueB) {
+                i++;
+            } else if (valueA > valueB) {
+                j++;
+            } else {
+                if (!reported || valueA != last) {
+                    consumer.accept(valueA);
+                    last = valueA;
+                    reported = true;
+                }
+                i++;
+                j++;
+            }
+        }
+    }
+
+    /**
+     * search each value of the short list in the long list by doubling
+     * the step from the previous match and a binary search in the last step
+     */
+    private static void gallop(
+            LongToIntFunction shortList,
+            long shortFrom,
+            long shortTo,
+            LongToIntFunction longList,
+            long longFrom,
+            long longTo,
+            IntConsumer consumer) {
+        long position = longFrom;
+        boolean reported = false;
+        int last = 0;
+        for (long i = shortFrom; i < shortTo && position < longTo; i++) {
+            final int value = shortList.applyAsInt(i);
+            if (reported && value == last) {
+                continue;
+            }
+            long low = position;
+            long high = position;
+            long step = 1L;
+            while (high < longTo && longList.applyAsInt(high) < value) {
+                low = high + 1L;
+                high = position + step;
+                step <<= 1;
+            }
+            position = lowerBound(longList, low, Math.min(high + 1L, longTo), value);
+            if (position < longTo && longList.applyAsInt(position) == value) {
+                consumer.accept(value);
+                last = value;
+                reported = true;
+                position++;
+            }
+        }
+    }
+
+    /**
+     * the first index in the sorted range whose value is not less than the value
+     */
+    private static long lowerBound(LongToIntFunction list, long from, long to, int value) {
+        long low = from;
+        long high = to;
+        while (low < high) {
+            final long middle = (low + high) >>> 1;
+            if (list.applyAsInt(middle) < value) {
+                low = middle + 1L;
+            } else {
+                high = middle;
+            }
+        }
+        return low;
+    }
+}
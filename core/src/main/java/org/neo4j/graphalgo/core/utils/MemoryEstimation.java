@@ -0,0 +1,165 @@
+package org.neo4j.graphalgo.core.utils;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * The estimated memory of a graph, broken down into its parts.
+ * <p>
+ * The estimates are derived from the node and relationship counts of the
+ * store before anything is loaded. They assume a 64 bit JVM and are
+ * meant to be rather too high than too low.
+ */
+public final class MemoryEstimation {
+
+    public static final int OBJECT_HEADER_BYTES = 16;
+    public static final int ARRAY_HEADER_BYTES = 16;
+    public static final int REFERENCE_BYTES = 8;
+
+    private static final double HASH_LOAD_FACTOR = 0.75;
+
+    private final List<Component> components;
+
+    private MemoryEstimation(List<Component> components) {
+        this.components = Collections.unmodifiableList(components);
+    }
+
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    public List<Component> components() {
+        return components;
+    }
+
+    /**
+     * Return the estimated bytes on the java heap.
+     */
+    public long heapBytes() {
+        long bytes = 0L;
+        for (Component component : components) {
+            if (!component.offHeap) {
+                bytes += component.bytes;
+            }
+        }
+        return bytes;
+    }
+
+    /**
+     * Return the estimated bytes outside of the java heap.
+     */
+    public long offHeapBytes() {
+        long bytes = 0L;
+        for (Component component : components) {
+            if (component.offHeap) {
+                bytes += component.bytes;
+            }
+        }
+        return bytes;
+    }
+
+    /**
+     * Return the estimated bytes of all parts.
+     */
+    public long totalBytes() {
+        return heapBytes() + offHeapBytes();
+    }
+
+    @Override
+    public String toString() {
+        final StringBuilder sb = new StringBuilder("MemoryEstimation{");
+        for (Component component : components) {
+            if (sb.length() > "MemoryEstimation{".length()) {
+                sb.append(", ");
+            }
+            sb.append(component);
+        }
+        return sb.append('}').toString();
+    }
+
+    /**
+     * size of a primitive array of the given length
+     */
+    public static long sizeOfArray(long length, int elementBytes) {
+        return align(ARRAY_HEADER_BYTES + length * elementBytes);
+    }
+
+    /**
+     * size of an array of references of the given length, without the referenced objects
+     */
+    public static long sizeOfObjectArray(long length) {
+        return sizeOfArray(length, REFERENCE_BYTES);
+    }
+
+    /**
+     * size of a paged array of the given length, rounded up to full pages
+     */
+    public static long sizeOfPagedArray(long length, int elementBytes, int pageSize) {
+        final long numPages = (length + pageSize - 1) / pageSize;
+        return numPages * sizeOfArray(pageSize, elementBytes) + sizeOfObjectArray(numPages);
+    }
+
+    /**
+     * size of a HPPC hash map holding the given number of elements with the default load factor
+     */
+    public static long sizeOfHashMap(long elements, int keyBytes, int valueBytes) {
+        final long minSize = (long) Math.ceil(elements / HASH_LOAD_FACTOR);
+        final long bufferSize = Math.max(4L, Long.highestOneBit(Math.max(1L, minSize - 1)) << 1);
+        // hppc keeps an additional slot for the empty key
+        return OBJECT_HEADER_BYTES
+                + sizeOfArray(bufferSize + 1, keyBytes)
+                + sizeOfArray(bufferSize + 1, valueBytes);
+    }
+
+    private static long align(long bytes) {
+        return (bytes + 7L) & ~7L;
+    }
+
+    /**
+     * A named part of the estimated graph.
+     */
+    public static final class Component {
+        public final String name;
+        public final long bytes;
+        public final boolean offHeap;
+
+        private Component(String name, long bytes, boolean offHeap) {
+            this.name = name;
+            this.bytes = bytes;
+            this.offHeap = offHeap;
+        }
+
+        @Override
+        public String toString() {
+            return name + "=" + bytes + (offHeap ? " (off-heap)" : "");
+        }
+    }
+
+    public static final class Builder {
+
+        private final List<Component> components = new ArrayList<>();
+
+        private Builder() {
+        }
+
+        /**
+         * add a part that lives on the java heap
+         */
+        public Builder add(String name, long bytes) {
+            return add(name, bytes, false);
+        }
+
+        /**
+         * add a part that lives either on or outside of the java heap
+         */
+        public Builder add(String name, long bytes, boolean offHeap) {
+            components.add(new Component(name, bytes, offHeap));
+            return this;
+        }
+
+        public MemoryEstimation build() {
+            return new MemoryEstimation(new ArrayList<>(components));
+        }
+    }
+}
@@ -0,0 +1,152 @@
+package org.neo4j.graphalgo.core.utils;
+
+import com.carrotsearch.hppc.sorting.IndirectSort;
+import org.neo4j.graphalgo.api.Graph;
+import org.neo4j.graphalgo.api.RelationshipConsumer;
+import org.neo4j.graphdb.Direction;
+
+import java.util.Arrays;
+import java.util.BitSet;
+
+/**
+ * Orders of the graph ids which place nodes that are close in the graph
+ * close to each other, so that iterative algorithms access their per node
+ * arrays and the adjacency with better locality than in store order.
+ * <p>
+ * Every order treats the relationships as undirected and is computed from
+ * the graph in its store order. Ties keep the store order.
+ */
+public enum NodeOrder {
+
+    /**
+     * descending degree, the few high degree nodes which are
+     * accessed by most relationships share the first pages
+     */
+    DEGREE {
+        @Override
+        int[] order(Graph graph) {
+            final int[] degrees = degrees(graph);
+            return IndirectSort.mergesort(0, degrees.length, (a, b) -> Integer.compare(degrees[b], degrees[a]));
+        }
+    },
+
+    /**
+     * breadth first search in the order of Cuthill-McKee, which starts each
+     * component at a node of minimal degree and visits the unvisited
+     * neighbours of a node by ascending degree
+     */
+    BFS {
+        @Override
+        int[] order(Graph graph) {
+            final int nodeCount = graph.nodeCount();
+            final int[] degrees = degrees(graph);
+            final int[] starts = IndirectSort.mergesort(0, nodeCount, (a, b) -> Integer.compare(degrees[a], degrees[b]));
+            final int[] order = new int[nodeCount];
+            final BitSet visited = new BitSet(nodeCount);
+            final long[][] neighbours = {new long[16]};
+            final int[] neighbourCount = new int[1];
+            final RelationshipConsumer collect = (source, target, relationId) -> {
+                if (!visited.get(target)) {
+                    visited.set(target);
+                    if (neighbourCount[0] == neighbours[0].length) {
+                        neighbours[0] = Arrays.copyOf(neighbours[0], neighbourCount[0] * 2);
+                    }
+                    // sorts by degree, then by node
+                    neighbours[0][neighbourCount[0]++] = ((long) degrees[target] << 32) | target;
+                }
+                return true;
+            };
+            int head = 0;
+            int tail = 0;
+            for (int start : starts) {
+                if (visited.get(start)) {
+                    continue;
+                }
+                visited.set(start);
+                order[tail++] = start;
+                while (head < tail) {
+                    neighbourCount[0] = 0;
+                    graph.forEachRelationship(order[head++], Direction.BOTH, collect);
+                    Arrays.sort(neighbours[0], 0, neighbourCount[0]);
+                    for (int i = 0; i < neighbourCount[0]; i++) {
+                        order[tail++] = (int) neighbours[0][i];
+                    }
+                }
+            }
+            return order;
+        }
+    },
+
+    /**
+     * the position of the first relationship of each node on a Hilbert curve
+     * through the adjacency matrix, nodes without relationships come last
+     */
+    HILBERT {
+        @Override
+        int[] order(Graph graph) {
+            final int nodeCount = graph.nodeCount();
+            final long side = Long.highestOneBit(Math.max(1, nodeCount - 1)) << 1;
+            final long[] keys = new long[nodeCount];
+            Arrays.fill(keys, Long.MAX_VALUE);
+            final RelationshipConsumer consumer = (source, target, relationId) -> {
+                keys[source] = Math.min(keys[source], hilbertIndex(side, source, target));
+                return true;
+            };
+            for (int node = 0; node < nodeCount; node++) {
+                graph.forEachRelationship(node, Direction.BOTH, consumer);
+            }
+            return IndirectSort.mergesort(0, nodeCount, (a, b) -> Long.compare(keys[a], keys[b]));
+        }
+    };
+
+    /**
+     * the graph ids of the nodes in this order
+     *
+     * @return the new graph id of each node, indexed by its current graph id
+     */
+    public int[] newNodeIds(Graph graph) {
+        final int[] order = order(graph);
+        final int[] newNodeIds = new int[order.length];
+        for (int i = 0; i < order.length; i++) {
+            newNodeIds[order[i]] = i;
+        }
+        return newNodeIds;
+    }
+
+    /**
+     * the current graph ids of the nodes in this order
+     */
+    abstract int[] order(Graph graph);
+
+    private static int[] degrees(Graph graph) {
+        final int[] degrees = new int[graph.nodeCount()];
+        for (int node = 0; node < degrees.length; node++) {
+            degrees[node] = graph.degree(node, Direction.BOTH);
+        }
+        return degrees;
+    }
+
+    /**
+     * the distance of the cell {@code (x, y)} from the start of a Hilbert
+     * curve through a square grid whose side is a power of two
+     */
+    static long hilbertIndex(long side, long x, long y) {
+        long index = 0L;
+        for (long s = side >>> 1; s > 0L; s >>>= 1) {
+            final long rx = (x & s) > 0L ? 1L : 0L;
+            final long ry = (y & s) > 0L ? 1L : 0L;
+            index += s * s * ((3L * rx) ^ ry);
+            // rotate the quadrant so that the curve is continuous
+            if (ry == 0L) {
+                if (rx == 1L) {
+                    x = side - 1L - x;
+                    y = side - 1L - y;
+                }
+                final long t = x;
+                x = y;
+                y = t;
+            }
+        }
+        return index;
+    }
+}
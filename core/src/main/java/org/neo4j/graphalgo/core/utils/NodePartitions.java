@@ -0,0 +1,166 @@
+package org.neo4j.graphalgo.core.utils;
+
+import org.neo4j.graphalgo.api.Degrees;
+import org.neo4j.graphdb.Direction;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.IntToLongFunction;
+import java.util.function.Supplier;
+
+/**
+ * Consecutive ranges of graph ids that cover the nodes of a graph with
+ * roughly the same work each. Splitting by relationships instead of nodes
+ * keeps a range that contains a high degree node from taking much longer
+ * than the others on graphs with a skewed degree distribution.
+ * <p>
+ * A single node is never split, a node whose cost is at least the share of a
+ * partition gets a partition of its own.
+ */
+public final class NodePartitions {
+
+    /**
+     * the number of partitions per worker, workers that finish early
+     * claim the partitions of the slower ones
+     */
+    public static final int PARTITIONS_PER_WORKER = 4;
+
+    // start of each partition followed by the node count
+    private final int[] starts;
+
+    private NodePartitions(int[] starts) {
+        this.starts = starts;
+    }
+
+    /**
+     * partitions with the same number of relationships of the direction,
+     * each node adds one to its degree so that nodes without relationships are shared as well
+     */
+    public static NodePartitions byDegree(Degrees degrees, int nodeCount, Direction direction, int partitionCount) {
+        return byCost(nodeCount, node -> degrees.degree(node, direction) + 1L, partitionCount);
+    }
+
+    /**
+     * partitions with the same sum of the cost of their nodes. Once a partition
+     * is closed the remaining cost is spread over the remaining partitions.
+     *
+     * @param cost the non negative cost of each node, evaluated twice per node
+     *             in two streaming passes so that no costs are cached
+     */
+    public static NodePartitions byCost(int nodeCount, IntToLongFunction cost, int partitionCount) {
+        if (partitionCount < 1) {
+            throw new IllegalArgumentException("Invalid partition count: " + partitionCount);
+        }
+        long total = 0L;
+        for (int node = 0; node < nodeCount; node++) {
+            total += cost.applyAsLong(node);
+        }
+        final int maxPartitions = Math.min(partitionCount, Math.max(nodeCount, 1));
+        final long share = share(total, maxPartitions);
+        final int[] starts = new int[maxPartitions + 1];
+        int partitions = 0;
+        long remaining = total;
+        long target = share;
+        // the cost of the current partition
+        long sum = 0L;
+        long previousCost = 0L;
+        for (int node = 0; node < nodeCount; node++) {
+            final long nodeCost = cost.applyAsLong(node);
+            // start a new partition once the current one has its share and around expensive nodes
+            if (partitions + 1 < maxPartitions
+                    && node > starts[partitions]
+                    && (sum >= target || nodeCost >= share || previousCost >= share)) {
+                starts[++partitions] = node;
+                remaining -= sum;
+                sum = 0L;
+                target = share(remaining, maxPartitions - partitions);
+            }
+            sum += nodeCost;
+            previousCost = nodeCost;
+        }
+        starts[++partitions] = nodeCount;
+        return new NodePartitions(Arrays.copyOf(starts, partitions + 1));
+    }
+
+    /**
+     * partitions of {@code batchSize} nodes each, for work that does not depend on the degrees
+     */
+    public static NodePartitions byNodeCount(int nodeCount, int batchSize) {
+        final int partitions = Math.max(1, ParallelUtil.threadSize(batchSize, nodeCount));
+        final int[] starts = new int[partitions + 1];
+        for (int i = 1; i < partitions; i++) {
+            starts[i] = i * batchSize;
+        }
+        starts[partitions] = nodeCount;
+        return new NodePartitions(starts);
+    }
+
+    // the cost of a single partition, at least 1 so that nodes without cost are not isolated
+    private static long share(long total, int partitionCount) {
+        return Math.max(1L, (total + partitionCount - 1) / partitionCount);
+    }
+
+    /**
+     * the number of partitions
+     */
+    public int size() {
+        return starts.length - 1;
+    }
+
+    /**
+     * the first node of the partition
+     */
+    public int start(int partition) {
+        return starts[partition];
+    }
+
+    /**
+     * the node after the last node of the partition
+     */
+    public int end(int partition) {
+        return starts[partition + 1];
+    }
+
+    /**
+     * run the partitions on {@code concurrency} workers of the pool. Each worker
+     * claims the next unprocessed partition until none are left, so a worker that
+     * got cheap partitions processes more of them. Errors are handled like
+     * {@link ParallelUtil#run(java.util.Collection, ExecutorService)} does.
+     * A null pool runs every partition on the calling thread.
+     *
+     * @param workers creates the state of a worker, called once per worker
+     */
+    public void run(ExecutorService pool, int concurrency, Supplier<? extends RangeConsumer> workers) {
+        if (pool == null || concurrency < 2 || size() < 2) {
+            final RangeConsumer worker = workers.get();
+            for (int partition = 0; partition < size(); partition++) {
+                worker.accept(start(partition), end(partition));
+            }
+            return;
+        }
+        final AtomicInteger next = new AtomicInteger();
+        final List<Runnable> tasks = new ArrayList<>();
+        for (int i = 0; i < Math.min(concurrency, size()); i++) {
+            final RangeConsumer worker = workers.get();
+            tasks.add(() -> {
+                int partition;
+                while ((partition = next.getAndIncrement()) < size()) {
+                    worker.accept(start(partition), end(partition));
+                }
+            });
+        }
+        ParallelUtil.run(tasks, pool);
+    }
+
+    /**
+     * consumes the node range {@code [startNode, endNode)}
+     */
+    @FunctionalInterface
+    public interface RangeConsumer {
+
+        void accept(int startNode, int endNode);
+    }
+}
@@ -0,0 +1,93 @@
+package org.neo4j.graphalgo.core.utils;
+
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+
+/**
+ * Allocates fixed size pages outside of the java heap, either as direct
+ * {@link ByteBuffer}s or as regions of a memory mapped file.
+ * Paged arrays that use this allocator keep only the small buffer objects
+ * on the heap, so their content is never scanned or copied by the GC.
+ * <p>
+ * Pages are allocated in regions of up to 1GB and sliced into pages.
+ * The memory is released once all pages of a region are garbage collected.
+ * Direct memory is bound by {@code -XX:MaxDirectMemorySize}, which defaults
+ * to the heap size; use a memory mapped file to hold graphs larger than that.
+ */
+public final class OffHeapPages {
+
+    private static final int MAX_REGION_SIZE = 1 << 30;
+
+    private final Path file;
+    private long filePosition;
+
+    private OffHeapPages(Path file) {
+        this.file = file;
+    }
+
+    /**
+     * Allocate pages as direct byte buffers.
+     */
+    public static OffHeapPages direct() {
+        return new OffHeapPages(null);
+    }
+
+    /**
+     * Allocate pages as consecutive regions of the given file.
+     * The file is truncated and grows with every allocation, it is
+     * up to the caller to delete it once the pages are no longer used.
+     */
+    public static OffHeapPages mapped(Path file) {
+        try (RandomAccessFile raf = new RandomAccessFile(file.toFile(), "rw")) {
+            raf.setLength(0);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return new OffHeapPages(file);
+    }
+
+    public boolean isMapped() {
+        return file != null;
+    }
+
+    /**
+     * Allocate {@code numPages} pages of {@code pageSizeInBytes} bytes each.
+     * The content of new pages is zeroed and uses the native byte order.
+     */
+    public synchronized ByteBuffer[] allocate(int numPages, int pageSizeInBytes) {
+        final ByteBuffer[] pages = new ByteBuffer[numPages];
+        final int pagesPerRegion = Math.max(1, MAX_REGION_SIZE / pageSizeInBytes);
+        for (int from = 0; from < numPages; from += pagesPerRegion) {
+            final int count = Math.min(pagesPerRegion, numPages - from);
+            final ByteBuffer region = region(count * pageSizeInBytes);
+            for (int i = 0; i < count; i++) {
+                region.limit((i + 1) * pageSizeInBytes);
+                region.position(i * pageSizeInBytes);
+                pages[from + i] = region.slice().order(ByteOrder.nativeOrder());
+            }
+        }
+        return pages;
+    }
+
+    private ByteBuffer region(int bytes) {
+        if (file == null) {
+            return ByteBuffer.allocateDirect(bytes);
+        }
+        // the mapping stays valid after the channel is closed
+        try (RandomAccessFile raf = new RandomAccessFile(file.toFile(), "rw")) {
+            final ByteBuffer region = raf.getChannel().map(
+                    FileChannel.MapMode.READ_WRITE,
+                    filePosition,
+                    bytes);
+            filePosition += bytes;
+            return region;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
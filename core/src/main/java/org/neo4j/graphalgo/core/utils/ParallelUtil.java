@@ -0,0 +1,69 @@
+package org.neo4j.graphalgo.core.utils;
+
+import org.neo4j.helpers.Exceptions;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+
+/**
+ * Utility for running a batch of tasks on an executor and
+ * collecting their errors.
+ */
+public final class ParallelUtil {
+
+    private ParallelUtil() {
+        throw new UnsupportedOperationException();
+    }
+
+    /**
+     * calculate the number of batches required to cover
+     * {@code elementCount} elements with the given {@code batchSize}
+     */
+    public static int threadSize(int batchSize, int elementCount) {
+        return (int) Math.ceil(elementCount / (double) batchSize);
+    }
+
+    /**
+     * submits all tasks to the threadPool and waits for their completion.
+     * Errors of all tasks are chained and rethrown after every task finished.
+     * If the calling thread gets interrupted, all remaining tasks are cancelled.
+     */
+    public static void run(
+            final Collection<? extends Runnable> tasks,
+            final ExecutorService threadPool) {
+        final List<Future<?>> futures = new ArrayList<>(tasks.size());
+        for (Runnable task : tasks) {
+            futures.add(threadPool.submit(task));
+        }
+
+        boolean done = false;
+        Throwable error = null;
+        try {
+            for (Future<?> future : futures) {
+                try {
+                    future.get();
+                } catch (ExecutionException ee) {
+                    error = Exceptions.chain(error, ee.getCause());
+                } catch (CancellationException ignore) {
+                }
+            }
+            done = true;
+        } catch (InterruptedException e) {
+            error = Exceptions.chain(e, error);
+        } finally {
+            if (!done) {
+                for (final Future<?> future : futures) {
+                    future.cancel(true);
+                }
+            }
+        }
+        if (error != null) {
+            throw Exceptions.launderedException(error);
+        }
+    }
+}
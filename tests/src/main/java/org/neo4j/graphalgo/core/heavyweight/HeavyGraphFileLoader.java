@@ -87,13 +87,15 @@ public class HeavyGraphFileLoader {
                 }
             }
 
+            // missing directions and relationship ids are written as empty matrices
+            final boolean empty = outOffsets.length == 0;
             final AdjacencyMatrix container = new AdjacencyMatrix(
                     outOffsets,
                     inOffsets,
-                    outgoing,
-                    incoming,
-                    outgoingIds,
-                    incomingIds
+                    outgoingLength > 0 || empty ? outgoing : null,
+                    incomingLength > 0 || empty ? incoming : null,
+                    outgoingIdLength > 0 || empty ? outgoingIds : null,
+                    incomingIdLength > 0 || empty ? incomingIds : null
             );
 
             final IdMap idMap = IdMapSerialization.read(in);
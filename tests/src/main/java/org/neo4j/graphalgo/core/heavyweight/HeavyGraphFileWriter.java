@@ -62,6 +62,20 @@ public final class HeavyGraphFileWriter {
             IdMap idMap,
             WeightMap weights) throws IOException {
 
+        // directions and relationship ids that are not loaded are written as empty matrices
+        if (outgoing == null) {
+            outgoing = new int[0][];
+        }
+        if (incoming == null) {
+            incoming = new int[0][];
+        }
+        if (outgoingIds == null) {
+            outgoingIds = new long[0][];
+        }
+        if (incomingIds == null) {
+            incomingIds = new long[0][];
+        }
+
         final long requiredBytes = BYTES_INT + outOffsets.length * BYTES_INT
                 + BYTES_INT + inOffsets.length * BYTES_INT
                 + BYTES_INT + Arrays.stream(outgoing).mapToLong(a -> BYTES_INT + a.length * BYTES_INT).sum()
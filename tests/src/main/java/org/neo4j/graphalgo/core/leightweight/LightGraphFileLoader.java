@@ -1,6 +1,5 @@
 package org.neo4j.graphalgo.core.leightweight;
 
-import com.carrotsearch.hppc.LongLongHashMap;
 import org.neo4j.graphalgo.api.Graph;
 import org.neo4j.graphalgo.api.WeightMapping;
 import org.neo4j.graphalgo.serialize.ByteBufferDataInput;
@@ -42,23 +41,21 @@ public class LightGraphFileLoader {
             });
 
             final int inOffsetsLength = in.readVInt();
-            final long[] inOffsets = new long[inOffsetsLength];
+            final LongArray inOffsets = LongArray.newArray(inOffsetsLength);
             for (int i = 0; i < inOffsetsLength; i++) {
-                inOffsets[i] = in.readVLong();
+                inOffsets.set(i, in.readVLong());
             }
 
             final int outOffsetsLength = in.readVInt();
-            final long[] outOffsets = new long[outOffsetsLength];
+            final LongArray outOffsets = LongArray.newArray(outOffsetsLength);
             for (int i = 0; i < outOffsetsLength; i++) {
-                outOffsets[i] = in.readVLong();
+                outOffsets.set(i, in.readVLong());
             }
 
-            final int relLength = in.readVInt();
-            final LongLongHashMap relMapping = new LongLongHashMap(
-                    (int) Math.ceil(relLength / 0.99),
-                    0.99);
-            for (int i = 0; i < relLength; i++) {
-                relMapping.put(in.readVLong(), in.readVLong());
+            final long relLength = in.readVLong();
+            final LongArray relIds = LongArray.newArray(relLength);
+            for (long i = 0; i < relLength; i++) {
+                relIds.set(i, in.readVLong());
             }
 
             final IdMap idMap = IdMapSerialization.read(in);
@@ -66,7 +63,7 @@ public class LightGraphFileLoader {
 
             return new LightGraph(
                     idMap, weightMapping,
-                    relMapping,
+                    relIds,
                     adjacency, inOffsets, outOffsets
             );
         }
@@ -1,7 +1,5 @@
 package org.neo4j.graphalgo.core.leightweight;
 
-import com.carrotsearch.hppc.LongLongMap;
-import com.carrotsearch.hppc.cursors.LongLongCursor;
 import org.neo4j.graphalgo.core.IdMap;
 import org.neo4j.graphalgo.core.WeightMap;
 import org.neo4j.graphalgo.core.WeightMappingSerialization;
@@ -33,21 +31,21 @@ public final class LightGraphFileWriter {
             LightGraph.class,
             WeightMap.class,
             "weightMapping");
-    private static final MethodHandle RELMAP = PrivateLookup.field(
+    private static final MethodHandle REL_IDS = PrivateLookup.field(
             LightGraph.class,
-            LongLongMap.class,
-            "relationIdMapping");
+            LongArray.class,
+            "relationIds");
     private static final MethodHandle ADJACENCY = PrivateLookup.field(
             LightGraph.class,
             IntArray.class,
             "adjacency");
     private static final MethodHandle IN_OFFSETS = PrivateLookup.field(
             LightGraph.class,
-            long[].class,
+            LongArray.class,
             "inOffsets");
     private static final MethodHandle OUT_OFFSETS = PrivateLookup.field(
             LightGraph.class,
-            long[].class,
+            LongArray.class,
             "outOffsets");
 
     public static void serialize(LightGraph graph, Path outFile) {
@@ -55,17 +53,17 @@ public final class LightGraphFileWriter {
         try {
             IdMap idMapping = (IdMap) ID_MAP.invokeExact(graph);
             WeightMap weightMapping = (WeightMap) WEIGHTS.invokeExact(graph);
-            LongLongMap relMap = (LongLongMap) RELMAP.invokeExact(graph);
+            LongArray relIds = (LongArray) REL_IDS.invokeExact(graph);
             IntArray adjacency = (IntArray) ADJACENCY.invokeExact(graph);
-            long[] inOffsets = (long[]) IN_OFFSETS.invokeExact(graph);
-            long[] outOffsets = (long[]) OUT_OFFSETS.invokeExact(graph);
+            LongArray inOffsets = (LongArray) IN_OFFSETS.invokeExact(graph);
+            LongArray outOffsets = (LongArray) OUT_OFFSETS.invokeExact(graph);
 
             write(
                     outFile,
                     adjacency,
                     inOffsets,
                     outOffsets,
-                    relMap,
+                    relIds,
                     idMapping,
                     weightMapping
             );
@@ -77,9 +75,9 @@ public final class LightGraphFileWriter {
     private static void write(
             Path outPath,
             IntArray adjacency,
-            long[] inOffsets,
-            long[] outOffsets,
-            LongLongMap relMap,
+            LongArray inOffsets,
+            LongArray outOffsets,
+            LongArray relIds,
             IdMap idMap,
             WeightMap weights) throws IOException {
 
@@ -87,11 +85,11 @@ public final class LightGraphFileWriter {
         final long requiredBytes = BYTES_LONG
                 + adjSize * BYTES_INT
                 + BYTES_INT
-                + inOffsets.length * BYTES_LONG
+                + inOffsets.size() * BYTES_LONG
                 + BYTES_INT
-                + outOffsets.length * BYTES_LONG
-                + BYTES_INT
-                + relMap.size() * 2 * BYTES_LONG
+                + outOffsets.size() * BYTES_LONG
+                + BYTES_LONG
+                + (relIds == null ? 0 : relIds.size()) * BYTES_LONG
                 + IdMapSerialization.bytes(idMap)
                 + WeightMappingSerialization.bytes(weights);
 
@@ -113,19 +111,22 @@ public final class LightGraphFileWriter {
                 });
             }
 
-            out.writeVInt(inOffsets.length);
-            for (long i : inOffsets) {
-                out.writeVLong(i);
+            out.writeVInt(Math.toIntExact(inOffsets.size()));
+            for (long i = 0; i < inOffsets.size(); i++) {
+                out.writeVLong(inOffsets.get(i));
             }
-            out.writeVInt(outOffsets.length);
-            for (long i : outOffsets) {
-                out.writeVLong(i);
+            out.writeVInt(Math.toIntExact(outOffsets.size()));
+            for (long i = 0; i < outOffsets.size(); i++) {
+                out.writeVLong(outOffsets.get(i));
             }
 
-            out.writeVInt(relMap.size());
-            for (final LongLongCursor cursor : relMap) {
-                out.writeVLong(cursor.key);
-                out.writeVLong(cursor.value);
+            if (relIds == null) {
+                out.writeVLong(0L);
+            } else {
+                out.writeVLong(relIds.size());
+                for (long i = 0; i < relIds.size(); i++) {
+                    out.writeVLong(relIds.get(i));
+                }
             }
 
             IdMapSerialization.write(idMap, out);
@@ -0,0 +1,333 @@
+package org.neo4j.graphalgo.algo;
+
+import org.junit.After;
+import org.junit.AfterClass;
+import org.junit.BeforeClass;
+import org.junit.ClassRule;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.neo4j.graphalgo.DijkstraProc;
+import org.neo4j.graphalgo.GraphCatalogProc;
+import org.neo4j.graphalgo.MemRecProc;
+import org.neo4j.graphalgo.PageRankProc;
+import org.neo4j.graphalgo.UnionFindProc;
+import org.neo4j.graphalgo.core.GraphCatalog;
+import org.neo4j.graphdb.QueryExecutionException;
+import org.neo4j.graphdb.Result;
+import org.neo4j.graphdb.Transaction;
+import org.neo4j.kernel.api.exceptions.KernelException;
+import org.neo4j.kernel.impl.proc.Procedures;
+import org.neo4j.kernel.internal.GraphDatabaseAPI;
+import org.neo4j.test.TestGraphDatabaseFactory;
+
+import java.io.File;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+public class GraphCatalogProcIntegrationTest {
+
+    private static GraphDatabaseAPI db;
+
+    @ClassRule
+    public static TemporaryFolder snapshots = new TemporaryFolder();
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @BeforeClass
+    public static void setup() throws KernelException {
+        String createGraph =
+                "CREATE (nA:Label)\n" +
+                "CREATE (nB:Label)\n" +
+                "CREATE (nC:Label)\n" +
+                "CREATE (nD)\n" +
+                "CREATE (nE)\n" +
+                "CREATE\n" +
+                "  (nA)-[:TYPE {cost:1.0}]->(nB),\n" +
+                "  (nB)-[:TYPE {cost:1.0}]->(nC),\n" +
+                "  (nA)-[:TYPE {cost:5.0}]->(nC),\n" +
+                "  (nD)-[:TYPE {cost:1.0}]->(nE)";
+
+        db = (GraphDatabaseAPI)
+                new TestGraphDatabaseFactory()
+                        .newImpermanentDatabaseBuilder()
+                        .setConfig(GraphCatalogProc.SETTING_SNAPSHOT_DIRECTORY, snapshots.getRoot().getPath())
+                        .newGraphDatabase();
+
+        try (Transaction tx = db.beginTx()) {
+            db.execute(createGraph).close();
+            tx.success();
+        }
+
+        final Procedures procedures = db.getDependencyResolver()
+                .resolveDependency(Procedures.class);
+        procedures.registerProcedure(GraphCatalogProc.class);
+        procedures.registerProcedure(MemRecProc.class);
+        procedures.registerProcedure(UnionFindProc.class);
+        procedures.registerProcedure(PageRankProc.class);
+        procedures.registerProcedure(DijkstraProc.class);
+    }
+
+    @AfterClass
+    public static void shutdown() {
+        db.shutdown();
+    }
+
+    @After
+    public void clearCatalog() {
+        final GraphCatalog catalog = GraphCatalog.of(db);
+        catalog.names().forEach(catalog::remove);
+        catalog.setMaxBytes(Runtime.getRuntime().maxMemory() / 2);
+    }
+
+    @Test
+    public void shouldLoadAndRemoveGraph() throws Exception {
+        db.execute("CALL algo.graph.load('g', '', 'TYPE') YIELD name, nodes, relationships, bytes")
+                .accept((Result.ResultVisitor<Exception>) row -> {
+                    assertEquals("g", row.getString("name"));
+                    assertEquals(5L, row.getNumber("nodes"));
+                    assertEquals(4L, row.getNumber("relationships"));
+                    assertTrue(row.getNumber("bytes").longValue() > 0);
+                    return true;
+                });
+        assertNotNull(GraphCatalog.of(db).get("g"));
+
+        db.execute("CALL algo.graph.remove('g') YIELD removed")
+                .accept((Result.ResultVisitor<Exception>) row -> {
+                    assertTrue(row.getBoolean("removed"));
+                    return true;
+                });
+        assertNull(GraphCatalog.of(db).get("g"));
+        assertEquals(0L, GraphCatalog.of(db).usedBytes());
+    }
+
+    @Test
+    public void shouldRunProceduresOnLoadedGraph() throws Exception {
+        db.execute("CALL algo.graph.load('labeled', 'Label', 'TYPE', {property:'cost'})").close();
+        final GraphCatalog.Entry entry = GraphCatalog.of(db).get("labeled");
+
+        db.execute("CALL algo.unionFind('', '', {graph:'labeled'}) YIELD nodeCount, setCount")
+                .accept((Result.ResultVisitor<Exception>) row -> {
+                    assertEquals(3L, row.getNumber("nodeCount"));
+                    assertEquals(1L, row.getNumber("setCount"));
+                    return true;
+                });
+
+        db.execute("CALL algo.pageRankStats('', '', {graph:'labeled'}) YIELD nodes")
+                .accept((Result.ResultVisitor<Exception>) row -> {
+                    assertEquals(3L, row.getNumber("nodes"));
+                    return true;
+                });
+
+        db.execute("MATCH (a:Label), (c:Label) WHERE id(a) = 0 AND id(c) = 2 " +
+                "CALL algo.dijkstra(a, c, 'cost', {graph:'labeled'}) YIELD nodeCount RETURN nodeCount")
+                .accept((Result.ResultVisitor<Exception>) row -> {
+                    // the cheaper path a -> b -> c
+                    assertEquals(3L, row.getNumber("nodeCount"));
+                    return true;
+                });
+
+        assertSame(entry, GraphCatalog.of(db).get("labeled"));
+    }
+
+    @Test
+    public void shouldWriteBackAfterNodeDeletion() throws Exception {
+        db.execute("CREATE (:Incremental)-[:NEXT]->(:Incremental)-[:NEXT]->(:Incremental)").close();
+        try {
+            db.execute("CALL algo.graph.load('incremental', 'Incremental', 'NEXT', {incremental:true})").close();
+            db.execute("MATCH (n:Incremental) WHERE NOT (n)-->() DETACH DELETE n").close();
+
+            db.execute("CALL algo.pageRank('', '', {graph:'incremental', write:true, scoreProperty:'incrementalScore'}) YIELD nodes")
+                    .accept((Result.ResultVisitor<Exception>) row -> {
+                        assertEquals(2L, row.getNumber("nodes"));
+                        return true;
+                    });
+            db.execute("MATCH (n:Incremental) WHERE exists(n.incrementalScore) RETURN count(n) AS c")
+                    .accept((Result.ResultVisitor<Exception>) row -> {
+                        assertEquals(2L, row.getNumber("c"));
+                        return true;
+                    });
+        } finally {
+            GraphCatalog.of(db).remove("incremental");
+            db.execute("MATCH (n:Incremental) DETACH DELETE n").close();
+        }
+    }
+
+    @Test
+    public void shouldSaveAndAttachGraph() throws Exception {
+        final File file = new File(snapshots.getRoot(), "saved.snapshot");
+        final Map<String, Object> params = new HashMap<>();
+        params.put("file", file.getName());
+        db.execute("CALL algo.graph.load('saved', 'Label', 'TYPE', {property:'cost'})").close();
+        db.execute("CALL algo.graph.save('saved', $file) YIELD bytes", params)
+                .accept((Result.ResultVisitor<Exception>) row -> {
+                    assertEquals(file.length(), row.getNumber("bytes").longValue());
+                    return true;
+                });
+        db.execute("CALL algo.graph.remove('saved')").close();
+
+        db.execute("CALL algo.graph.attach('attached', $file) YIELD nodes, relationships", params)
+                .accept((Result.ResultVisitor<Exception>) row -> {
+                    assertEquals(3L, row.getNumber("nodes"));
+                    assertEquals(3L, row.getNumber("relationships"));
+                    return true;
+                });
+        db.execute("MATCH (a:Label), (c:Label) WHERE id(a) = 0 AND id(c) = 2 " +
+                "CALL algo.dijkstra(a, c, 'cost', {graph:'attached'}) YIELD nodeCount RETURN nodeCount")
+                .accept((Result.ResultVisitor<Exception>) row -> {
+                    assertEquals(3L, row.getNumber("nodeCount"));
+                    return true;
+                });
+    }
+
+    @Test
+    public void shouldRejectSnapshotFilesOutsideOfTheDirectory() throws Exception {
+        db.execute("CALL algo.graph.load('saved', 'Label', 'TYPE')").close();
+        final File outside = folder.newFile();
+        for (String file : Arrays.asList(outside.getPath(), "../" + outside.getName(), "")) {
+            final Map<String, Object> params = Collections.singletonMap("file", file);
+            for (String query : Arrays.asList(
+                    "CALL algo.graph.save('saved', $file)",
+                    "CALL algo.graph.attach('attached', $file)")) {
+                try {
+                    db.execute(query, params).resultAsString();
+                    fail("expected '" + file + "' to be rejected");
+                } catch (QueryExecutionException e) {
+                    assertTrue(e.getMessage(), e.getMessage().contains("outside of the snapshot directory"));
+                }
+            }
+        }
+        assertEquals(0L, outside.length());
+        assertNull(GraphCatalog.of(db).get("attached"));
+    }
+
+    @Test
+    public void shouldRejectGraphWithOtherWeights() throws Exception {
+        db.execute("CALL algo.graph.load('unweighted', '', 'TYPE')").close();
+        try {
+            db.execute("MATCH (a), (c) WHERE id(a) = 0 AND id(c) = 2 " +
+                    "CALL algo.dijkstra(a, c, 'cost', {graph:'unweighted'}) YIELD totalCost RETURN totalCost")
+                    .resultAsString();
+            fail("expected the graph to be rejected");
+        } catch (QueryExecutionException e) {
+            assertTrue(e.getMessage(), e.getMessage().contains("'unweighted'"));
+        }
+    }
+
+    @Test
+    public void shouldFailOnUnknownGraph() throws Exception {
+        try {
+            db.execute("CALL algo.unionFind('', '', {graph:'unknown'})").close();
+            fail("expected the graph to be unknown");
+        } catch (QueryExecutionException e) {
+            assertTrue(e.getMessage(), e.getMessage().contains("'unknown'"));
+        }
+    }
+
+    @Test
+    public void shouldEstimateMemoryWithoutLoading() throws Exception {
+        final Map<String, Long> bytes = new HashMap<>();
+        db.execute("CALL algo.memrec('Label', 'TYPE', {property:'cost'}) YIELD component, bytes")
+                .accept((Result.ResultVisitor<Exception>) row -> {
+                    bytes.put(row.getString("component"), row.getNumber("bytes").longValue());
+                    return true;
+                });
+        assertEquals(
+                bytes.get("idMap") + bytes.get("adjacency") + bytes.get("relationshipIds") + bytes.get("relationshipWeights"),
+                (long) bytes.get(MemRecProc.TOTAL_HEAP));
+        assertEquals(0L, (long) bytes.get(MemRecProc.TOTAL_OFF_HEAP));
+        assertTrue(GraphCatalog.of(db).names().isEmpty());
+
+        db.execute("CALL algo.graph.load('estimated', 'Label', 'TYPE', {property:'cost'})").close();
+        assertEquals((long) bytes.get(MemRecProc.TOTAL_HEAP), GraphCatalog.of(db).usedBytes());
+    }
+
+    @Test
+    public void shouldEvictLeastRecentlyUsedGraph() throws Exception {
+        final GraphCatalog catalog = GraphCatalog.of(db);
+        db.execute("CALL algo.graph.load('first', 'Label', 'TYPE')").close();
+        final long budget = catalog.usedBytes() * 2;
+        db.execute("CALL algo.graph.load('second', 'Label', 'TYPE', {maxMemory:$budget})",
+                Collections.singletonMap("budget", budget)).close();
+        assertEquals(Arrays.asList("first", "second"), catalog.names());
+
+        // touch the first graph, so that the second one is evicted
+        db.execute("CALL algo.unionFind('', '', {graph:'first'})").close();
+
+        final Result result = db.execute("CALL algo.graph.load('third', 'Label', 'TYPE') YIELD evicted");
+        final Map<String, Object> row = result.next();
+        result.close();
+        assertEquals(Collections.singletonList("second"), row.get("evicted"));
+        assertEquals(Arrays.asList("first", "third"), catalog.names());
+        assertFalse(catalog.usedBytes() > budget);
+    }
+
+    @Test
+    public void shouldKeepGraphUntilReplaced() throws Exception {
+        final GraphCatalog catalog = GraphCatalog.of(db);
+        db.execute("CALL algo.graph.load('g', 'Label', 'TYPE')").close();
+        final GraphCatalog.Entry loaded = catalog.get("g");
+        catalog.setMaxBytes(loaded.bytes);
+
+        // the replaced graph does not count towards the budget
+        db.execute("CALL algo.graph.load('g', 'Label', 'TYPE') YIELD evicted")
+                .accept((Result.ResultVisitor<Exception>) row -> {
+                    assertEquals(Collections.emptyList(), row.get("evicted"));
+                    return true;
+                });
+        final GraphCatalog.Entry reloaded = catalog.get("g");
+        assertNotSame(loaded, reloaded);
+        assertEquals(reloaded.bytes, catalog.usedBytes());
+
+        // a failed reload keeps the stored graph
+        try {
+            db.execute("CALL algo.graph.load('g', '', 'TYPE', {property:'cost'})").close();
+            fail("expected the graph to exceed the budget");
+        } catch (QueryExecutionException e) {
+            assertTrue(e.getMessage(), e.getMessage().contains("budget"));
+        }
+        assertSame(reloaded, catalog.get("g"));
+        assertEquals(reloaded.bytes, catalog.usedBytes());
+    }
+
+    @Test
+    public void shouldRejectGraphLargerThanHeapFraction() throws Exception {
+        for (String query : Arrays.asList(
+                "CALL algo.graph.load('huge', '', 'TYPE', {maxHeapFraction:1e-12})",
+                "CALL algo.unionFind('', 'TYPE', {write:false, maxHeapFraction:1e-12})")) {
+            try {
+                db.execute(query).close();
+                fail("expected the graph to exceed the heap fraction: " + query);
+            } catch (QueryExecutionException e) {
+                assertTrue(e.getMessage(), e.getMessage().contains("bytes of heap"));
+            }
+        }
+        assertNull(GraphCatalog.of(db).get("huge"));
+        assertEquals(0L, GraphCatalog.of(db).usedBytes());
+    }
+
+    @Test
+    public void shouldRejectGraphLargerThanBudget() throws Exception {
+        try {
+            db.execute("CALL algo.graph.load('huge', '', 'TYPE', {maxMemory:1})").close();
+            fail("expected the graph to exceed the budget");
+        } catch (QueryExecutionException e) {
+            assertTrue(e.getMessage(), e.getMessage().contains("budget"));
+        }
+        final List<String> names = GraphCatalog.of(db).names();
+        assertTrue(names.toString(), names.isEmpty());
+    }
+}
@@ -4,7 +4,10 @@ import org.junit.AfterClass;
 import org.junit.Before;
 import org.junit.BeforeClass;
 import org.junit.Test;
+import org.neo4j.graphalgo.GraphCatalogProc;
 import org.neo4j.graphalgo.LabelPropagationProc;
+import org.neo4j.graphalgo.core.GraphCatalog;
+import org.neo4j.graphdb.QueryExecutionException;
 import org.neo4j.graphdb.Result;
 import org.neo4j.graphdb.Transaction;
 import org.neo4j.kernel.api.exceptions.KernelException;
@@ -17,6 +20,7 @@ import java.util.function.Consumer;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
 
 public class LabelPropagationProcIntegrationTest {
 
@@ -52,6 +56,9 @@ public class LabelPropagationProcIntegrationTest {
         db.getDependencyResolver()
                 .resolveDependency(Procedures.class)
                 .registerProcedure(LabelPropagationProc.class);
+        db.getDependencyResolver()
+                .resolveDependency(Procedures.class)
+                .registerProcedure(GraphCatalogProc.class);
     }
 
     @AfterClass
@@ -158,6 +165,30 @@ public class LabelPropagationProcIntegrationTest {
                 assertEquals(2, row.getNumber("partition").intValue()));
     }
 
+    @Test
+    public void shouldRejectStoredGraphWithOtherProperties() throws Exception {
+        runQuery("CALL algo.graph.load('unweighted', '', 'X')");
+        runQuery("CALL algo.graph.load('weighted', '', 'X', " +
+                "{property:'weight', nodeWeight:'weight', nodeProperty:'partition'})");
+        try {
+            for (String key : new String[]{"weightProperty:'weight'", "partitionProperty:'partition'"}) {
+                final String config = "{graph:'unweighted', write:false, " + key + "}";
+                try {
+                    runQuery("CALL algo.labelPropagation(null, 'X', 'OUTGOING', " + config + ")");
+                    fail("expected the graph to be rejected for " + config);
+                } catch (QueryExecutionException e) {
+                    assertTrue(e.getMessage(), e.getMessage().contains("'unweighted'"));
+                }
+            }
+            runQuery("CALL algo.labelPropagation(null, 'X', 'OUTGOING', " +
+                    "{graph:'weighted', weightProperty:'weight', partitionProperty:'partition', write:false})",
+                    row -> assertEquals("weight", row.getString("weightProperty")));
+        } finally {
+            GraphCatalog.of(db).remove("unweighted");
+            GraphCatalog.of(db).remove("weighted");
+        }
+    }
+
     private static void runQuery(String query) {
         runQuery(query, row -> {});
     }
@@ -0,0 +1,148 @@
+package org.neo4j.graphalgo.core;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.Parameterized;
+import org.junit.runners.Parameterized.Parameters;
+import org.neo4j.collection.primitive.PrimitiveIntIterator;
+import org.neo4j.graphalgo.api.Graph;
+import org.neo4j.graphalgo.api.GraphFactory;
+import org.neo4j.graphalgo.api.WeightedRelationshipConsumer;
+import org.neo4j.graphalgo.core.heavyweight.HeavyGraphFactory;
+import org.neo4j.graphalgo.core.leightweight.LightGraphFactory;
+import org.neo4j.graphdb.Direction;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.Function;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+
+/**
+ * Traverses a single graph from several threads at once.
+ */
+@RunWith(Parameterized.class)
+public final class ConcurrentTraversalTest extends RandomGraphTestCase {
+
+    private static final int THREADS = 8;
+
+    @Parameters(name = "{0}")
+    public static Collection<Object[]> data() {
+        return Arrays.<Object[]>asList(
+                new Object[]{"LightGraph", LightGraphFactory.class, loader(l -> l)},
+                new Object[]{"LightGraph compressed", LightGraphFactory.class, loader(GraphLoader::withCompressedAdjacency)},
+                new Object[]{"LightGraph off heap", LightGraphFactory.class, loader(GraphLoader::withOffHeapStorage)},
+                new Object[]{"HeavyGraph", HeavyGraphFactory.class, loader(l -> l)}
+        );
+    }
+
+    private static Function<GraphLoader, GraphLoader> loader(Function<GraphLoader, GraphLoader> configuration) {
+        return configuration;
+    }
+
+    private final Graph graph;
+
+    public ConcurrentTraversalTest(
+            String name,
+            Class<? extends GraphFactory> factory,
+            Function<GraphLoader, GraphLoader> configuration) {
+        this.graph = configuration.apply(new GraphLoader(db).withRelationshipWeightsFromProperty("weight", 0.0))
+                .load(factory);
+    }
+
+    @Test
+    public void shouldTraverseTheSharedGraphConcurrently() throws Exception {
+        final double[] expected = traverse(graph);
+        for (double[] actual : concurrently(() -> graph)) {
+            assertArrayEquals(expected, actual, 0.0);
+        }
+    }
+
+    @Test
+    public void shouldTraverseConcurrentCopies() throws Exception {
+        final double[] expected = traverse(graph);
+        for (double[] actual : concurrently(graph::concurrentCopy)) {
+            assertArrayEquals(expected, actual, 0.0);
+        }
+    }
+
+    @Test
+    public void shouldIterateTheNodesConcurrently() throws Exception {
+        final ExecutorService pool = Executors.newFixedThreadPool(THREADS);
+        try {
+            final CountDownLatch start = new CountDownLatch(THREADS);
+            final List<Future<Integer>> counts = new ArrayList<>();
+            for (int i = 0; i < THREADS; i++) {
+                counts.add(pool.submit(() -> {
+                    start.countDown();
+                    start.await();
+                    int count = 0;
+                    final PrimitiveIntIterator nodes = graph.nodeIterator();
+                    while (nodes.hasNext()) {
+                        assertEquals(count++, nodes.next());
+                    }
+                    return count;
+                }));
+            }
+            for (Future<Integer> count : counts) {
+                assertEquals(graph.nodeCount(), (int) count.get());
+            }
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    private static List<double[]> concurrently(Callable<Graph> graphs) throws Exception {
+        final ExecutorService pool = Executors.newFixedThreadPool(THREADS);
+        try {
+            final CountDownLatch start = new CountDownLatch(THREADS);
+            final List<Future<double[]>> futures = new ArrayList<>();
+            for (int i = 0; i < THREADS; i++) {
+                futures.add(pool.submit(() -> {
+                    final Graph graph = graphs.call();
+                    start.countDown();
+                    start.await();
+                    double[] sums = null;
+                    for (int round = 0; round < 20; round++) {
+                        sums = traverse(graph);
+                    }
+                    return sums;
+                }));
+            }
+            final List<double[]> results = new ArrayList<>();
+            for (Future<double[]> future : futures) {
+                results.add(future.get());
+            }
+            return results;
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    /**
+     * a checksum of the relationships of each node that depends on their order
+     */
+    private static double[] traverse(Graph graph) {
+        final double[] sums = new double[graph.nodeCount()];
+        for (int node = 0; node < graph.nodeCount(); node++) {
+            final int n = node;
+            graph.forEachRelationship(node, Direction.OUTGOING, (WeightedRelationshipConsumer) (source, target, relationId, weight) -> {
+                sums[n] = sums[n] * 31 + target + weight;
+                return true;
+            });
+            graph.forEachRelationship(node, Direction.INCOMING, (source, target, relationId) -> {
+                sums[n] = sums[n] * 31 + target;
+                return true;
+            });
+        }
+        return sums;
+    }
+}
@@ -0,0 +1,112 @@
+package org.neo4j.graphalgo.core;
+
+import org.junit.AfterClass;
+import org.junit.runner.RunWith;
+import org.junit.runners.Parameterized;
+import org.junit.runners.Parameterized.Parameters;
+import org.neo4j.graphalgo.api.Graph;
+import org.neo4j.graphalgo.api.GraphFactory;
+import org.neo4j.graphalgo.api.RelationshipConsumer;
+import org.neo4j.graphalgo.core.heavyweight.HeavyGraphFactory;
+import org.neo4j.graphalgo.core.leightweight.LightGraphFactory;
+import org.neo4j.graphdb.Direction;
+import org.neo4j.graphdb.Transaction;
+import org.neo4j.kernel.internal.GraphDatabaseAPI;
+import org.neo4j.test.TestGraphDatabaseFactory;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Runs the tests of a small graph against the HeavyGraphFactory and the
+ * LightGraphFactory with and without compressed adjacency.
+ */
+@RunWith(Parameterized.class)
+public abstract class GraphFactoryTestCase {
+
+    protected static GraphDatabaseAPI db;
+
+    @Parameters(name = "{1}")
+    public static Collection<Object[]> data() {
+        return Arrays.asList(
+                new Object[]{HeavyGraphFactory.class, "HeavyGraphFactory", false},
+                new Object[]{LightGraphFactory.class, "LightGraphFactory", false},
+                new Object[]{LightGraphFactory.class, "LightGraphFactory compressed", true}
+        );
+    }
+
+    protected final Class<? extends GraphFactory> graphImpl;
+    protected final boolean compressed;
+
+    @SuppressWarnings("unchecked")
+    protected GraphFactoryTestCase(
+            Class<?> graphImpl,
+            String nameIgnoredOnlyForTestName,
+            boolean compressed) {
+        this.graphImpl = (Class<? extends GraphFactory>) graphImpl;
+        this.compressed = compressed;
+    }
+
+    /**
+     * create the graph in a new database
+     *
+     * @return the row of the RETURN clause of the statement
+     */
+    protected static Map<String, Object> createGraph(String statement) {
+        db = (GraphDatabaseAPI) new TestGraphDatabaseFactory()
+                .newImpermanentDatabaseBuilder()
+                .newGraphDatabase();
+        try (Transaction tx = db.beginTx()) {
+            final Map<String, Object> row = db.execute(statement).next();
+            tx.success();
+            return row;
+        }
+    }
+
+    @AfterClass
+    public static void shutdownGraph() {
+        db.shutdown();
+    }
+
+    /**
+     * a loader of the database, compressed for the compressed parameters
+     */
+    protected GraphLoader loader() {
+        final GraphLoader loader = new GraphLoader(db);
+        if (compressed) {
+            loader.withCompressedAdjacency();
+        }
+        return loader;
+    }
+
+    /**
+     * the sorted original ids of the neighbours of the node
+     */
+    protected static List<Long> neighbours(Graph graph, long node, Direction direction) {
+        final List<Long> neighbours = new ArrayList<>();
+        graph.forEachRelationship(
+                graph.toMappedNodeId(node),
+                direction,
+                (RelationshipConsumer) (source, target, relationId) -> {
+                    neighbours.add(graph.toOriginalNodeId(target));
+                    return true;
+                });
+        neighbours.sort(Long::compare);
+        return neighbours;
+    }
+
+    /**
+     * the sorted ids
+     */
+    protected static List<Long> ids(long... ids) {
+        final List<Long> list = new ArrayList<>();
+        for (long id : ids) {
+            list.add(id);
+        }
+        list.sort(Long::compare);
+        return list;
+    }
+}
@@ -0,0 +1,80 @@
+package org.neo4j.graphalgo.core;
+
+import org.junit.BeforeClass;
+import org.junit.Test;
+import org.neo4j.graphalgo.api.Graph;
+import org.neo4j.graphdb.Direction;
+
+import java.util.Arrays;
+import java.util.Map;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+
+/**
+ * Loads a single direction with and without the degrees of the other one.
+ */
+public final class GraphLoaderDirectionTest extends GraphFactoryTestCase {
+
+    private static long a, b, c, d;
+
+    @BeforeClass
+    public static void setupGraph() {
+        final Map<String, Object> row = createGraph(
+                "CREATE (a:Node),(b:Node),(c:Node),(d)\n" +
+                "CREATE (a)-[:TYPE]->(b),\n" +
+                "  (a)-[:TYPE]->(c),\n" +
+                "  (c)-[:TYPE]->(b),\n" +
+                "  (d)-[:TYPE]->(b)\n" +
+                "RETURN id(a) AS a, id(b) AS b, id(c) AS c, id(d) AS d");
+        a = (long) row.get("a");
+        b = (long) row.get("b");
+        c = (long) row.get("c");
+        d = (long) row.get("d");
+    }
+
+    public GraphLoaderDirectionTest(
+            Class<?> graphImpl,
+            String nameIgnoredOnlyForTestName,
+            boolean compressed) {
+        super(graphImpl, nameIgnoredOnlyForTestName, compressed);
+    }
+
+    @Test
+    public void shouldOnlyLoadOutgoingRelationships() throws Exception {
+        final Graph graph = loader()
+                .withDirection(Direction.OUTGOING)
+                .load(graphImpl);
+        assertEquals(Arrays.asList(b, c), neighbours(graph, a, Direction.OUTGOING));
+        assertEquals(Arrays.asList(b, c), neighbours(graph, a, Direction.BOTH));
+        assertEquals(2, graph.degree(graph.toMappedNodeId(a), Direction.OUTGOING));
+        assertEquals(0, graph.degree(graph.toMappedNodeId(b), Direction.INCOMING));
+        assertEquals(Arrays.<Long>asList(), neighbours(graph, b, Direction.INCOMING));
+        assertFalse(graph.relationshipIterator(graph.toMappedNodeId(b), Direction.INCOMING).hasNext());
+    }
+
+    @Test
+    public void shouldLoadIncomingRelationshipsWithOutgoingDegrees() throws Exception {
+        final Graph graph = loader()
+                .withDirection(Direction.INCOMING)
+                .withOppositeDegrees()
+                .load(graphImpl);
+        assertEquals(Arrays.asList(a, c, d), neighbours(graph, b, Direction.INCOMING));
+        assertEquals(Arrays.<Long>asList(), neighbours(graph, a, Direction.OUTGOING));
+        assertEquals(2, graph.degree(graph.toMappedNodeId(a), Direction.OUTGOING));
+        assertEquals(1, graph.degree(graph.toMappedNodeId(c), Direction.OUTGOING));
+        assertEquals(3, graph.degree(graph.toMappedNodeId(b), Direction.INCOMING));
+        assertEquals(2, graph.degree(graph.toMappedNodeId(c), Direction.BOTH));
+    }
+
+    @Test
+    public void shouldOnlyCountDegreesOfLoadedNodes() throws Exception {
+        final Graph graph = loader()
+                .withLabel("Node")
+                .withDirection(Direction.OUTGOING)
+                .withOppositeDegrees()
+                .load(graphImpl);
+        assertEquals(2, graph.degree(graph.toMappedNodeId(b), Direction.INCOMING));
+        assertEquals(1, graph.degree(graph.toMappedNodeId(c), Direction.INCOMING));
+    }
+}
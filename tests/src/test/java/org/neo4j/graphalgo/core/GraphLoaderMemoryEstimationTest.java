@@ -0,0 +1,116 @@
+package org.neo4j.graphalgo.core;
+
+import org.junit.Test;
+import org.neo4j.graphalgo.core.heavyweight.HeavyGraphFactory;
+import org.neo4j.graphalgo.core.leightweight.LightGraphFactory;
+import org.neo4j.graphalgo.core.leightweight.LongArray;
+import org.neo4j.graphalgo.core.neo4jview.GraphViewFactory;
+import org.neo4j.graphalgo.core.utils.MemoryEstimation;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+public final class GraphLoaderMemoryEstimationTest extends RandomGraphTestCase {
+
+    @Test
+    public void shouldListHeavyGraphParts() throws Exception {
+        final MemoryEstimation estimation = new GraphLoader(db)
+                .withRelationshipWeightsFromProperty("weight", 1.0)
+                .estimate(HeavyGraphFactory.class);
+
+        assertEquals(
+                Arrays.asList("idMap", "adjacency", "relationshipIds", "relationshipWeights"),
+                names(estimation));
+        assertEquals(0L, estimation.offHeapBytes());
+        assertEquals(sum(estimation), estimation.heapBytes());
+        // at least the targets and ids of both directions
+        final long relationships = relationshipCount();
+        assertTrue(estimation.heapBytes() > relationships * 2 * (Integer.BYTES + Long.BYTES));
+    }
+
+    @Test
+    public void shouldListLightGraphParts() throws Exception {
+        final MemoryEstimation estimation = new GraphLoader(db)
+                .withoutRelationshipIds()
+                .estimate(LightGraphFactory.class);
+
+        assertEquals(Arrays.asList("idMap", "offsets", "adjacency"), names(estimation));
+        assertEquals(0L, estimation.offHeapBytes());
+    }
+
+    @Test
+    public void shouldEstimateCompressedRelationshipIdsByRelationshipCount() throws Exception {
+        final MemoryEstimation estimation = new GraphLoader(db)
+                .withCompressedAdjacency()
+                .estimate(LightGraphFactory.class);
+
+        // both directions, without the bytes of the encoded lists
+        final long relationshipIds = estimation.components()
+                .stream()
+                .filter(c -> "relationshipIds".equals(c.name))
+                .mapToLong(c -> c.bytes)
+                .sum();
+        assertEquals(LongArray.estimateBytes(relationshipCount() * 2), relationshipIds);
+    }
+
+    @Test
+    public void shouldNotCountOffHeapPartsAsHeap() throws Exception {
+        final MemoryEstimation estimation = new GraphLoader(db)
+                .withOffHeapStorage()
+                .estimate(LightGraphFactory.class);
+
+        assertEquals(Arrays.asList("idMap", "offsets", "adjacency", "relationshipIds"), names(estimation));
+        for (MemoryEstimation.Component component : estimation.components()) {
+            assertEquals(component.name, !"idMap".equals(component.name), component.offHeap);
+        }
+        assertEquals(estimation.components().get(0).bytes, estimation.heapBytes());
+        assertEquals(sum(estimation), estimation.totalBytes());
+    }
+
+    @Test
+    public void shouldEstimateNothingForGraphView() throws Exception {
+        final MemoryEstimation estimation = new GraphLoader(db).estimate(GraphViewFactory.class);
+        assertTrue(estimation.components().isEmpty());
+        assertEquals(0L, estimation.totalBytes());
+    }
+
+    @Test
+    public void shouldRefuseToLoadGraphExceedingHeapFraction() throws Exception {
+        try {
+            new GraphLoader(db)
+                    .withMaxHeapFraction(1e-12)
+                    .load(HeavyGraphFactory.class);
+            fail("expected the graph to be refused");
+        } catch (IllegalStateException e) {
+            assertTrue(e.getMessage(), e.getMessage().contains("idMap="));
+        }
+        // and loads without the check
+        new GraphLoader(db)
+                .withMaxHeapFraction(1e-12)
+                .withoutMemoryCheck()
+                .load(HeavyGraphFactory.class);
+    }
+
+    private static List<String> names(MemoryEstimation estimation) {
+        return estimation.components()
+                .stream()
+                .map(c -> c.name)
+                .collect(Collectors.toList());
+    }
+
+    private static long sum(MemoryEstimation estimation) {
+        return estimation.components()
+                .stream()
+                .mapToLong(c -> c.bytes)
+                .sum();
+    }
+
+    private static long relationshipCount() {
+        return (long) db.execute("MATCH ()-[r]->() RETURN count(r) AS c").next().get("c");
+    }
+}
@@ -0,0 +1,155 @@
+package org.neo4j.graphalgo.core;
+
+import org.junit.BeforeClass;
+import org.junit.Test;
+import org.neo4j.graphalgo.api.Graph;
+import org.neo4j.graphalgo.api.PropertyPredicate;
+import org.neo4j.graphdb.Direction;
+
+import java.util.Map;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Loads only the nodes and relationships that match property predicates.
+ */
+public final class GraphLoaderPredicateTest extends GraphFactoryTestCase {
+
+    private static long a, b, c, d;
+
+    @BeforeClass
+    public static void setupGraph() {
+        final Map<String, Object> row = createGraph(
+                "CREATE (a:Node {age: 20}),(b:Node {age: 35.5}),(c:Node {age: 50, vip: true}),(d:Node)\n" +
+                "CREATE (a)-[:TYPE {since: 2010}]->(b),\n" +
+                "  (a)-[:TYPE {since: 2015}]->(c),\n" +
+                "  (b)-[:TYPE {since: 2001}]->(c),\n" +
+                "  (c)-[:TYPE]->(d),\n" +
+                "  (d)-[:TYPE {since: 2020}]->(a)\n" +
+                "RETURN id(a) AS a, id(b) AS b, id(c) AS c, id(d) AS d");
+        a = (long) row.get("a");
+        b = (long) row.get("b");
+        c = (long) row.get("c");
+        d = (long) row.get("d");
+    }
+
+    public GraphLoaderPredicateTest(
+            Class<?> graphImpl,
+            String nameIgnoredOnlyForTestName,
+            boolean compressed) {
+        super(graphImpl, nameIgnoredOnlyForTestName, compressed);
+    }
+
+    @Test
+    public void shouldFilterNodesByRange() throws Exception {
+        final Graph graph = load(new GraphLoader(db)
+                .withNodePredicate(PropertyPredicate.range("age", 30, 60)));
+        assertEquals(2, graph.nodeCount());
+        assertEquals(-1, graph.toMappedNodeId(a));
+        assertEquals(-1, graph.toMappedNodeId(d));
+        assertNeighbours(graph, b, Direction.OUTGOING, c);
+        assertNeighbours(graph, c, Direction.OUTGOING);
+        assertNeighbours(graph, c, Direction.INCOMING, b);
+    }
+
+    @Test
+    public void shouldFilterNodesByExistence() throws Exception {
+        final Graph graph = load(new GraphLoader(db)
+                .withNodePredicate(PropertyPredicate.exists("vip")));
+        assertEquals(1, graph.nodeCount());
+        assertNeighbours(graph, c, Direction.BOTH);
+    }
+
+    @Test
+    public void shouldFilterRelationshipsByRange() throws Exception {
+        final Graph graph = load(new GraphLoader(db)
+                .withRelationshipPredicate(PropertyPredicate.atLeast("since", 2010)));
+        assertEquals(4, graph.nodeCount());
+        assertNeighbours(graph, a, Direction.OUTGOING, b, c);
+        assertNeighbours(graph, a, Direction.INCOMING, d);
+        assertNeighbours(graph, b, Direction.OUTGOING);
+        assertNeighbours(graph, c, Direction.OUTGOING);
+        assertNeighbours(graph, c, Direction.INCOMING, a);
+        assertEquals(2, graph.degree(graph.toMappedNodeId(a), Direction.OUTGOING));
+    }
+
+    @Test
+    public void shouldFilterRelationshipsByEquality() throws Exception {
+        final Graph graph = load(new GraphLoader(db)
+                .withRelationshipPredicate(PropertyPredicate.equalTo("since", 2015)));
+        assertNeighbours(graph, a, Direction.OUTGOING, c);
+        assertNeighbours(graph, a, Direction.INCOMING);
+        assertNeighbours(graph, b, Direction.OUTGOING);
+        assertNeighbours(graph, d, Direction.OUTGOING);
+    }
+
+    @Test
+    public void shouldCountOppositeDegreesOfMatchingRelationships() throws Exception {
+        final Graph graph = load(new GraphLoader(db)
+                .withDirection(Direction.OUTGOING)
+                .withOppositeDegrees()
+                .withRelationshipPredicate(PropertyPredicate.lessThan("since", 2012)));
+        assertNeighbours(graph, a, Direction.OUTGOING, b);
+        assertEquals(0, graph.degree(graph.toMappedNodeId(a), Direction.INCOMING));
+        assertEquals(1, graph.degree(graph.toMappedNodeId(c), Direction.INCOMING));
+    }
+
+    @Test
+    public void shouldCombinePredicates() throws Exception {
+        final Graph graph = load(new GraphLoader(db)
+                .withNodePredicate(PropertyPredicate.exists("age"))
+                .withRelationshipPredicate(PropertyPredicate.lessThan("since", 2012))
+                .withRelationshipPredicate(PropertyPredicate.exists("since")));
+        assertEquals(3, graph.nodeCount());
+        assertNeighbours(graph, a, Direction.OUTGOING, b);
+        assertNeighbours(graph, b, Direction.OUTGOING, c);
+        assertNeighbours(graph, c, Direction.BOTH, b);
+    }
+
+    @Test
+    public void shouldNotLoadUnknownProperties() throws Exception {
+        final Graph graph = load(new GraphLoader(db)
+                .withRelationshipPredicate(PropertyPredicate.exists("unknown")));
+        assertEquals(4, graph.nodeCount());
+        for (long node : new long[]{a, b, c, d}) {
+            assertNeighbours(graph, node, Direction.BOTH);
+        }
+    }
+
+    @Test
+    public void shouldCompareNumbersByValue() throws Exception {
+        assertTrue(PropertyPredicate.equalTo("x", 2).test(2L));
+        assertTrue(PropertyPredicate.equalTo("x", 2.0).test(2));
+        assertFalse(PropertyPredicate.equalTo("x", 2).test("2"));
+        assertTrue(PropertyPredicate.equalTo("x", "a").test("a"));
+        assertTrue(PropertyPredicate.equalTo("x", new long[]{1L}).test(new long[]{1L}));
+        assertTrue(PropertyPredicate.range("x", 1, 2).test(1));
+        assertFalse(PropertyPredicate.range("x", 1, 2).test(2.0));
+        assertFalse(PropertyPredicate.range("x", 1, 2).test("1"));
+        assertFalse(PropertyPredicate.exists("x").test(null));
+    }
+
+    @Test
+    public void shouldNotBoundOpenEnds() throws Exception {
+        assertTrue(PropertyPredicate.atLeast("x", 1).test(Double.POSITIVE_INFINITY));
+        assertTrue(PropertyPredicate.atLeast("x", 1).test(Long.MAX_VALUE));
+        assertFalse(PropertyPredicate.atLeast("x", 1).test(0.5));
+        assertFalse(PropertyPredicate.atLeast("x", 1).test(Double.NaN));
+        assertTrue(PropertyPredicate.lessThan("x", 1).test(Double.NEGATIVE_INFINITY));
+        assertFalse(PropertyPredicate.lessThan("x", 1).test(1));
+        assertFalse(PropertyPredicate.range("x", 1, Double.POSITIVE_INFINITY).test(Double.POSITIVE_INFINITY));
+    }
+
+    private Graph load(GraphLoader loader) {
+        if (compressed) {
+            loader.withCompressedAdjacency();
+        }
+        return loader.load(graphImpl);
+    }
+
+    private static void assertNeighbours(Graph graph, long node, Direction direction, long... expected) {
+        assertEquals(ids(expected), neighbours(graph, node, direction));
+    }
+}
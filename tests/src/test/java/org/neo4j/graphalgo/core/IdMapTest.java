@@ -0,0 +1,66 @@
+package org.neo4j.graphalgo.core;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class IdMapTest {
+
+    @Test
+    public void shouldMapDenseIdsWithPages() throws Exception {
+        final IdMap idMap = new IdMap(10_000);
+        for (long id = 10_000; id > 0; id--) {
+            idMap.add(id);
+        }
+        idMap.buildMappedIds();
+
+        assertTrue(idMap.isDense());
+        assertMapping(idMap, 10_000);
+        assertEquals(-1, idMap.get(0));
+        assertEquals(-1, idMap.get(10_001));
+        assertEquals(-1, idMap.get(1L << 40));
+    }
+
+    @Test
+    public void shouldSwitchToHashMapForSparseIds() throws Exception {
+        final IdMap idMap = new IdMap(1000);
+        for (long id = 0; id < 1000; id++) {
+            idMap.add(id * 1_000_000);
+        }
+        idMap.buildMappedIds();
+
+        assertFalse(idMap.isDense());
+        for (int graphId = 0; graphId < 1000; graphId++) {
+            final long originalId = graphId * 1_000_000L;
+            assertEquals(graphId, idMap.get(originalId));
+            assertEquals(originalId, idMap.toOriginalNodeId(graphId));
+        }
+        assertEquals(-1, idMap.get(1));
+    }
+
+    @Test
+    public void shouldKeepMappingWhenSwitchingToHashMap() throws Exception {
+        final IdMap idMap = new IdMap(10);
+        for (long id = 100; id > 0; id--) {
+            idMap.add(id);
+        }
+        idMap.add(1L << 40);
+        idMap.buildMappedIds();
+
+        assertFalse(idMap.isDense());
+        assertMapping(idMap, 100);
+        assertEquals(100, idMap.get(1L << 40));
+        assertEquals(1L << 40, idMap.toOriginalNodeId(100));
+        assertEquals(101, idMap.mapOrGet(42L << 30));
+    }
+
+    private static void assertMapping(IdMap idMap, int count) {
+        for (int graphId = 0; graphId < count; graphId++) {
+            final long originalId = count - graphId;
+            assertEquals(graphId, idMap.get(originalId));
+            assertEquals(originalId, idMap.toOriginalNodeId(graphId));
+        }
+    }
+}
@@ -0,0 +1,136 @@
+package org.neo4j.graphalgo.core;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.Parameterized;
+import org.junit.runners.Parameterized.Parameters;
+import org.neo4j.graphalgo.api.Graph;
+import org.neo4j.graphalgo.api.GraphFactory;
+import org.neo4j.graphalgo.api.WeightedRelationshipConsumer;
+import org.neo4j.graphalgo.core.heavyweight.HeavyGraphFactory;
+import org.neo4j.graphalgo.core.leightweight.LightGraphFactory;
+import org.neo4j.graphdb.Direction;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.TreeSet;
+import java.util.function.Function;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Compares exists and intersect of sorted adjacencies with the relationships of the graph.
+ */
+@RunWith(Parameterized.class)
+public final class SortedAdjacencyTest extends RandomGraphTestCase {
+
+    @Parameters(name = "{0}")
+    public static Collection<Object[]> data() {
+        return Arrays.<Object[]>asList(
+                new Object[]{"LightGraph", LightGraphFactory.class, true, loader(GraphLoader::withSortedAdjacency)},
+                new Object[]{"LightGraph outgoing", LightGraphFactory.class, true, loader(l -> l
+                        .withSortedAdjacency()
+                        .withDirection(Direction.OUTGOING))},
+                new Object[]{"LightGraph compressed", LightGraphFactory.class, true, loader(GraphLoader::withCompressedAdjacency)},
+                new Object[]{"LightGraph undirected", LightGraphFactory.class, true, loader(GraphLoader::undirected)},
+                new Object[]{"LightGraph unsorted", LightGraphFactory.class, false, loader(l -> l)},
+                new Object[]{"HeavyGraph", HeavyGraphFactory.class, true, loader(GraphLoader::withSortedAdjacency)},
+                new Object[]{"HeavyGraph undirected", HeavyGraphFactory.class, true, loader(GraphLoader::undirected)},
+                new Object[]{"HeavyGraph unsorted", HeavyGraphFactory.class, false, loader(l -> l)}
+        );
+    }
+
+    private static Function<GraphLoader, GraphLoader> loader(Function<GraphLoader, GraphLoader> configuration) {
+        return configuration;
+    }
+
+    private final Graph graph;
+    private final Graph unsorted;
+    private final boolean sorted;
+
+    public SortedAdjacencyTest(
+            String name,
+            Class<? extends GraphFactory> factory,
+            boolean sorted,
+            Function<GraphLoader, GraphLoader> configuration) {
+        this.graph = configuration.apply(new GraphLoader(db).withRelationshipWeightsFromProperty("weight", 0.0))
+                .load(factory);
+        this.unsorted = configuration.apply(new GraphLoader(db).withRelationshipWeightsFromProperty("weight", 0.0))
+                .withoutSortedAdjacency()
+                .load(factory);
+        this.sorted = sorted;
+    }
+
+    @Test
+    public void shouldKeepTheRelationships() throws Exception {
+        for (int node = 0; node < graph.nodeCount(); node++) {
+            for (Direction direction : Direction.values()) {
+                assertEquals(relationships(unsorted, node, direction), relationships(graph, node, direction));
+            }
+        }
+    }
+
+    @Test
+    public void shouldSortTheLists() throws Exception {
+        if (!sorted) {
+            return;
+        }
+        for (int node = 0; node < graph.nodeCount(); node++) {
+            for (Direction direction : new Direction[]{Direction.OUTGOING, Direction.INCOMING}) {
+                final int[] last = {-1};
+                graph.forEachRelationship(node, direction, (source, target, relationId) -> {
+                    assertTrue(last[0] <= target);
+                    last[0] = target;
+                    return true;
+                });
+            }
+        }
+    }
+
+    @Test
+    public void shouldFindExistingRelationships() throws Exception {
+        for (Direction direction : Direction.values()) {
+            for (int source = 0; source < graph.nodeCount(); source++) {
+                final TreeSet<Integer> targets = targets(graph, source, direction);
+                for (int target = 0; target < graph.nodeCount(); target++) {
+                    assertEquals(targets.contains(target), graph.exists(source, target, direction));
+                }
+            }
+        }
+    }
+
+    @Test
+    public void shouldIntersectNeighbours() throws Exception {
+        for (Direction direction : Direction.values()) {
+            for (int a = 0; a < graph.nodeCount(); a++) {
+                final TreeSet<Integer> targets = targets(graph, a, direction);
+                for (int b = 0; b < graph.nodeCount(); b++) {
+                    final List<Integer> expected = new ArrayList<>(targets);
+                    expected.retainAll(targets(graph, b, direction));
+                    final List<Integer> actual = new ArrayList<>();
+                    graph.intersect(a, b, direction, actual::add);
+                    assertEquals(expected, actual);
+                }
+            }
+        }
+    }
+
+    private static TreeSet<Integer> targets(Graph graph, int node, Direction direction) {
+        final TreeSet<Integer> targets = new TreeSet<>();
+        graph.forEachRelationship(node, direction, (source, target, relationId) -> targets.add(target));
+        return targets;
+    }
+
+    private static List<String> relationships(Graph graph, int node, Direction direction) {
+        final List<String> relationships = new ArrayList<>();
+        graph.forEachRelationship(node, direction, (WeightedRelationshipConsumer) (source, target, relationId, weight) -> {
+            relationships.add(target + " " + relationId + " " + weight);
+            return true;
+        });
+        relationships.sort(String::compareTo);
+        return relationships;
+    }
+}
@@ -0,0 +1,64 @@
+package org.neo4j.graphalgo.core;
+
+import org.junit.BeforeClass;
+import org.junit.Test;
+import org.neo4j.graphalgo.api.Graph;
+import org.neo4j.graphdb.Direction;
+
+import java.util.Map;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * Loads reciprocal, parallel and self-loop relationships as an undirected graph.
+ */
+public final class UndirectedGraphLoaderTest extends GraphFactoryTestCase {
+
+    private static long a, b, c;
+
+    @BeforeClass
+    public static void setupGraph() {
+        final Map<String, Object> row = createGraph(
+                "CREATE (a),(b),(c)\n" +
+                "CREATE (a)-[:TYPE]->(b),\n" +
+                "  (a)-[:TYPE]->(b),\n" +
+                "  (b)-[:TYPE]->(a),\n" +
+                "  (a)-[:TYPE]->(c),\n" +
+                "  (c)-[:TYPE]->(c)\n" +
+                "RETURN id(a) AS a, id(b) AS b, id(c) AS c");
+        a = (long) row.get("a");
+        b = (long) row.get("b");
+        c = (long) row.get("c");
+    }
+
+    private final Graph graph;
+
+    public UndirectedGraphLoaderTest(
+            Class<?> graphImpl,
+            String nameIgnoredOnlyForTestName,
+            boolean compressed) {
+        super(graphImpl, nameIgnoredOnlyForTestName, compressed);
+        graph = loader().undirected().load(this.graphImpl);
+    }
+
+    @Test
+    public void shouldMergeDirectionsWithoutDuplicates() throws Exception {
+        assertNeighbours(a, b, c);
+        assertNeighbours(b, a);
+        assertNeighbours(c, a, c);
+    }
+
+    @Test
+    public void shouldIterateSameListForEveryDirection() throws Exception {
+        for (Direction direction : Direction.values()) {
+            assertEquals(2, graph.degree(graph.toMappedNodeId(a), direction));
+            assertEquals(1, graph.degree(graph.toMappedNodeId(b), direction));
+            assertEquals(2, graph.degree(graph.toMappedNodeId(c), direction));
+        }
+    }
+
+    private void assertNeighbours(long node, long... expected) {
+        assertEquals(ids(expected), neighbours(graph, node, Direction.BOTH));
+        assertEquals(expected.length, graph.degree(graph.toMappedNodeId(node), Direction.BOTH));
+    }
+}
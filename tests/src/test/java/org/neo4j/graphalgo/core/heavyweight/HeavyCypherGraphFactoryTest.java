@@ -4,14 +4,20 @@ import org.junit.AfterClass;
 import org.junit.BeforeClass;
 import org.junit.Test;
 import org.neo4j.graphalgo.api.Graph;
+import org.neo4j.graphalgo.api.GraphSetup;
+import org.neo4j.graphalgo.api.PropertyPredicate;
 import org.neo4j.graphalgo.core.GraphLoader;
 import org.neo4j.graphdb.*;
 import org.neo4j.kernel.internal.GraphDatabaseAPI;
 import org.neo4j.test.TestGraphDatabaseFactory;
 
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 import java.util.concurrent.atomic.AtomicInteger;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
 
 public class HeavyCypherGraphFactoryTest {
 
@@ -40,6 +46,15 @@ public class HeavyCypherGraphFactoryTest {
     }
 
 
+    @Test(expected = IllegalArgumentException.class)
+    public void shouldRejectPropertyPredicates() throws Exception {
+        new GraphLoader((GraphDatabaseAPI) db)
+                .withNodeStatement("MATCH (n) RETURN id(n) as id")
+                .withRelationshipStatement("MATCH (n)-[r:REL]->(m) RETURN id(n) as source, id(m) as target")
+                .withRelationshipPredicate(PropertyPredicate.exists("prop"))
+                .load(HeavyCypherGraphFactory.class);
+    }
+
     @Test
     public void testLoadCypher() throws Exception {
 
@@ -57,6 +72,72 @@ public class HeavyCypherGraphFactoryTest {
         assertEquals(2, graph.degree(graph.toMappedNodeId(id1), Direction.OUTGOING));
         assertEquals(1, graph.degree(graph.toMappedNodeId(id2), Direction.OUTGOING));
         assertEquals(0, graph.degree(graph.toMappedNodeId(id3), Direction.OUTGOING));
+        assertEquals(2, graph.degree(graph.toMappedNodeId(id3), Direction.INCOMING));
+        assertEquals(id3, graph.toOriginalNodeId(graph.toMappedNodeId(id3)));
+        AtomicInteger total = new AtomicInteger();
+        graph.forEachNode(n -> graph.weightedRelationshipIterator(n, Direction.OUTGOING).forEachRemaining(rel -> total.addAndGet((int)rel.weight)));
+        assertEquals(6,total.get());
+        AtomicInteger incomingTotal = new AtomicInteger();
+        graph.forEachNode(n -> graph.weightedRelationshipIterator(n, Direction.INCOMING).forEachRemaining(rel -> incomingTotal.addAndGet((int)rel.weight)));
+        assertEquals(6,incomingTotal.get());
+    }
+
+    @Test
+    public void testLoadBatchedCypherWithoutExecutor() throws Exception {
+        String nodes = "MATCH (n) RETURN id(n) as id";
+        String rels = "MATCH (n)-[r:REL]->(m) RETURN id(n) as source, id(m) as target, r.prop as weight " +
+                "ORDER BY id(r) SKIP $skip LIMIT $limit";
+
+        final Graph graph = new GraphLoader((GraphDatabaseAPI) db)
+                .withRelationshipWeightsFromProperty("prop", 0)
+                .withNodeStatement(nodes)
+                .withRelationshipStatement(rels)
+                .load(HeavyCypherGraphFactory.class);
+
+        assertEquals(3, graph.nodeCount());
+        assertEquals(2, graph.degree(graph.toMappedNodeId(id1), Direction.OUTGOING));
+        assertEquals(1, graph.degree(graph.toMappedNodeId(id2), Direction.OUTGOING));
+        assertEquals(2, graph.degree(graph.toMappedNodeId(id3), Direction.INCOMING));
+        AtomicInteger total = new AtomicInteger();
+        graph.forEachNode(n -> graph.weightedRelationshipIterator(n, Direction.OUTGOING).forEachRemaining(rel -> total.addAndGet((int)rel.weight)));
+        assertEquals(6,total.get());
+    }
+
+    @Test
+    public void testLoadCypherInBatches() throws Exception {
+        String nodes = "MATCH (n) RETURN id(n) as id";
+        String rels = "MATCH (n)-[r:REL]->(m) RETURN id(n) as source, id(m) as target, r.prop as weight " +
+                "ORDER BY id(r) SKIP $skip LIMIT $limit";
+        assertTrue(HeavyCypherGraphFactory.isBatched(rels));
+        assertTrue(HeavyCypherGraphFactory.isBatched("RETURN 1 SKIP {skip} LIMIT { limit }"));
+        assertFalse(HeavyCypherGraphFactory.isBatched("RETURN 1 SKIP $skipped LIMIT $limit"));
+
+        final ExecutorService pool = Executors.newFixedThreadPool(2);
+        final Graph graph;
+        try {
+            final GraphSetup setup = new GraphSetup(
+                    null,
+                    null,
+                    null,
+                    "prop",
+                    0.0,
+                    null,
+                    1.0,
+                    null,
+                    1.0,
+                    pool,
+                    nodes,
+                    rels);
+            graph = new HeavyCypherGraphFactory((GraphDatabaseAPI) db, setup).build(1);
+        } finally {
+            pool.shutdown();
+        }
+
+        assertEquals(3, graph.nodeCount());
+        assertEquals(2, graph.degree(graph.toMappedNodeId(id1), Direction.OUTGOING));
+        assertEquals(1, graph.degree(graph.toMappedNodeId(id2), Direction.OUTGOING));
+        assertEquals(0, graph.degree(graph.toMappedNodeId(id3), Direction.OUTGOING));
+        assertEquals(1, graph.degree(graph.toMappedNodeId(id2), Direction.INCOMING));
         AtomicInteger total = new AtomicInteger();
         graph.forEachNode(n -> graph.weightedRelationshipIterator(n, Direction.OUTGOING).forEachRemaining(rel -> total.addAndGet((int)rel.weight)));
         assertEquals(6,total.get());
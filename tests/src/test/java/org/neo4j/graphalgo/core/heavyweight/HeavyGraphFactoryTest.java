@@ -15,6 +15,7 @@ import org.neo4j.kernel.internal.GraphDatabaseAPI;
 import org.neo4j.test.TestGraphDatabaseFactory;
 
 import static org.junit.Assert.assertEquals;
+import static org.mockito.Matchers.anyDouble;
 import static org.mockito.Matchers.anyInt;
 import static org.mockito.Matchers.anyLong;
 import static org.mockito.Matchers.eq;
@@ -139,4 +140,42 @@ public class HeavyGraphFactoryTest {
                 .accept(eq(graph.toMappedNodeId(id1)), eq(graph.toMappedNodeId(id2)), anyLong(), eq(1.0));
     }
 
+    @Test
+    public void testWithoutRelationshipIds() throws Exception {
+        final Graph graph = new GraphLoader((GraphDatabaseAPI) db)
+                .withAnyLabel()
+                .withAnyRelationshipType()
+                .withoutRelationshipWeights()
+                .withoutRelationshipIds()
+                .load(HeavyGraphFactory.class);
+
+        graph.forEachRelationship(graph.toMappedNodeId(id1), Direction.OUTGOING, relationConsumer);
+        verify(relationConsumer, times(1)).accept(eq(graph.toMappedNodeId(id1)), eq(graph.toMappedNodeId(id2)), eq(-1L));
+        verify(relationConsumer, times(1)).accept(eq(graph.toMappedNodeId(id1)), eq(graph.toMappedNodeId(id3)), eq(-1L));
+        Mockito.reset(relationConsumer);
+
+        graph.forEachRelationship(graph.toMappedNodeId(id3), Direction.INCOMING, relationConsumer);
+        verify(relationConsumer, times(2)).accept(eq(graph.toMappedNodeId(id3)), anyInt(), eq(-1L));
+        Mockito.reset(relationConsumer);
+
+        graph.relationshipIterator(graph.toMappedNodeId(id1), Direction.OUTGOING)
+                .forEachRemaining(cursor -> assertEquals(-1L, cursor.relationshipId));
+        assertEquals(2, graph.degree(graph.toMappedNodeId(id1), Direction.OUTGOING));
+    }
+
+    @Test
+    public void testWithoutRelationshipIdsKeepsIdsForWeights() throws Exception {
+        final Graph graph = new GraphLoader((GraphDatabaseAPI) db)
+                .withAnyLabel()
+                .withAnyRelationshipType()
+                .withRelationshipWeightsFromProperty("prop1", 0.0)
+                .withoutRelationshipIds()
+                .load(HeavyGraphFactory.class);
+
+        graph.forEachRelationship(graph.toMappedNodeId(id1), Direction.OUTGOING, weightedRelationConsumer);
+        verify(weightedRelationConsumer, times(1))
+                .accept(eq(graph.toMappedNodeId(id1)), eq(graph.toMappedNodeId(id2)), anyLong(), eq(1.0));
+        verify(weightedRelationConsumer, never())
+                .accept(anyInt(), anyInt(), eq(-1L), anyDouble());
+    }
 }
@@ -0,0 +1,174 @@
+package org.neo4j.graphalgo.core.heavyweight;
+
+import org.junit.AfterClass;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import org.neo4j.graphalgo.api.Graph;
+import org.neo4j.graphalgo.api.WeightedRelationshipConsumer;
+import org.neo4j.graphalgo.core.GraphLoader;
+import org.neo4j.graphdb.Direction;
+import org.neo4j.graphdb.Transaction;
+import org.neo4j.kernel.internal.GraphDatabaseAPI;
+import org.neo4j.test.TestGraphDatabaseFactory;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Filters subgraphs of a loaded graph.
+ */
+public final class HeavyGraphFilterTest {
+
+    private static GraphDatabaseAPI db;
+    private static long a, b, c, d, e;
+
+    @BeforeClass
+    public static void setupGraph() {
+        db = (GraphDatabaseAPI) new TestGraphDatabaseFactory()
+                .newImpermanentDatabaseBuilder()
+                .newGraphDatabase();
+        try (Transaction tx = db.beginTx()) {
+            final Map<String, Object> row = db.execute(
+                    "CREATE (a:City {weight: 1.0}),(b:Port {weight: 2.0}),(c:City:Port {weight: 3.0}),(d:City),(e:Port)\n" +
+                    "CREATE (a)-[:ROAD {w: 1.5}]->(b),\n" +
+                    "  (a)-[:ROAD {w: 2.5}]->(c),\n" +
+                    "  (b)-[:SEA {w: 3.5}]->(c),\n" +
+                    "  (c)-[:ROAD {w: 4.5}]->(d),\n" +
+                    "  (d)-[:SEA {w: 5.5}]->(a),\n" +
+                    "  (e)-[:SEA {w: 6.5}]->(c)\n" +
+                    "RETURN id(a) AS a, id(b) AS b, id(c) AS c, id(d) AS d, id(e) AS e").next();
+            a = (long) row.get("a");
+            b = (long) row.get("b");
+            c = (long) row.get("c");
+            d = (long) row.get("d");
+            e = (long) row.get("e");
+            tx.success();
+        }
+    }
+
+    @AfterClass
+    public static void shutdownGraph() {
+        db.shutdown();
+    }
+
+    @Test
+    public void shouldKeepTheRelationshipsOfKeptNodes() throws Exception {
+        final HeavyGraph graph = load(new GraphLoader(db));
+        final HeavyGraph subgraph = graph.filter(
+                node -> graph.toOriginalNodeId(node) != d,
+                (source, target) -> true);
+        assertEquals(4, subgraph.nodeCount());
+        assertEquals(-1, subgraph.toMappedNodeId(d));
+        for (int node = 0; node < subgraph.nodeCount(); node++) {
+            assertEquals(node, subgraph.toMappedNodeId(subgraph.toOriginalNodeId(node)));
+        }
+        assertRelationships(subgraph, a, Direction.OUTGOING, b + ":1.5", c + ":2.5");
+        assertRelationships(subgraph, a, Direction.INCOMING);
+        assertRelationships(subgraph, c, Direction.OUTGOING);
+        assertRelationships(subgraph, c, Direction.INCOMING, a + ":2.5", b + ":3.5", e + ":6.5");
+        assertEquals(3, subgraph.degree(subgraph.toMappedNodeId(c), Direction.INCOMING));
+    }
+
+    @Test
+    public void shouldFilterRelationships() throws Exception {
+        final HeavyGraph graph = load(new GraphLoader(db));
+        // the predicate receives the start and end node of each relationship
+        final HeavyGraph subgraph = graph.filter(
+                node -> true,
+                (source, target) -> graph.toOriginalNodeId(source) != a || graph.toOriginalNodeId(target) != b);
+        assertEquals(5, subgraph.nodeCount());
+        assertRelationships(subgraph, a, Direction.OUTGOING, c + ":2.5");
+        assertRelationships(subgraph, b, Direction.INCOMING);
+        assertRelationships(subgraph, a, Direction.INCOMING, d + ":5.5");
+    }
+
+    @Test
+    public void shouldKeepNodeWeightsLabelsAndTypes() throws Exception {
+        final HeavyGraph graph = load(new GraphLoader(db)
+                .withLabels("City", "Port")
+                .withRelationshipTypes("ROAD", "SEA")
+                .withNodeWeightsFromProperty("weight", 0.0));
+        final HeavyGraph subgraph = graph.filter(
+                node -> graph.toOriginalNodeId(node) != a,
+                (source, target) -> true,
+                null,
+                1);
+        final int nodeB = subgraph.toMappedNodeId(b);
+        final int nodeC = subgraph.toMappedNodeId(c);
+        final int nodeE = subgraph.toMappedNodeId(e);
+        assertEquals(2.0, subgraph.weightOf(nodeB), 0.0);
+        assertEquals(3.0, subgraph.weightOf(nodeC), 0.0);
+        assertEquals(0.0, subgraph.weightOf(nodeE), 0.0);
+        final int city = subgraph.labelMask("City");
+        assertFalse(subgraph.hasLabel(nodeB, city));
+        assertTrue(subgraph.hasLabel(nodeC, city));
+        assertTrue(subgraph.hasLabel(subgraph.toMappedNodeId(d), city));
+        assertEquals(2, subgraph.degree(nodeC, Direction.INCOMING, subgraph.typeMask("SEA")));
+        assertEquals(0, subgraph.degree(nodeC, Direction.INCOMING, subgraph.typeMask("ROAD")));
+        assertEquals(1, subgraph.degree(nodeC, Direction.OUTGOING, subgraph.typeMask("ROAD")));
+    }
+
+    @Test
+    public void shouldFilterUndirectedGraphs() throws Exception {
+        final HeavyGraph graph = load(new GraphLoader(db).undirected());
+        final HeavyGraph subgraph = graph.filter(
+                node -> graph.toOriginalNodeId(node) != e,
+                (source, target) -> {
+                    assertTrue(source < target);
+                    return true;
+                });
+        assertRelationships(subgraph, c, Direction.BOTH, a + ":2.5", b + ":3.5", d + ":4.5");
+        assertTrue(subgraph.exists(subgraph.toMappedNodeId(a), subgraph.toMappedNodeId(c), Direction.BOTH));
+    }
+
+    @Test
+    public void shouldFilterInParallel() throws Exception {
+        final HeavyGraph graph = load(new GraphLoader(db));
+        final ExecutorService pool = Executors.newFixedThreadPool(4);
+        try {
+            final HeavyGraph parallel = graph.filter(node -> node % 2 == 0, (source, target) -> true, pool, 4);
+            final HeavyGraph serial = graph.filter(node -> node % 2 == 0, (source, target) -> true);
+            assertEquals(serial.nodeCount(), parallel.nodeCount());
+            for (int node = 0; node < serial.nodeCount(); node++) {
+                final long original = serial.toOriginalNodeId(node);
+                for (Direction direction : Direction.values()) {
+                    assertEquals(relationships(serial, original, direction), relationships(parallel, original, direction));
+                }
+            }
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    private static HeavyGraph load(GraphLoader loader) {
+        return (HeavyGraph) loader
+                .withRelationshipWeightsFromProperty("w", 0.0)
+                .load(HeavyGraphFactory.class);
+    }
+
+    private static void assertRelationships(Graph graph, long node, Direction direction, String... expected) {
+        final List<String> expectedRelationships = new ArrayList<>();
+        for (String relationship : expected) {
+            expectedRelationships.add(relationship);
+        }
+        expectedRelationships.sort(String::compareTo);
+        assertEquals(expectedRelationships, relationships(graph, node, direction));
+    }
+
+    private static List<String> relationships(Graph graph, long node, Direction direction) {
+        final List<String> relationships = new ArrayList<>();
+        graph.forEachRelationship(graph.toMappedNodeId(node), direction, (WeightedRelationshipConsumer) (source, target, relationId, weight) -> {
+            relationships.add(graph.toOriginalNodeId(target) + ":" + weight);
+            return true;
+        });
+        relationships.sort(String::compareTo);
+        return relationships;
+    }
+}
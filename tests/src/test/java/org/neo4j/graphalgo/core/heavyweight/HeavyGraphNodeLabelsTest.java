@@ -0,0 +1,171 @@
+package org.neo4j.graphalgo.core.heavyweight;
+
+import org.junit.AfterClass;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import org.neo4j.graphalgo.api.Graph;
+import org.neo4j.graphalgo.api.GraphSetup;
+import org.neo4j.graphalgo.api.RelationshipConsumer;
+import org.neo4j.graphalgo.core.GraphLoader;
+import org.neo4j.graphalgo.core.leightweight.LightGraphFactory;
+import org.neo4j.graphdb.Direction;
+import org.neo4j.graphdb.Transaction;
+import org.neo4j.kernel.internal.GraphDatabaseAPI;
+import org.neo4j.test.TestGraphDatabaseFactory;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+/**
+ * Loads the nodes of several labels at once and iterates subsets of them.
+ */
+public final class HeavyGraphNodeLabelsTest {
+
+    private static GraphDatabaseAPI db;
+    private static long a, b, c;
+
+    @BeforeClass
+    public static void setupGraph() {
+        db = (GraphDatabaseAPI) new TestGraphDatabaseFactory()
+                .newImpermanentDatabaseBuilder()
+                .newGraphDatabase();
+        try (Transaction tx = db.beginTx()) {
+            final Map<String, Object> row = db.execute(
+                    "CREATE (a:City),(b:Port),(c:City:Port),(d:Other)\n" +
+                    "CREATE (a)-[:TYPE]->(b),\n" +
+                    "  (a)-[:TYPE]->(c),\n" +
+                    "  (b)-[:TYPE]->(c),\n" +
+                    "  (c)-[:TYPE]->(d),\n" +
+                    "  (d)-[:TYPE]->(a)\n" +
+                    "RETURN id(a) AS a, id(b) AS b, id(c) AS c").next();
+            a = (long) row.get("a");
+            b = (long) row.get("b");
+            c = (long) row.get("c");
+            tx.success();
+        }
+    }
+
+    @AfterClass
+    public static void shutdownGraph() {
+        db.shutdown();
+    }
+
+    @Test
+    public void shouldIterateNodesOfSelectedLabels() throws Exception {
+        final HeavyGraph graph = load(new GraphLoader(db).withLabels("City", "Port"));
+        assertSelectedLabels(graph);
+        assertFalse(graph.relationshipIterator(graph.toMappedNodeId(c), Direction.OUTGOING).hasNext());
+    }
+
+    @Test
+    public void shouldLoadLabelsInParallel() throws Exception {
+        final ExecutorService pool = Executors.newFixedThreadPool(2);
+        try {
+            final GraphSetup setup = new GraphSetup(
+                    "City|Port",
+                    null,
+                    null,
+                    null,
+                    1.0,
+                    null,
+                    1.0,
+                    null,
+                    1.0,
+                    pool,
+                    null,
+                    null);
+            assertSelectedLabels((HeavyGraph) new HeavyGraphFactory(db, setup).build(1));
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    @Test
+    public void shouldSkipLabelsThatDoNotExist() throws Exception {
+        final HeavyGraph graph = load(new GraphLoader(db).withLabels("City", "Unknown"));
+        assertEquals(2, graph.nodeCount());
+        assertEquals(Arrays.<Long>asList(), nodes(graph, graph.labelMask("Unknown")));
+        assertEquals(Arrays.asList(a, c), nodes(graph, graph.labelMask("City", "Unknown")));
+    }
+
+    @Test
+    public void shouldSelectEveryNodeOfSingleLabel() throws Exception {
+        final HeavyGraph graph = load(new GraphLoader(db).withLabel("Port"));
+        assertArrayEquals(new String[]{"Port"}, graph.nodeLabels());
+        assertEquals(Arrays.asList(b, c), nodes(graph, graph.labelMask("Port")));
+    }
+
+    @Test
+    public void shouldRejectLabelsThatHaveNotBeenLoaded() throws Exception {
+        final HeavyGraph graph = load(new GraphLoader(db).withLabels("City", "Port"));
+        try {
+            graph.labelMask("Other");
+            fail("expected Other to be rejected");
+        } catch (IllegalArgumentException e) {
+            assertEquals("Label 'Other' has not been loaded", e.getMessage());
+        }
+    }
+
+    @Test
+    public void shouldLoadUnionOfLabelsInLightGraph() throws Exception {
+        final Graph graph = new GraphLoader(db)
+                .withLabels("City", "Port")
+                .load(LightGraphFactory.class);
+        assertEquals(3, graph.nodeCount());
+        assertEquals(2, graph.degree(graph.toMappedNodeId(a), Direction.OUTGOING));
+        assertEquals(2, graph.degree(graph.toMappedNodeId(c), Direction.INCOMING));
+        assertEquals(0, graph.degree(graph.toMappedNodeId(c), Direction.OUTGOING));
+    }
+
+    private static void assertSelectedLabels(HeavyGraph graph) {
+        assertArrayEquals(new String[]{"City", "Port"}, graph.nodeLabels());
+        assertEquals(3, graph.nodeCount());
+
+        final int city = graph.labelMask("City");
+        final int port = graph.labelMask("Port");
+        assertEquals(Arrays.asList(a, c), nodes(graph, city));
+        assertEquals(Arrays.asList(b, c), nodes(graph, port));
+        assertEquals(Arrays.asList(a, b, c), nodes(graph, city | port));
+        assertTrue(graph.hasLabel(graph.toMappedNodeId(c), city));
+        assertFalse(graph.hasLabel(graph.toMappedNodeId(b), city));
+
+        assertEquals(Arrays.asList(b, c), neighbours(graph, a, port));
+        assertEquals(Arrays.asList(c), neighbours(graph, a, city));
+        assertEquals(Arrays.asList(c), neighbours(graph, b, city));
+    }
+
+    private static HeavyGraph load(GraphLoader loader) {
+        return (HeavyGraph) loader.load(HeavyGraphFactory.class);
+    }
+
+    private static List<Long> nodes(HeavyGraph graph, int labelMask) {
+        final List<Long> nodes = new ArrayList<>();
+        graph.forEachNode(labelMask, nodeId -> nodes.add(graph.toOriginalNodeId(nodeId)));
+        nodes.sort(Long::compare);
+        return nodes;
+    }
+
+    private static List<Long> neighbours(HeavyGraph graph, long node, int labelMask) {
+        final List<Long> neighbours = new ArrayList<>();
+        graph.forEachLabeledRelationship(
+                graph.toMappedNodeId(node),
+                Direction.OUTGOING,
+                labelMask,
+                (RelationshipConsumer) (source, target, relationId) -> {
+                    neighbours.add(graph.toOriginalNodeId(target));
+                    return true;
+                });
+        neighbours.sort(Long::compare);
+        return neighbours;
+    }
+}
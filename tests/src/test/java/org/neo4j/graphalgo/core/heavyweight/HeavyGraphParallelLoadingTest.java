@@ -7,6 +7,7 @@ import org.junit.runners.Parameterized.Parameters;
 import org.neo4j.graphalgo.api.Graph;
 import org.neo4j.graphalgo.api.GraphSetup;
 import org.neo4j.graphalgo.api.RelationshipConsumer;
+import org.neo4j.graphalgo.api.WeightedRelationshipConsumer;
 import org.neo4j.graphalgo.core.RandomGraphTestCase;
 import org.neo4j.graphdb.Direction;
 import org.neo4j.graphdb.Node;
@@ -99,6 +100,53 @@ public class HeavyGraphParallelLoadingTest extends RandomGraphTestCase {
         }
     }
 
+    @Test
+    public void shouldLoadUndirected() throws Exception {
+        final ExecutorService pool = Executors.newFixedThreadPool(3);
+        final Graph graph;
+        try {
+            final GraphSetup setup = new GraphSetup.Builder()
+                    .nodeWeight(null, 1.0)
+                    .nodeProperty(null, 1.0)
+                    .relationWeight(null, 1.0)
+                    .executor(pool)
+                    .undirected(true)
+                    .build();
+            graph = new HeavyGraphFactory(db, setup).build(batchSize);
+        } finally {
+            pool.shutdown();
+        }
+
+        try (Transaction tx = db.beginTx()) {
+            graph.forEachNode(nodeId -> {
+                final Node node = db.getNodeById(graph.toOriginalNodeId(nodeId));
+                final Set<Long> neighbours = Iterables
+                        .stream(node.getRelationships(Direction.BOTH))
+                        .map(rel -> rel.getOtherNode(node).getId())
+                        .collect(Collectors.toSet());
+                assertEquals(neighbours.size(), graph.degree(nodeId, Direction.BOTH));
+                final int[] previousTarget = {-1};
+                graph.forEachRelationship(
+                        nodeId,
+                        Direction.BOTH,
+                        (RelationshipConsumer) (sourceId, targetId, relationId) -> {
+                            assertTrue(previousTarget[0] < targetId);
+                            previousTarget[0] = targetId;
+                            final Relationship relationship = db.getRelationshipById(relationId);
+                            assertEquals(
+                                    relationship.getOtherNode(node).getId(),
+                                    graph.toOriginalNodeId(targetId));
+                            assertTrue(neighbours.remove(graph.toOriginalNodeId(targetId)));
+                            return true;
+                        });
+                assertTrue(
+                        "Neighbours that were not traversed " + neighbours,
+                        neighbours.isEmpty());
+            });
+            tx.success();
+        }
+    }
+
     @Test
     public void shouldLoadAllRelationships() throws Exception {
         try (Transaction tx = db.beginTx()) {
@@ -107,6 +155,45 @@ public class HeavyGraphParallelLoadingTest extends RandomGraphTestCase {
         }
     }
 
+    @Test
+    public void shouldLoadRelationshipWeights() throws Exception {
+        final ExecutorService pool = Executors.newFixedThreadPool(3);
+        final Graph graph;
+        try {
+            final GraphSetup setup = new GraphSetup(
+                    null,
+                    null,
+                    null,
+                    "weight",
+                    0.0,
+                    null,
+                    1.0,
+                    null,
+                    1.0,
+                    pool,
+                    null,
+                    null);
+            graph = new HeavyGraphFactory(db, setup).build(batchSize);
+        } finally {
+            pool.shutdown();
+        }
+
+        try (Transaction tx = db.beginTx()) {
+            graph.forEachNode(nodeId -> graph.forEachRelationship(
+                    nodeId,
+                    Direction.OUTGOING,
+                    (WeightedRelationshipConsumer) (sourceId, targetId, relationId, weight) -> {
+                        final Relationship relationship = db.getRelationshipById(relationId);
+                        assertEquals(
+                                ((Number) relationship.getProperty("weight")).doubleValue(),
+                                weight,
+                                1e-4);
+                        return true;
+                    }));
+            tx.success();
+        }
+    }
+
     @Test
     public void shouldCollectErrors() throws Exception {
         if (batchSize < NODE_COUNT) {
@@ -0,0 +1,179 @@
+package org.neo4j.graphalgo.core.heavyweight;
+
+import org.junit.AfterClass;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import org.neo4j.graphalgo.api.Graph;
+import org.neo4j.graphalgo.api.GraphSetup;
+import org.neo4j.graphalgo.api.RelationshipConsumer;
+import org.neo4j.graphalgo.api.WeightedRelationshipConsumer;
+import org.neo4j.graphalgo.core.GraphLoader;
+import org.neo4j.graphalgo.core.leightweight.LightGraphFactory;
+import org.neo4j.graphdb.Direction;
+import org.neo4j.graphdb.Transaction;
+import org.neo4j.kernel.internal.GraphDatabaseAPI;
+import org.neo4j.test.TestGraphDatabaseFactory;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.fail;
+
+/**
+ * Loads several relationship types at once and iterates subsets of them.
+ */
+public final class HeavyGraphRelationshipTypesTest {
+
+    private static GraphDatabaseAPI db;
+    private static long a, b, c, d;
+
+    @BeforeClass
+    public static void setupGraph() {
+        db = (GraphDatabaseAPI) new TestGraphDatabaseFactory()
+                .newImpermanentDatabaseBuilder()
+                .newGraphDatabase();
+        try (Transaction tx = db.beginTx()) {
+            final Map<String, Object> row = db.execute(
+                    "CREATE (a),(b),(c),(d)\n" +
+                    "CREATE (a)-[:ROAD {w:1.0}]->(b),\n" +
+                    "  (a)-[:FERRY {w:2.0}]->(c),\n" +
+                    "  (a)-[:RAIL {w:3.0}]->(d),\n" +
+                    "  (b)-[:ROAD {w:4.0}]->(a),\n" +
+                    "  (c)-[:ROAD {w:5.0}]->(a),\n" +
+                    "  (d)-[:FERRY {w:6.0}]->(a)\n" +
+                    "RETURN id(a) AS a, id(b) AS b, id(c) AS c, id(d) AS d").next();
+            a = (long) row.get("a");
+            b = (long) row.get("b");
+            c = (long) row.get("c");
+            d = (long) row.get("d");
+            tx.success();
+        }
+    }
+
+    @AfterClass
+    public static void shutdownGraph() {
+        db.shutdown();
+    }
+
+    @Test
+    public void shouldIterateSelectedTypes() throws Exception {
+        final HeavyGraph graph = load(new GraphLoader(db).withRelationshipTypes("ROAD", "FERRY", "RAIL"));
+        assertArrayEquals(new String[]{"ROAD", "FERRY", "RAIL"}, graph.relationshipTypes());
+
+        final int road = graph.typeMask("ROAD");
+        final int ferry = graph.typeMask("FERRY");
+        final int all = graph.typeMask("ROAD", "FERRY", "RAIL");
+        assertEquals(Arrays.asList(b), neighbours(graph, a, Direction.OUTGOING, road));
+        assertEquals(Arrays.asList(b, c), neighbours(graph, a, Direction.OUTGOING, road | ferry));
+        assertEquals(Arrays.asList(b, c, d), neighbours(graph, a, Direction.OUTGOING, all));
+        assertEquals(Arrays.asList(b, c), neighbours(graph, a, Direction.INCOMING, road));
+        assertEquals(Arrays.asList(b, b, c, c, d), neighbours(graph, a, Direction.BOTH, ferry | road));
+
+        final int node = graph.toMappedNodeId(a);
+        assertEquals(1, graph.degree(node, Direction.OUTGOING, road));
+        assertEquals(2, graph.degree(node, Direction.INCOMING, road));
+        assertEquals(5, graph.degree(node, Direction.BOTH, road | ferry));
+        assertEquals(6, graph.degree(node, Direction.BOTH, all));
+        assertEquals(3, graph.degree(node, Direction.OUTGOING));
+    }
+
+    @Test
+    public void shouldIterateSelectedTypesWithWeights() throws Exception {
+        final HeavyGraph graph = load(new GraphLoader(db)
+                .withRelationshipTypes("ROAD", "FERRY")
+                .withRelationshipWeightsFromProperty("w", 0.0));
+        final List<Double> weights = new ArrayList<>();
+        graph.forEachRelationship(
+                graph.toMappedNodeId(a),
+                Direction.INCOMING,
+                graph.typeMask("FERRY"),
+                (WeightedRelationshipConsumer) (source, target, relationId, weight) -> {
+                    weights.add(weight);
+                    return true;
+                });
+        assertEquals(Arrays.asList(6.0), weights);
+    }
+
+    @Test
+    public void shouldLoadTypesInParallel() throws Exception {
+        final ExecutorService pool = Executors.newFixedThreadPool(2);
+        try {
+            final GraphSetup setup = new GraphSetup(
+                    null,
+                    null,
+                    "ROAD|FERRY",
+                    null,
+                    1.0,
+                    null,
+                    1.0,
+                    null,
+                    1.0,
+                    pool,
+                    null,
+                    null);
+            final HeavyGraph graph = (HeavyGraph) new HeavyGraphFactory(db, setup).build(1);
+            assertEquals(Arrays.asList(c), neighbours(graph, a, Direction.OUTGOING, graph.typeMask("FERRY")));
+            assertEquals(Arrays.asList(a), neighbours(graph, d, Direction.OUTGOING, graph.typeMask("FERRY")));
+            assertEquals(Arrays.<Long>asList(), neighbours(graph, d, Direction.OUTGOING, graph.typeMask("ROAD")));
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    @Test
+    public void shouldMergeDirectionsPerType() throws Exception {
+        final HeavyGraph graph = load(new GraphLoader(db)
+                .withRelationshipTypes("ROAD", "FERRY")
+                .undirected());
+        final int node = graph.toMappedNodeId(a);
+        assertEquals(Arrays.asList(b, c), neighbours(graph, a, Direction.BOTH, graph.typeMask("ROAD")));
+        assertEquals(Arrays.asList(c, d), neighbours(graph, a, Direction.OUTGOING, graph.typeMask("FERRY")));
+        assertEquals(2, graph.degree(node, Direction.INCOMING, graph.typeMask("ROAD")));
+        assertEquals(4, graph.degree(node, Direction.BOTH, graph.typeMask("ROAD", "FERRY")));
+    }
+
+    @Test
+    public void shouldRejectTypesThatHaveNotBeenLoaded() throws Exception {
+        final HeavyGraph graph = load(new GraphLoader(db).withRelationshipTypes("ROAD", "FERRY"));
+        try {
+            graph.typeMask("RAIL");
+            fail("expected RAIL to be rejected");
+        } catch (IllegalArgumentException e) {
+            assertEquals("Relationship type 'RAIL' has not been loaded", e.getMessage());
+        }
+    }
+
+    @Test
+    public void shouldLoadUnionOfTypesInLightGraph() throws Exception {
+        final Graph graph = new GraphLoader(db)
+                .withRelationshipTypes("ROAD", "RAIL")
+                .load(LightGraphFactory.class);
+        assertEquals(2, graph.degree(graph.toMappedNodeId(a), Direction.OUTGOING));
+        assertEquals(2, graph.degree(graph.toMappedNodeId(a), Direction.INCOMING));
+        assertEquals(0, graph.degree(graph.toMappedNodeId(d), Direction.OUTGOING));
+    }
+
+    private static HeavyGraph load(GraphLoader loader) {
+        return (HeavyGraph) loader.load(HeavyGraphFactory.class);
+    }
+
+    private static List<Long> neighbours(HeavyGraph graph, long node, Direction direction, int typeMask) {
+        final List<Long> neighbours = new ArrayList<>();
+        graph.forEachRelationship(
+                graph.toMappedNodeId(node),
+                direction,
+                typeMask,
+                (RelationshipConsumer) (source, target, relationId) -> {
+                    neighbours.add(graph.toOriginalNodeId(target));
+                    return true;
+                });
+        neighbours.sort(Long::compare);
+        return neighbours;
+    }
+}
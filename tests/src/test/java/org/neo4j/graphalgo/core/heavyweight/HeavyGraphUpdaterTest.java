@@ -0,0 +1,223 @@
+package org.neo4j.graphalgo.core.heavyweight;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.neo4j.collection.primitive.PrimitiveIntIterator;
+import org.neo4j.graphalgo.api.Graph;
+import org.neo4j.graphalgo.api.GraphSetup;
+import org.neo4j.graphalgo.api.PropertyPredicate;
+import org.neo4j.graphalgo.api.RelationshipConsumer;
+import org.neo4j.graphalgo.api.WeightedRelationshipConsumer;
+import org.neo4j.graphalgo.core.GraphCatalog;
+import org.neo4j.graphalgo.core.GraphLoader;
+import org.neo4j.graphdb.Direction;
+import org.neo4j.graphdb.Transaction;
+import org.neo4j.kernel.internal.GraphDatabaseAPI;
+import org.neo4j.test.TestGraphDatabaseFactory;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.fail;
+
+/**
+ * Applies committed transactions to an incremental graph of the catalog.
+ */
+public final class HeavyGraphUpdaterTest {
+
+    private GraphDatabaseAPI db;
+    private GraphCatalog catalog;
+    private long a, b, c;
+
+    @Before
+    public void setupGraph() {
+        db = (GraphDatabaseAPI) new TestGraphDatabaseFactory()
+                .newImpermanentDatabaseBuilder()
+                .newGraphDatabase();
+        final Map<String, Object> row = execute(
+                "CREATE (a:Node),(b:Node),(c:Node),(:Other)\n" +
+                "CREATE (a)-[:TYPE {w:1.0}]->(b),\n" +
+                "  (b)-[:TYPE {w:2.0}]->(c),\n" +
+                "  (a)-[:OTHER]->(c)\n" +
+                "RETURN id(a) AS a, id(b) AS b, id(c) AS c");
+        a = (long) row.get("a");
+        b = (long) row.get("b");
+        c = (long) row.get("c");
+        catalog = GraphCatalog.of(db);
+    }
+
+    @After
+    public void shutdownGraph() {
+        catalog.remove("graph");
+        db.shutdown();
+    }
+
+    @Test
+    public void shouldApplyCommittedChanges() throws Exception {
+        final GraphCatalog.Entry entry = load();
+        final HeavyGraph loaded = (HeavyGraph) entry.graph();
+        assertEquals(0L, entry.version());
+        assertSame(loaded, entry.graph());
+
+        final long d = (long) execute(
+                "MATCH (a:Node),(c:Node) WHERE id(a) = {a} AND id(c) = {c}\n" +
+                "CREATE (d:Node),(:Other),(c)-[:TYPE {w:3.0}]->(d),(a)-[:OTHER]->(d)\n" +
+                "RETURN id(d) AS d").get("d");
+        execute("MATCH (:Node)-[r:TYPE {w:1.0}]->() DELETE r RETURN count(*)");
+
+        final HeavyGraph graph = (HeavyGraph) entry.graph();
+        assertEquals(1L, entry.version());
+        assertEquals(4, graph.nodeCount());
+        assertEquals(Arrays.<Long>asList(), neighbours(graph, a, Direction.OUTGOING));
+        assertEquals(Arrays.asList(d), neighbours(graph, c, Direction.OUTGOING));
+        assertEquals(Arrays.asList(c), neighbours(graph, d, Direction.INCOMING));
+        assertEquals(Arrays.asList(3.0), weights(graph, c));
+
+        // the loaded snapshot is unchanged
+        assertEquals(0L, loaded.version());
+        assertEquals(3, loaded.nodeCount());
+        assertEquals(Arrays.asList(b), neighbours(loaded, a, Direction.OUTGOING));
+        assertEquals(Arrays.<Long>asList(), neighbours(loaded, c, Direction.OUTGOING));
+        assertEquals(Arrays.asList(1.0), weights(loaded, a));
+    }
+
+    @Test
+    public void shouldDropDeletedNodes() throws Exception {
+        final GraphCatalog.Entry entry = load();
+        execute("MATCH (b:Node) WHERE id(b) = {b} DETACH DELETE b RETURN count(*)");
+
+        final HeavyGraph graph = (HeavyGraph) entry.graph();
+        assertEquals(1L, graph.version());
+        assertEquals(2, graph.nodeCount());
+        assertEquals(-1, graph.toMappedNodeId(b));
+        assertEquals(0, graph.degree(graph.toMappedNodeId(a), Direction.OUTGOING));
+        assertEquals(0, graph.degree(graph.toMappedNodeId(c), Direction.INCOMING));
+
+        // the remaining nodes have consecutive ids
+        final List<Long> nodes = new ArrayList<>();
+        final PrimitiveIntIterator iterator = graph.nodeIterator();
+        while (iterator.hasNext()) {
+            nodes.add(graph.toOriginalNodeId(iterator.next()));
+        }
+        assertEquals(Arrays.asList(a, c), nodes);
+
+        // relationships of later transactions are applied to the compacted ids
+        execute("MATCH (a:Node),(c:Node) WHERE id(a) = {a} AND id(c) = {c} CREATE (c)-[:TYPE {w:4.0}]->(a) RETURN count(*)");
+        final HeavyGraph changed = (HeavyGraph) entry.graph();
+        assertEquals(Arrays.asList(a), neighbours(changed, c, Direction.OUTGOING));
+        assertEquals(Arrays.asList(4.0), weights(changed, c));
+    }
+
+    @Test
+    public void shouldCompactPastThreshold() throws Exception {
+        final HeavyGraphUpdater updater = new HeavyGraphUpdater(db, new GraphSetup(), 2);
+        try {
+            updater.start(new GraphLoader(db).load(HeavyGraphFactory.class));
+            execute("CREATE (:Node) RETURN count(*)");
+            assertEquals(1, updater.pendingChanges());
+            assertEquals(0L, updater.version());
+            execute("CREATE (:Node) RETURN count(*)");
+            // compacted in the background
+            final long deadline = System.currentTimeMillis() + 10_000L;
+            while (updater.version() == 0L && System.currentTimeMillis() < deadline) {
+                Thread.sleep(10L);
+            }
+            assertEquals(0, updater.pendingChanges());
+            assertEquals(1L, updater.version());
+            assertEquals(6, updater.graph().nodeCount());
+        } finally {
+            updater.close();
+        }
+    }
+
+    @Test
+    public void shouldRejectUndirectedGraphs() throws Exception {
+        try {
+            catalog.load("graph", new GraphLoader(db).undirected(), HeavyGraphFactory.class, true);
+            fail("expected undirected graph to be rejected");
+        } catch (IllegalArgumentException e) {
+            assertEquals("Only directed graphs of both directions can be updated", e.getMessage());
+        }
+        assertEquals(0L, catalog.usedBytes());
+    }
+
+    @Test
+    public void shouldRejectGraphsWithoutRelationshipIds() throws Exception {
+        try {
+            catalog.load("graph", new GraphLoader(db).withoutRelationshipIds(), HeavyGraphFactory.class, true);
+            fail("expected graph without relationship ids to be rejected");
+        } catch (IllegalArgumentException e) {
+            assertEquals("Graphs loaded without relationship ids can not be updated", e.getMessage());
+        }
+        assertEquals(0L, catalog.usedBytes());
+    }
+
+    @Test
+    public void shouldRejectGraphsWithPropertyPredicates() throws Exception {
+        try {
+            catalog.load(
+                    "graph",
+                    new GraphLoader(db).withRelationshipPredicate(PropertyPredicate.exists("w")),
+                    HeavyGraphFactory.class,
+                    true);
+            fail("expected graph with predicates to be rejected");
+        } catch (IllegalArgumentException e) {
+            assertEquals("Graphs loaded with property predicates can not be updated", e.getMessage());
+        }
+        assertEquals(0L, catalog.usedBytes());
+    }
+
+    private GraphCatalog.Entry load() {
+        return catalog.load(
+                "graph",
+                new GraphLoader(db)
+                        .withLabel("Node")
+                        .withRelationshipType("TYPE")
+                        .withRelationshipWeightsFromProperty("w", 0.0),
+                HeavyGraphFactory.class,
+                true);
+    }
+
+    private Map<String, Object> execute(String query) {
+        final Map<String, Object> params = new HashMap<>();
+        params.put("a", a);
+        params.put("b", b);
+        params.put("c", c);
+        try (Transaction tx = db.beginTx()) {
+            final Map<String, Object> row = db.execute(query, params).next();
+            tx.success();
+            return row;
+        }
+    }
+
+    private static List<Long> neighbours(Graph graph, long node, Direction direction) {
+        final List<Long> neighbours = new ArrayList<>();
+        graph.forEachRelationship(
+                graph.toMappedNodeId(node),
+                direction,
+                (RelationshipConsumer) (source, target, relationId) -> {
+                    neighbours.add(graph.toOriginalNodeId(target));
+                    return true;
+                });
+        neighbours.sort(Long::compare);
+        return neighbours;
+    }
+
+    private static List<Double> weights(HeavyGraph graph, long node) {
+        final List<Double> weights = new ArrayList<>();
+        graph.forEachRelationship(
+                graph.toMappedNodeId(node),
+                Direction.OUTGOING,
+                (WeightedRelationshipConsumer) (source, target, relationId, weight) -> {
+                    weights.add(weight);
+                    return true;
+                });
+        return weights;
+    }
+}
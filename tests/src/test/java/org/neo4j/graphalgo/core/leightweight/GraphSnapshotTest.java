@@ -0,0 +1,176 @@
+package org.neo4j.graphalgo.core.leightweight;
+
+import org.junit.AfterClass;
+import org.junit.BeforeClass;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.neo4j.graphalgo.api.Graph;
+import org.neo4j.graphalgo.api.GraphSetup;
+import org.neo4j.graphalgo.api.WeightedRelationshipConsumer;
+import org.neo4j.graphalgo.core.GraphLoader;
+import org.neo4j.graphalgo.core.heavyweight.HeavyGraphFactory;
+import org.neo4j.graphdb.Direction;
+import org.neo4j.graphdb.Transaction;
+import org.neo4j.kernel.internal.GraphDatabaseAPI;
+import org.neo4j.test.TestGraphDatabaseFactory;
+
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+/**
+ * Writes loaded graphs to snapshot files and maps them again.
+ */
+public final class GraphSnapshotTest {
+
+    private static GraphDatabaseAPI db;
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @BeforeClass
+    public static void setupGraph() {
+        db = (GraphDatabaseAPI) new TestGraphDatabaseFactory()
+                .newImpermanentDatabaseBuilder()
+                .newGraphDatabase();
+        try (Transaction tx = db.beginTx()) {
+            db.execute("CREATE (a),(b),(c),(d),(e)\n" +
+                    "CREATE (a)-[:TYPE {w:1.0}]->(b),\n" +
+                    "  (a)-[:TYPE {w:2.0}]->(c),\n" +
+                    "  (b)-[:TYPE {w:3.0}]->(c),\n" +
+                    "  (c)-[:TYPE {w:4.0}]->(a),\n" +
+                    "  (c)-[:TYPE {w:5.0}]->(c),\n" +
+                    "  (d)-[:OTHER {w:6.0}]->(a)").close();
+            tx.success();
+        }
+    }
+
+    @AfterClass
+    public static void shutdownGraph() {
+        db.shutdown();
+    }
+
+    @Test
+    public void shouldReloadDirectedGraph() throws Exception {
+        final Graph graph = new GraphLoader(db)
+                .withRelationshipType("TYPE")
+                .withRelationshipWeightsFromProperty("w", 0.0)
+                .load(HeavyGraphFactory.class);
+        final GraphSnapshot snapshot = writeAndOpen(graph, setup("TYPE", "w", false, Direction.BOTH));
+
+        final Graph reloaded = snapshot.graph();
+        assertSameGraph(graph, reloaded, Direction.OUTGOING);
+        assertSameGraph(graph, reloaded, Direction.INCOMING);
+        assertSameGraph(graph, reloaded, Direction.BOTH);
+        assertEquals("TYPE", snapshot.setup().relationshipType);
+        assertEquals("w", snapshot.setup().relationWeightPropertyName);
+        assertEquals(Direction.BOTH, snapshot.setup().direction);
+    }
+
+    @Test
+    public void shouldReloadUndirectedGraph() throws Exception {
+        final Graph graph = new GraphLoader(db)
+                .undirected()
+                .load(LightGraphFactory.class);
+        final GraphSnapshot snapshot = writeAndOpen(graph, setup(null, null, true, Direction.BOTH));
+
+        assertSameGraph(graph, snapshot.graph(), Direction.OUTGOING);
+        assertSameGraph(graph, snapshot.graph(), Direction.BOTH);
+        assertTrue(snapshot.setup().undirected);
+    }
+
+    @Test
+    public void shouldReloadSingleDirection() throws Exception {
+        final Graph graph = new GraphLoader(db)
+                .withDirection(Direction.INCOMING)
+                .load(LightGraphFactory.class);
+        final GraphSnapshot snapshot = writeAndOpen(graph, setup(null, null, false, Direction.INCOMING));
+
+        assertSameGraph(graph, snapshot.graph(), Direction.INCOMING);
+        assertEquals(Direction.INCOMING, snapshot.setup().direction);
+    }
+
+    @Test
+    public void shouldDetectCorruptSections() throws Exception {
+        final Graph graph = new GraphLoader(db).load(HeavyGraphFactory.class);
+        final Path file = folder.newFile().toPath();
+        final long bytes = GraphSnapshot.write(graph, setup(null, null, false, Direction.BOTH), file);
+        assertEquals(bytes, file.toFile().length());
+        assertEquals(0L, bytes % GraphSnapshot.PAGE_SIZE);
+
+        try (RandomAccessFile raf = new RandomAccessFile(file.toFile(), "rw")) {
+            // the first value of the node ids
+            raf.seek(GraphSnapshot.PAGE_SIZE);
+            raf.write(raf.read() + 1);
+        }
+        try {
+            GraphSnapshot.open(file, true);
+            fail("expected the corrupt node ids to be detected");
+        } catch (IOException e) {
+            assertTrue(e.getMessage(), e.getMessage().startsWith("Section 'nodeIds'"));
+        }
+        assertEquals(graph.nodeCount(), GraphSnapshot.open(file, false).graph().nodeCount());
+    }
+
+    @Test
+    public void shouldRejectOtherFiles() throws Exception {
+        final Path file = folder.newFile().toPath();
+        try (RandomAccessFile raf = new RandomAccessFile(file.toFile(), "rw")) {
+            raf.setLength(GraphSnapshot.PAGE_SIZE);
+        }
+        try {
+            GraphSnapshot.open(file, true);
+            fail("expected the file to be rejected");
+        } catch (IOException e) {
+            assertEquals(file + " is no graph snapshot", e.getMessage());
+        }
+    }
+
+    private GraphSnapshot writeAndOpen(Graph graph, GraphSetup setup) throws IOException {
+        final Path file = folder.newFile().toPath();
+        GraphSnapshot.write(graph, setup, file);
+        return GraphSnapshot.open(file, true);
+    }
+
+    private static GraphSetup setup(String type, String weightProperty, boolean undirected, Direction direction) {
+        return new GraphSetup.Builder()
+                .relationshipType(type)
+                .relationWeight(weightProperty, 0.0)
+                .nodeWeight(null, 1.0)
+                .nodeProperty(null, 1.0)
+                .undirected(undirected)
+                .direction(direction)
+                .build();
+    }
+
+    private static void assertSameGraph(Graph expected, Graph actual, Direction direction) {
+        assertEquals(expected.nodeCount(), actual.nodeCount());
+        for (int node = 0; node < expected.nodeCount(); node++) {
+            final long nodeId = expected.toOriginalNodeId(node);
+            assertEquals(nodeId, actual.toOriginalNodeId(node));
+            assertEquals(node, actual.toMappedNodeId(nodeId));
+            assertEquals(expected.degree(node, direction), actual.degree(node, direction));
+            assertEquals(relationships(expected, node, direction), relationships(actual, node, direction));
+        }
+    }
+
+    private static List<String> relationships(Graph graph, int node, Direction direction) {
+        final List<String> relationships = new ArrayList<>();
+        graph.forEachRelationship(
+                node,
+                direction,
+                (WeightedRelationshipConsumer) (source, target, relationId, weight) -> {
+                    relationships.add(source + "->" + target + " #" + relationId + " " + weight);
+                    return true;
+                });
+        relationships.sort(String::compareTo);
+        return relationships;
+    }
+}
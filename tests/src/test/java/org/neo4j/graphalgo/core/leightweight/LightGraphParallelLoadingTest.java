@@ -0,0 +1,225 @@
+package org.neo4j.graphalgo.core.leightweight;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.Parameterized;
+import org.junit.runners.Parameterized.Parameters;
+import org.neo4j.graphalgo.api.Graph;
+import org.neo4j.graphalgo.api.GraphSetup;
+import org.neo4j.graphalgo.api.WeightedRelationshipConsumer;
+import org.neo4j.graphalgo.core.RandomGraphTestCase;
+import org.neo4j.graphalgo.core.utils.OffHeapPages;
+import org.neo4j.graphdb.Direction;
+import org.neo4j.graphdb.Node;
+import org.neo4j.graphdb.Relationship;
+import org.neo4j.graphdb.Transaction;
+import org.neo4j.helpers.collection.Iterables;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+
+@RunWith(Parameterized.class)
+public class LightGraphParallelLoadingTest extends RandomGraphTestCase {
+
+    @Parameters(name = "batchSize={0}, compressed={1}, storage={2}")
+    public static Collection<Object[]> data() {
+        return Arrays.asList(
+                new Object[]{7, false, "heap"},
+                new Object[]{30, false, "heap"},
+                new Object[]{1000, false, "heap"},
+                new Object[]{7, true, "heap"},
+                new Object[]{30, true, "heap"},
+                new Object[]{1000, true, "heap"},
+                new Object[]{7, false, "direct"},
+                new Object[]{1000, false, "direct"},
+                new Object[]{7, false, "mapped"},
+                new Object[]{1000, false, "mapped"}
+        );
+    }
+
+    private final int batchSize;
+    private final boolean compressed;
+    private final String storage;
+    private Graph graph;
+
+    public LightGraphParallelLoadingTest(
+            int batchSize,
+            boolean compressed,
+            String storage) throws IOException {
+        this.batchSize = batchSize;
+        this.compressed = compressed;
+        this.storage = storage;
+        try {
+            graph = load(false);
+        } catch (Exception e) {
+            markFailure();
+            throw e;
+        }
+    }
+
+    private Graph load(boolean undirected) throws IOException {
+        return load(undirected, Direction.BOTH);
+    }
+
+    private Graph load(boolean undirected, Direction direction) throws IOException {
+        final ExecutorService pool = Executors.newFixedThreadPool(3);
+        try {
+            final GraphSetup setup = new GraphSetup.Builder()
+                    .relationWeight("weight", 0.0)
+                    .nodeWeight(null, 1.0)
+                    .nodeProperty(null, 1.0)
+                    .executor(pool)
+                    .compressAdjacency(compressed)
+                    .offHeapPages(offHeapPages(storage))
+                    .undirected(undirected)
+                    .direction(direction)
+                    .loadOppositeDegrees(true)
+                    .build();
+            return new LightGraphFactory(db, setup).build(batchSize);
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    private static OffHeapPages offHeapPages(String storage) throws IOException {
+        switch (storage) {
+            case "direct":
+                return OffHeapPages.direct();
+            case "mapped":
+                final File file = File.createTempFile("lightgraph", ".pages");
+                file.deleteOnExit();
+                return OffHeapPages.mapped(file.toPath());
+            default:
+                return null;
+        }
+    }
+
+    @Test
+    public void shouldLoadAllNodes() throws Exception {
+        assertEquals(NODE_COUNT, graph.nodeCount());
+        graph.forEachNode(nodeId -> assertEquals(
+                nodeId,
+                graph.toMappedNodeId(graph.toOriginalNodeId(nodeId))));
+    }
+
+    @Test
+    public void shouldLoadAllRelationships() throws Exception {
+        try (Transaction tx = db.beginTx()) {
+            graph.forEachNode(nodeId -> {
+                testRelationships(graph, nodeId, Direction.OUTGOING);
+                testRelationships(graph, nodeId, Direction.INCOMING);
+            });
+            tx.success();
+        }
+    }
+
+    @Test
+    public void shouldLoadUndirected() throws Exception {
+        final Graph undirected = load(true);
+        try (Transaction tx = db.beginTx()) {
+            undirected.forEachNode(nodeId -> {
+                final Node node = db.getNodeById(undirected.toOriginalNodeId(nodeId));
+                final Set<Long> neighbours = Iterables
+                        .stream(node.getRelationships(Direction.BOTH))
+                        .map(rel -> rel.getOtherNode(node).getId())
+                        .collect(Collectors.toSet());
+                assertEquals(neighbours.size(), undirected.degree(nodeId, Direction.BOTH));
+                final int[] previousTarget = {-1};
+                undirected.forEachRelationship(
+                        nodeId,
+                        Direction.BOTH,
+                        (WeightedRelationshipConsumer) (sourceId, targetId, relationId, weight) -> {
+                            assertTrue(
+                                    "Merged relationships are not sorted and distinct",
+                                    previousTarget[0] < targetId);
+                            previousTarget[0] = targetId;
+                            assertTrue(neighbours.remove(undirected.toOriginalNodeId(targetId)));
+                            final Relationship relationship = db.getRelationshipById(relationId);
+                            assertEquals(
+                                    ((Number) relationship.getProperty("weight")).doubleValue(),
+                                    weight,
+                                    1e-4);
+                            return true;
+                        });
+                assertTrue(
+                        "Neighbours that were not traversed " + neighbours,
+                        neighbours.isEmpty());
+            });
+            tx.success();
+        }
+    }
+
+    @Test
+    public void shouldLoadSingleDirection() throws Exception {
+        final Graph incoming = load(false, Direction.INCOMING);
+        try (Transaction tx = db.beginTx()) {
+            incoming.forEachNode(nodeId -> {
+                testRelationships(incoming, nodeId, Direction.INCOMING);
+                final Node node = db.getNodeById(incoming.toOriginalNodeId(nodeId));
+                assertEquals(node.getDegree(Direction.OUTGOING), incoming.degree(nodeId, Direction.OUTGOING));
+                incoming.forEachRelationship(nodeId, Direction.OUTGOING, (WeightedRelationshipConsumer) (s, t, r, w) -> {
+                    throw new AssertionError("outgoing relationships are not loaded");
+                });
+            });
+            tx.success();
+        }
+    }
+
+    private void testRelationships(Graph graph, int nodeId, final Direction direction) {
+        final Node node = db.getNodeById(graph.toOriginalNodeId(nodeId));
+        final Map<Long, Relationship> relationships = Iterables
+                .stream(node.getRelationships(direction))
+                .collect(Collectors.toMap(
+                        Relationship::getId,
+                        Function.identity()));
+        assertEquals(relationships.size(), graph.degree(nodeId, direction));
+        final int[] previousTarget = {-1};
+        graph.forEachRelationship(
+                nodeId,
+                direction,
+                (WeightedRelationshipConsumer) (sourceId, targetId, relationId, weight) -> {
+                    assertEquals(nodeId, sourceId);
+                    if (compressed) {
+                        assertTrue(
+                                "Compressed relationships are not sorted",
+                                previousTarget[0] <= targetId);
+                        previousTarget[0] = targetId;
+                    }
+                    final Relationship relationship = relationships.remove(relationId);
+                    assertNotNull(
+                            "Relation that does not exist in the graph",
+                            relationship);
+                    assertEquals(
+                            relationship.getOtherNode(node).getId(),
+                            graph.toOriginalNodeId(targetId));
+                    assertEquals(
+                            ((Number) relationship.getProperty("weight")).doubleValue(),
+                            weight,
+                            1e-4);
+                    return true;
+                });
+
+        assertTrue(
+                "Relationships that were not traversed " + relationships,
+                relationships.isEmpty());
+
+        final int[] iterated = {0};
+        graph.weightedRelationshipIterator(nodeId, direction).forEachRemaining(cursor -> {
+            assertEquals(nodeId, cursor.sourceNodeId);
+            iterated[0]++;
+        });
+        assertEquals(graph.degree(nodeId, direction), iterated[0]);
+    }
+}
@@ -0,0 +1,123 @@
+package org.neo4j.graphalgo.core.leightweight;
+
+import org.junit.AfterClass;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import org.neo4j.graphalgo.api.Graph;
+import org.neo4j.graphalgo.api.RelationshipCursor;
+import org.neo4j.graphalgo.api.WeightedRelationshipConsumer;
+import org.neo4j.graphalgo.core.GraphLoader;
+import org.neo4j.graphdb.Direction;
+import org.neo4j.graphdb.Node;
+import org.neo4j.graphdb.Relationship;
+import org.neo4j.graphdb.RelationshipType;
+import org.neo4j.graphdb.Transaction;
+import org.neo4j.kernel.internal.GraphDatabaseAPI;
+import org.neo4j.test.TestGraphDatabaseFactory;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+
+/**
+ * Loads a star whose adjacency spans several pages of the {@link IntArray}.
+ */
+public class LightGraphRelationshipIdsTest {
+
+    private static final int LEAVES = 5000;
+
+    private static GraphDatabaseAPI db;
+    private static long center;
+    private static final Map<Long, Relationship> relationships = new HashMap<>();
+
+    @BeforeClass
+    public static void setupGraph() {
+        db = (GraphDatabaseAPI) new TestGraphDatabaseFactory()
+                .newImpermanentDatabaseBuilder()
+                .newGraphDatabase();
+        final RelationshipType type = RelationshipType.withName("TYPE");
+        try (Transaction tx = db.beginTx()) {
+            final Node node = db.createNode();
+            center = node.getId();
+            for (int i = 0; i < LEAVES; i++) {
+                final Relationship rel = node.createRelationshipTo(db.createNode(), type);
+                rel.setProperty("weight", (double) i);
+                relationships.put(rel.getId(), rel);
+            }
+            tx.success();
+        }
+    }
+
+    @AfterClass
+    public static void shutdownGraph() {
+        db.shutdown();
+    }
+
+    @Test
+    public void shouldReadRelationshipIdsAndWeightsBeyondFirstPage() throws Exception {
+        final Graph graph = new GraphLoader(db)
+                .withRelationshipWeightsFromProperty("weight", 0.0)
+                .load(LightGraphFactory.class);
+        final int node = graph.toMappedNodeId(center);
+        final int[] count = {0};
+
+        try (Transaction tx = db.beginTx()) {
+            graph.forEachRelationship(
+                    node,
+                    Direction.OUTGOING,
+                    (WeightedRelationshipConsumer) (source, target, relationId, weight) -> {
+                        final Relationship rel = relationships.get(relationId);
+                        assertNotNull("unknown relationship " + relationId, rel);
+                        assertEquals(
+                                rel.getEndNode().getId(),
+                                graph.toOriginalNodeId(target));
+                        assertEquals((double) rel.getProperty("weight"), weight, 1e-4);
+                        count[0]++;
+                        return true;
+                    });
+            tx.success();
+        }
+        assertEquals(LEAVES, count[0]);
+    }
+
+    @Test
+    public void shouldReadFloatWeights() throws Exception {
+        final Graph graph = new GraphLoader(db)
+                .withRelationshipWeightsFromProperty("weight", 0.0)
+                .withFloatRelationshipWeights()
+                .load(LightGraphFactory.class);
+        final int node = graph.toMappedNodeId(center);
+        final double[] sum = {0.0};
+
+        graph.forEachRelationship(
+                node,
+                Direction.OUTGOING,
+                (WeightedRelationshipConsumer) (source, target, relationId, weight) -> {
+                    sum[0] += weight;
+                    return true;
+                });
+        assertEquals(LEAVES * (LEAVES - 1) / 2.0, sum[0], 1e-4);
+    }
+
+    @Test
+    public void shouldReportMissingRelationshipIds() throws Exception {
+        final Graph graph = new GraphLoader(db)
+                .withoutRelationshipIds()
+                .load(LightGraphFactory.class);
+        final int node = graph.toMappedNodeId(center);
+        final int[] count = {0};
+
+        graph.forEachRelationship(node, Direction.OUTGOING, (source, target, relationId) -> {
+            assertEquals(-1L, relationId);
+            count[0]++;
+            return true;
+        });
+        assertEquals(LEAVES, count[0]);
+
+        graph.relationshipIterator(node, Direction.OUTGOING).forEachRemaining(
+                (RelationshipCursor cursor) -> assertEquals(-1L, cursor.relationshipId));
+        assertEquals(LEAVES, graph.degree(node, Direction.OUTGOING));
+    }
+}
@@ -0,0 +1,91 @@
+package org.neo4j.graphalgo.core.neo4jview;
+
+import org.junit.AfterClass;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import org.neo4j.graphalgo.SimpleGraphSetup;
+import org.neo4j.graphalgo.SimpleGraphTestCase;
+import org.neo4j.graphalgo.api.WeightedRelationshipConsumer;
+import org.neo4j.graphalgo.core.GraphLoader;
+import org.neo4j.graphdb.Direction;
+import org.neo4j.kernel.internal.GraphDatabaseAPI;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.fail;
+
+/**
+ * Runs the graph tests against a view that binds one statement per thread.
+ */
+public class BoundGraphViewTest extends SimpleGraphTestCase {
+
+    private static GraphDatabaseAPI api;
+    private static GraphView view;
+
+    @BeforeClass
+    public static void setupGraph() {
+        final SimpleGraphSetup setup = new SimpleGraphSetup();
+        api = (GraphDatabaseAPI) setup.getDb();
+        view = load();
+        graph = view;
+        v0 = 0;
+        v1 = 1;
+        v2 = 2;
+    }
+
+    @AfterClass
+    public static void closeView() {
+        view.close();
+    }
+
+    @Test
+    public void testWeightedForEachFromWorkerThreads() throws Exception {
+        final ExecutorService pool = Executors.newFixedThreadPool(4);
+        try {
+            final List<Future<Double>> sums = new ArrayList<>();
+            for (int i = 0; i < 16; i++) {
+                sums.add(pool.submit(() -> weightSum(v0) + weightSum(v1) + weightSum(v2)));
+            }
+            for (Future<Double> sum : sums) {
+                assertEquals(6.0, sum.get(), 0.0);
+            }
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    @Test
+    public void testClosedViewRejectsReads() throws Exception {
+        final GraphView closed = load();
+        closed.close();
+        try {
+            closed.degree(v0, Direction.OUTGOING);
+            fail("expected the closed view to reject reads");
+        } catch (IllegalStateException e) {
+            assertEquals("The view has been closed", e.getMessage());
+        }
+    }
+
+    private static GraphView load() {
+        return (GraphView) new GraphLoader(api)
+                .withLabel(LABEL)
+                .withRelationshipType(RELATION)
+                .withRelationshipWeightsFromProperty(WEIGHT_PROPERTY, 0.0)
+                .withBoundStatements()
+                .load(GraphViewFactory.class);
+    }
+
+    private static double weightSum(int node) {
+        final double[] sum = {0.0};
+        graph.forEachRelationship(node, Direction.OUTGOING, (WeightedRelationshipConsumer) (source, target, relationId, weight) -> {
+            sum[0] += weight;
+            return true;
+        });
+        return sum[0];
+    }
+}
@@ -2,8 +2,11 @@ package org.neo4j.graphalgo.core.neo4jview;
 
 import org.junit.BeforeClass;
 import org.junit.Ignore;
+import org.junit.Test;
 import org.neo4j.graphalgo.SimpleGraphSetup;
 import org.neo4j.graphalgo.SimpleGraphTestCase;
+import org.neo4j.graphalgo.api.PropertyPredicate;
+import org.neo4j.graphalgo.core.GraphLoader;
 import org.neo4j.graphalgo.core.leightweight.LightGraphFactory;
 import org.neo4j.kernel.internal.GraphDatabaseAPI;
 
@@ -13,12 +16,22 @@ import org.neo4j.kernel.internal.GraphDatabaseAPI;
 //@Ignore("weights faulty")
 public class GraphViewTest extends SimpleGraphTestCase {
 
+    private static GraphDatabaseAPI api;
+
     @BeforeClass
     public static void setupGraph() {
         final SimpleGraphSetup setup = new SimpleGraphSetup();
-        graph = new GraphView((GraphDatabaseAPI) setup.getDb(), LABEL, RELATION, WEIGHT_PROPERTY, 0.0);
+        api = (GraphDatabaseAPI) setup.getDb();
+        graph = new GraphView(api, LABEL, RELATION, WEIGHT_PROPERTY, 0.0);
         v0 = 0;
         v1 = 1;
         v2 = 2;
     }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void shouldRejectPropertyPredicates() throws Exception {
+        new GraphLoader(api)
+                .withNodePredicate(PropertyPredicate.exists(WEIGHT_PROPERTY))
+                .load(GraphViewFactory.class);
+    }
 }
@@ -0,0 +1,184 @@
+package org.neo4j.graphalgo.core.utils;
+
+import org.junit.AfterClass;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import org.neo4j.graphalgo.api.Graph;
+import org.neo4j.graphalgo.api.WeightedRelationshipConsumer;
+import org.neo4j.graphalgo.core.GraphLoader;
+import org.neo4j.graphalgo.core.leightweight.LightGraphFactory;
+import org.neo4j.graphdb.Direction;
+import org.neo4j.graphdb.Transaction;
+import org.neo4j.kernel.internal.GraphDatabaseAPI;
+import org.neo4j.test.TestGraphDatabaseFactory;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Relabels loaded graphs and checks that they keep their relationships.
+ */
+public final class NodeOrderTest {
+
+    private static GraphDatabaseAPI db;
+
+    @BeforeClass
+    public static void setupGraph() {
+        db = (GraphDatabaseAPI) new TestGraphDatabaseFactory()
+                .newImpermanentDatabaseBuilder()
+                .newGraphDatabase();
+        try (Transaction tx = db.beginTx()) {
+            db.execute("CREATE (a {name:'a'}),(b {name:'b'}),(c {name:'c'}),(d {name:'d'}),(e {name:'e'}),(f {name:'f'})\n" +
+                    "CREATE (a)-[:TYPE {w:1.0}]->(e),\n" +
+                    "  (b)-[:TYPE {w:2.0}]->(e),\n" +
+                    "  (c)-[:TYPE {w:3.0}]->(e),\n" +
+                    "  (e)-[:TYPE {w:4.0}]->(a),\n" +
+                    "  (d)-[:TYPE {w:5.0}]->(c),\n" +
+                    "  (e)-[:TYPE {w:6.0}]->(e)").close();
+            tx.success();
+        }
+    }
+
+    @AfterClass
+    public static void shutdownGraph() {
+        db.shutdown();
+    }
+
+    @Test
+    public void shouldKeepRelationshipsInEveryOrder() throws Exception {
+        final Graph expected = load(null).load(LightGraphFactory.class);
+        final Graph outgoing = load(null).withDirection(Direction.OUTGOING).withOppositeDegrees().load(LightGraphFactory.class);
+        final Graph undirected = load(null).undirected().load(LightGraphFactory.class);
+        for (NodeOrder order : NodeOrder.values()) {
+            assertSameGraph(order.name(), expected, load(order).load(LightGraphFactory.class));
+            assertSameGraph(order.name(), outgoing, load(order)
+                    .withDirection(Direction.OUTGOING)
+                    .withOppositeDegrees()
+                    .load(LightGraphFactory.class));
+            assertSameGraph(order.name(), undirected, load(order).undirected().load(LightGraphFactory.class));
+        }
+    }
+
+    @Test
+    public void shouldKeepRelationshipsWhenLoadedConcurrently() throws Exception {
+        final ExecutorService pool = Executors.newFixedThreadPool(2);
+        try {
+            final Graph expected = load(null).load(LightGraphFactory.class);
+            final Graph graph = load(NodeOrder.BFS).withExecutorService(pool).load(LightGraphFactory.class);
+            assertSameGraph("BFS", expected, graph);
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    @Test
+    public void shouldPlaceHighDegreesFirst() throws Exception {
+        final Graph graph = load(NodeOrder.DEGREE).load(LightGraphFactory.class);
+        assertEquals(nodeId("e"), graph.toOriginalNodeId(0));
+        for (int node = 1; node < graph.nodeCount(); node++) {
+            assertTrue(graph.degree(node - 1, Direction.BOTH) >= graph.degree(node, Direction.BOTH));
+        }
+    }
+
+    @Test
+    public void shouldVisitComponentsBreadthFirst() throws Exception {
+        final Graph graph = load(NodeOrder.BFS).load(LightGraphFactory.class);
+        // f has no relationships, the search starts there
+        assertEquals(nodeId("f"), graph.toOriginalNodeId(0));
+        // b is the first node of minimal degree of the other component
+        assertEquals(nodeId("b"), graph.toOriginalNodeId(1));
+        assertEquals(nodeId("e"), graph.toOriginalNodeId(2));
+        // the neighbours of e by ascending degree
+        assertEquals(nodeId("a"), graph.toOriginalNodeId(3));
+        assertEquals(nodeId("c"), graph.toOriginalNodeId(4));
+        assertEquals(nodeId("d"), graph.toOriginalNodeId(5));
+    }
+
+    @Test
+    public void shouldPlaceUnconnectedNodesLastOnTheHilbertCurve() throws Exception {
+        final Graph graph = load(NodeOrder.HILBERT).load(LightGraphFactory.class);
+        assertEquals(nodeId("f"), graph.toOriginalNodeId(graph.nodeCount() - 1));
+    }
+
+    @Test
+    public void shouldFollowTheHilbertCurve() throws Exception {
+        // the first order curve visits (0,0), (0,1), (1,1), (1,0)
+        assertEquals(0L, NodeOrder.hilbertIndex(2, 0, 0));
+        assertEquals(1L, NodeOrder.hilbertIndex(2, 0, 1));
+        assertEquals(2L, NodeOrder.hilbertIndex(2, 1, 1));
+        assertEquals(3L, NodeOrder.hilbertIndex(2, 1, 0));
+        // every cell is visited once and consecutive cells are adjacent
+        final int side = 8;
+        final long[][] cells = new long[side * side][];
+        for (int x = 0; x < side; x++) {
+            for (int y = 0; y < side; y++) {
+                cells[(int) NodeOrder.hilbertIndex(side, x, y)] = new long[]{x, y};
+            }
+        }
+        for (int i = 1; i < cells.length; i++) {
+            assertEquals(1L, Math.abs(cells[i][0] - cells[i - 1][0]) + Math.abs(cells[i][1] - cells[i - 1][1]));
+        }
+    }
+
+    private static GraphLoader load(NodeOrder order) {
+        return new GraphLoader(db)
+                .withRelationshipWeightsFromProperty("w", 0.0)
+                .withNodeOrder(order);
+    }
+
+    private static long nodeId(String name) {
+        try (Transaction tx = db.beginTx()) {
+            final long id = (long) db.execute("MATCH (n {name:{name}}) RETURN id(n) AS id",
+                    Collections.singletonMap("name", name)).next().get("id");
+            tx.success();
+            return id;
+        }
+    }
+
+    private static void assertSameGraph(String message, Graph expected, Graph actual) {
+        assertEquals(message, expected.nodeCount(), actual.nodeCount());
+        final Set<Long> ids = new HashSet<>();
+        for (int node = 0; node < actual.nodeCount(); node++) {
+            ids.add(actual.toOriginalNodeId(node));
+        }
+        assertEquals(message, expected.nodeCount(), ids.size());
+        for (int node = 0; node < expected.nodeCount(); node++) {
+            final long nodeId = expected.toOriginalNodeId(node);
+            final int relabelled = actual.toMappedNodeId(nodeId);
+            assertEquals(message, nodeId, actual.toOriginalNodeId(relabelled));
+            for (Direction direction : Direction.values()) {
+                assertEquals(message, expected.degree(node, direction), actual.degree(relabelled, direction));
+                assertEquals(
+                        message,
+                        relationships(expected, node, direction),
+                        relationships(actual, relabelled, direction));
+            }
+        }
+    }
+
+    private static List<String> relationships(Graph graph, int node, Direction direction) {
+        final List<String> relationships = new ArrayList<>();
+        graph.forEachRelationship(
+                node,
+                direction,
+                (WeightedRelationshipConsumer) (source, target, relationId, weight) -> {
+                    relationships.add(Arrays.toString(new Object[]{
+                            graph.toOriginalNodeId(source),
+                            graph.toOriginalNodeId(target),
+                            relationId,
+                            weight}));
+                    return true;
+                });
+        relationships.sort(String::compareTo);
+        return relationships;
+    }
+}
@@ -0,0 +1,139 @@
+package org.neo4j.graphalgo.core.utils;
+
+import org.junit.Test;
+import org.neo4j.graphalgo.api.Degrees;
+import org.neo4j.graphdb.Direction;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+public final class NodePartitionsTest {
+
+    @Test
+    public void shouldGiveAHubItsOwnPartition() throws Exception {
+        // node 10 has as many relationships as all others together
+        final Degrees degrees = (node, direction) -> node == 10 ? 99 : 0;
+        final NodePartitions partitions = NodePartitions.byDegree(degrees, 100, Direction.OUTGOING, 3);
+        assertEquals(3, partitions.size());
+        assertEquals(0, partitions.start(0));
+        assertEquals(10, partitions.end(0));
+        assertEquals(10, partitions.start(1));
+        assertEquals(11, partitions.end(1));
+        assertEquals(11, partitions.start(2));
+        assertEquals(100, partitions.end(2));
+    }
+
+    @Test
+    public void shouldIsolateAHeavyNodeInTheMiddle() throws Exception {
+        final int nodeCount = 1000;
+        final AtomicInteger calls = new AtomicInteger();
+        // node 500 costs as much as all others together
+        final NodePartitions partitions = NodePartitions.byCost(
+                nodeCount,
+                node -> {
+                    calls.incrementAndGet();
+                    return node == 500 ? nodeCount : 1L;
+                },
+                8);
+        // one pass for the total and one for the partitions, the costs are not cached
+        assertEquals(2 * nodeCount, calls.get());
+        assertCovers(partitions, nodeCount);
+        assertEquals(8, partitions.size());
+        int heavy = -1;
+        for (int partition = 0; partition < partitions.size(); partition++) {
+            if (partitions.start(partition) <= 500 && 500 < partitions.end(partition)) {
+                heavy = partition;
+            }
+        }
+        assertEquals(500, partitions.start(heavy));
+        assertEquals(501, partitions.end(heavy));
+        // the cheap nodes after the heavy one are still spread over the remaining partitions
+        for (int partition = heavy + 1; partition < partitions.size(); partition++) {
+            assertTrue(partitions.end(partition) - partitions.start(partition) <= 100);
+        }
+    }
+
+    @Test
+    public void shouldBalanceTheCost() throws Exception {
+        final int nodeCount = 10_000;
+        // a power law like distribution, the first nodes have the highest degrees
+        final Degrees degrees = (node, direction) -> nodeCount / (node + 1);
+        final NodePartitions partitions = NodePartitions.byDegree(degrees, nodeCount, Direction.BOTH, 16);
+        assertCovers(partitions, nodeCount);
+        long total = 0L;
+        long max = 0L;
+        for (int partition = 0; partition < partitions.size(); partition++) {
+            long cost = 0L;
+            for (int node = partitions.start(partition); node < partitions.end(partition); node++) {
+                cost += degrees.degree(node, Direction.BOTH) + 1L;
+            }
+            total += cost;
+            max = Math.max(max, cost);
+        }
+        // the first node alone costs more than the share of a partition
+        assertTrue(max <= Math.max(total / partitions.size() * 2, nodeCount + 1));
+        assertTrue(partitions.size() > 8);
+    }
+
+    @Test
+    public void shouldCoverTheNodes() throws Exception {
+        assertCovers(NodePartitions.byCost(0, node -> 1L, 4), 0);
+        assertCovers(NodePartitions.byCost(3, node -> 1L, 8), 3);
+        assertCovers(NodePartitions.byCost(1000, node -> 0L, 8), 1000);
+        assertCovers(NodePartitions.byCost(1000, node -> node % 7, 8), 1000);
+        assertCovers(NodePartitions.byNodeCount(1000, 30), 1000);
+        assertEquals(34, NodePartitions.byNodeCount(1000, 30).size());
+    }
+
+    @Test
+    public void shouldRunEachPartitionOnce() throws Exception {
+        final int nodeCount = 10_000;
+        final NodePartitions partitions = NodePartitions.byCost(nodeCount, node -> node % 13, 64);
+        final AtomicIntegerArray visits = new AtomicIntegerArray(nodeCount);
+        final ExecutorService pool = Executors.newFixedThreadPool(4);
+        try {
+            partitions.run(pool, 4, () -> (start, end) -> {
+                for (int node = start; node < end; node++) {
+                    visits.incrementAndGet(node);
+                }
+            });
+        } finally {
+            pool.shutdown();
+        }
+        for (int node = 0; node < nodeCount; node++) {
+            assertEquals(1, visits.get(node));
+        }
+    }
+
+    @Test
+    public void shouldRethrowErrorsOfWorkers() throws Exception {
+        final ExecutorService pool = Executors.newFixedThreadPool(2);
+        try {
+            NodePartitions.byNodeCount(100, 10).run(pool, 2, () -> (start, end) -> {
+                if (start == 50) {
+                    throw new IllegalStateException("partition " + start);
+                }
+            });
+            fail("expected the error of the worker");
+        } catch (IllegalStateException e) {
+            assertEquals("partition 50", e.getMessage());
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    private static void assertCovers(NodePartitions partitions, int nodeCount) {
+        assertEquals(0, partitions.start(0));
+        assertEquals(nodeCount, partitions.end(partitions.size() - 1));
+        for (int partition = 1; partition < partitions.size(); partition++) {
+            assertEquals(partitions.end(partition - 1), partitions.start(partition));
+            assertTrue(partitions.start(partition) < partitions.end(partition));
+        }
+    }
+}
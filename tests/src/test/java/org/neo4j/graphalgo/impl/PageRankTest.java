@@ -8,6 +8,7 @@ import org.junit.runners.Parameterized;
 import org.neo4j.graphalgo.api.Graph;
 import org.neo4j.graphalgo.api.GraphFactory;
 import org.neo4j.graphalgo.core.GraphLoader;
+import org.neo4j.graphalgo.core.heavyweight.HeavyCypherGraphFactory;
 import org.neo4j.graphalgo.core.heavyweight.HeavyGraphFactory;
 import org.neo4j.graphalgo.core.leightweight.LightGraphFactory;
 import org.neo4j.graphalgo.core.neo4jview.GraphViewFactory;
@@ -34,7 +35,8 @@ public final class PageRankTest {
         return Arrays.asList(
                 new Object[]{HeavyGraphFactory.class, "HeavyGraphFactory"},
                 new Object[]{LightGraphFactory.class, "LightGraphFactory"},
-                new Object[]{GraphViewFactory.class, "GraphViewFactory"}
+                new Object[]{GraphViewFactory.class, "GraphViewFactory"},
+                new Object[]{HeavyCypherGraphFactory.class, "HeavyCypherGraphFactory"}
         );
     }
 
@@ -125,6 +127,8 @@ public final class PageRankTest {
         final Graph graph = new GraphLoader(db)
                 .withLabel(label)
                 .withRelationshipType("TYPE1")
+                .withNodeStatement("MATCH (n:Label1) RETURN id(n) AS id")
+                .withRelationshipStatement("MATCH (n:Label1)-[:TYPE1]->(m:Label1) RETURN id(n) AS source, id(m) AS target")
                 .load(graphImpl);
 
         final double[] ranks = new PageRankAlgo(graph, graph, graph, graph, 0.85).compute(20);